@@ -35,6 +35,8 @@ public enum Group
     PAGE_CACHE_EVICTION( "PageCacheEviction" ),
     /* Page cache background eviction. */
     PAGE_CACHE_PRE_FETCHER( "PageCachePreFetcher", ExecutorServiceFactory.cachedWithDiscard(), 4 ),
+    /* Page cache background writing of dirty pages. */
+    PAGE_CACHE_WRITER( "PageCacheWriter" ),
     /** Watch out for, and report, external manipulation of store files. */
     FILE_WATCHER( "FileWatcher", ExecutorServiceFactory.unschedulable() ),
     /** Monitor and report system-wide pauses, in case they lead to service interruption. */
@@ -43,6 +45,10 @@ public enum Group
     LOG_ROTATION( "LogRotation" ),
     /** Checkpoint and store flush. */
     CHECKPOINT( "CheckPoint" ),
+    /** Forces the transaction log on behalf of committing transactions. */
+    TRANSACTION_LOG_FLUSHER( "TransactionLogFlusher" ),
+    /** Forces the transaction log for transactions committed with relaxed durability. */
+    TRANSACTION_LOG_RELAXED_FORCER( "TransactionLogRelaxedForcer" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
     STORAGE_MAINTENANCE( "StorageMaintenance" ),
     /** Index recovery cleanup. */
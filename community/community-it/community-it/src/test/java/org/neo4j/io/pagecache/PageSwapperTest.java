@@ -716,6 +716,63 @@ public abstract class PageSwapperTest
         assertThat( getInt( pageD, 0 ) ).isEqualTo( 5 );
     }
 
+    @Test
+    void readBatchMustFillPagesFromNonConsecutiveFilePages() throws Exception
+    {
+        Path file = file( "file" );
+        PageSwapperFactory factory = createSwapperFactory( getFs() );
+        PageSwapper swapper = createSwapperAndFile( factory, file, 4 );
+
+        long output = createPage( 4 );
+        for ( int filePageId = 0; filePageId < 5; filePageId++ )
+        {
+            putInt( output, 0, filePageId + 1 );
+            write( swapper, filePageId, output );
+        }
+
+        long pageA = createPage( 4 );
+        long pageB = createPage( 4 );
+        long pageC = createPage( 4 );
+        long pageD = createPage( 4 );
+        putInt( pageD, 0, -1 );
+
+        // The last page is beyond the end of the file, and must be zero filled.
+        long bytesRead = swapper.readBatch( new long[]{4, 0, 2, 7}, new long[]{pageA, pageB, pageC, pageD}, 4 );
+        assertThat( bytesRead ).isEqualTo( 3 * 4L );
+        assertThat( getInt( pageA, 0 ) ).isEqualTo( 5 );
+        assertThat( getInt( pageB, 0 ) ).isEqualTo( 1 );
+        assertThat( getInt( pageC, 0 ) ).isEqualTo( 3 );
+        assertThat( getInt( pageD, 0 ) ).isEqualTo( 0 );
+    }
+
+    @Test
+    void writeBatchMustWriteAllRuns() throws Exception
+    {
+        Path file = file( "file" );
+        PageSwapperFactory factory = createSwapperFactory( getFs() );
+        PageSwapper swapper = createSwapperAndFile( factory, file, 4 );
+
+        long[] pages = new long[5];
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            pages[i] = createPage( 4 );
+            putInt( pages[i], 0, i + 1 );
+        }
+
+        // Three runs: file pages 1-2, file page 5, and file pages 7-8.
+        long bytesWritten = swapper.writeBatch( new long[]{1, 5, 7}, new int[]{2, 3, 5}, pages, new int[]{4, 4, 4, 4, 4}, 3 );
+        assertThat( bytesWritten ).isEqualTo( 5 * 4L );
+        assertThat( swapper.getLastPageId() ).isEqualTo( 8L );
+
+        long page = createPage( 4 );
+        int[] expected = {0, 1, 2, 0, 0, 3, 0, 4, 5};
+        for ( int filePageId = 0; filePageId < expected.length; filePageId++ )
+        {
+            read( swapper, filePageId, page );
+            assertThat( getInt( page, 0 ) ).as( "file page " + filePageId ).isEqualTo( expected[filePageId] );
+        }
+    }
+
     @Test
     void positionedVectoredReadFromEmptyFileMustFillPagesWithZeros() throws Exception
     {
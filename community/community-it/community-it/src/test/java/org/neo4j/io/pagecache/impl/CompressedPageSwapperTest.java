@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageSwapperTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class CompressedPageSwapperTest extends PageSwapperTest
+{
+    private DefaultFileSystemAbstraction fileSystem;
+
+    // The pages of a compressed file can only be read with the page size they were written with.
+    private static final Set<String> DIFFERENT_PAGE_SIZE_TESTS = Set.of(
+            "positionedVectoredReadWhereLastPageExtendBeyondEndOfFileMustHaveRemainderZeroFilled",
+            "positionedVectoredReadWhereSecondLastPageExtendBeyondEndOfFileMustHaveRestZeroFilled" );
+
+    @BeforeEach
+    void setUp( TestInfo testInfo )
+    {
+        assumeFalse( DIFFERENT_PAGE_SIZE_TESTS.contains( testInfo.getTestMethod().orElseThrow().getName() ) );
+        fileSystem = new DefaultFileSystemAbstraction();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        IOUtils.closeAll( fileSystem );
+    }
+
+    @Override
+    protected PageSwapperFactory swapperFactory( FileSystemAbstraction fileSystem )
+    {
+        return new CompressedPageSwapperFactory( fileSystem, new SingleFilePageSwapperFactory( fileSystem ), file -> true );
+    }
+
+    @Override
+    protected void mkdirs( Path dir ) throws IOException
+    {
+        getFs().mkdirs( dir );
+    }
+
+    @Override
+    protected FileSystemAbstraction getFs()
+    {
+        return fileSystem;
+    }
+
+    @Test
+    void compressiblePagesMustTakeUpLessSpaceOnDisk() throws IOException
+    {
+        int pageSize = 8192;
+        Path file = testDir.file( "a" );
+        PageSwapper swapper = createSwapper( createSwapperFactory( getFs() ), file, pageSize, NO_CALLBACK, true );
+        assertThat( swapper ).isInstanceOf( CompressedPageSwapper.class );
+        long page = createPage( pageSize );
+        for ( int filePageId = 0; filePageId < 100; filePageId++ )
+        {
+            for ( int i = 0; i < pageSize; i += Integer.BYTES )
+            {
+                putInt( page, i, i % 64 == 0 ? filePageId : 0 );
+            }
+            swapper.write( filePageId, page );
+        }
+        swapper.force();
+
+        assertThat( swapper.getLastPageId() ).isEqualTo( 99 );
+        assertThat( getFs().getFileSize( file ) ).isLessThan( 100L * pageSize / 4 );
+        for ( int filePageId = 0; filePageId < 100; filePageId++ )
+        {
+            zero( page, pageSize );
+            swapper.read( filePageId, page );
+            assertThat( getInt( page, 0 ) ).isEqualTo( filePageId );
+            assertThat( getInt( page, 64 ) ).isEqualTo( filePageId );
+            assertThat( getInt( page, 4 ) ).isZero();
+        }
+    }
+
+    @Test
+    void mustNotReadPagesWithDifferentPageSize() throws IOException
+    {
+        Path file = testDir.file( "a" );
+        PageSwapperFactory factory = createSwapperFactory( getFs() );
+        PageSwapper swapper = createSwapper( factory, file, 8, NO_CALLBACK, true );
+        long page = createPage( 8 );
+        swapper.write( 0, page );
+        swapper.close();
+
+        IOException e = assertThrows( IOException.class, () -> createSwapper( factory, file, 16, NO_CALLBACK, false ) );
+        assertThat( e.getMessage() ).contains( "page size" );
+    }
+
+    @Test
+    void overwrittenPagesMustReuseTheirSlotsOnceForced() throws IOException
+    {
+        int pageSize = 8192;
+        Path file = testDir.file( "a" );
+        PageSwapper swapper = createSwapper( createSwapperFactory( getFs() ), file, pageSize, NO_CALLBACK, true );
+        long page = createPage( pageSize );
+        putInt( page, 0, 1 );
+        swapper.write( 0, page );
+        swapper.force();
+        long sizeAfterFirstWrite = ((CompressedPageSwapper) swapper).storedSize();
+
+        // The previous version of the page must be kept until the next force, so the second write goes to a new slot.
+        putInt( page, 0, 2 );
+        swapper.write( 0, page );
+        assertThat( ((CompressedPageSwapper) swapper).storedSize() ).isEqualTo( 2 * sizeAfterFirstWrite );
+        swapper.force();
+
+        // After the force, the slot of the first version is free again.
+        putInt( page, 0, 3 );
+        swapper.write( 0, page );
+        assertThat( ((CompressedPageSwapper) swapper).storedSize() ).isEqualTo( 2 * sizeAfterFirstWrite );
+        zero( page, pageSize );
+        swapper.read( 0, page );
+        assertThat( getInt( page, 0 ) ).isEqualTo( 3 );
+    }
+
+    @Test
+    void pagesMustSurviveReopening() throws IOException
+    {
+        int pageSize = 8192;
+        Path file = testDir.file( "a" );
+        PageSwapperFactory factory = createSwapperFactory( getFs() );
+        PageSwapper swapper = createSwapper( factory, file, pageSize, NO_CALLBACK, true );
+        long page = createPage( pageSize );
+        for ( int filePageId = 0; filePageId < 10; filePageId++ )
+        {
+            putInt( page, 0, filePageId );
+            swapper.write( filePageId * 2, page );
+        }
+        // Overwrite some pages, to leave free slots behind.
+        putInt( page, 0, 42 );
+        swapper.write( 4, page );
+        swapper.force();
+        swapper.close();
+
+        swapper = createSwapper( factory, file, pageSize, NO_CALLBACK, false );
+        assertThat( swapper ).isInstanceOf( CompressedPageSwapper.class );
+        assertThat( swapper.getLastPageId() ).isEqualTo( 18 );
+        for ( int filePageId = 0; filePageId < 10; filePageId++ )
+        {
+            swapper.read( filePageId * 2, page );
+            assertThat( getInt( page, 0 ) ).isEqualTo( filePageId == 2 ? 42 : filePageId );
+            swapper.read( filePageId * 2 + 1, page );
+            assertThat( getInt( page, 0 ) ).isZero();
+        }
+    }
+
+    @Test
+    void incompressiblePagesMustBeStoredAsTheyAre() throws IOException
+    {
+        int pageSize = 8192;
+        PageSwapper swapper = createSwapper( createSwapperFactory( getFs() ), testDir.file( "a" ), pageSize, NO_CALLBACK, true );
+        long page = createPage( pageSize );
+        Random random = new Random( 42 );
+        for ( int i = 0; i < pageSize; i += Integer.BYTES )
+        {
+            putInt( page, i, random.nextInt() );
+        }
+        long checksum = sumOfInts( page, pageSize );
+        assertThat( swapper.write( 0, page ) ).isEqualTo( pageSize );
+        assertThat( ((CompressedPageSwapper) swapper).storedSize() ).isEqualTo( pageSize );
+        zero( page, pageSize );
+        swapper.read( 0, page );
+        assertThat( sumOfInts( page, pageSize ) ).isEqualTo( checksum );
+    }
+
+    @Test
+    void filesWithUncompressedPagesMustNotBeCompressed() throws IOException
+    {
+        Path file = testDir.file( "a" );
+        PageSwapper raw = createSwapper( new SingleFilePageSwapperFactory( getFs() ), file, 8, NO_CALLBACK, true );
+        long page = createPage( 8 );
+        putInt( page, 0, 7 );
+        raw.write( 0, page );
+        raw.close();
+
+        PageSwapper swapper = createSwapper( createSwapperFactory( getFs() ), file, 8, NO_CALLBACK, false );
+        assertThat( swapper ).isInstanceOf( SingleFilePageSwapper.class );
+        zero( page, 8 );
+        swapper.read( 0, page );
+        assertThat( getInt( page, 0 ) ).isEqualTo( 7 );
+    }
+
+    private static void zero( long page, int pageSize )
+    {
+        UnsafeUtil.setMemory( page, pageSize, (byte) 0 );
+    }
+
+    private long sumOfInts( long page, int pageSize )
+    {
+        long sum = 0;
+        for ( int i = 0; i < pageSize; i += Integer.BYTES )
+        {
+            sum = sum * 31 + getInt( page, i );
+        }
+        return sum;
+    }
+}
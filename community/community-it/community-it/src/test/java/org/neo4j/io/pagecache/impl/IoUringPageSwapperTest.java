@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.EmptyIOController;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageSwapperTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@EnabledOnOs( OS.LINUX )
+class IoUringPageSwapperTest extends PageSwapperTest
+{
+    private DefaultFileSystemAbstraction fileSystem;
+
+    @BeforeEach
+    void setUp()
+    {
+        assumeTrue( IoUringPageSwapperFactory.isAvailable(), "io_uring is not available" );
+        fileSystem = new DefaultFileSystemAbstraction();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        IOUtils.closeAll( fileSystem );
+    }
+
+    @Override
+    protected PageSwapperFactory swapperFactory( FileSystemAbstraction fileSystem )
+    {
+        return new IoUringPageSwapperFactory( fileSystem );
+    }
+
+    @Override
+    protected void mkdirs( Path dir ) throws IOException
+    {
+        getFs().mkdirs( dir );
+    }
+
+    @Override
+    protected FileSystemAbstraction getFs()
+    {
+        return fileSystem;
+    }
+
+    @Test
+    void mustBatchOnFilesWithFileDescriptors() throws IOException
+    {
+        PageSwapper swapper = createSwapper( createSwapperFactory( getFs() ), testDir.file( "a" ), 4, NO_CALLBACK, true );
+        assertThat( swapper ).isInstanceOf( IoUringPageSwapper.class );
+        assertThat( swapper.canBatch() ).isTrue();
+    }
+
+    @Test
+    void mustNotBatchOnFilesWithoutFileDescriptors() throws IOException
+    {
+        try ( EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction() )
+        {
+            Path file = testDir.file( "a" );
+            fs.mkdirs( file.getParent() );
+            PageSwapper swapper = createSwapper( createSwapperFactory( fs ), file, 4, NO_CALLBACK, true );
+            assertThat( swapper.canBatch() ).isFalse();
+
+            long page = createPage( 4 );
+            putInt( page, 0, 42 );
+            swapper.writeBatch( new long[]{3}, new int[]{1}, new long[]{page}, new int[]{4}, 1 );
+            putInt( page, 0, 0 );
+            assertThat( swapper.readBatch( new long[]{3}, new long[]{page}, 1 ) ).isEqualTo( 4L );
+            assertThat( getInt( page, 0 ) ).isEqualTo( 42 );
+        }
+    }
+
+    @Test
+    void batchedWritesMustLetTheIOControllerRunBeforeWritingPages() throws IOException
+    {
+        AtomicInteger pageWrites = new AtomicInteger();
+        IOController controller = new EmptyIOController()
+        {
+            @Override
+            public void beforePageWrite()
+            {
+                pageWrites.incrementAndGet();
+            }
+        };
+        PageSwapper swapper = createSwapper( createSwapperFactory( getFs() ), testDir.file( "a" ), 4, NO_CALLBACK, true, false, true, controller );
+        long page = createPage( 4 );
+        putInt( page, 0, 42 );
+
+        swapper.writeBatch( new long[]{3}, new int[]{1}, new long[]{page}, new int[]{4}, 1 );
+
+        assertThat( pageWrites.get() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void batchesLargerThanTheRingMustBeSplitUp() throws IOException
+    {
+        PageSwapper swapper = createSwapper( createSwapperFactory( getFs() ), testDir.file( "a" ), 4, NO_CALLBACK, true );
+        int pageCount = 1000;
+        long[] pages = new long[pageCount];
+        long[] filePageIds = new long[pageCount];
+        int[] runEnds = new int[pageCount];
+        int[] lengths = new int[pageCount];
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            pages[i] = createPage( 4 );
+            putInt( pages[i], 0, i );
+            // Every page is a run of its own, on every other file page.
+            filePageIds[i] = i * 2L;
+            runEnds[i] = i + 1;
+            lengths[i] = 4;
+        }
+        assertThat( swapper.writeBatch( filePageIds, runEnds, pages, lengths, pageCount ) ).isEqualTo( pageCount * 4L );
+
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            putInt( pages[i], 0, -1 );
+        }
+        assertThat( swapper.readBatch( filePageIds, pages, pageCount ) ).isEqualTo( pageCount * 4L );
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            assertThat( getInt( pages[i], 0 ) ).isEqualTo( i );
+        }
+    }
+}
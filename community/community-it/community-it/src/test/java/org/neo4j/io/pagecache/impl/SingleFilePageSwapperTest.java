@@ -217,6 +217,31 @@ public class SingleFilePageSwapperTest extends PageSwapperTest
         }
     }
 
+    @Test
+    void readBatchMustReadRunsOfConsecutivePagesWithVectoredReads() throws IOException
+    {
+        byte[] bytes = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24 };
+        try ( StoreChannel channel = getFs().write( getPath() ) )
+        {
+            channel.writeAll( wrap( bytes ) );
+        }
+
+        PageSwapperFactory factory = createSwapperFactory( getFs() );
+        CountingIOController controller = new CountingIOController();
+        try ( var swapper = createSwapper( factory, getPath(), 4, null, false, false, true, controller ) )
+        {
+            long[] targets = {createPage( 4 ), createPage( 4 ), createPage( 4 ), createPage( 4 )};
+            // A run of three pages, and a single page.
+            assertEquals( 16, swapper.readBatch( new long[]{1, 2, 3, 5}, targets, 4 ) );
+            assertEquals( 5, getByte( targets[0], 0 ) );
+            assertEquals( 9, getByte( targets[1], 0 ) );
+            assertEquals( 13, getByte( targets[2], 0 ) );
+            assertEquals( 21, getByte( targets[3], 0 ) );
+            long expectedIO = getEphemeralFileSystem() == getFs() ? 4 : 2;
+            assertEquals( expectedIO, controller.getExternalIOCounter() );
+        }
+    }
+
     @Test
     void reportExternalIoOnSwapOut() throws IOException
     {
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.set.ImmutableSet;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.internal.helpers.Args;
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Compares page fault latency and memory footprint of buffered IO with that of direct IO.
+ * <p>
+ * A file that is much larger than the page cache is read at random, so nearly every access is a page fault. For each mode
+ * the latency distribution of the faults is reported, together with the memory that the page cache itself uses, and the
+ * memory that the operating system uses to cache the same file. With buffered IO the operating system ends up caching
+ * the file a second time, while with direct IO the page cache is the only copy.
+ * <p>
+ * The operating system cache of the file is dropped before each run, so both modes start out cold. Run with e.g.
+ * {@code --dir=/mnt/data --file-mb=4096 --cache-mb=512 --reads=200000}. The directory must be on a file system that supports
+ * direct IO, which rules out e.g. tmpfs.
+ */
+public final class DirectIOPageFaultBenchmark
+{
+    private DirectIOPageFaultBenchmark()
+    {
+    }
+
+    public static void main( String[] arguments ) throws Exception
+    {
+        Args args = Args.parse( arguments );
+        Path directory = Path.of( args.get( "dir", System.getProperty( "java.io.tmpdir" ) ) );
+        long fileSize = ByteUnit.mebiBytes( args.getNumber( "file-mb", 1024 ).longValue() );
+        long cacheSize = ByteUnit.mebiBytes( args.getNumber( "cache-mb", 128 ).longValue() );
+        int reads = args.getNumber( "reads", 100_000 ).intValue();
+
+        NativeAccess nativeAccess = NativeAccessProvider.getNativeAccess();
+        if ( !nativeAccess.isAvailable() )
+        {
+            System.err.println( "Native access is required to measure the operating system cache: " + nativeAccess.describe() );
+            System.exit( 1 );
+        }
+
+        PrintStream out = System.out;
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+              ThreadPoolJobScheduler jobScheduler = new ThreadPoolJobScheduler() )
+        {
+            Path file = directory.resolve( "direct-io-benchmark" );
+            try
+            {
+                createFile( fs, file, fileSize );
+                out.printf( "file: %s, file size: %d MiB, page cache size: %d MiB, random reads: %d%n",
+                        file, ByteUnit.Byte.toMebiBytes( fileSize ), ByteUnit.Byte.toMebiBytes( cacheSize ), reads );
+                out.printf( "%-10s %10s %12s %12s %12s %12s %18s %18s%n",
+                        "mode", "faults", "mean (us)", "p50 (us)", "p99 (us)", "max (us)", "page cache (MiB)", "os cache (MiB)" );
+                for ( boolean directIO : new boolean[]{false, true} )
+                {
+                    evictFromOperatingSystemCache( fs, nativeAccess, file );
+                    long[] faultLatencies = randomReads( fs, jobScheduler, file, cacheSize, reads, directIO );
+                    long osCached = cachedBytes( fs, nativeAccess, file );
+                    Arrays.sort( faultLatencies );
+                    out.printf( "%-10s %10d %12.1f %12.1f %12.1f %12.1f %18d %18d%n",
+                            directIO ? "direct" : "buffered",
+                            faultLatencies.length,
+                            micros( (long) Arrays.stream( faultLatencies ).average().orElse( 0 ) ),
+                            micros( percentile( faultLatencies, 0.5 ) ),
+                            micros( percentile( faultLatencies, 0.99 ) ),
+                            micros( percentile( faultLatencies, 1.0 ) ),
+                            ByteUnit.Byte.toMebiBytes( cacheSize ),
+                            ByteUnit.Byte.toMebiBytes( osCached ) );
+                }
+            }
+            finally
+            {
+                fs.deleteFile( file );
+            }
+        }
+    }
+
+    private static void createFile( FileSystemAbstraction fs, Path file, long fileSize ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect( (int) ByteUnit.mebiBytes( 1 ) );
+        try ( StoreChannel channel = fs.write( file ) )
+        {
+            channel.truncate( 0 );
+            long pageId = 0;
+            for ( long position = 0; position < fileSize; position += buffer.capacity() )
+            {
+                buffer.clear();
+                for ( int offset = 0; offset < buffer.capacity(); offset += PAGE_SIZE )
+                {
+                    buffer.putLong( offset, pageId++ );
+                }
+                channel.writeAll( buffer );
+            }
+            channel.force( false );
+        }
+    }
+
+    /**
+     * @return the latencies in nanoseconds of the reads that caused a page fault.
+     */
+    private static long[] randomReads( FileSystemAbstraction fs, ThreadPoolJobScheduler jobScheduler, Path file, long cacheSize, int reads,
+            boolean directIO ) throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config( (int) (cacheSize / PAGE_SIZE) ).pageCacheTracer( tracer );
+        ImmutableSet<OpenOption> openOptions = directIO ? Sets.immutable.of( PageCacheOpenOptions.DIRECT ) : Sets.immutable.empty();
+        long[] latencies = new long[reads];
+        int faults = 0;
+        try ( MuninnPageCache pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), jobScheduler, configuration );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "benchmark", openOptions );
+              CursorContext cursorContext = new CursorContext( tracer.createPageCursorTracer( "benchmark" ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorContext ) )
+        {
+            PageCursorTracer cursorTracer = cursorContext.getCursorTracer();
+            long pages = pagedFile.getLastPageId() + 1;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for ( int i = 0; i < reads; i++ )
+            {
+                long pageId = random.nextLong( pages );
+                long faultsBefore = cursorTracer.faults();
+                long start = System.nanoTime();
+                if ( !cursor.next( pageId ) )
+                {
+                    throw new IllegalStateException( "Page " + pageId + " is beyond the end of the file" );
+                }
+                long value;
+                do
+                {
+                    value = cursor.getLong( 0 );
+                }
+                while ( cursor.shouldRetry() );
+                long elapsed = System.nanoTime() - start;
+                if ( value != pageId )
+                {
+                    throw new IllegalStateException( "Unexpected content in page " + pageId + ": " + value );
+                }
+                if ( cursorTracer.faults() > faultsBefore )
+                {
+                    latencies[faults++] = elapsed;
+                }
+            }
+        }
+        return Arrays.copyOf( latencies, faults );
+    }
+
+    private static void evictFromOperatingSystemCache( FileSystemAbstraction fs, NativeAccess nativeAccess, Path file ) throws IOException
+    {
+        try ( StoreChannel channel = fs.read( file ) )
+        {
+            nativeAccess.tryEvictFromCache( fs.getFileDescriptor( channel ) );
+        }
+    }
+
+    private static long cachedBytes( FileSystemAbstraction fs, NativeAccess nativeAccess, Path file ) throws IOException
+    {
+        try ( StoreChannel channel = fs.read( file ) )
+        {
+            return nativeAccess.tryCountCachedBytes( fs.getFileDescriptor( channel ), channel.size() );
+        }
+    }
+
+    private static long percentile( long[] sortedValues, double percentile )
+    {
+        if ( sortedValues.length == 0 )
+        {
+            return 0;
+        }
+        int index = (int) Math.ceil( percentile * sortedValues.length ) - 1;
+        return sortedValues[Math.max( index, 0 )];
+    }
+
+    private static double micros( long nanos )
+    {
+        return nanos / 1000.0;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DirtyChunksTest
+{
+    @Test
+    void clearingMustReportWhetherChunkWasMarked()
+    {
+        DirtyChunks dirtyChunks = new DirtyChunks( 10 );
+        dirtyChunks.mark( 3 );
+
+        long[] bitmap = dirtyChunks.snapshot();
+        assertThat( DirtyChunks.clear( bitmap, 2 ) ).isFalse();
+        assertThat( DirtyChunks.clear( bitmap, 3 ) ).isTrue();
+        assertThat( DirtyChunks.clear( bitmap, 3 ) ).isFalse();
+    }
+
+    @Test
+    void chunksBeyondTheSnapshotMustNotBeMarked()
+    {
+        DirtyChunks dirtyChunks = new DirtyChunks( 10 );
+        assertThat( DirtyChunks.clear( dirtyChunks.snapshot(), 1000 ) ).isFalse();
+    }
+
+    @Test
+    void marksMustSurviveGrowth()
+    {
+        DirtyChunks dirtyChunks = new DirtyChunks( 10 );
+        dirtyChunks.mark( 0 );
+        dirtyChunks.mark( 63 );
+        dirtyChunks.ensureCapacity( 1000 );
+        dirtyChunks.mark( 999 );
+
+        long[] bitmap = dirtyChunks.snapshot();
+        assertThat( DirtyChunks.clear( bitmap, 0 ) ).isTrue();
+        assertThat( DirtyChunks.clear( bitmap, 63 ) ).isTrue();
+        assertThat( DirtyChunks.clear( bitmap, 64 ) ).isFalse();
+        assertThat( DirtyChunks.clear( bitmap, 999 ) ).isTrue();
+    }
+
+    @Test
+    void marksMustNotBeLostWhenGrowingConcurrently() throws Exception
+    {
+        int chunks = 4096;
+        DirtyChunks dirtyChunks = new DirtyChunks( 1 );
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            CountDownLatch start = new CountDownLatch( 1 );
+            dirtyChunks.ensureCapacity( chunks );
+            Future<?> marker = executor.submit( () ->
+            {
+                start.await();
+                for ( int chunkId = 0; chunkId < chunks; chunkId++ )
+                {
+                    dirtyChunks.mark( chunkId );
+                }
+                return null;
+            } );
+            Future<?> grower = executor.submit( () ->
+            {
+                start.await();
+                for ( int capacity = chunks; capacity < 64 * chunks; capacity += 64 )
+                {
+                    dirtyChunks.ensureCapacity( capacity );
+                }
+                return null;
+            } );
+            start.countDown();
+            marker.get();
+            grower.get();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        long[] bitmap = dirtyChunks.snapshot();
+        for ( int chunkId = 0; chunkId < chunks; chunkId++ )
+        {
+            assertThat( DirtyChunks.clear( bitmap, chunkId ) ).as( "chunk " + chunkId ).isTrue();
+        }
+    }
+}
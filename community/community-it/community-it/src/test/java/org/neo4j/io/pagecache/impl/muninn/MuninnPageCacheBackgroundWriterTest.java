@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.impl.muninn.BackgroundWriter.TICK_NANOS;
+import static org.neo4j.test.assertion.Assert.assertEventually;
+
+class MuninnPageCacheBackgroundWriterTest extends MuninnPageCacheFeatureTestSupport
+{
+    private static final int CACHE_PAGES = 500;
+    private static final int FILE_PAGES = 200;
+
+    @Test
+    void mustNotWriteAnythingWhenNoPagesAreDirty()
+    {
+        BackgroundWriter writer = new BackgroundWriter( 10 * TICK_NANOS );
+        assertThat( writer.pagesToWrite( 0, 1000, 0 ) ).isZero();
+        assertThat( writer.pagesToWrite( 0, 1000, 0 ) ).isZero();
+    }
+
+    @Test
+    void mustWriteDirtyPagesWithinHorizon()
+    {
+        BackgroundWriter writer = new BackgroundWriter( 10 * TICK_NANOS );
+
+        // 10% of the cache is dirty, which shortens the horizon to 9 ticks.
+        assertThat( writer.pagesToWrite( 100, 1000, 0 ) ).isEqualTo( 12 );
+        // Writing the same amount again, if no more pages were dirtied.
+        assertThat( writer.pagesToWrite( 88, 1000, 12 ) ).isEqualTo( 10 );
+    }
+
+    @Test
+    void mustKeepUpWithTheRateAtWhichPagesAreDirtied()
+    {
+        BackgroundWriter writer = new BackgroundWriter( 10 * TICK_NANOS );
+        assertThat( writer.pagesToWrite( 100, 1000, 0 ) ).isEqualTo( 12 );
+
+        // 100 pages were dirtied while 12 were written.
+        long pagesToWrite = writer.pagesToWrite( 188, 1000, 12 );
+        long drainOnly = new BackgroundWriter( 10 * TICK_NANOS ).pagesToWrite( 188, 1000, 0 );
+        assertThat( pagesToWrite ).isGreaterThanOrEqualTo( drainOnly + 25 );
+    }
+
+    @Test
+    void mustWriteAllDirtyPagesWhenTheWholeCacheIsDirty()
+    {
+        BackgroundWriter writer = new BackgroundWriter( 10 * TICK_NANOS );
+        assertThat( writer.pagesToWrite( 1000, 1000, 0 ) ).isEqualTo( 1000 );
+    }
+
+    @Test
+    void backgroundWriterMustWriteDirtyPagesOfAllFilesWithoutFlushing() throws Exception
+    {
+        Path fileA = testDirectory.createFile( "a" );
+        Path fileB = testDirectory.createFile( "b" );
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config( CACHE_PAGES )
+                .pageCacheTracer( tracer )
+                .disableEvictionThread()
+                .backgroundWriterHorizon( Duration.ofSeconds( 1 ) );
+        try ( MuninnPageCache pageCache = createPageCache( configuration );
+              PagedFile pagedFileA = pageCache.map( fileA, PAGE_SIZE, "db" );
+              PagedFile pagedFileB = pageCache.map( fileB, PAGE_SIZE, "db" ) )
+        {
+            writePages( pagedFileA, FILE_PAGES );
+            writePages( pagedFileB, FILE_PAGES );
+
+            assertEventually( () -> dirtyPages( pageCache ), dirtyPages -> dirtyPages == 0, 1, MINUTES );
+            assertThat( tracer.flushes() ).isGreaterThanOrEqualTo( 2 * FILE_PAGES );
+            assertThat( tracer.evictions() ).isZero();
+            verifyFileContents( fileA );
+            verifyFileContents( fileB );
+        }
+    }
+
+    @Test
+    void dirtyPagesMustStayDirtyWithoutBackgroundWriter() throws Exception
+    {
+        Path file = testDirectory.createFile( "a" );
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config( CACHE_PAGES ).pageCacheTracer( tracer ).disableEvictionThread();
+        try ( MuninnPageCache pageCache = createPageCache( configuration );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            writePages( pagedFile, FILE_PAGES );
+            Thread.sleep( 5 * TICK_NANOS / 1_000_000 );
+
+            assertThat( dirtyPages( pageCache ) ).isEqualTo( FILE_PAGES );
+            assertThat( tracer.flushes() ).isZero();
+        }
+    }
+
+    private void verifyFileContents( Path file ) throws IOException
+    {
+        // Read the file directly, to see what the background writer has written rather than what is in the cache.
+        ByteBuffer buffer = ByteBuffer.allocate( PAGE_SIZE );
+        try ( StoreChannel channel = fs.read( file ) )
+        {
+            for ( int pageId = 0; pageId < FILE_PAGES; pageId++ )
+            {
+                buffer.clear();
+                channel.position( (long) pageId * PAGE_SIZE );
+                channel.readAll( buffer );
+                assertThat( buffer.getLong( 0 ) ).isEqualTo( pageId );
+                assertThat( buffer.getLong( PAGE_SIZE - Long.BYTES ) ).isEqualTo( ~pageId );
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.set.ImmutableSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL;
+
+/**
+ * Checks that store files that are mapped with {@link PageCacheOpenOptions#DIRECT} do not also take up memory in the page
+ * cache of the operating system, which is the whole point of using direct IO.
+ */
+@EnabledOnOs( OS.LINUX )
+@TestDirectoryExtension
+class MuninnPageCacheDirectIOTest
+{
+    private static final int PAGES = 256;
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private FileSystemAbstraction fs;
+
+    private final NativeAccess nativeAccess = NativeAccessProvider.getNativeAccess();
+    private ThreadPoolJobScheduler jobScheduler;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        assumeTrue( nativeAccess.isAvailable(), nativeAccess.describe() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        file = testDirectory.createFile( "file" );
+        try ( StoreChannel channel = fs.write( file ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( PAGE_SIZE );
+            for ( int pageId = 0; pageId < PAGES; pageId++ )
+            {
+                buffer.clear();
+                buffer.putLong( 0, pageId );
+                channel.writeAll( buffer );
+            }
+            channel.force( false );
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        if ( jobScheduler != null )
+        {
+            jobScheduler.close();
+        }
+    }
+
+    @Test
+    void directIOMustNotPopulateOperatingSystemCache() throws IOException
+    {
+        long cachedBefore = evictFromOperatingSystemCache();
+        readAllPages( true );
+        assertThat( cachedBytes() ).isLessThanOrEqualTo( cachedBefore );
+    }
+
+    @Test
+    void bufferedIOMustPopulateOperatingSystemCache() throws IOException
+    {
+        long cachedBefore = evictFromOperatingSystemCache();
+        readAllPages( false );
+        assertThat( cachedBytes() ).isGreaterThan( cachedBefore );
+    }
+
+    private void readAllPages( boolean directIO ) throws IOException
+    {
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config( 2 * PAGES );
+        ImmutableSet<OpenOption> openOptions = directIO ? Sets.immutable.of( PageCacheOpenOptions.DIRECT ) : Sets.immutable.empty();
+        try ( MuninnPageCache pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), jobScheduler, configuration );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db", openOptions );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            for ( int pageId = 0; pageId < PAGES; pageId++ )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+                assertThat( cursor.getLong() ).isEqualTo( pageId );
+            }
+        }
+    }
+
+    private long evictFromOperatingSystemCache() throws IOException
+    {
+        try ( StoreChannel channel = fs.read( file ) )
+        {
+            assertThat( nativeAccess.tryEvictFromCache( fs.getFileDescriptor( channel ) ).isError() ).isFalse();
+        }
+        return cachedBytes();
+    }
+
+    private long cachedBytes() throws IOException
+    {
+        try ( StoreChannel channel = fs.read( file ) )
+        {
+            long cachedBytes = nativeAccess.tryCountCachedBytes( fs.getFileDescriptor( channel ), channel.size() );
+            assertThat( cachedBytes ).isNotEqualTo( NativeAccess.ERROR );
+            return cachedBytes;
+        }
+    }
+}
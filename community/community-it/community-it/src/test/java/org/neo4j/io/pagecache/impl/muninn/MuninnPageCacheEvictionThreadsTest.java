@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+
+class MuninnPageCacheEvictionThreadsTest extends MuninnPageCacheFeatureTestSupport
+{
+    private static final int CACHE_PAGES = 300;
+    private static final int FILE_PAGES = 2000;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        file = testDirectory.createFile( "file" );
+    }
+
+    @Test
+    void sweepersMustSliceTheirRegionIntoDisjointRanges()
+    {
+        PageCacheRegion[] regions = PageCacheRegion.split( 1000, PAGE_SIZE, 2, 30, 3, 16 );
+        for ( PageCacheRegion region : regions )
+        {
+            assertThat( region.sweepers ).hasSize( 3 );
+            int nextPageId = region.firstPageId;
+            for ( EvictionSweeper sweeper : region.sweepers )
+            {
+                assertThat( sweeper.region ).isSameAs( region );
+                assertThat( sweeper.firstPageId ).isEqualTo( nextPageId );
+                assertThat( sweeper.endPageId ).isGreaterThan( sweeper.firstPageId );
+                assertThat( sweeper.dirtyVictims ).hasSize( 16 );
+                nextPageId = sweeper.endPageId;
+            }
+            assertThat( nextPageId ).isEqualTo( region.endPageId() );
+            assertThat( region.pagesToEvictPerSweeper( 30 ) ).isEqualTo( 10 );
+            assertThat( region.pagesToEvictPerSweeper( 31 ) ).isEqualTo( 11 );
+        }
+    }
+
+    @Test
+    void mustNotHaveMoreSweepersThanPages()
+    {
+        PageCacheRegion[] regions = PageCacheRegion.split( 2, PAGE_SIZE, 1, 30, 8, 16 );
+        assertThat( regions[0].sweepers ).hasSize( 2 );
+        assertThat( regions[0].keepFree ).isEqualTo( 1 );
+    }
+
+    @Test
+    void multipleEvictionThreadsMustFlushAndEvictDirtyPages() throws Exception
+    {
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config( CACHE_PAGES ).pageCacheTracer( tracer ).evictionThreads( 4 );
+        try ( MuninnPageCache pageCache = createPageCache( configuration );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            assertThat( pageCache.regions[0].sweepers ).hasSize( 4 );
+            writePages( pagedFile, FILE_PAGES );
+
+            assertThat( tracer.evictions() ).isPositive();
+            assertThat( tracer.flushes() ).isPositive();
+            verifyPages( pagedFile, FILE_PAGES );
+        }
+    }
+
+    @Test
+    void mustCountCooperativeEvictions() throws Exception
+    {
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config( CACHE_PAGES ).pageCacheTracer( tracer ).disableEvictionThread();
+        try ( MuninnPageCache pageCache = createPageCache( configuration );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            writePages( pagedFile, FILE_PAGES );
+
+            // Without eviction threads, every page fault beyond the size of the cache must evict a page itself.
+            assertThat( tracer.cooperativeEvictions() ).isGreaterThanOrEqualTo( FILE_PAGES - CACHE_PAGES );
+            verifyPages( pagedFile, FILE_PAGES );
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.io.IOException;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL;
+
+/**
+ * Common setup and page content helpers for the tests of the individual {@link MuninnPageCache} features, that need to configure their own
+ * page cache rather than go through the {@link org.neo4j.io.pagecache.PageCacheTestSupport} fixture.
+ * <p>
+ * Pages written with {@link #writePages(PagedFile, int, int, int)} have their page id in the first long, and its complement in the last long,
+ * such that {@link #verifyPages(PagedFile, int, int, int)} notices both misplaced and torn pages.
+ */
+@TestDirectoryExtension
+abstract class MuninnPageCacheFeatureTestSupport
+{
+    @Inject
+    protected TestDirectory testDirectory;
+    @Inject
+    protected FileSystemAbstraction fs;
+
+    protected ThreadPoolJobScheduler jobScheduler;
+    protected DefaultPageCacheTracer tracer;
+
+    @BeforeEach
+    void startJobScheduler()
+    {
+        jobScheduler = new ThreadPoolJobScheduler();
+        tracer = new DefaultPageCacheTracer();
+    }
+
+    @AfterEach
+    void stopJobScheduler() throws Exception
+    {
+        jobScheduler.close();
+    }
+
+    MuninnPageCache createPageCache( MuninnPageCache.Configuration configuration )
+    {
+        return createPageCache( new SingleFilePageSwapperFactory( fs ), configuration );
+    }
+
+    MuninnPageCache createPageCache( PageSwapperFactory swapperFactory, MuninnPageCache.Configuration configuration )
+    {
+        return new MuninnPageCache( swapperFactory, jobScheduler, configuration );
+    }
+
+    static void writePages( PagedFile pagedFile, int endPageId ) throws IOException
+    {
+        writePages( pagedFile, 0, endPageId, PAGE_SIZE );
+    }
+
+    static void writePages( PagedFile pagedFile, int firstPageId, int endPageId, int pageSize ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( firstPageId, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( int pageId = firstPageId; pageId < endPageId; pageId++ )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+                cursor.putLong( 0, pageId );
+                cursor.putLong( pageSize - Long.BYTES, ~pageId );
+            }
+        }
+    }
+
+    static void verifyPages( PagedFile pagedFile, int endPageId ) throws IOException
+    {
+        verifyPages( pagedFile, 0, endPageId, PAGE_SIZE );
+    }
+
+    static void verifyPages( PagedFile pagedFile, int firstPageId, int endPageId, int pageSize ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( firstPageId, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            for ( int pageId = firstPageId; pageId < endPageId; pageId++ )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+                long first;
+                long last;
+                do
+                {
+                    first = cursor.getLong( 0 );
+                    last = cursor.getLong( pageSize - Long.BYTES );
+                }
+                while ( cursor.shouldRetry() );
+                assertThat( first ).isEqualTo( pageId );
+                assertThat( last ).isEqualTo( ~pageId );
+            }
+        }
+    }
+
+    static boolean isResident( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+        {
+            return cursor.next() && cursor.getCurrentPageId() == pageId;
+        }
+    }
+
+    static int loadedPages( MuninnPageCache pageCache )
+    {
+        int loaded = 0;
+        for ( int pageId = 0; pageId < pageCache.pages.getPageCount(); pageId++ )
+        {
+            if ( PageList.isLoaded( pageCache.pages.deref( pageId ) ) )
+            {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    static int dirtyPages( MuninnPageCache pageCache )
+    {
+        int dirty = 0;
+        for ( int pageId = 0; pageId < pageCache.pages.getPageCount(); pageId++ )
+        {
+            if ( PageList.isModified( pageCache.pages.deref( pageId ) ) )
+            {
+                dirty++;
+            }
+        }
+        return dirty;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.internal.nativeimpl.LinuxHugePages;
+import org.neo4j.io.mem.HugePageMode;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.memory.LocalMemoryTracker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+
+class MuninnPageCacheHugePagesTest extends MuninnPageCacheFeatureTestSupport
+{
+    private static final int PAGES = 1000;
+
+    private LocalMemoryTracker memoryTracker;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        assumeTrue( LinuxHugePages.isAvailable(), LinuxHugePages.describe() );
+        memoryTracker = new LocalMemoryTracker();
+        file = testDirectory.createFile( "file" );
+    }
+
+    @ParameterizedTest
+    @EnumSource( value = HugePageMode.class, names = {"TRANSPARENT", "EXPLICIT"} )
+    void pagesMustBeUsableAndHugePageBackedMemoryMustBeTraced( HugePageMode hugePageMode ) throws IOException
+    {
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( MuninnPageCache.memoryRequiredForPages( PAGES ), hugePageMode, memoryTracker );
+        try ( MuninnPageCache pageCache = createPageCache( MuninnPageCache.config( allocator ).pageCacheTracer( tracer ) ) )
+        {
+            try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+            {
+                writePages( pagedFile, PAGES );
+                verifyPages( pagedFile, PAGES );
+            }
+
+            // Every page buffer has been initialised, so the tracer must have seen all the huge page backed memory the allocator measured.
+            assertThat( tracer.hugePageBackedBytes() ).isEqualTo( allocator.hugePageBackedMemory() );
+            assertThat( tracer.hugePageBackedBytes() ).isBetween( 0L, memoryTracker.usedNativeMemory() );
+        }
+        finally
+        {
+            allocator.close();
+        }
+        assertThat( memoryTracker.usedNativeMemory() ).isZero();
+    }
+}
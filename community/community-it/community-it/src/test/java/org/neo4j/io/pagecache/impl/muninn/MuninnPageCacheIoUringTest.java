@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.IoUringPageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL;
+
+@EnabledOnOs( OS.LINUX )
+class MuninnPageCacheIoUringTest extends MuninnPageCacheFeatureTestSupport
+{
+    private static final int PAGES = 100;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        assumeTrue( IoUringPageSwapperFactory.isAvailable(), "io_uring is not available" );
+        file = testDirectory.createFile( "file" );
+    }
+
+    @Test
+    void flushMustWriteAllRunsOfDirtyPages() throws IOException
+    {
+        try ( MuninnPageCache pageCache = createPageCache( new IoUringPageSwapperFactory( fs ) );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            writePages( pagedFile, PAGES );
+            pagedFile.flushAndForce();
+
+            // Dirty every third page, so the flush has to write many separate runs.
+            dirtyEveryThirdPage( pagedFile );
+            long flushesBefore = tracer.flushes();
+            pagedFile.flushAndForce();
+            assertThat( tracer.flushes() - flushesBefore ).isEqualTo( (PAGES + 2) / 3 );
+        }
+
+        try ( MuninnPageCache pageCache = createPageCache( configuration() );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            for ( int pageId = 0; pageId < PAGES; pageId++ )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+                assertThat( cursor.getLong( 0 ) ).isEqualTo( pageId % 3 == 0 ? pageId * 3L : pageId );
+                assertThat( cursor.getLong( PAGE_SIZE - Long.BYTES ) ).isEqualTo( ~pageId );
+            }
+        }
+    }
+
+    @Test
+    void faultBatchMustFaultInPagesThatAreNotInMemory() throws IOException
+    {
+        try ( MuninnPageCache pageCache = createPageCache( new IoUringPageSwapperFactory( fs ) ) )
+        {
+            try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+            {
+                writePages( pagedFile, PAGES );
+            }
+            try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+            {
+                verifyPages( pagedFile, 10, 11, PAGE_SIZE );
+                long faultsBefore = tracer.faults();
+
+                // Page 10 is already in memory, and the range goes beyond the end of the file.
+                int faulted;
+                try ( PageCursorTracer cursorTracer = tracer.createPageCursorTracer( "faultBatch" ) )
+                {
+                    faulted = ((MuninnPagedFile) pagedFile).faultBatch( 0, PAGES + 10, cursorTracer );
+                }
+
+                assertThat( faulted ).isEqualTo( PAGES - 1 );
+                assertThat( tracer.faults() - faultsBefore ).isEqualTo( PAGES - 1 );
+                for ( int pageId = 0; pageId < PAGES; pageId++ )
+                {
+                    assertThat( isResident( pagedFile, pageId ) ).isTrue();
+                }
+                verifyPages( pagedFile, PAGES );
+            }
+        }
+    }
+
+    private MuninnPageCache createPageCache( IoUringPageSwapperFactory swapperFactory )
+    {
+        return createPageCache( swapperFactory, configuration() );
+    }
+
+    private MuninnPageCache.Configuration configuration()
+    {
+        return MuninnPageCache.config( 2 * PAGES ).pageCacheTracer( tracer );
+    }
+
+    private static void dirtyEveryThirdPage( PagedFile pagedFile ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( int pageId = 0; pageId < PAGES; pageId += 3 )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+                cursor.putLong( 0, pageId * 3L );
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+
+class MuninnPageCacheNumaTest extends MuninnPageCacheFeatureTestSupport
+{
+    private static final int CACHE_PAGES = 200;
+    private static final int FILE_PAGES = 1000;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        file = testDirectory.createFile( "file" );
+    }
+
+    @Test
+    void regionsMustSplitThePagesEvenly()
+    {
+        PageCacheRegion[] regions = PageCacheRegion.split( 1001, PAGE_SIZE, 4, 30, 1, 1 );
+        assertThat( regions ).hasSize( 4 );
+        int nextPageId = 0;
+        for ( int node = 0; node < regions.length; node++ )
+        {
+            assertThat( regions[node].numaNode ).isEqualTo( node );
+            assertThat( regions[node].firstPageId ).isEqualTo( nextPageId );
+            assertThat( regions[node].pageCount ).isBetween( 250, 251 );
+            assertThat( regions[node].keepFree ).isEqualTo( 30 );
+            nextPageId = regions[node].endPageId();
+        }
+        assertThat( nextPageId ).isEqualTo( 1001 );
+
+        PageCacheRegion[] single = PageCacheRegion.split( 10, PAGE_SIZE, 1, 30, 1, 1 );
+        assertThat( single ).hasSize( 1 );
+        assertThat( single[0].numaNode ).isEqualTo( -1 );
+        assertThat( single[0].pageCount ).isEqualTo( 10 );
+        assertThat( single[0].keepFree ).isEqualTo( 5 );
+    }
+
+    @Test
+    void pagesFromAllRegionsMustBeUsedAndEvicted() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( 2 );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            assertThat( pageCache.regions ).hasSize( 2 );
+            writePages( pagedFile, FILE_PAGES );
+
+            // The file is much larger than the cache, so pages of both regions have been evicted and reused.
+            // Cooperative evictions are reported through the cursor tracer, so only count the background ones here.
+            assertThat( tracer.evictions() ).isPositive();
+            int[] loadedPerRegion = new int[2];
+            for ( int pageId = 0; pageId < pageCache.pages.getPageCount(); pageId++ )
+            {
+                if ( PageList.isLoaded( pageCache.pages.deref( pageId ) ) )
+                {
+                    loadedPerRegion[pageId < pageCache.regions[1].firstPageId ? 0 : 1]++;
+                }
+            }
+            assertThat( loadedPerRegion[0] ).isPositive();
+            assertThat( loadedPerRegion[1] ).isPositive();
+
+            verifyPages( pagedFile, FILE_PAGES );
+        }
+    }
+
+    @Test
+    void concurrentFaultsMustWorkAcrossRegions() throws Exception
+    {
+        int threads = 4;
+        try ( MuninnPageCache pageCache = createPageCache( 3 );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            writePages( pagedFile, FILE_PAGES );
+            pagedFile.flushAndForce();
+
+            ExecutorService executor = Executors.newFixedThreadPool( threads );
+            try
+            {
+                List<Future<?>> futures = new ArrayList<>();
+                for ( int i = 0; i < threads; i++ )
+                {
+                    int first = i * FILE_PAGES / threads;
+                    int end = (i + 1) * FILE_PAGES / threads;
+                    futures.add( executor.submit( () ->
+                    {
+                        verifyPages( pagedFile, first, end, PAGE_SIZE );
+                        return null;
+                    } ) );
+                }
+                for ( Future<?> future : futures )
+                {
+                    future.get();
+                }
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private MuninnPageCache createPageCache( int numaNodes )
+    {
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config( CACHE_PAGES ).pageCacheTracer( tracer ).numaNodes( numaNodes );
+        return createPageCache( configuration );
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.eclipse.collections.api.factory.Sets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.memory.EmptyMemoryTracker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.PAGE_SIZE_CLASS;
+import static org.neo4j.io.pagecache.impl.muninn.MuninnPageCache.memoryRequiredForPages;
+
+class MuninnPageCachePageSizeClassTest extends MuninnPageCacheFeatureTestSupport
+{
+    private static final int REGULAR_PAGES = 100;
+    private static final int SMALL_PAGE_SIZE = 2048;
+    private static final int SMALL_PAGES = 40;
+    private static final int LARGE_PAGE_SIZE = 64 * 1024;
+    private static final int LARGE_PAGES = 10;
+    private static final int FILE_PAGES = 200;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        file = testDirectory.createFile( "file" );
+    }
+
+    @Test
+    void pageSizeClassesMustGetTheirOwnRegions()
+    {
+        try ( MuninnPageCache pageCache = createPageCache() )
+        {
+            assertThat( pageCache.regions ).hasSize( 3 );
+            assertThat( pageCache.regions[0].cachePageSize ).isEqualTo( PAGE_SIZE );
+            assertThat( pageCache.regions[0].pageCount ).isEqualTo( REGULAR_PAGES );
+            assertThat( pageCache.regions[1].cachePageSize ).isEqualTo( SMALL_PAGE_SIZE );
+            assertThat( pageCache.regions[1].firstPageId ).isEqualTo( REGULAR_PAGES );
+            assertThat( pageCache.regions[1].pageCount ).isEqualTo( SMALL_PAGES );
+            assertThat( pageCache.regions[2].cachePageSize ).isEqualTo( LARGE_PAGE_SIZE );
+            assertThat( pageCache.regions[2].firstPageId ).isEqualTo( REGULAR_PAGES + SMALL_PAGES );
+            assertThat( pageCache.regions[2].pageCount ).isEqualTo( LARGE_PAGES );
+            assertThat( pageCache.maxCachedPages() ).isEqualTo( REGULAR_PAGES + SMALL_PAGES + LARGE_PAGES );
+        }
+    }
+
+    @Test
+    void filesMappedWithPageSizeClassMustOnlyUsePagesOfThatClass() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( file, SMALL_PAGE_SIZE, "db", Sets.immutable.of( PAGE_SIZE_CLASS ) ) )
+        {
+            writePages( pagedFile, 0, FILE_PAGES, SMALL_PAGE_SIZE );
+            assertBoundPagesWithinRegion( pageCache, (MuninnPagedFile) pagedFile, pageCache.regions[1] );
+            verifyPages( pagedFile, 0, FILE_PAGES, SMALL_PAGE_SIZE );
+        }
+    }
+
+    @Test
+    void pageSizeClassMayBeLargerThanTheCachePageSize() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( file, LARGE_PAGE_SIZE, "db", Sets.immutable.of( PAGE_SIZE_CLASS ) ) )
+        {
+            writePages( pagedFile, 0, FILE_PAGES / 4, LARGE_PAGE_SIZE );
+            assertBoundPagesWithinRegion( pageCache, (MuninnPagedFile) pagedFile, pageCache.regions[2] );
+            pagedFile.flushAndForce();
+            verifyPages( pagedFile, 0, FILE_PAGES / 4, LARGE_PAGE_SIZE );
+        }
+        assertThat( fs.getFileSize( file ) ).isEqualTo( (long) LARGE_PAGE_SIZE * FILE_PAGES / 4 );
+    }
+
+    @Test
+    void filePageSizeLargerThanCachePageSizeMustBeRejectedWithoutPageSizeClassOption()
+    {
+        try ( MuninnPageCache pageCache = createPageCache() )
+        {
+            assertThrows( IllegalArgumentException.class, () -> pageCache.map( file, LARGE_PAGE_SIZE, "db" ) );
+        }
+    }
+
+    @Test
+    void regularFilesMustNotUsePagesOfPageSizeClasses() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( file, SMALL_PAGE_SIZE, "db" ) )
+        {
+            writePages( pagedFile, 0, FILE_PAGES, SMALL_PAGE_SIZE );
+            assertBoundPagesWithinRegion( pageCache, (MuninnPagedFile) pagedFile, pageCache.regions[0] );
+            verifyPages( pagedFile, 0, FILE_PAGES, SMALL_PAGE_SIZE );
+        }
+    }
+
+    @Test
+    void unknownPageSizeClassMustFallBackToRegularPages() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( file, 4096, "db", Sets.immutable.of( PAGE_SIZE_CLASS ) ) )
+        {
+            writePages( pagedFile, 0, FILE_PAGES, 4096 );
+            assertBoundPagesWithinRegion( pageCache, (MuninnPagedFile) pagedFile, pageCache.regions[0] );
+            verifyPages( pagedFile, 0, FILE_PAGES, 4096 );
+        }
+    }
+
+    @Test
+    void pageSizeClassesMustBeValidated()
+    {
+        assertThrows( IllegalArgumentException.class, () -> createPageCache( Map.of( 3000, memoryForClassPages( 3000, 10 ) ) ) );
+        assertThrows( IllegalArgumentException.class, () -> createPageCache( Map.of( PAGE_SIZE, memoryForClassPages( PAGE_SIZE, 10 ) ) ) );
+        assertThrows( IllegalArgumentException.class, () -> createPageCache( Map.of( SMALL_PAGE_SIZE, 1L ) ) );
+    }
+
+    private static void assertBoundPagesWithinRegion( MuninnPageCache pageCache, MuninnPagedFile pagedFile, PageCacheRegion region )
+    {
+        int boundPages = 0;
+        for ( int pageId = 0; pageId < pageCache.pages.getPageCount(); pageId++ )
+        {
+            long pageRef = pageCache.pages.deref( pageId );
+            if ( PageList.isLoaded( pageRef ) && PageList.getSwapperId( pageRef ) == pagedFile.swapperId )
+            {
+                assertThat( pageId ).isGreaterThanOrEqualTo( region.firstPageId ).isLessThan( region.endPageId() );
+                boundPages++;
+            }
+        }
+        assertThat( boundPages ).isPositive();
+    }
+
+    private MuninnPageCache createPageCache()
+    {
+        return createPageCache( Map.of( SMALL_PAGE_SIZE, memoryForClassPages( SMALL_PAGE_SIZE, SMALL_PAGES ),
+                LARGE_PAGE_SIZE, memoryForClassPages( LARGE_PAGE_SIZE, LARGE_PAGES ) ) );
+    }
+
+    private MuninnPageCache createPageCache( Map<Integer,Long> pageSizeClasses )
+    {
+        long classMemory = pageSizeClasses.values().stream().mapToLong( Long::longValue ).sum();
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config(
+                MemoryAllocator.createAllocator( memoryRequiredForPages( REGULAR_PAGES ) + classMemory, EmptyMemoryTracker.INSTANCE ) )
+                .pageSizeClasses( pageSizeClasses );
+        return createPageCache( configuration );
+    }
+
+    private static long memoryForClassPages( int pageSize, int pages )
+    {
+        return (long) pages * (pageSize + PageList.META_DATA_BYTES_PER_PAGE);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+
+class MuninnPageCachePartitionTest extends MuninnPageCacheFeatureTestSupport
+{
+    private static final int MAX_PAGES = 20;
+
+    private Path hotFile;
+    private Path coldFile;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        hotFile = testDirectory.createFile( "hot" );
+        coldFile = testDirectory.createFile( "cold" );
+    }
+
+    @Test
+    void mustTrackResidentPagesOfPartition() throws IOException
+    {
+        PageCachePartition hot = PageCachePartition.forDatabase( "hot", "hotdb", 0, MAX_PAGES );
+        try ( MuninnPageCache pageCache = createPageCache( List.of( hot ) ) )
+        {
+            try ( PagedFile pagedFile = pageCache.map( hotFile, PAGE_SIZE, "hotdb" ) )
+            {
+                writePages( pagedFile, 5 );
+                assertThat( residentPages( pageCache, "hotdb", hotFile ) ).isEqualTo( 5 );
+
+                pageCache.evictPages( 2, 0, EvictionRunEvent.NULL );
+                assertThat( residentPages( pageCache, "hotdb", hotFile ) ).isEqualTo( 3 );
+            }
+            // Unmapping the file must release the pages it still had in the cache.
+            assertThat( residentPages( pageCache, "hotdb", hotFile ) ).isZero();
+        }
+    }
+
+    @Test
+    void mustNotEvictPagesFromPartitionAtReservedSize() throws IOException
+    {
+        PageCachePartition hot = PageCachePartition.forDatabase( "hot", "hotdb", 5, MAX_PAGES );
+        try ( MuninnPageCache pageCache = createPageCache( List.of( hot ) );
+              PagedFile hotPagedFile = pageCache.map( hotFile, PAGE_SIZE, "hotdb" );
+              PagedFile coldPagedFile = pageCache.map( coldFile, PAGE_SIZE, "colddb" ) )
+        {
+            writePages( hotPagedFile, 5 );
+            writePages( coldPagedFile, 5 );
+
+            pageCache.evictPages( 5, 0, EvictionRunEvent.NULL );
+
+            assertThat( residentPages( pageCache, "hotdb", hotFile ) ).isEqualTo( 5 );
+            assertThat( tracer.partitionReservedPageSkips() ).isGreaterThan( 0 );
+            for ( int pageId = 0; pageId < 5; pageId++ )
+            {
+                assertThat( isResident( hotPagedFile, pageId ) ).isTrue();
+                assertThat( isResident( coldPagedFile, pageId ) ).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void mustEvictFrequentlyUsedPagesFromPartitionOverQuota() throws IOException
+    {
+        PageCachePartition noisy = PageCachePartition.forDatabase( "noisy", "colddb", 0, 2 );
+        try ( MuninnPageCache pageCache = createPageCache( List.of( noisy ) );
+              PagedFile hotPagedFile = pageCache.map( hotFile, PAGE_SIZE, "hotdb" );
+              PagedFile coldPagedFile = pageCache.map( coldFile, PAGE_SIZE, "colddb" ) )
+        {
+            writePages( hotPagedFile, 5 );
+            writePages( coldPagedFile, 5 );
+            for ( int i = 0; i < 4; i++ )
+            {
+                verifyPages( hotPagedFile, 5 );
+                verifyPages( coldPagedFile, 5 );
+            }
+
+            pageCache.evictPages( 3, 0, EvictionRunEvent.NULL );
+
+            assertThat( residentPages( pageCache, "colddb", coldFile ) ).isEqualTo( 2 );
+            assertThat( tracer.partitionQuotaEvictions() ).isEqualTo( 3 );
+            for ( int pageId = 0; pageId < 5; pageId++ )
+            {
+                assertThat( isResident( hotPagedFile, pageId ) ).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void filesMustBelongToFirstMatchingPartition() throws IOException
+    {
+        PageCachePartition relationships = PageCachePartition.forFiles( "relationships", "hotdb", "hot.*", 0, MAX_PAGES );
+        PageCachePartition database = PageCachePartition.forDatabase( "database", "hotdb", 0, MAX_PAGES );
+        try ( MuninnPageCache pageCache = createPageCache( List.of( relationships, database ) );
+              PagedFile hotPagedFile = pageCache.map( hotFile, PAGE_SIZE, "hotdb" );
+              PagedFile otherPagedFile = pageCache.map( coldFile, PAGE_SIZE, "hotdb" ) )
+        {
+            writePages( hotPagedFile, 3 );
+            writePages( otherPagedFile, 2 );
+
+            PartitionedEvictionPolicy policy = (PartitionedEvictionPolicy) pageCache.evictionPolicy;
+            assertThat( policy.partitionFor( "hotdb", hotFile ).definition ).isSameAs( relationships );
+            assertThat( policy.partitionFor( "hotdb", coldFile ).definition ).isSameAs( database );
+            assertThat( policy.partitionFor( "colddb", coldFile ) ).isNull();
+            assertThat( residentPages( pageCache, "hotdb", hotFile ) ).isEqualTo( 3 );
+            assertThat( residentPages( pageCache, "hotdb", coldFile ) ).isEqualTo( 2 );
+        }
+    }
+
+    @Test
+    void mustRejectPartitionsThatReserveTheWholeCache()
+    {
+        PageCachePartition a = PageCachePartition.forDatabase( "a", "a", MAX_PAGES / 2, MAX_PAGES );
+        PageCachePartition b = PageCachePartition.forDatabase( "b", "b", MAX_PAGES / 2, MAX_PAGES );
+        assertThrows( IllegalArgumentException.class, () -> createPageCache( List.of( a, b ) ) );
+    }
+
+    @Test
+    void mustParsePartitionDefinitions()
+    {
+        PageCachePartition database = PageCachePartition.parse( "db:neo4j:10:100" );
+        assertThat( database.getName() ).isEqualTo( "db" );
+        assertThat( database.getDatabaseName() ).isEqualTo( "neo4j" );
+        assertThat( database.getMinPages() ).isEqualTo( 10 );
+        assertThat( database.getMaxPages() ).isEqualTo( 100 );
+        assertThat( database.matches( "neo4j", Path.of( "/any" ) ) ).isTrue();
+        assertThat( database.matches( "system", Path.of( "/any" ) ) ).isFalse();
+
+        PageCachePartition files = PageCachePartition.parse( "rels:neo4j:neostore\\.relationship.*:0:50" );
+        assertThat( files.matches( "neo4j", Path.of( "/neostore.relationshipstore.db" ) ) ).isTrue();
+        assertThat( files.matches( "neo4j", Path.of( "/neostore.nodestore.db" ) ) ).isFalse();
+
+        PageCachePartition regexWithColon = PageCachePartition.parse( "odd:neo4j:a:b:0:50" );
+        assertThat( regexWithColon.matches( "neo4j", Path.of( "/a:b" ) ) ).isTrue();
+
+        assertThrows( IllegalArgumentException.class, () -> PageCachePartition.parse( "db:neo4j:10" ) );
+        assertThrows( IllegalArgumentException.class, () -> PageCachePartition.parse( "db:neo4j:ten:100" ) );
+        assertThrows( IllegalArgumentException.class, () -> PageCachePartition.parse( "db:neo4j:100:10" ) );
+    }
+
+    private MuninnPageCache createPageCache( List<PageCachePartition> partitions )
+    {
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config( MAX_PAGES )
+                .pageCacheTracer( tracer )
+                .partitions( partitions )
+                .disableEvictionThread();
+        return createPageCache( configuration );
+    }
+
+    private static long residentPages( MuninnPageCache pageCache, String databaseName, Path file )
+    {
+        return ((PartitionedEvictionPolicy) pageCache.evictionPolicy).partitionFor( databaseName, file ).residentPages();
+    }
+}
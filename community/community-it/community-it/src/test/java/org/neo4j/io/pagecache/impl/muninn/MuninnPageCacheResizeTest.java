@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.internal.nativeimpl.LinuxHugePages;
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.impl.muninn.MuninnPageCache.memoryRequiredForPages;
+
+class MuninnPageCacheResizeTest extends MuninnPageCacheFeatureTestSupport
+{
+    private static final int CACHE_PAGES = 200;
+    private static final int FILE_PAGES = 150;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        file = testDirectory.createFile( "file" );
+    }
+
+    @Test
+    void shrinkingMustEvictPagesWithoutLosingTheirData() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( 0 );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            writePages( pagedFile, FILE_PAGES );
+            assertThat( loadedPages( pageCache ) ).isEqualTo( FILE_PAGES );
+
+            assertThat( pageCache.resize( memoryRequiredForPages( 50 ) ) ).isEqualTo( memoryRequiredForPages( 50 ) );
+            assertThat( pageCache.maxCachedPages() ).isEqualTo( 50 );
+            assertThat( pageCache.regions[0].retiredPages.size() ).isEqualTo( CACHE_PAGES - 50 );
+            assertThat( loadedPages( pageCache ) ).isLessThanOrEqualTo( 50 );
+
+            verifyPages( pagedFile, FILE_PAGES );
+            assertThat( loadedPages( pageCache ) ).isLessThanOrEqualTo( 50 );
+        }
+    }
+
+    @Test
+    void growingMustBringRetiredPagesBackIntoCirculation() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( 0 );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            pageCache.resize( memoryRequiredForPages( 50 ) );
+            writePages( pagedFile, FILE_PAGES );
+            assertThat( loadedPages( pageCache ) ).isLessThanOrEqualTo( 50 );
+
+            assertThat( pageCache.resize( memoryRequiredForPages( CACHE_PAGES ) ) ).isEqualTo( memoryRequiredForPages( CACHE_PAGES ) );
+            assertThat( pageCache.maxCachedPages() ).isEqualTo( CACHE_PAGES );
+            assertThat( pageCache.regions[0].retiredPages.isEmpty() ).isTrue();
+
+            verifyPages( pagedFile, FILE_PAGES );
+            assertThat( loadedPages( pageCache ) ).isEqualTo( FILE_PAGES );
+        }
+    }
+
+    @Test
+    void pageCacheMustStartOutWithItsInitialMemory() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( memoryRequiredForPages( 60 ) );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            assertThat( pageCache.maxCachedPages() ).isEqualTo( 60 );
+            writePages( pagedFile, FILE_PAGES );
+            assertThat( loadedPages( pageCache ) ).isLessThanOrEqualTo( 60 );
+
+            pageCache.resize( memoryRequiredForPages( CACHE_PAGES ) );
+            verifyPages( pagedFile, FILE_PAGES );
+            assertThat( loadedPages( pageCache ) ).isGreaterThan( 60 );
+        }
+    }
+
+    @Test
+    void resizingMustStayWithinTheMemoryOfThePageList() throws IOException
+    {
+        try ( MuninnPageCache pageCache = createPageCache( 0 ) )
+        {
+            assertThat( pageCache.resize( memoryRequiredForPages( 10 * CACHE_PAGES ) ) ).isEqualTo( memoryRequiredForPages( CACHE_PAGES ) );
+            assertThat( pageCache.maxCachedPages() ).isEqualTo( CACHE_PAGES );
+
+            long minimum = pageCache.resize( 0 );
+            assertThat( minimum ).isEqualTo( memoryRequiredForPages( pageCache.maxCachedPages() ) );
+            assertThat( pageCache.maxCachedPages() ).isEqualTo( Math.max( 2, pageCache.regions[0].keepFree ) );
+        }
+    }
+
+    @Test
+    void retiredPagesMustGiveTheirMemoryBack() throws IOException
+    {
+        assumeTrue( LinuxHugePages.isAvailable(), LinuxHugePages.describe() );
+        try ( MuninnPageCache pageCache = createPageCache( 0 );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            writePages( pagedFile, FILE_PAGES );
+            pagedFile.flushAndForce();
+            pageCache.resize( memoryRequiredForPages( 50 ) );
+
+            int retiredWithBuffer = 0;
+            for ( long pageRef : pageCache.regions[0].retiredPages.toArray() )
+            {
+                assertThat( PageList.isLoaded( pageRef ) ).isFalse();
+                long address = PageList.getAddress( pageRef );
+                if ( address != 0 )
+                {
+                    retiredWithBuffer++;
+                    for ( int offset = 0; offset < PAGE_SIZE; offset += Long.BYTES )
+                    {
+                        assertThat( UnsafeUtil.getLong( address + offset ) ).isZero();
+                    }
+                }
+            }
+            assertThat( retiredWithBuffer ).isPositive();
+        }
+    }
+
+    @Test
+    void pagesMustStayConsistentWhileThePageCacheIsResized() throws Exception
+    {
+        int threads = 4;
+        try ( MuninnPageCache pageCache = createPageCache( 0 );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" ) )
+        {
+            writePages( pagedFile, FILE_PAGES );
+            AtomicBoolean stop = new AtomicBoolean();
+            ExecutorService executor = Executors.newFixedThreadPool( threads );
+            try
+            {
+                Future<?>[] futures = new Future<?>[threads];
+                for ( int i = 0; i < threads; i++ )
+                {
+                    boolean writer = i == 0;
+                    futures[i] = executor.submit( () ->
+                    {
+                        while ( !stop.get() )
+                        {
+                            if ( writer )
+                            {
+                                writePages( pagedFile, FILE_PAGES );
+                            }
+                            else
+                            {
+                                verifyPages( pagedFile, FILE_PAGES );
+                            }
+                        }
+                        return null;
+                    } );
+                }
+                for ( int i = 0; i < 50; i++ )
+                {
+                    pageCache.resize( memoryRequiredForPages( i % 2 == 0 ? 40 : CACHE_PAGES ) );
+                }
+                stop.set( true );
+                for ( Future<?> future : futures )
+                {
+                    future.get();
+                }
+            }
+            finally
+            {
+                stop.set( true );
+                executor.shutdown();
+            }
+            verifyPages( pagedFile, FILE_PAGES );
+        }
+    }
+
+    @Test
+    void closedPageCacheCannotBeResized()
+    {
+        MuninnPageCache pageCache = createPageCache( 0 );
+        pageCache.close();
+        assertThrows( IllegalStateException.class, () -> pageCache.resize( memoryRequiredForPages( 50 ) ) );
+    }
+
+    private MuninnPageCache createPageCache( long initialMemory )
+    {
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config( CACHE_PAGES ).initialMemory( initialMemory );
+        return createPageCache( configuration );
+    }
+}
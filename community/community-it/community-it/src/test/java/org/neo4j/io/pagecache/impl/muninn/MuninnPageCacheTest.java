@@ -415,6 +415,146 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void flushMustOnlyVisitChunksWithDirtyPages() throws IOException
+    {
+        var pageCacheTracer = new InfoTracer();
+        long farPageId = 2 * 4096 /* chunk size */ + 5;
+        try ( MuninnPageCache pageCache = createPageCache( fs, 10, pageCacheTracer );
+                PagedFile pagedFile = map( pageCache, file( "a" ), (int) ByteUnit.kibiBytes( 8 ) ) )
+        {
+            for ( long pageId : new long[]{0, 1, farPageId} )
+            {
+                try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( 1 );
+                }
+            }
+            pagedFile.flushAndForce();
+
+            // The chunk in between has no dirty pages, so it is skipped.
+            assertThat( pageCacheTracer.getObservedChunks() ).hasSize( 2 );
+            assertThat( pageCacheTracer.dirtyPages( pagedFile.path() ) ).isEqualTo( 3 );
+            pageCacheTracer.getObservedChunks().clear();
+
+            pagedFile.flushAndForce();
+            assertThat( pageCacheTracer.getObservedChunks() ).isEmpty();
+            assertThat( pageCacheTracer.dirtyPages( pagedFile.path() ) ).isZero();
+
+            try ( PageCursor cursor = pagedFile.io( farPageId, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 2 );
+            }
+            pagedFile.flushAndForce();
+            assertThat( pageCacheTracer.getObservedChunks() ).hasSize( 1 );
+            assertThat( pageCacheTracer.dirtyPages( pagedFile.path() ) ).isEqualTo( 1 );
+        }
+    }
+
+    @Test
+    void readCursorMustFallBackToPessimisticReadAfterRepeatedRetries() throws IOException
+    {
+        int retriesBeforePessimisticRead = MuninnReadPageCursor.retriesBeforePessimisticRead;
+        MuninnReadPageCursor.retriesBeforePessimisticRead = 8;
+        try
+        {
+            var pageCacheTracer = new DefaultPageCacheTracer();
+            try ( MuninnPageCache pageCache = createPageCache( fs, 10, pageCacheTracer );
+                    PagedFile pagedFile = map( pageCache, file( "a" ), (int) ByteUnit.kibiBytes( 8 ) ) )
+            {
+                try ( PageCursor writer = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    assertTrue( writer.next() );
+                }
+                try ( var cursorContext = new CursorContext( pageCacheTracer.createPageCursorTracer( "pessimisticRead" ) );
+                        PageCursor reader = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorContext ) )
+                {
+                    assertTrue( reader.next() );
+                    try ( PageCursor writer = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                    {
+                        assertTrue( writer.next() );
+                        // The writer is never going to finish while we spin, so the pessimistic read attempts give up.
+                        for ( int i = 0; i < 10; i++ )
+                        {
+                            assertTrue( reader.shouldRetry() );
+                        }
+                    }
+                    // Reads keep failing, but the writer is gone now, so the pessimistic read lock is taken.
+                    assertTrue( reader.shouldRetry() );
+                    assertFalse( reader.shouldRetry() );
+                    try ( PageCursor writer = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                    {
+                        // The pessimistic read lock must have been released again.
+                        assertTrue( writer.next() );
+                    }
+                }
+                assertThat( pageCacheTracer.readRetries( pagedFile.path() ) ).isEqualTo( 11 );
+                assertThat( pageCacheTracer.pessimisticReads( pagedFile.path() ) ).isEqualTo( 1 );
+            }
+        }
+        finally
+        {
+            MuninnReadPageCursor.retriesBeforePessimisticRead = retriesBeforePessimisticRead;
+        }
+    }
+
+    @Test
+    void writerMustMakeProgressOnPageThatIsPessimisticallyReadByPinnedReader() throws Exception
+    {
+        int retriesBeforePessimisticRead = MuninnReadPageCursor.retriesBeforePessimisticRead;
+        MuninnReadPageCursor.retriesBeforePessimisticRead = 8;
+        try
+        {
+            var pageCacheTracer = new DefaultPageCacheTracer();
+            try ( MuninnPageCache pageCache = createPageCache( fs, 10, pageCacheTracer );
+                    PagedFile pagedFile = map( pageCache, file( "a" ), (int) ByteUnit.kibiBytes( 8 ) ) )
+            {
+                try ( PageCursor writer = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    assertTrue( writer.next() );
+                }
+                try ( var cursorContext = new CursorContext( pageCacheTracer.createPageCursorTracer( "pinnedReader" ) );
+                        PageCursor reader = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorContext ) )
+                {
+                    assertTrue( reader.next() );
+                    try ( PageCursor writer = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                    {
+                        assertTrue( writer.next() );
+                        for ( int i = 0; i < 10; i++ )
+                        {
+                            assertTrue( reader.shouldRetry() );
+                        }
+                    }
+                    // Now the reader holds the pessimistic read lock, and stays on the page without validating its read.
+                    assertTrue( reader.shouldRetry() );
+
+                    Future<?> write = executor.submit( () ->
+                    {
+                        try ( PageCursor writer = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                        {
+                            assertTrue( writer.next() );
+                            writer.putLong( 42 );
+                        }
+                        return null;
+                    } );
+                    assertTimeoutPreemptively( ofMillis( 10_000 ), () -> write.get() );
+
+                    // The writer took the page over, so the read must be retried.
+                    assertTrue( reader.shouldRetry() );
+                    assertFalse( reader.shouldRetry() );
+                    assertEquals( 42, reader.getLong( 0 ) );
+                }
+                assertThat( pageCacheTracer.pessimisticReads( pagedFile.path() ) ).isEqualTo( 1 );
+            }
+        }
+        finally
+        {
+            MuninnReadPageCursor.retriesBeforePessimisticRead = retriesBeforePessimisticRead;
+        }
+    }
+
     @Test
     void countNotModifiedPagesPerChunkWithBuffers() throws IOException
     {
@@ -472,6 +472,114 @@ public class PageListTest
         } );
     }
 
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void optimisticReadLockMustFailValidationOnlyWhilePessimisticReadLockIsHeld( int pageId )
+    {
+        init( pageId );
+
+        pageList.unlockExclusive( pageRef );
+        long r = pageList.tryOptimisticReadLock( pageRef );
+        long p = pageList.tryPessimisticReadLock( pageRef, 0 );
+        assertTrue( p != 0 );
+        assertTrue( pageList.validateReadLock( pageRef, p ) );
+        assertFalse( pageList.validateReadLock( pageRef, r ) );
+        pageList.unlockPessimisticRead( pageRef );
+        assertTrue( pageList.validateReadLock( pageRef, r ) );
+    }
+
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void pessimisticReadLockMustFailWriteExclusiveAndFlushLocks( int pageId )
+    {
+        init( pageId );
+
+        pageList.unlockExclusive( pageRef );
+        assertTrue( pageList.tryPessimisticReadLock( pageRef, 0 ) != 0 );
+        assertFalse( pageList.tryWriteLock( pageRef ) );
+        assertFalse( pageList.tryExclusiveLock( pageRef ) );
+        assertThat( pageList.tryFlushLock( pageRef ) ).isZero();
+        assertThat( pageList.tryPessimisticReadLock( pageRef, 0 ) ).isZero();
+        pageList.unlockPessimisticRead( pageRef );
+        assertTrue( pageList.tryWriteLock( pageRef ) );
+    }
+
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void pessimisticReadLockMustGiveUpIfWritersDoNotFinish( int pageId )
+    {
+        init( pageId );
+
+        pageList.unlockExclusive( pageRef );
+        assertTrue( pageList.tryWriteLock( pageRef ) );
+        assertThat( pageList.tryPessimisticReadLock( pageRef, 100 ) ).isZero();
+        // The failed attempt must not leave new writers locked out
+        assertTrue( pageList.tryWriteLock( pageRef ) );
+        pageList.unlockWrite( pageRef );
+        pageList.unlockWrite( pageRef );
+    }
+
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void pessimisticReadLockMustWaitForWritersToFinish( int pageId )
+    {
+        init( pageId );
+
+        assertTimeoutPreemptively( ofSeconds( 5 ), () ->
+        {
+            pageList.unlockExclusive( pageRef );
+            assertTrue( pageList.tryWriteLock( pageRef ) );
+            CountDownLatch writerDone = new CountDownLatch( 1 );
+            Future<?> writer = executor.submit( () ->
+            {
+                pageList.unlockWrite( pageRef );
+                writerDone.countDown();
+            } );
+            long stamp = pageList.tryPessimisticReadLock( pageRef, Integer.MAX_VALUE );
+            assertTrue( stamp != 0 );
+            assertThat( writerDone.getCount() ).isZero();
+            writer.get();
+            assertTrue( pageList.validateReadLock( pageRef, stamp ) );
+            pageList.unlockPessimisticRead( pageRef );
+        } );
+    }
+
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void writerMustBeAbleToTakeOverPessimisticReadLock( int pageId )
+    {
+        init( pageId );
+
+        pageList.unlockExclusive( pageRef );
+        long stamp = pageList.tryPessimisticReadLock( pageRef, 0 );
+        assertTrue( stamp != 0 );
+        assertTrue( pageList.tryWriteLockOverPessimisticRead( pageRef ) );
+        assertFalse( pageList.validateReadLock( pageRef, stamp ) );
+        // The reader has nothing left to release, and must not disturb the writer
+        pageList.unlockPessimisticRead( pageRef );
+        assertFalse( pageList.tryExclusiveLock( pageRef ) );
+        pageList.unlockWrite( pageRef );
+        assertFalse( pageList.validateReadLock( pageRef, stamp ) );
+        assertTrue( pageList.tryExclusiveLock( pageRef ) );
+    }
+
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void writeLockMustOnlyTakeOverPessimisticReadLock( int pageId )
+    {
+        init( pageId );
+
+        // Still exclusively locked from the initialisation
+        assertFalse( pageList.tryWriteLockOverPessimisticRead( pageRef ) );
+        pageList.unlockExclusive( pageRef );
+        assertFalse( pageList.tryWriteLockOverPessimisticRead( pageRef ) );
+        long flushStamp = pageList.tryFlushLock( pageRef );
+        assertThat( flushStamp ).isNotZero();
+        assertFalse( pageList.tryWriteLockOverPessimisticRead( pageRef ) );
+        assertThat( pageList.tryPessimisticReadLock( pageRef, 0 ) ).isZero();
+        pageList.unlockFlush( pageRef, flushStamp, true );
+    }
+
     @ParameterizedTest( name = "pageRef = {0}" )
     @MethodSource( "argumentsProvider" )
     public void unmatchedUnlockWriteAfterTakingExclusiveLockMustThrow( int pageId )
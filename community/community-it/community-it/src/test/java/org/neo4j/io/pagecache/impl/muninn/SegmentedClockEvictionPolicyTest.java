@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.ByteUnit.MebiByte;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+class SegmentedClockEvictionPolicyTest
+{
+    private static final int PAGE_COUNT = 10;
+
+    private MemoryAllocator mman;
+    private PageList pageList;
+    private DefaultPageCacheTracer tracer;
+
+    @BeforeEach
+    void setUp()
+    {
+        int pageSize = UnsafeUtil.pageSize();
+        mman = MemoryAllocator.createAllocator( MebiByte.toBytes( 1 ), INSTANCE );
+        long victimPage = VictimPageReference.getVictimPage( pageSize, INSTANCE );
+        pageList = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), victimPage, 8 );
+        tracer = new DefaultPageCacheTracer();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        mman.close();
+    }
+
+    @Test
+    void clockPolicyMustEvictPageWhenUsageCounterReachesZero()
+    {
+        long pageRef = pageList.deref( 0 );
+        PageList.incrementUsage( pageRef );
+        PageList.incrementUsage( pageRef );
+
+        EvictionPolicy policy = EvictionPolicyType.CLOCK.create( pageList, tracer );
+        assertFalse( policy.shouldEvict( pageRef ) );
+        assertTrue( policy.shouldEvict( pageRef ) );
+    }
+
+    @Test
+    void pageThatIsOnlyUsedOnceMustStayProbationary()
+    {
+        SegmentedClockEvictionPolicy policy = new SegmentedClockEvictionPolicy( pageList, tracer, 50 );
+        long pageRef = pageList.deref( 0 );
+        PageList.incrementUsage( pageRef );
+
+        assertTrue( policy.shouldEvict( pageRef ) );
+        assertFalse( policy.isProtected( 0 ) );
+        assertThat( tracer.promotions() ).isZero();
+    }
+
+    @Test
+    void frequentlyUsedPageMustBePromotedAndNotEvicted()
+    {
+        SegmentedClockEvictionPolicy policy = new SegmentedClockEvictionPolicy( pageList, tracer, 50 );
+        long pageRef = pageList.deref( 3 );
+        useTimes( pageRef, 4 );
+
+        assertFalse( policy.shouldEvict( pageRef ) );
+        assertTrue( policy.isProtected( 3 ) );
+        assertThat( policy.protectedPageCount() ).isOne();
+        assertThat( tracer.promotions() ).isOne();
+
+        // Protected pages are left alone while the segment is within its budget.
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertFalse( policy.shouldEvict( pageRef ) );
+        }
+        assertTrue( policy.isProtected( 3 ) );
+    }
+
+    @Test
+    void protectedPagesMustBeDemotedWhenSegmentIsOverBudget()
+    {
+        // 10% of 10 pages gives room for a single protected page.
+        SegmentedClockEvictionPolicy policy = new SegmentedClockEvictionPolicy( pageList, tracer, 10 );
+        long first = pageList.deref( 0 );
+        long second = pageList.deref( 1 );
+        useTimes( first, 4 );
+        useTimes( second, 4 );
+        assertFalse( policy.shouldEvict( first ) );
+        assertFalse( policy.shouldEvict( second ) );
+        assertThat( policy.protectedPageCount() ).isEqualTo( 2 );
+
+        // Sweep until the segment is back within its budget.
+        for ( int i = 0; i < 8 && policy.protectedPageCount() > 1; i++ )
+        {
+            assertFalse( policy.shouldEvict( first ) );
+        }
+        assertFalse( policy.isProtected( 0 ) );
+        assertTrue( policy.isProtected( 1 ) );
+        assertThat( tracer.demotions() ).isOne();
+    }
+
+    @Test
+    void promotionsMustNotStarveProbationarySegment()
+    {
+        SegmentedClockEvictionPolicy policy = new SegmentedClockEvictionPolicy( pageList, tracer, 100 );
+        for ( int i = 0; i < PAGE_COUNT; i++ )
+        {
+            long pageRef = pageList.deref( i );
+            useTimes( pageRef, 4 );
+            policy.shouldEvict( pageRef );
+        }
+        assertThat( policy.protectedPageCount() ).isLessThan( PAGE_COUNT );
+    }
+
+    @Test
+    void evictedPageMustLeaveProtectedSegment()
+    {
+        SegmentedClockEvictionPolicy policy = new SegmentedClockEvictionPolicy( pageList, tracer, 50 );
+        long pageRef = pageList.deref( 7 );
+        useTimes( pageRef, 4 );
+        policy.shouldEvict( pageRef );
+        assertTrue( policy.isProtected( 7 ) );
+
+        policy.evicted( pageRef );
+        assertFalse( policy.isProtected( 7 ) );
+        assertThat( policy.protectedPageCount() ).isZero();
+    }
+
+    @Test
+    void mustRejectInvalidProtectedPercentage()
+    {
+        assertThrows( IllegalArgumentException.class, () -> new SegmentedClockEvictionPolicy( pageList, tracer, -1 ) );
+        assertThrows( IllegalArgumentException.class, () -> new SegmentedClockEvictionPolicy( pageList, tracer, 101 ) );
+    }
+
+    private static void useTimes( long pageRef, int times )
+    {
+        for ( int i = 0; i < times; i++ )
+        {
+            PageList.incrementUsage( pageRef );
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.internal.helpers.Args;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.util.concurrent.Futures;
+
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Measures read and write throughput when a number of readers and writers all hammer on the same page.
+ * <p>
+ * Write locks are shared, so each writer has a record of its own in the page, which it fills with a value. Readers check
+ * that every field of each record has the same value, so torn reads would be detected. Besides the throughput, the
+ * benchmark reports how often the optimistic reads had to be retried, and how many of the reads fell back to pessimistic
+ * read locks.
+ * <p>
+ * Run with e.g. {@code --readers=8 --writers=2 --seconds=10 --record-longs=64}. The pessimistic read fallback is
+ * disabled by default, so to compare with it, run again with
+ * {@code -Dorg.neo4j.io.pagecache.impl.muninn.MuninnReadPageCursor.retriesBeforePessimisticRead=8}.
+ */
+public final class SinglePageContentionBenchmark
+{
+    private SinglePageContentionBenchmark()
+    {
+    }
+
+    public static void main( String[] arguments ) throws Exception
+    {
+        Args args = Args.parse( arguments );
+        int readers = args.getNumber( "readers", 8 ).intValue();
+        int writers = args.getNumber( "writers", 2 ).intValue();
+        int seconds = args.getNumber( "seconds", 10 ).intValue();
+        int recordLongs = args.getNumber( "record-longs", 64 ).intValue();
+        if ( (long) writers * recordLongs * Long.BYTES > PAGE_SIZE )
+        {
+            throw new IllegalArgumentException( "The records of all writers must fit in a page of " + PAGE_SIZE + " bytes" );
+        }
+
+        PrintStream out = System.out;
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache.Configuration configuration = MuninnPageCache.config( 16 ).pageCacheTracer( tracer );
+        ExecutorService executor = Executors.newFixedThreadPool( readers + writers );
+        try ( EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+              ThreadPoolJobScheduler jobScheduler = new ThreadPoolJobScheduler();
+              MuninnPageCache pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), jobScheduler, configuration ) )
+        {
+            Path file = Path.of( "contended" ).toAbsolutePath();
+            fs.write( file ).close();
+            try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "benchmark" ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, CursorContext.NULL ) )
+                {
+                    if ( !cursor.next() )
+                    {
+                        throw new IllegalStateException( "Could not create page 0" );
+                    }
+                }
+
+                int pageLongs = writers * recordLongs;
+                AtomicBoolean stop = new AtomicBoolean();
+                CountDownLatch start = new CountDownLatch( 1 );
+                List<Future<Long>> readerOps = new ArrayList<>();
+                List<Future<Long>> writerOps = new ArrayList<>();
+                for ( int i = 0; i < readers; i++ )
+                {
+                    readerOps.add( executor.submit( () -> readUntilStopped( pagedFile, tracer, pageLongs, recordLongs, start, stop ) ) );
+                }
+                for ( int i = 0; i < writers; i++ )
+                {
+                    int recordOffset = i * recordLongs * Long.BYTES;
+                    writerOps.add( executor.submit( () -> writeUntilStopped( pagedFile, tracer, recordOffset, recordLongs, start, stop ) ) );
+                }
+                start.countDown();
+                TimeUnit.SECONDS.sleep( seconds );
+                stop.set( true );
+
+                long reads = sum( readerOps );
+                long writes = sum( writerOps );
+                long retries = tracer.readRetries( file );
+                out.printf( "readers: %d, writers: %d, record: %d bytes, duration: %d s%n", readers, writers, recordLongs * Long.BYTES, seconds );
+                out.printf( "%15s %15s %15s %18s%n", "reads/s", "writes/s", "retries/read", "pessimistic reads" );
+                out.printf( "%15d %15d %15.3f %18d%n",
+                        reads / seconds,
+                        writes / seconds,
+                        reads == 0 ? 0 : (double) retries / reads,
+                        tracer.pessimisticReads( file ) );
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static long readUntilStopped( PagedFile pagedFile, DefaultPageCacheTracer tracer, int pageLongs, int recordLongs, CountDownLatch start,
+            AtomicBoolean stop ) throws IOException, InterruptedException
+    {
+        start.await();
+        long reads = 0;
+        try ( CursorContext cursorContext = new CursorContext( tracer.createPageCursorTracer( "reader" ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorContext ) )
+        {
+            while ( !stop.get() )
+            {
+                if ( !cursor.next( 0 ) )
+                {
+                    throw new IllegalStateException( "Page 0 is gone" );
+                }
+                boolean consistent;
+                do
+                {
+                    consistent = true;
+                    long first = 0;
+                    for ( int i = 0; i < pageLongs; i++ )
+                    {
+                        long value = cursor.getLong( i * Long.BYTES );
+                        if ( i % recordLongs == 0 )
+                        {
+                            first = value;
+                        }
+                        consistent &= value == first;
+                    }
+                }
+                while ( cursor.shouldRetry() );
+                if ( !consistent )
+                {
+                    throw new IllegalStateException( "Observed a torn record" );
+                }
+                reads++;
+            }
+        }
+        return reads;
+    }
+
+    private static long writeUntilStopped( PagedFile pagedFile, DefaultPageCacheTracer tracer, int recordOffset, int recordLongs, CountDownLatch start,
+            AtomicBoolean stop ) throws IOException, InterruptedException
+    {
+        start.await();
+        long writes = 0;
+        try ( CursorContext cursorContext = new CursorContext( tracer.createPageCursorTracer( "writer" ) ) )
+        {
+            while ( !stop.get() )
+            {
+                writes++;
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, cursorContext ) )
+                {
+                    if ( !cursor.next() )
+                    {
+                        throw new IllegalStateException( "Page 0 is gone" );
+                    }
+                    cursor.setOffset( recordOffset );
+                    for ( int i = 0; i < recordLongs; i++ )
+                    {
+                        cursor.putLong( writes );
+                    }
+                }
+            }
+        }
+        return writes;
+    }
+
+    private static long sum( List<Future<Long>> futures ) throws Exception
+    {
+        return Futures.getAllResults( futures ).stream().mapToLong( Long::longValue ).sum();
+    }
+}
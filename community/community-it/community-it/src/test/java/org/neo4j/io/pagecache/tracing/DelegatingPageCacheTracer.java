@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.tracing;
 
+import java.nio.file.Path;
+
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
@@ -115,6 +117,18 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.unmappedFile( swapperId, pagedFile );
     }
 
+    @Override
+    public void dirtyPages( PagedFile pagedFile, long dirtyPages )
+    {
+        delegate.dirtyPages( pagedFile, dirtyPages );
+    }
+
+    @Override
+    public void readRetries( Path file, long retries, long pessimisticReads )
+    {
+        delegate.readRetries( file, retries, pessimisticReads );
+    }
+
     @Override
     public long evictionExceptions()
     {
@@ -133,6 +147,42 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.usageRatio();
     }
 
+    @Override
+    public long promotions()
+    {
+        return delegate.promotions();
+    }
+
+    @Override
+    public long demotions()
+    {
+        return delegate.demotions();
+    }
+
+    @Override
+    public long partitionQuotaEvictions()
+    {
+        return delegate.partitionQuotaEvictions();
+    }
+
+    @Override
+    public long partitionReservedPageSkips()
+    {
+        return delegate.partitionReservedPageSkips();
+    }
+
+    @Override
+    public long hugePageBackedBytes()
+    {
+        return delegate.hugePageBackedBytes();
+    }
+
+    @Override
+    public long cooperativeEvictions()
+    {
+        return delegate.cooperativeEvictions();
+    }
+
     @Override
     public long iopqPerformed()
     {
@@ -217,6 +267,42 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.maxPages( maxPages, pageSize );
     }
 
+    @Override
+    public void promotions( long promotions )
+    {
+        delegate.promotions( promotions );
+    }
+
+    @Override
+    public void demotions( long demotions )
+    {
+        delegate.demotions( demotions );
+    }
+
+    @Override
+    public void partitionQuotaEvictions( long partitionQuotaEvictions )
+    {
+        delegate.partitionQuotaEvictions( partitionQuotaEvictions );
+    }
+
+    @Override
+    public void partitionReservedPageSkips( long partitionReservedPageSkips )
+    {
+        delegate.partitionReservedPageSkips( partitionReservedPageSkips );
+    }
+
+    @Override
+    public void hugePageBackedBytes( long hugePageBackedBytes )
+    {
+        delegate.hugePageBackedBytes( hugePageBackedBytes );
+    }
+
+    @Override
+    public void cooperativeEvictions( long cooperativeEvictions )
+    {
+        delegate.cooperativeEvictions( cooperativeEvictions );
+    }
+
     @Override
     public void iopq( long iopq )
     {
@@ -91,6 +91,24 @@ public class DummyPageSwapper implements PageSwapper
     {
     }
 
+    @Override
+    public boolean canBatch()
+    {
+        return false;
+    }
+
+    @Override
+    public long readBatch( long[] filePageIds, long[] bufferAddresses, int length )
+    {
+        return (long) length * filePageSize;
+    }
+
+    @Override
+    public long writeBatch( long[] startFilePageIds, int[] runEnds, long[] bufferAddresses, int[] bufferLengths, int runs )
+    {
+        return 0;
+    }
+
     @Override
     public boolean canAllocate()
     {
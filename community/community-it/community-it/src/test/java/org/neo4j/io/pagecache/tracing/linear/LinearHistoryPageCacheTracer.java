@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.tracing.linear;
 
+import java.nio.file.Path;
+
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
@@ -66,6 +68,16 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         tracer.add( new UnmappedFileHEvent( pagedFile.path() ) );
     }
 
+    @Override
+    public void dirtyPages( PagedFile pagedFile, long dirtyPages )
+    {
+    }
+
+    @Override
+    public void readRetries( Path file, long retries, long pessimisticReads )
+    {
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -174,6 +186,42 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0d;
     }
 
+    @Override
+    public long promotions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long demotions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long partitionQuotaEvictions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long partitionReservedPageSkips()
+    {
+        return 0;
+    }
+
+    @Override
+    public long hugePageBackedBytes()
+    {
+        return 0;
+    }
+
+    @Override
+    public long cooperativeEvictions()
+    {
+        return 0;
+    }
+
     @Override
     public long iopqPerformed()
     {
@@ -247,6 +295,36 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void promotions( long promotions )
+    {
+    }
+
+    @Override
+    public void demotions( long demotions )
+    {
+    }
+
+    @Override
+    public void partitionQuotaEvictions( long partitionQuotaEvictions )
+    {
+    }
+
+    @Override
+    public void partitionReservedPageSkips( long partitionReservedPageSkips )
+    {
+    }
+
+    @Override
+    public void hugePageBackedBytes( long hugePageBackedBytes )
+    {
+    }
+
+    @Override
+    public void cooperativeEvictions( long cooperativeEvictions )
+    {
+    }
+
     @Override
     public void iopq( long iopq )
     {
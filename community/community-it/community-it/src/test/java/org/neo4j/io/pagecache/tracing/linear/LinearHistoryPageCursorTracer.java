@@ -114,6 +114,11 @@ public class LinearHistoryPageCursorTracer implements PageCursorTracer
         return tracer.add( new HEvents.PinHEvent( tracer, writeLock, filePageId, swapper ) );
     }
 
+    @Override
+    public void readRetries( PageSwapper swapper, long retries, boolean pessimistic )
+    {
+    }
+
     @Override
     public void reportEvents()
     {
@@ -20,6 +20,7 @@
 package org.neo4j.io.pagecache.tracing.recording;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.pagecache.PageSwapper;
@@ -61,6 +62,18 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         // we currently do not record these
     }
 
+    @Override
+    public void dirtyPages( PagedFile pagedFile, long dirtyPages )
+    {
+        // we currently do not record these
+    }
+
+    @Override
+    public void readRetries( Path file, long retries, long pessimisticReads )
+    {
+        // we currently do not record these
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -192,6 +205,42 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0d;
     }
 
+    @Override
+    public long promotions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long demotions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long partitionQuotaEvictions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long partitionReservedPageSkips()
+    {
+        return 0;
+    }
+
+    @Override
+    public long hugePageBackedBytes()
+    {
+        return 0;
+    }
+
+    @Override
+    public long cooperativeEvictions()
+    {
+        return 0;
+    }
+
     @Override
     public long iopqPerformed()
     {
@@ -268,6 +317,36 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void promotions( long promotions )
+    {
+    }
+
+    @Override
+    public void demotions( long demotions )
+    {
+    }
+
+    @Override
+    public void partitionQuotaEvictions( long partitionQuotaEvictions )
+    {
+    }
+
+    @Override
+    public void partitionReservedPageSkips( long partitionReservedPageSkips )
+    {
+    }
+
+    @Override
+    public void hugePageBackedBytes( long hugePageBackedBytes )
+    {
+    }
+
+    @Override
+    public void cooperativeEvictions( long cooperativeEvictions )
+    {
+    }
+
     @Override
     public void iopq( long iopq )
     {
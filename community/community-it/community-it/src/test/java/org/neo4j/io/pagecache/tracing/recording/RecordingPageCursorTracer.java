@@ -187,6 +187,11 @@ public class RecordingPageCursorTracer extends RecordingTracer implements PageCu
         };
     }
 
+    @Override
+    public void readRetries( PageSwapper swapper, long retries, boolean pessimistic )
+    {
+    }
+
     @Override
     public void reportEvents()
     {
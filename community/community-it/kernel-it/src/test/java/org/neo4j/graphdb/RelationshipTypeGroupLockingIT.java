@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphdb;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.Race;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.ImpermanentDbmsExtension;
+import org.neo4j.test.extension.Inject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.graphdb.Direction.OUTGOING;
+import static org.neo4j.graphdb.RelationshipType.withName;
+import static org.neo4j.test.Race.throwing;
+
+/**
+ * Concurrent relationship changes on a dense node with {@link GraphDatabaseInternalSettings#relationship_type_group_locking} enabled. The lock
+ * verification of the test database fails any transaction that changes a relationship group without the locks it needs.
+ */
+@ImpermanentDbmsExtension( configurationCallback = "configure" )
+class RelationshipTypeGroupLockingIT
+{
+    private static final RelationshipType TYPE_A = withName( "A" );
+    private static final RelationshipType TYPE_B = withName( "B" );
+    private static final int INITIAL_RELATIONSHIPS_PER_TYPE = 100;
+    private static final int ADDED_RELATIONSHIPS_PER_TYPE = 200;
+    private static final int NEW_TYPES = 20;
+
+    @Inject
+    private GraphDatabaseAPI database;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( GraphDatabaseInternalSettings.relationship_type_group_locking, true );
+        builder.setConfig( GraphDatabaseInternalSettings.additional_lock_verification, true );
+    }
+
+    @Test
+    void shouldAddRelationshipsOfDifferentTypesConcurrentlyWhileNewTypesAreCreated() throws Throwable
+    {
+        // given
+        long denseNode;
+        try ( Transaction tx = database.beginTx() )
+        {
+            Node node = tx.createNode();
+            for ( int i = 0; i < INITIAL_RELATIONSHIPS_PER_TYPE; i++ )
+            {
+                node.createRelationshipTo( tx.createNode(), TYPE_A );
+                node.createRelationshipTo( tx.createNode(), TYPE_B );
+            }
+            denseNode = node.getId();
+            tx.commit();
+        }
+
+        // when
+        Race race = new Race();
+        race.addContestant( throwing( () -> createRelationships( denseNode, TYPE_A, ADDED_RELATIONSHIPS_PER_TYPE ) ) );
+        race.addContestant( throwing( () -> createRelationships( denseNode, TYPE_B, ADDED_RELATIONSHIPS_PER_TYPE ) ) );
+        race.addContestant( throwing( () ->
+        {
+            for ( int i = 0; i < NEW_TYPES; i++ )
+            {
+                createRelationships( denseNode, withName( "NEW_" + i ), 1 );
+            }
+        } ) );
+        race.go();
+
+        // then
+        try ( Transaction tx = database.beginTx() )
+        {
+            Node node = tx.getNodeById( denseNode );
+            assertRelationships( node, TYPE_A, INITIAL_RELATIONSHIPS_PER_TYPE + ADDED_RELATIONSHIPS_PER_TYPE );
+            assertRelationships( node, TYPE_B, INITIAL_RELATIONSHIPS_PER_TYPE + ADDED_RELATIONSHIPS_PER_TYPE );
+            for ( int i = 0; i < NEW_TYPES; i++ )
+            {
+                assertRelationships( node, withName( "NEW_" + i ), 1 );
+            }
+            assertThat( node.getDegree() ).isEqualTo( 2 * (INITIAL_RELATIONSHIPS_PER_TYPE + ADDED_RELATIONSHIPS_PER_TYPE) + NEW_TYPES );
+            tx.commit();
+        }
+    }
+
+    private void createRelationships( long denseNode, RelationshipType type, int count )
+    {
+        // One transaction per relationship, to have as many transactions as possible change the groups of the node concurrently
+        for ( int i = 0; i < count; i++ )
+        {
+            try ( Transaction tx = database.beginTx() )
+            {
+                tx.getNodeById( denseNode ).createRelationshipTo( tx.createNode(), type );
+                tx.commit();
+            }
+        }
+    }
+
+    private static void assertRelationships( Node node, RelationshipType type, int expected )
+    {
+        assertThat( node.getDegree( type, OUTGOING ) ).isEqualTo( expected );
+        assertThat( Iterables.count( node.getRelationships( OUTGOING, type ) ) ).isEqualTo( expected );
+    }
+}
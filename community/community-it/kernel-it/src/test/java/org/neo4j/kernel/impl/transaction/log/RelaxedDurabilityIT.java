@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointer;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.SimpleTriggerInfo;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_io_uring;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_relaxed_force_interval;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.configuration.GraphDatabaseSettings.SYSTEM_DATABASE_NAME;
+import static org.neo4j.internal.kernel.api.security.LoginContext.AUTH_DISABLED;
+import static org.neo4j.kernel.api.KernelTransaction.Type.EXPLICIT;
+
+@EphemeralTestDirectoryExtension
+class RelaxedDurabilityIT
+{
+    @Inject
+    private EphemeralFileSystemAbstraction fs;
+    @Inject
+    private TestDirectory testDirectory;
+    private DatabaseManagementService managementService;
+
+    @AfterEach
+    void shutdownDatabase()
+    {
+        if ( managementService != null )
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @ParameterizedTest( name = "io_uring={0}" )
+    @ValueSource( booleans = {false, true} )
+    void storeMustNotGetAheadOfRelaxedTransactionsInTheLogOnCrash( boolean ioUring ) throws IOException
+    {
+        GraphDatabaseAPI db = startDatabase( fs, ioUring );
+        // Start from a store that is durable in its entirety
+        checkPoint( (GraphDatabaseAPI) managementService.database( SYSTEM_DATABASE_NAME ) );
+        checkPoint( db );
+
+        int nodes = 10;
+        for ( int i = 0; i < nodes; i++ )
+        {
+            try ( InternalTransaction tx = db.beginTransaction( EXPLICIT, AUTH_DISABLED ) )
+            {
+                tx.kernelTransaction().setRelaxedDurability( true );
+                tx.createNode();
+                tx.commit();
+            }
+        }
+        long lastCommittedTransactionId = db.getDependencyResolver().resolveDependency( TransactionIdStore.class ).getLastCommittedTransactionId();
+
+        // Store pages are written while the relaxed transactions that changed them are still waiting to be forced,
+        // just like when the page cache evicts them, and the operating system makes those writes durable
+        db.getDependencyResolver().resolveDependency( PageCache.class ).flushAndForce();
+        fs.crash();
+        EphemeralFileSystemAbstraction crashedFs = fs.snapshot();
+        managementService.shutdown();
+
+        db = startDatabase( crashedFs, ioUring );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( nodes, Iterables.count( tx.getAllNodes() ) );
+        }
+        // The store must never contain changes that recovery does not find in the log
+        LogicalTransactionStore transactionStore = db.getDependencyResolver().resolveDependency( LogicalTransactionStore.class );
+        try ( TransactionCursor transactions = transactionStore.getTransactions( lastCommittedTransactionId ) )
+        {
+            assertTrue( transactions.next() );
+        }
+    }
+
+    private static void checkPoint( GraphDatabaseAPI db ) throws IOException
+    {
+        db.getDependencyResolver().resolveDependency( CheckPointer.class ).forceCheckPoint( new SimpleTriggerInfo( "test" ) );
+    }
+
+    private GraphDatabaseAPI startDatabase( EphemeralFileSystemAbstraction fileSystem, boolean ioUring )
+    {
+        managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() )
+                .setFileSystem( fileSystem )
+                .impermanent()
+                .setConfig( tx_log_relaxed_force_interval, Duration.ofHours( 1 ) )
+                .setConfig( pagecache_io_uring, ioUring )
+                .build();
+        return (GraphDatabaseAPI) managementService.database( DEFAULT_DATABASE_NAME );
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.storageengine.api.StorageEngineFactory;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_compression;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
+
+@DbmsExtension( configurationCallback = "configure" )
+class TransactionLogCompressionIT
+{
+    private static final Label LABEL = Label.label( "Compressed" );
+
+    @Inject
+    private GraphDatabaseAPI database;
+    @Inject
+    private LogFiles logFiles;
+    @Inject
+    private DatabaseTracer tracer;
+    @Inject
+    private StorageEngineFactory storageEngineFactory;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( tx_log_compression, true );
+    }
+
+    @Test
+    void shouldReadBackCompressedCommandsOfCommittedTransactions() throws IOException
+    {
+        int transactions = 10;
+        int nodesPerTransaction = 100;
+        String value = "compressible".repeat( 100 );
+        for ( int i = 0; i < transactions; i++ )
+        {
+            try ( Transaction tx = database.beginTx() )
+            {
+                for ( int j = 0; j < nodesPerTransaction; j++ )
+                {
+                    Node node = tx.createNode( LABEL );
+                    node.setProperty( "value", value );
+                }
+                tx.commit();
+            }
+        }
+
+        assertThat( tracer.commandBytesAfterCompression() ).isPositive();
+        assertThat( tracer.commandBytesAfterCompression() ).isLessThan( tracer.commandBytesBeforeCompression() / 2 );
+
+        var entryReader = new VersionAwareLogEntryReader( storageEngineFactory.commandReaderFactory() );
+        long commits = 0;
+        long commands = 0;
+        try ( ReadableLogChannel channel = logFiles.getLogFile().getReader( new LogPosition( 0, CURRENT_FORMAT_LOG_HEADER_SIZE ) ) )
+        {
+            LogEntry entry;
+            while ( (entry = entryReader.readLogEntry( channel )) != null )
+            {
+                if ( entry instanceof LogEntryCommand )
+                {
+                    commands++;
+                }
+                else if ( entry instanceof LogEntryCommit )
+                {
+                    commits++;
+                }
+            }
+        }
+        assertThat( commits ).isGreaterThanOrEqualTo( transactions );
+        assertThat( commands ).isGreaterThanOrEqualTo( (long) transactions * nodesPerTransaction );
+    }
+}
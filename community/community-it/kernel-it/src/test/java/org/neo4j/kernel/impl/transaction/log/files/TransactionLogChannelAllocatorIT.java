@@ -164,7 +164,7 @@ class TransactionLogChannelAllocatorIT
                 SimpleLogVersionRepository::new, fileSystem, NullLogProvider.getInstance(), DatabaseTracers.EMPTY, () -> StoreId.UNKNOWN,
                 NativeAccessProvider.getNativeAccess(), INSTANCE, new Monitors(), true,
                 new DatabaseHealth( PanicEventGenerator.NO_OP, NullLog.getInstance() ), () -> KernelVersion.LATEST,
-                Clock.systemUTC(), Config.defaults() );
+                Clock.systemUTC(), Config.defaults(), null );
     }
 
     private static class AdviseCountingChannelNativeAccessor extends ChannelNativeAccessor.EmptyChannelNativeAccessor
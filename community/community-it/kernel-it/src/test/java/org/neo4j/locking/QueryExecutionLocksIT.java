@@ -1044,6 +1044,12 @@ class QueryExecutionLocksIT
             return internal.getMetaData();
         }
 
+        @Override
+        public void setRelaxedDurability( boolean relaxedDurability )
+        {
+            internal.setRelaxedDurability( relaxedDurability );
+        }
+
         @Override
         public void assertOpen()
         {
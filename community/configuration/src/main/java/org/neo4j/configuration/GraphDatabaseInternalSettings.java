@@ -25,6 +25,8 @@ import java.util.List;
 
 import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.graphdb.config.Setting;
+import org.neo4j.io.mem.HugePageMode;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicyType;
 
 import static java.time.Duration.ofDays;
 import static java.time.Duration.ofMillis;
@@ -73,6 +75,16 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     @Internal
     public static final Setting<Boolean> lock_manager_verbose_deadlocks = newBuilder( "unsupported.dbms.lock_manager.verbose_deadlocks", BOOL, false ).build();
 
+    @Internal
+    @Description( "Number of most recent lock waits sampled by the lock contention profiler of each database. Zero disables the profiler." )
+    public static final Setting<Integer> lock_contention_profiler_samples =
+            newBuilder( "unsupported.dbms.lock_manager.contention_profiler.samples", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Time window over which the lock contention profiler aggregates the most contended resources." )
+    public static final Setting<Duration> lock_contention_profiler_window =
+            newBuilder( "unsupported.dbms.lock_manager.contention_profiler.window", DURATION, ofMinutes( 1 ) ).build();
+
     @Internal
     public static final Setting<String> tracer = newBuilder( "unsupported.dbms.tracer", STRING, null ).build();
 
@@ -366,6 +378,58 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Boolean> fail_on_corrupted_log_files =
             newBuilder("unsupported.dbms.tx_log.fail_on_corrupted_log_files", BOOL, true ).build();
 
+    @Internal
+    @Description( "If `true`, the transaction log is forced by a dedicated flusher thread, which committing transactions hand their force " +
+            "requests over to, instead of electing one of the committing transactions to force the log on behalf of the others." )
+    public static final Setting<Boolean> tx_log_dedicated_flusher =
+            newBuilder( "unsupported.dbms.tx_log.dedicated_flusher", BOOL, false ).build();
+
+    @Internal
+    @Description( "How long the dedicated transaction log flusher waits for more transactions to join a batch before forcing the log. " +
+            "A longer delay means fewer, larger forces at the cost of commit latency. " +
+            "Only has an effect if `unsupported.dbms.tx_log.dedicated_flusher` is enabled." )
+    public static final Setting<Duration> tx_log_commit_delay =
+            newBuilder( "unsupported.dbms.tx_log.commit_delay", DURATION, Duration.ZERO ).build();
+
+    @Internal
+    @Description( "If `true`, the commands of transactions are zstd compressed before being appended to the transaction log. " +
+            "Logs written with compression enabled can only be read by versions that support it, but are read regardless of this setting." )
+    public static final Setting<Boolean> tx_log_compression =
+            newBuilder( "unsupported.dbms.tx_log.compression", BOOL, false ).build();
+
+    @Internal
+    @Description( "The zstd compression level used when `unsupported.dbms.tx_log.compression` is enabled. " +
+            "Higher levels compress better, at the cost of more CPU time spent committing transactions." )
+    public static final Setting<Integer> tx_log_compression_level =
+            newBuilder( "unsupported.dbms.tx_log.compression.level", INT, 3 ).addConstraint( range( 1, 19 ) ).build();
+
+    @Internal
+    @Description( "Read completed transaction log files, for example during recovery, through a read-only memory mapping " +
+            "instead of copying their contents through a read-ahead buffer. " +
+            "The transaction log file currently being appended to is always read through a read-ahead buffer." )
+    public static final Setting<Boolean> tx_log_memory_mapped_reader =
+            newBuilder( "unsupported.dbms.tx_log.memory_mapped_reader", BOOL, false ).build();
+
+    @Internal
+    @Description( "The number of pruned transaction log files to keep around for reuse as future log versions, instead of deleting them. " +
+            "Reusing an already allocated file saves log rotation from creating a new file and preallocating space for it. " +
+            "Only used when transaction logs are preallocated. Zero disables log file recycling." )
+    public static final Setting<Integer> tx_log_recycle_pool_size =
+            newBuilder( "unsupported.dbms.tx_log.recycle_pool_size", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "The longest time a transaction committed with relaxed durability can be left in the transaction log without being " +
+            "forced to disk. This bounds how many of the most recently committed relaxed transactions an operating system crash can lose." )
+    public static final Setting<Duration> tx_log_relaxed_force_interval =
+            newBuilder( "unsupported.dbms.tx_log.relaxed_force_interval", DURATION, Duration.ofMillis( 100 ) )
+                    .addConstraint( min( Duration.ofMillis( 1 ) ) ).build();
+
+    @Internal
+    @Description( "The amount of transaction log data appended with relaxed durability after which the log is forced in the background, " +
+            "without waiting for `unsupported.dbms.tx_log.relaxed_force_interval` to pass." )
+    public static final Setting<Long> tx_log_relaxed_force_size =
+            newBuilder( "unsupported.dbms.tx_log.relaxed_force_size", BYTES, mebiBytes( 4 ) ).addConstraint( min( kibiBytes( 1 ) ) ).build();
+
     @Internal
     @Description( "Specifies if engine should run cypher query based on a snapshot of accessed data. " +
             "Query will be restarted in case if concurrent modification of data will be detected." )
@@ -578,6 +642,87 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Duration> page_cache_tracer_speed_reporting_threshold =
             newBuilder( "unsupported.dbms.debug.page_cache_tracer_speed_reporting_threshold", DURATION, ofSeconds( 10 ) ).build();
 
+    @Internal
+    @Description( "The policy the page cache uses to pick pages to evict. CLOCK evicts the least recently used pages, while SEGMENTED_CLOCK " +
+            "keeps frequently used pages in a protected segment, such that large scans do not flush the working set out of the page cache." )
+    public static final Setting<EvictionPolicyType> pagecache_eviction_policy =
+            newBuilder( "unsupported.dbms.memory.pagecache.eviction_policy", ofEnum( EvictionPolicyType.class ), EvictionPolicyType.CLOCK ).build();
+
+    @Internal
+    @Description( "Use Linux io_uring for the page cache swapping, such that the page faults of the pre-fetcher, and the writes of page cache " +
+            "flushes, are submitted in batches. Regular file channel io is used instead when io_uring is not available." )
+    public static final Setting<Boolean> pagecache_io_uring =
+            newBuilder( "unsupported.dbms.memory.pagecache.io_uring", BOOL, false ).build();
+
+    @Internal
+    @Description( "The names of the store files, e.g. `neostore.relationshipstore.db`, whose pages should be stored compressed with zstd. " +
+            "Only files that are created, or are empty, while they are listed here are compressed. Their pages are decompressed when they are " +
+            "faulted into the page cache, and compressed when they are flushed. A compressed file keeps the location of its pages in a file " +
+            "next to it, with the `.offsets` suffix, and stays compressed when it is no longer listed here, as long as at least one file is listed. " +
+            "Compression is entirely disabled when no files are listed, and compressed files then cannot be read. " +
+            "Files that are accessed with direct IO are never compressed." )
+    public static final Setting<List<String>> pagecache_compressed_files =
+            newBuilder( "unsupported.dbms.memory.pagecache.compressed_files", listOf( STRING ), List.of() ).build();
+
+    @Internal
+    @Description( "Back the page cache memory with huge pages, to reduce the TLB misses when accessing the page cache. TRANSPARENT maps the memory " +
+            "aligned to huge pages and advises the kernel to back it with transparent huge pages, while EXPLICIT maps the memory from the pool " +
+            "of reserved huge pages, and falls back to transparent huge pages when the pool runs out. Only supported on Linux." )
+    public static final Setting<HugePageMode> pagecache_huge_pages =
+            newBuilder( "unsupported.dbms.memory.pagecache.huge_pages", ofEnum( HugePageMode.class ), HugePageMode.DISABLED ).build();
+
+    @Internal
+    @Description( "Split the page cache memory, and its eviction, over the NUMA nodes of the machine. Page faults then prefer pages whose memory " +
+            "is on the node the faulting thread runs on, and every node gets its own eviction thread. Only has an effect on Linux machines with " +
+            "more than one NUMA node." )
+    public static final Setting<Boolean> pagecache_numa =
+            newBuilder( "unsupported.dbms.memory.pagecache.numa", BOOL, false ).build();
+
+    @Internal
+    @Description( "The number of background threads that evict pages from the page cache, for every NUMA node if the page cache is NUMA aware. " +
+            "Each thread sweeps its own slice of the pages. More threads can keep up with heavier write loads, where page faulting threads " +
+            "otherwise have to evict pages themselves." )
+    public static final Setting<Integer> pagecache_eviction_threads =
+            newBuilder( "unsupported.dbms.memory.pagecache.eviction_threads", INT, 1 ).addConstraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "The largest size that `dbms.memory.pagecache.size` can be raised to while the database is running. The page cache sets " +
+            "aside the meta-data of the pages for this much memory when it starts, but only allocates the memory of the pages as it grows " +
+            "into it. By default, the page cache can only grow back to the size it was started with." )
+    public static final Setting<Long> pagecache_max_memory =
+            newBuilder( "unsupported.dbms.memory.pagecache.max_size", BYTES, null ).build();
+
+    @Internal
+    @Description( "Additional page sizes for the page cache, each with memory of its own, defined as 'pageSize:memory', e.g. '4k:512m' or " +
+            "'64k:1g'. The memory of the page size classes is taken from `dbms.memory.pagecache.size`, and the rest is used for pages of the " +
+            "regular size. Files whose page size is one of these sizes, and which are mapped into a page size class, are cached in pages " +
+            "of that size, such that small-record stores and indexes can use small pages, while files that are mostly scanned " +
+            "sequentially can use large pages." )
+    public static final Setting<List<String>> pagecache_page_size_classes =
+            newBuilder( "unsupported.dbms.memory.pagecache.page_size_classes", listOf( STRING ), List.of() ).build();
+
+    @Internal
+    @Description( "Continuously write dirty pages to the store files in the background, in file order, such that checkpoints only have few " +
+            "dirty pages left to write. The rate of writing follows the ratio of dirty pages in the page cache, and the rate at which pages " +
+            "are dirtied. The writer aims to write every dirty page within half of `dbms.checkpoint.interval.time`, and sooner the more of " +
+            "the page cache is dirty." )
+    public static final Setting<Boolean> pagecache_background_writer =
+            newBuilder( "unsupported.dbms.memory.pagecache.background_writer", BOOL, false ).build();
+
+    @Internal
+    @Description( "Partitions of the page cache, that reserve and limit the number of pages the files of a database can occupy. " +
+            "Each partition is defined as 'name:database:minPages:maxPages', or as 'name:database:fileNameRegex:minPages:maxPages' to only " +
+            "include the files of the database whose names match the regular expression. A file belongs to the first partition that matches it." )
+    public static final Setting<List<String>> pagecache_partitions =
+            newBuilder( "unsupported.dbms.memory.pagecache.partitions", listOf( STRING ), List.of() ).build();
+
+    @Internal
+    @Description( "Run the page cache warmer of the community edition for every database, which profiles the pages in the page cache to a " +
+            "`profiles` directory in the database directory and reloads them on startup, as configured by the " +
+            "`dbms.memory.pagecache.warmup.*` settings. Editions that come with their own page cache warmup should leave this disabled." )
+    public static final Setting<Boolean> pagecache_warmer =
+            newBuilder( "unsupported.dbms.memory.pagecache.warmer", BOOL, false ).build();
+
     @Internal
     public static final Setting<Boolean> log_recover_index_samples = newBuilder( "unsupported.dbms.index.sampling.log_recovered_samples", BOOL, false ).build();
 
@@ -674,6 +819,13 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     @Description( "Whether or not to do additional checks for locks when making changes as part of commit. This may be expensive to enable." )
     public static final Setting<Boolean> additional_lock_verification = newBuilder( "unsupported.dbms.extra_lock_verification", BOOL, false ).build();
 
+    @Internal
+    @Description( "Whether or not relationship changes on dense nodes should lock the relationship groups of the affected relationship types only, " +
+            "instead of all relationship groups of the node. This lets transactions changing relationships of different types on the same dense node " +
+            "run concurrently. Creating or deleting relationship groups still locks all groups of the node." )
+    public static final Setting<Boolean> relationship_type_group_locking =
+            newBuilder( "unsupported.dbms.relationship_type_group_locking", BOOL, false ).build();
+
     @Internal
     public static final Setting<Boolean> io_controller_consider_external_io =
             newBuilder( "unsupported.dbms.io.controller.consider.external.enabled", BOOL, false ).dynamic().build();
@@ -609,8 +609,9 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             "then it is generally recommended to leave about 2-4 gigabytes for the operating system, give the " +
             "JVM enough heap to hold all your transaction state and query context, and then leave the rest for " +
             "the page cache. If no page cache memory is configured, then a heuristic setting is computed based " +
-            "on available system resources." )
-    public static final Setting<String> pagecache_memory = newBuilder( "dbms.memory.pagecache.size", STRING, null ).build();
+            "on available system resources. Changing this setting at runtime shrinks the page cache, or grows it back up to the size it " +
+            "was started with." )
+    public static final Setting<String> pagecache_memory = newBuilder( "dbms.memory.pagecache.size", STRING, null ).dynamic().build();
 
     @Description( "This setting is not used anymore." )
     @Deprecated
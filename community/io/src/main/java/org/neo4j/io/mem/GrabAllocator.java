@@ -19,17 +19,30 @@
  */
 package org.neo4j.io.mem;
 
+import org.neo4j.internal.nativeimpl.LinuxHugePages;
+import org.neo4j.internal.nativeimpl.LinuxNuma;
+import org.neo4j.internal.unsafe.NativeMemoryAllocationRefusedError;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.memory.MemoryTracker;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.ref.Cleaner;
+import java.util.Arrays;
 
 import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
 import static org.neo4j.util.FeatureToggles.getInteger;
+import static org.neo4j.util.FeatureToggles.getLong;
 
 /**
  * This memory allocator is allocating memory in large segments, called "grabs", and the memory returned by the memory
  * manager is page aligned, and plays well with transparent huge pages and other operating system optimisations.
+ * <p>
+ * With a {@link HugePageMode} other than {@link HugePageMode#DISABLED}, the grabs are instead mapped directly from the operating system,
+ * aligned to, and sized in multiples of, the huge page size. Every allocation then sits on huge pages, if the operating system has any to give.
+ * <p>
+ * Allocations for a given NUMA node are carved out of separate grabs, that the operating system is asked to place on that node.
  */
 public final class GrabAllocator implements MemoryAllocator
 {
@@ -44,11 +57,12 @@ public final class GrabAllocator implements MemoryAllocator
      *
      * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate. The
      * actual amount of memory used can end up greater than this value, if some of it gets wasted on alignment padding.
+     * @param hugePageMode how to ask the operating system for huge pages
      * @param memoryTracker memory usage tracker
      */
-    GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker )
+    GrabAllocator( long expectedMaxMemory, HugePageMode hugePageMode, MemoryTracker memoryTracker )
     {
-        this.grabs = new Grabs( expectedMaxMemory, memoryTracker );
+        this.grabs = new Grabs( expectedMaxMemory, hugePageMode, memoryTracker );
         this.cleanable = globalCleaner.register( this, new GrabsDeallocator( grabs ) );
     }
 
@@ -64,10 +78,28 @@ public final class GrabAllocator implements MemoryAllocator
         return grabs.availableMemory();
     }
 
+    @Override
+    public synchronized long hugePageBackedMemory()
+    {
+        return grabs.hugePageBackedMemory();
+    }
+
     @Override
     public synchronized long allocateAligned( long bytes, long alignment )
     {
-        return grabs.allocateAligned( bytes, alignment );
+        return grabs.allocateAligned( bytes, alignment, -1 );
+    }
+
+    @Override
+    public synchronized long allocateAligned( long bytes, long alignment, int numaNode )
+    {
+        return grabs.allocateAligned( bytes, alignment, numaNode );
+    }
+
+    @Override
+    public synchronized boolean discard( long address, long bytes )
+    {
+        return grabs.discard( address, bytes );
     }
 
     @Override
@@ -81,24 +113,27 @@ public final class GrabAllocator implements MemoryAllocator
         public final Grab next;
         private final long address;
         private final long limit;
+        private final boolean mapped;
         private final MemoryTracker memoryTracker;
         private long nextPointer;
 
         Grab( Grab next, long size, MemoryTracker memoryTracker )
         {
-            this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
-            this.limit = address + size;
-            this.memoryTracker = memoryTracker;
-            nextPointer = address;
+            this( next, UnsafeUtil.allocateMemory( size, memoryTracker ), size, false, memoryTracker );
+        }
+
+        Grab( Grab next, long address, long size, boolean mapped, MemoryTracker memoryTracker )
+        {
+            this( next, address, address + size, address, mapped, memoryTracker );
         }
 
-        Grab( Grab next, long address, long limit, long nextPointer, MemoryTracker memoryTracker )
+        Grab( Grab next, long address, long limit, long nextPointer, boolean mapped, MemoryTracker memoryTracker )
         {
             this.next = next;
             this.address = address;
             this.limit = limit;
             this.nextPointer = nextPointer;
+            this.mapped = mapped;
             this.memoryTracker = memoryTracker;
         }
 
@@ -125,7 +160,23 @@ public final class GrabAllocator implements MemoryAllocator
 
         void free()
         {
-            UnsafeUtil.free( address, limit - address, memoryTracker );
+            if ( mapped )
+            {
+                UnsafeUtil.forgetExternalMemory( address );
+                try
+                {
+                    LinuxHugePages.unmap( address, limit - address );
+                }
+                catch ( IOException e )
+                {
+                    throw new UncheckedIOException( e );
+                }
+                memoryTracker.releaseNative( limit - address );
+            }
+            else
+            {
+                UnsafeUtil.free( address, limit - address, memoryTracker );
+            }
         }
 
         boolean canAllocate( long bytes, long alignment )
@@ -135,7 +186,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         Grab setNext( Grab grab )
         {
-            return new Grab( grab, address, limit, nextPointer, memoryTracker );
+            return new Grab( grab, address, limit, nextPointer, mapped, memoryTracker );
         }
 
         @Override
@@ -144,7 +195,7 @@ public final class GrabAllocator implements MemoryAllocator
             long size = limit - address;
             long reserve = nextPointer > limit ? 0 : limit - nextPointer;
             double use = (1.0 - reserve / ((double) size)) * 100.0;
-            return String.format( "Grab[size = %d bytes, reserve = %d bytes, use = %5.2f %%]", size, reserve, use );
+            return String.format( "Grab[size = %d bytes, reserve = %d bytes, use = %5.2f %%, mapped = %b]", size, reserve, use, mapped );
         }
     }
 
@@ -155,73 +206,136 @@ public final class GrabAllocator implements MemoryAllocator
          */
         private static final long GRAB_SIZE = getInteger( GrabAllocator.class, "GRAB_SIZE", (int) kibiBytes( 512 ) );
 
+        /**
+         * The amount of memory, in bytes, to grab in each Grab when the grabs are mapped on huge pages. This is rounded up to a multiple of
+         * the huge page size.
+         */
+        private static final long HUGE_PAGE_GRAB_SIZE = getLong( GrabAllocator.class, "HUGE_PAGE_GRAB_SIZE", mebiBytes( 64 ) );
+
+        private final HugePageMode hugePageMode;
+        private final long grabSize;
         private final MemoryTracker memoryTracker;
         private long expectedMaxMemory;
-        private Grab head;
+        private long hugePageBackedMemory;
+        private boolean hugePageBackedMemoryStale;
+        // The grabs that allocations are carved out of, one list for each NUMA node, with the list for no particular node first.
+        private Grab[] heads = new Grab[1];
 
-        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker )
+        Grabs( long expectedMaxMemory, HugePageMode hugePageMode, MemoryTracker memoryTracker )
         {
             this.expectedMaxMemory = expectedMaxMemory;
+            this.hugePageMode = LinuxHugePages.isAvailable() ? hugePageMode : HugePageMode.DISABLED;
+            this.grabSize = this.hugePageMode == HugePageMode.DISABLED ? GRAB_SIZE : alignToHugePages( HUGE_PAGE_GRAB_SIZE );
             this.memoryTracker = memoryTracker;
         }
 
         long usedMemory()
         {
             long sum = 0;
-            Grab grab = head;
-            while ( grab != null )
+            for ( Grab head : heads )
             {
-                sum += grab.nextPointer - grab.address;
-                grab = grab.next;
+                Grab grab = head;
+                while ( grab != null )
+                {
+                    sum += grab.nextPointer - grab.address;
+                    grab = grab.next;
+                }
             }
             return sum;
         }
 
         long availableMemory()
         {
-            Grab grab = head;
-            long availableInCurrentGrab = 0;
-            if ( grab != null )
+            long availableInCurrentGrabs = 0;
+            for ( Grab grab : heads )
             {
-                availableInCurrentGrab = grab.limit - grab.nextPointer;
+                if ( grab != null )
+                {
+                    availableInCurrentGrabs += grab.limit - grab.nextPointer;
+                }
             }
-            return Math.max( expectedMaxMemory, 0L ) + availableInCurrentGrab;
+            return Math.max( expectedMaxMemory, 0L ) + availableInCurrentGrabs;
+        }
+
+        long hugePageBackedMemory()
+        {
+            return hugePageBackedMemory;
         }
 
         public void close()
         {
-            Grab current = head;
+            for ( int i = 0; i < heads.length; i++ )
+            {
+                Grab current = heads[i];
+
+                while ( current != null )
+                {
+                    current.free();
+                    current = current.next;
+                }
+                heads[i] = null;
+            }
+        }
 
-            while ( current != null )
+        boolean discard( long address, long bytes )
+        {
+            if ( !LinuxHugePages.isAvailable() )
+            {
+                return false;
+            }
+            try
+            {
+                LinuxHugePages.discard( address, bytes );
+            }
+            catch ( IOException e )
             {
-                current.free();
-                current = current.next;
+                // Explicit huge pages cannot be discarded piecemeal, so their memory stays in place.
+                return false;
             }
-            head = null;
+            // Discarding part of a transparent huge page splits it.
+            hugePageBackedMemoryStale |= hugePageMode != HugePageMode.DISABLED;
+            return true;
         }
 
-        long allocateAligned( long bytes, long alignment )
+        long allocateAligned( long bytes, long alignment, int numaNode )
         {
             if ( alignment <= 0 )
             {
                 throw new IllegalArgumentException( "Invalid alignment: " + alignment + ". Alignment must be positive." );
             }
-            long grabSize = Math.min( GRAB_SIZE, expectedMaxMemory );
+            int index = numaNode < 0 || !LinuxNuma.isAvailable() ? 0 : numaNode + 1;
+            if ( index >= heads.length )
+            {
+                heads = Arrays.copyOf( heads, index + 1 );
+            }
+            long allocation = allocateAlignedInGrabs( bytes, alignment, index );
+            if ( hugePageBackedMemoryStale )
+            {
+                measureHugePageBackedMemory();
+            }
+            return allocation;
+        }
+
+        private long allocateAlignedInGrabs( long bytes, long alignment, int index )
+        {
+            Grab head = heads[index];
+            int numaNode = index - 1;
+            long grabSize = Math.min( this.grabSize, expectedMaxMemory );
             long maxAllocationSize = bytes + alignment - 1;
-            if ( maxAllocationSize > GRAB_SIZE )
+            if ( maxAllocationSize > this.grabSize )
             {
                 // This is a huge allocation. Put it in its own grab and keep any existing grab at the head.
                 grabSize = bytes;
                 Grab nextGrab = head == null ? null : head.next;
-                Grab allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                Grab allocationGrab = newGrab( nextGrab, grabSize, numaNode );
                 if ( !allocationGrab.canAllocate( bytes, alignment ) )
                 {
                     allocationGrab.free();
                     grabSize = maxAllocationSize;
-                    allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                    allocationGrab = newGrab( nextGrab, grabSize, numaNode );
                 }
                 long allocation = allocationGrab.allocate( bytes, alignment );
-                head = head == null ? allocationGrab : head.setNext( allocationGrab );
+                heads[index] = head == null ? allocationGrab : head.setNext( allocationGrab );
                 expectedMaxMemory -= bytes;
                 return allocation;
             }
@@ -231,21 +345,131 @@ public final class GrabAllocator implements MemoryAllocator
                 if ( grabSize < maxAllocationSize )
                 {
                     grabSize = bytes;
-                    Grab grab = new Grab( head, grabSize, memoryTracker );
+                    Grab grab = newGrab( head, grabSize, numaNode );
                     if ( grab.canAllocate( bytes, alignment ) )
                     {
                         expectedMaxMemory -= grabSize;
-                        head = grab;
-                        return head.allocate( bytes, alignment );
+                        heads[index] = grab;
+                        return grab.allocate( bytes, alignment );
                     }
                     grab.free();
                     grabSize = maxAllocationSize;
                 }
-                head = new Grab( head, grabSize, memoryTracker );
+                head = newGrab( head, grabSize, numaNode );
+                heads[index] = head;
                 expectedMaxMemory -= grabSize;
             }
             return head.allocate( bytes, alignment );
         }
+
+        private Grab newGrab( Grab next, long size, int numaNode )
+        {
+            if ( hugePageMode == HugePageMode.DISABLED )
+            {
+                Grab grab = new Grab( next, size, memoryTracker );
+                preferNumaNode( grab.address, size, numaNode );
+                return grab;
+            }
+            long mappedSize = alignToHugePages( size );
+            memoryTracker.allocateNative( mappedSize );
+            long address = 0;
+            if ( hugePageMode == HugePageMode.EXPLICIT )
+            {
+                try
+                {
+                    address = LinuxHugePages.mapExplicit( mappedSize );
+                }
+                catch ( IOException e )
+                {
+                    // The pool of reserved huge pages has run out, so we fall back to transparent huge pages.
+                }
+            }
+            if ( address == 0 )
+            {
+                try
+                {
+                    address = LinuxHugePages.mapTransparent( mappedSize );
+                }
+                catch ( IOException e )
+                {
+                    memoryTracker.releaseNative( mappedSize );
+                    throw new NativeMemoryAllocationRefusedError( mappedSize, memoryTracker.usedNativeMemory() );
+                }
+                preferNumaNode( address, mappedSize, numaNode );
+                // Touch every huge page up front, such that the kernel faults them in as huge pages right away and we can tell how many
+                // of them it was able to give us. The grabs are allocated on demand, so the memory was about to be used anyway.
+                UnsafeUtil.registerExternalMemory( address, mappedSize );
+                long hugePageSize = LinuxHugePages.hugePageSize();
+                for ( long offset = 0; offset < mappedSize; offset += hugePageSize )
+                {
+                    UnsafeUtil.putByte( address + offset, (byte) 0 );
+                }
+            }
+            else
+            {
+                preferNumaNode( address, mappedSize, numaNode );
+                UnsafeUtil.registerExternalMemory( address, mappedSize );
+            }
+            hugePageBackedMemoryStale = true;
+            return new Grab( next, address, mappedSize, true, memoryTracker );
+        }
+
+        private static void preferNumaNode( long address, long size, int numaNode )
+        {
+            if ( numaNode >= 0 )
+            {
+                try
+                {
+                    LinuxNuma.preferNode( address, size, numaNode );
+                }
+                catch ( IOException e )
+                {
+                    // The placement is only a preference. The memory is just as usable on any other node.
+                }
+            }
+        }
+
+        private void measureHugePageBackedMemory()
+        {
+            hugePageBackedMemoryStale = false;
+            int count = 0;
+            for ( Grab head : heads )
+            {
+                for ( Grab grab = head; grab != null; grab = grab.next )
+                {
+                    count += grab.mapped ? 1 : 0;
+                }
+            }
+            long[] addresses = new long[count];
+            long[] lengths = new long[count];
+            int index = 0;
+            for ( Grab head : heads )
+            {
+                for ( Grab grab = head; grab != null; grab = grab.next )
+                {
+                    if ( grab.mapped )
+                    {
+                        addresses[index] = grab.address;
+                        lengths[index] = grab.limit - grab.address;
+                        index++;
+                    }
+                }
+            }
+            try
+            {
+                hugePageBackedMemory = LinuxHugePages.hugePageBackedBytes( addresses, lengths );
+            }
+            catch ( IOException e )
+            {
+                // The memory map of the process could not be read, so we keep reporting the previous measurement.
+            }
+        }
+
+        private static long alignToHugePages( long size )
+        {
+            long hugePageSize = LinuxHugePages.hugePageSize();
+            return Math.max( hugePageSize, (size + hugePageSize - 1) / hugePageSize * hugePageSize );
+        }
     }
 
     private static Cleaner globalCleaner()
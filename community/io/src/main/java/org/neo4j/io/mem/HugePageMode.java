@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+/**
+ * How a {@link MemoryAllocator} should ask the operating system for huge pages, that reduce the TLB misses when accessing large amounts
+ * of memory.
+ */
+public enum HugePageMode
+{
+    /**
+     * Allocate the memory with malloc, and leave it to the operating system whether to use huge pages.
+     */
+    DISABLED,
+    /**
+     * Map the memory aligned to huge page boundaries, and advise the operating system to back it with transparent huge pages.
+     */
+    TRANSPARENT,
+    /**
+     * Map the memory from the pool of explicitly reserved huge pages, and fall back to transparent huge pages when the pool runs out.
+     */
+    EXPLICIT
+}
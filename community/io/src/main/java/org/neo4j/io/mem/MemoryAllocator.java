@@ -28,7 +28,12 @@ public interface MemoryAllocator
 {
     static MemoryAllocator createAllocator( long expectedMemory, MemoryTracker memoryTracker )
     {
-        return new GrabAllocator( expectedMemory, memoryTracker );
+        return createAllocator( expectedMemory, HugePageMode.DISABLED, memoryTracker );
+    }
+
+    static MemoryAllocator createAllocator( long expectedMemory, HugePageMode hugePageMode, MemoryTracker memoryTracker )
+    {
+        return new GrabAllocator( expectedMemory, hugePageMode, memoryTracker );
     }
 
     /**
@@ -41,6 +46,11 @@ public interface MemoryAllocator
      */
     long availableMemory();
 
+    /**
+     * @return The amount of allocated memory, in bytes, that the operating system backs with huge pages.
+     */
+    long hugePageBackedMemory();
+
     /**
      * Allocate a contiguous, aligned region of memory of the given size in bytes.
      * @param bytes the number of bytes to allocate.
@@ -50,6 +60,26 @@ public interface MemoryAllocator
      */
     long allocateAligned( long bytes, long alignment );
 
+    /**
+     * Allocate a contiguous, aligned region of memory of the given size in bytes, that the operating system should preferably place on the
+     * given NUMA node. Where NUMA placement is not supported, this is the same as {@link #allocateAligned(long, long)}.
+     * @param bytes the number of bytes to allocate.
+     * @param alignment The byte multiple that the allocated pointers have to be aligned at.
+     * @param numaNode The NUMA node to place the memory on, or a negative number for no particular node.
+     * @return A pointer to the allocated memory.
+     * @throws OutOfMemoryError if the requested memory could not be allocated.
+     */
+    long allocateAligned( long bytes, long alignment, int numaNode );
+
+    /**
+     * Let the operating system take back the physical memory behind the given range of allocated memory. The range stays allocated and
+     * can still be read, but its contents are lost, and it only takes up physical memory again once it is written to.
+     * @param address the start of the range, aligned to the operating system page size.
+     * @param bytes the size of the range, a multiple of the operating system page size.
+     * @return true if the physical memory was given back, false if this is not supported for the given memory.
+     */
+    boolean discard( long address, long bytes );
+
     /**
      * Close all allocated resources and free all allocated memory.
      * Closing can happen by calling close explicitly or by GC as soon as allocator will become phantom reachable.
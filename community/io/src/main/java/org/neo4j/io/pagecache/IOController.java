@@ -59,6 +59,20 @@ public interface IOController
      */
     void maybeLimitIO( int recentlyCompletedIOs, Flushable flushable, MajorFlushEvent flushEvent );
 
+    /**
+     * Invoked before pages of a file mapped with this controller are written to the file system, whether that is part of
+     * a flush or of an eviction.
+     * <p/>
+     * This allows a database to make its transaction log durable up to the changes in those pages first, so that the
+     * store never gets ahead of the log it is recovered from. Pages are only written once this method returns.
+     *
+     * @throws IOException if the pages must not be written.
+     */
+    default void beforePageWrite() throws IOException
+    {
+        // By default pages can be written at any time.
+    }
+
     /**
      * Temporarily disable the IOController, to allow IO to proceed at full speed.
      * This call <strong>MUST</strong> be paired with a subsequent {@link #enable()} call.
@@ -44,5 +44,13 @@ public enum PageCacheOpenOptions implements OpenOption
      * Please check that your platform is supported before providing this option.
      * @see ExtendedOpenOption for details.
      */
-    DIRECT
+    DIRECT,
+
+    /**
+     * Cache the pages of the file in cache pages of exactly the file page size, if the page cache has been configured
+     * with a page size class of that size. This way, small-record stores and indexes can use cache pages smaller than
+     * the regular cache page size, and stores that are mostly scanned sequentially can use larger cache pages.
+     * If the page cache has no such page size class, the file is mapped as if this option was not given.
+     */
+    PAGE_SIZE_CLASS
 }
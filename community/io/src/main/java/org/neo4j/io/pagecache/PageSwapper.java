@@ -125,6 +125,39 @@ public interface PageSwapper extends Closeable
      */
     long write( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length, int totalAffectedPages ) throws IOException;
 
+    /**
+     * @return {@code true} if the given page swapper implementation can submit the operations of
+     * {@link #readBatch(long[], long[], int)} and {@link #writeBatch(long[], int[], long[], int[], int)} to the
+     * file system in one go, and it is therefore worth collecting scattered operations into batches. Batches of reads of
+     * consecutive pages are worth it regardless, since those can be read with a single vectored read.
+     */
+    boolean canBatch();
+
+    /**
+     * Read the pages with the given filePageIds into the pages given by the corresponding bufferAddresses, using the
+     * default page size for all the buffers. The file pages need not be consecutive, but runs of consecutive file pages
+     * should be read with vectored reads.
+     * <p>
+     * Returns the total number of bytes read in from the file. Pages beyond the end of the file are filled with zeros,
+     * as are the parts of pages that are beyond the end of the file.
+     * <p>
+     * The contents of the pages should be considered to be garbage if the operation throws an exception,
+     * since the constituent reads can be reordered, and no zeroing will take place.
+     */
+    long readBatch( long[] filePageIds, long[] bufferAddresses, int length ) throws IOException;
+
+    /**
+     * Write a number of runs of consecutive pages to the concrete file on the file system. Run {@code r} starts at the file page
+     * {@code startFilePageIds[r]}, and is made of the buffers from {@code runEnds[r - 1]} (or zero for the first run) up to,
+     * but excluding, {@code runEnds[r]}. The runs can be written in any order.
+     * <p>
+     * If an exception is thrown, then some of the data may have been written, and some might not, just like for the
+     * {@link #write(long, long[], int[], int, int) vectored write}.
+     * <p>
+     * Returns the total number of bytes written to the file.
+     */
+    long writeBatch( long[] startFilePageIds, int[] runEnds, long[] bufferAddresses, int[] bufferLengths, int runs ) throws IOException;
+
     /**
      * Notification that a page has been evicted, used to clean up state in structures
      * outside the page table.
@@ -0,0 +1,692 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import com.github.luben.zstd.Zstd;
+import org.apache.commons.lang3.SystemUtils;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.SwapperSet;
+
+import static org.neo4j.io.fs.DefaultFileSystemAbstraction.WRITE_OPTIONS;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A PageSwapper that stores the pages of a file compressed with zstd.
+ * <p>
+ * The compressed pages are stored in slots in the file itself, and the location of every page is kept in an offset map, in a file next to it,
+ * with the {@link #OFFSETS_FILE_SUFFIX} suffix. The offset map starts with a header, followed by an entry for every page of the file, that
+ * holds the offset of the slot of the page, the length of the compressed page, and a checksum of the compressed page. Pages that do not compress
+ * are stored as they are. A page with no entry, or an empty entry, has never been written, and reads as zeros.
+ * <p>
+ * Slots are sized in multiples of {@link #SLOT_ALIGNMENT} bytes. Pages are never overwritten in place: a write puts the page in a free slot of the
+ * right size, or at the end of the file, and then points the entry of the page at it. The slot that held the previous version of the page is only
+ * reused once the swapper has been forced, such that the last forced version of every page stays intact until the next force.
+ * <p>
+ * This swapper does not support direct IO or preallocation, and does not batch its IO.
+ */
+public class CompressedPageSwapper implements PageSwapper
+{
+    public static final String OFFSETS_FILE_SUFFIX = ".offsets";
+    static final int SLOT_ALIGNMENT = 512;
+
+    private static final long MAGIC = 0x4E454F_5A535444L;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16;
+    private static final int RAW_FLAG = 0x8000_0000;
+    private static final int LENGTH_MASK = ~RAW_FLAG;
+
+    // The zstd compression level of the pages. Higher levels compress better, but flush slower.
+    private static final int compressionLevel = getInteger( CompressedPageSwapper.class, "compressionLevel", 3 );
+
+    private static final ThreadLocal<ByteBuffer> PROXY_CACHE = new ThreadLocal<>();
+    private static final ThreadLocal<ByteBuffer> COMPRESSION_BUFFER = new ThreadLocal<>();
+    private static final ThreadLocal<ByteBuffer> ENTRY_BUFFER = ThreadLocal.withInitial( () -> ByteBuffer.allocate( ENTRY_SIZE ) );
+
+    private final FileSystemAbstraction fs;
+    private final Path path;
+    private final Path offsetsPath;
+    private final IOController ioController;
+    private final int filePageSize;
+    private final int swapperId;
+    private volatile PageEvictionCallback onEviction;
+    private final StoreChannel channel;
+    private final StoreChannel offsetsChannel;
+    private FileLock fileLock;
+
+    // The in-memory offset map, and the free slots of the file. Guarded by synchronized(this).
+    private long[] slotOffsets;
+    private int[] storedLengths;
+    private int[] checksums;
+    private long dataEnd;
+    private final MutableLongList[] freeSlots;
+    private final MutableLongList pendingFreeOffsets = LongLists.mutable.empty();
+    private final MutableIntList pendingFreeSizes = IntLists.mutable.empty();
+    private volatile long pageCount;
+
+    CompressedPageSwapper( Path path, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction, IOController ioController,
+            SwapperSet swapperSet ) throws IOException
+    {
+        this.fs = fs;
+        this.path = path;
+        this.offsetsPath = offsetsFile( path );
+        this.filePageSize = filePageSize;
+        this.onEviction = onEviction;
+        this.ioController = ioController;
+        this.freeSlots = new MutableLongList[slotSize( filePageSize ) / SLOT_ALIGNMENT + 1];
+        for ( int i = 0; i < freeSlots.length; i++ )
+        {
+            freeSlots[i] = LongLists.mutable.empty();
+        }
+
+        // An offset map without its file is left over from a deleted file, and is ignored.
+        boolean existingOffsets = fs.fileExists( offsetsPath ) && fs.fileExists( path );
+        channel = fs.open( path, WRITE_OPTIONS );
+        StoreChannel offsets = null;
+        try
+        {
+            channel.tryMakeUninterruptible();
+            acquireLock();
+            offsets = fs.open( offsetsPath, WRITE_OPTIONS );
+            offsets.tryMakeUninterruptible();
+            if ( existingOffsets && offsets.size() > 0 )
+            {
+                loadOffsets( offsets );
+            }
+            else
+            {
+                if ( channel.size() > 0 )
+                {
+                    throw new IOException( "Cannot use compressed page swapping for " + path + ", since it already holds uncompressed pages." );
+                }
+                slotOffsets = new long[0];
+                storedLengths = new int[0];
+                checksums = new int[0];
+                offsets.truncate( 0 );
+                writeHeader( offsets );
+            }
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            closeAll( e, channel, offsets );
+            throw e;
+        }
+        offsetsChannel = offsets;
+        swapperId = swapperSet.allocate( this );
+    }
+
+    /**
+     * @return the offset map file of the given compressed file.
+     */
+    public static Path offsetsFile( Path path )
+    {
+        return path.resolveSibling( path.getFileName() + OFFSETS_FILE_SUFFIX );
+    }
+
+    private static void closeAll( Exception cause, StoreChannel... channels )
+    {
+        for ( StoreChannel storeChannel : channels )
+        {
+            if ( storeChannel != null )
+            {
+                try
+                {
+                    storeChannel.close();
+                }
+                catch ( IOException e )
+                {
+                    cause.addSuppressed( e );
+                }
+            }
+        }
+    }
+
+    private void acquireLock() throws IOException
+    {
+        if ( SystemUtils.IS_OS_WINDOWS )
+        {
+            // See SingleFilePageSwapper#acquireLock.
+            return;
+        }
+
+        try
+        {
+            fileLock = channel.tryLock();
+            if ( fileLock == null )
+            {
+                throw new FileLockException( path );
+            }
+        }
+        catch ( OverlappingFileLockException e )
+        {
+            throw new FileLockException( path, e );
+        }
+    }
+
+    private void writeHeader( StoreChannel offsets ) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+        header.putLong( MAGIC ).putInt( FORMAT_VERSION ).putInt( filePageSize ).flip();
+        offsets.writeAll( header, 0 );
+    }
+
+    private void loadOffsets( StoreChannel offsets ) throws IOException
+    {
+        long size = offsets.size();
+        if ( size < HEADER_SIZE )
+        {
+            throw new IOException( "The offset map " + offsetsPath + " is too short to hold a header: " + size + " bytes." );
+        }
+        ByteBuffer buffer = ByteBuffer.allocate( Math.toIntExact( size ) );
+        readFully( offsets, buffer, 0 );
+        buffer.flip();
+        long magic = buffer.getLong();
+        int version = buffer.getInt();
+        int pageSize = buffer.getInt();
+        if ( magic != MAGIC || version != FORMAT_VERSION )
+        {
+            throw new IOException( "The file " + offsetsPath + " is not a compressed page offset map." );
+        }
+        if ( pageSize != filePageSize )
+        {
+            throw new IOException( "The pages of " + path + " were compressed with a page size of " + pageSize +
+                    " bytes, but the file is mapped with a page size of " + filePageSize + " bytes." );
+        }
+
+        int entries = (int) ((size - HEADER_SIZE) / ENTRY_SIZE);
+        slotOffsets = new long[entries];
+        storedLengths = new int[entries];
+        checksums = new int[entries];
+        long lastPage = -1;
+        for ( int i = 0; i < entries; i++ )
+        {
+            slotOffsets[i] = buffer.getLong();
+            storedLengths[i] = buffer.getInt();
+            checksums[i] = buffer.getInt();
+            if ( storedLengths[i] != 0 )
+            {
+                lastPage = i;
+            }
+        }
+        pageCount = lastPage + 1;
+        rebuildFreeSlots( entries );
+    }
+
+    private void rebuildFreeSlots( int entries )
+    {
+        // Every part of the file that is not occupied by the slot of a page is free. Slots are aligned, so we can sort them by offset
+        // with their size, in units of the alignment, packed into the low bits.
+        int sizeBits = Integer.SIZE - Integer.numberOfLeadingZeros( freeSlots.length );
+        long[] slots = new long[entries];
+        int slotCount = 0;
+        for ( int i = 0; i < entries; i++ )
+        {
+            if ( storedLengths[i] != 0 )
+            {
+                long units = slotSize( storedLengths[i] & LENGTH_MASK ) / SLOT_ALIGNMENT;
+                slots[slotCount++] = (slotOffsets[i] / SLOT_ALIGNMENT) << sizeBits | units;
+            }
+        }
+        Arrays.sort( slots, 0, slotCount );
+        long position = 0;
+        for ( int i = 0; i < slotCount; i++ )
+        {
+            long slotOffset = (slots[i] >>> sizeBits) * SLOT_ALIGNMENT;
+            long slotSize = (slots[i] & ((1L << sizeBits) - 1)) * SLOT_ALIGNMENT;
+            addFreeSpace( position, slotOffset );
+            position = Math.max( position, slotOffset + slotSize );
+        }
+        dataEnd = position;
+    }
+
+    private void addFreeSpace( long from, long to )
+    {
+        int maxSlotSize = (freeSlots.length - 1) * SLOT_ALIGNMENT;
+        while ( to - from >= SLOT_ALIGNMENT )
+        {
+            int size = (int) Math.min( maxSlotSize, (to - from) / SLOT_ALIGNMENT * SLOT_ALIGNMENT );
+            freeSlots[size / SLOT_ALIGNMENT].add( from );
+            from += size;
+        }
+    }
+
+    private static int slotSize( int storedLength )
+    {
+        return (storedLength + SLOT_ALIGNMENT - 1) / SLOT_ALIGNMENT * SLOT_ALIGNMENT;
+    }
+
+    private static ByteBuffer proxy( long address, int length ) throws IOException
+    {
+        ByteBuffer buf = PROXY_CACHE.get();
+        try
+        {
+            if ( buf != null )
+            {
+                UnsafeUtil.initDirectByteBuffer( buf, address, length );
+                return buf;
+            }
+            buf = UnsafeUtil.newDirectByteBuffer( address, length );
+        }
+        catch ( Throwable e )
+        {
+            throw new IOException( e );
+        }
+        PROXY_CACHE.set( buf );
+        return buf;
+    }
+
+    private static ByteBuffer compressionBuffer( int bufferLength )
+    {
+        int capacity = (int) Zstd.compressBound( bufferLength );
+        ByteBuffer buffer = COMPRESSION_BUFFER.get();
+        if ( buffer == null || buffer.capacity() < capacity )
+        {
+            buffer = ByteBuffer.allocateDirect( capacity );
+            COMPRESSION_BUFFER.set( buffer );
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private static void readFully( StoreChannel storeChannel, ByteBuffer buffer, long position ) throws IOException
+    {
+        long offset = position;
+        while ( buffer.hasRemaining() )
+        {
+            int read = storeChannel.read( buffer, offset );
+            if ( read == -1 )
+            {
+                throw new EOFException( "Unexpected end of file at offset " + offset + ", with " + buffer.remaining() + " bytes still to read." );
+            }
+            offset += read;
+        }
+    }
+
+    private static int checksum( ByteBuffer buffer )
+    {
+        CRC32 crc = new CRC32();
+        crc.update( buffer.duplicate() );
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress ) throws IOException
+    {
+        return read( filePageId, bufferAddress, filePageSize );
+    }
+
+    private static void checkFilePageId( long filePageId ) throws IOException
+    {
+        if ( filePageId < 0 )
+        {
+            throw new IOException( "Invalid file page id: " + filePageId );
+        }
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress, int bufferLength ) throws IOException
+    {
+        checkFilePageId( filePageId );
+        long slotOffset;
+        int storedLength;
+        int checksum;
+        synchronized ( this )
+        {
+            if ( filePageId >= slotOffsets.length || storedLengths[(int) filePageId] == 0 )
+            {
+                UnsafeUtil.setMemory( bufferAddress, bufferLength, MuninnPageCache.ZERO_BYTE );
+                return 0;
+            }
+            slotOffset = slotOffsets[(int) filePageId];
+            storedLength = storedLengths[(int) filePageId];
+            checksum = checksums[(int) filePageId];
+        }
+
+        boolean raw = (storedLength & RAW_FLAG) != 0;
+        int length = storedLength & LENGTH_MASK;
+        ByteBuffer stored = compressionBuffer( bufferLength );
+        stored.limit( length );
+        readFully( channel, stored, slotOffset );
+        stored.flip();
+        ioController.reportIO( 1 );
+        if ( checksum( stored ) != checksum )
+        {
+            throw new IOException( "Checksum mismatch for page " + filePageId + " of " + path + ", stored at offset " + slotOffset + "." );
+        }
+
+        ByteBuffer page = proxy( bufferAddress, bufferLength );
+        long pageLength;
+        if ( raw )
+        {
+            stored.limit( Math.min( length, bufferLength ) );
+            page.put( stored );
+            pageLength = stored.limit();
+        }
+        else
+        {
+            pageLength = Zstd.decompressDirectByteBuffer( page, 0, bufferLength, stored, 0, length );
+            if ( Zstd.isError( pageLength ) )
+            {
+                throw new IOException( "Failed to decompress page " + filePageId + " of " + path + ": " + Zstd.getErrorName( pageLength ) );
+            }
+        }
+        if ( pageLength < bufferLength )
+        {
+            UnsafeUtil.setMemory( bufferAddress + pageLength, bufferLength - pageLength, MuninnPageCache.ZERO_BYTE );
+        }
+        return pageLength;
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length ) throws IOException
+    {
+        long bytes = 0;
+        long filePageId = startFilePageId;
+        for ( int i = 0; i < length; i++ )
+        {
+            for ( int offset = 0; offset < bufferLengths[i]; offset += filePageSize )
+            {
+                bytes += read( filePageId++, bufferAddresses[i] + offset, Math.min( filePageSize, bufferLengths[i] - offset ) );
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress ) throws IOException
+    {
+        return write( filePageId, bufferAddress, filePageSize );
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress, int bufferLength ) throws IOException
+    {
+        checkFilePageId( filePageId );
+        ioController.beforePageWrite();
+        ByteBuffer page = proxy( bufferAddress, bufferLength );
+        ByteBuffer stored = compressionBuffer( bufferLength );
+        long compressedLength = Zstd.compressDirectByteBuffer( stored, 0, stored.capacity(), page, 0, bufferLength, compressionLevel );
+        if ( Zstd.isError( compressedLength ) )
+        {
+            throw new IOException( "Failed to compress page " + filePageId + " of " + path + ": " + Zstd.getErrorName( compressedLength ) );
+        }
+        int storedLength;
+        if ( compressedLength < bufferLength )
+        {
+            stored.limit( (int) compressedLength );
+            storedLength = (int) compressedLength;
+        }
+        else
+        {
+            // The page does not compress, so we store it as it is.
+            page.clear();
+            stored.put( page ).flip();
+            storedLength = bufferLength | RAW_FLAG;
+        }
+        int checksum = checksum( stored );
+
+        long slotOffset = allocateSlot( slotSize( stored.limit() ) );
+        channel.writeAll( stored, slotOffset );
+        ioController.reportIO( 1 );
+        updateEntry( filePageId, slotOffset, storedLength, checksum );
+        return bufferLength;
+    }
+
+    private synchronized long allocateSlot( int slotSize )
+    {
+        MutableLongList free = freeSlots[slotSize / SLOT_ALIGNMENT];
+        if ( !free.isEmpty() )
+        {
+            return free.removeAtIndex( free.size() - 1 );
+        }
+        long slotOffset = dataEnd;
+        dataEnd += slotSize;
+        return slotOffset;
+    }
+
+    private synchronized void updateEntry( long filePageId, long slotOffset, int storedLength, int checksum ) throws IOException
+    {
+        // The entry is written while holding the lock, so that a concurrent force cannot release the previous slot of the page
+        // before the entry that no longer points to it has been written.
+        int index = Math.toIntExact( filePageId );
+        if ( index >= slotOffsets.length )
+        {
+            int newLength = Math.max( index + 1, slotOffsets.length * 2 );
+            slotOffsets = Arrays.copyOf( slotOffsets, newLength );
+            storedLengths = Arrays.copyOf( storedLengths, newLength );
+            checksums = Arrays.copyOf( checksums, newLength );
+        }
+        if ( storedLengths[index] != 0 )
+        {
+            // The previous version of the page must survive until the new version has been forced.
+            pendingFreeOffsets.add( slotOffsets[index] );
+            pendingFreeSizes.add( slotSize( storedLengths[index] & LENGTH_MASK ) );
+        }
+        slotOffsets[index] = slotOffset;
+        storedLengths[index] = storedLength;
+        checksums[index] = checksum;
+        if ( index >= pageCount )
+        {
+            pageCount = index + 1;
+        }
+
+        ByteBuffer entry = ENTRY_BUFFER.get();
+        entry.clear();
+        entry.putLong( slotOffset ).putInt( storedLength ).putInt( checksum ).flip();
+        offsetsChannel.writeAll( entry, HEADER_SIZE + filePageId * ENTRY_SIZE );
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length, int totalAffectedPages ) throws IOException
+    {
+        long bytes = 0;
+        long filePageId = startFilePageId;
+        for ( int i = 0; i < length; i++ )
+        {
+            for ( int offset = 0; offset < bufferLengths[i]; offset += filePageSize )
+            {
+                bytes += write( filePageId++, bufferAddresses[i] + offset, Math.min( filePageSize, bufferLengths[i] - offset ) );
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean canBatch()
+    {
+        return false;
+    }
+
+    @Override
+    public long readBatch( long[] filePageIds, long[] bufferAddresses, int length ) throws IOException
+    {
+        long bytes = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            bytes += read( filePageIds[i], bufferAddresses[i] );
+        }
+        return bytes;
+    }
+
+    @Override
+    public long writeBatch( long[] startFilePageIds, int[] runEnds, long[] bufferAddresses, int[] bufferLengths, int runs ) throws IOException
+    {
+        long bytes = 0;
+        int runStart = 0;
+        for ( int run = 0; run < runs; run++ )
+        {
+            long[] runAddresses = Arrays.copyOfRange( bufferAddresses, runStart, runEnds[run] );
+            int[] runLengths = Arrays.copyOfRange( bufferLengths, runStart, runEnds[run] );
+            bytes += write( startFilePageIds[run], runAddresses, runLengths, runAddresses.length, 0 );
+            runStart = runEnds[run];
+        }
+        return bytes;
+    }
+
+    @Override
+    public void evicted( long filePageId )
+    {
+        PageEvictionCallback callback = this.onEviction;
+        if ( callback != null )
+        {
+            callback.onEvict( filePageId );
+        }
+    }
+
+    @Override
+    public Path path()
+    {
+        return path;
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        try
+        {
+            try
+            {
+                channel.close();
+            }
+            finally
+            {
+                offsetsChannel.close();
+            }
+        }
+        finally
+        {
+            // See SingleFilePageSwapper#close.
+            onEviction = null;
+        }
+    }
+
+    @Override
+    public synchronized void closeAndDelete() throws IOException
+    {
+        close();
+        fs.deleteFile( path );
+        fs.deleteFile( offsetsPath );
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        long[] releasedOffsets;
+        int[] releasedSizes;
+        synchronized ( this )
+        {
+            releasedOffsets = pendingFreeOffsets.toArray();
+            releasedSizes = pendingFreeSizes.toArray();
+            pendingFreeOffsets.clear();
+            pendingFreeSizes.clear();
+        }
+        // The pages must be durable before the entries that point to them.
+        channel.force( false );
+        offsetsChannel.force( false );
+        synchronized ( this )
+        {
+            for ( int i = 0; i < releasedOffsets.length; i++ )
+            {
+                freeSlots[releasedSizes[i] / SLOT_ALIGNMENT].add( releasedOffsets[i] );
+            }
+        }
+    }
+
+    @Override
+    public long getLastPageId()
+    {
+        long pages = pageCount;
+        return pages == 0 ? PageCursor.UNBOUND_PAGE_ID : pages - 1;
+    }
+
+    @Override
+    public synchronized void truncate() throws IOException
+    {
+        slotOffsets = new long[0];
+        storedLengths = new int[0];
+        checksums = new int[0];
+        pageCount = 0;
+        dataEnd = 0;
+        for ( MutableLongList free : freeSlots )
+        {
+            free.clear();
+        }
+        pendingFreeOffsets.clear();
+        pendingFreeSizes.clear();
+        channel.truncate( 0 );
+        offsetsChannel.truncate( HEADER_SIZE );
+    }
+
+    @Override
+    public boolean canAllocate()
+    {
+        return false;
+    }
+
+    @Override
+    public void allocate( long newFileSize )
+    {
+        // Compressed files cannot be preallocated, since their size does not follow from the number of pages in them.
+    }
+
+    @Override
+    public int swapperId()
+    {
+        return swapperId;
+    }
+
+    /**
+     * @return the number of bytes the pages of the file take up on disk, including the free slots between them.
+     */
+    synchronized long storedSize()
+    {
+        return dataEnd;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompressedPageSwapper{" +
+                "filePageSize=" + filePageSize +
+                ", file=" + path +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.SwapperSet;
+
+/**
+ * A factory that creates CompressedPageSwapper instances for compressed files, and delegates to another factory for all other files.
+ * <p>
+ * A file is compressed if it already has an offset map, or if it is new, or empty, and it is one of the files that should be compressed.
+ * Files that already hold uncompressed pages stay uncompressed, and files that have been compressed stay compressed. Files that are mapped
+ * with direct IO are not compressed, since compressed pages cannot be aligned to the blocks of the file system.
+ *
+ * @see org.neo4j.io.pagecache.impl.CompressedPageSwapper
+ */
+public class CompressedPageSwapperFactory implements PageSwapperFactory
+{
+    private final FileSystemAbstraction fs;
+    private final PageSwapperFactory delegate;
+    private final Predicate<Path> compressNewFile;
+
+    /**
+     * @param fs the file system of the files.
+     * @param delegate the factory for the swappers of the files that are not compressed.
+     * @param compressNewFile decides if a new, or empty, file should be compressed.
+     */
+    public CompressedPageSwapperFactory( FileSystemAbstraction fs, PageSwapperFactory delegate, Predicate<Path> compressNewFile )
+    {
+        this.fs = fs;
+        this.delegate = delegate;
+        this.compressNewFile = compressNewFile;
+    }
+
+    @Override
+    public PageSwapper createPageSwapper( Path file, int filePageSize, PageEvictionCallback onEviction, boolean createIfNotExist, boolean useDirectIO,
+            boolean preallocateStoreFiles, IOController ioController, SwapperSet swappers ) throws IOException
+    {
+        if ( !isCompressed( file, useDirectIO ) )
+        {
+            return delegate.createPageSwapper( file, filePageSize, onEviction, createIfNotExist, useDirectIO, preallocateStoreFiles, ioController,
+                    swappers );
+        }
+        if ( !createIfNotExist && !fs.fileExists( file ) )
+        {
+            throw new NoSuchFileException( file.toString(), null, "Cannot map non-existing file" );
+        }
+        return new CompressedPageSwapper( file, fs, filePageSize, onEviction, ioController, swappers );
+    }
+
+    private boolean isCompressed( Path file, boolean useDirectIO ) throws IOException
+    {
+        if ( fs.fileExists( CompressedPageSwapper.offsetsFile( file ) ) && fs.fileExists( file ) )
+        {
+            if ( useDirectIO )
+            {
+                throw new IllegalArgumentException( "The compressed file " + file + " cannot be mapped with direct IO." );
+            }
+            return true;
+        }
+        return !useDirectIO && compressNewFile.test( file ) && (!fs.fileExists( file ) || fs.getFileSize( file ) == 0);
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.internal.nativeimpl.IoUringRing;
+import org.neo4j.internal.nativeimpl.LinuxIoUring;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.impl.muninn.SwapperSet;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.IORING_OP_READV;
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.IORING_OP_WRITEV;
+import static org.neo4j.io.fs.FileSystemAbstraction.INVALID_FILE_DESCRIPTOR;
+
+/**
+ * A {@link SingleFilePageSwapper} that submits batches of reads and writes through Linux io_uring, so that a whole batch of
+ * page faults, or all the runs of dirty pages in a flush, cost a single system call and are serviced by the storage device
+ * in parallel.
+ * <p>
+ * Single page operations still go through the file channel, since a single operation gains nothing from the ring.
+ * The batches are submitted on a duplicate of the file descriptor of the channel, so they are not affected by the channel
+ * being closed and reopened on interrupts. If no ring can be acquired, or the file is not backed by a file descriptor,
+ * the batches fall back to the synchronous implementations of the super class.
+ * <p>
+ * The rings are shared by all swappers through a bounded, process wide pool. A thread takes a ring from the pool for the
+ * duration of one batch, so the rings never need any synchronisation of their own.
+ */
+public class IoUringPageSwapper extends SingleFilePageSwapper
+{
+    private static final int RING_ENTRIES = FeatureToggles.getInteger( IoUringPageSwapper.class, "ringEntries", 64 );
+    private static final int IOVECS_PER_ENTRY = FeatureToggles.getInteger( IoUringPageSwapper.class, "iovecsPerEntry", 32 );
+    private static final int MAX_RINGS = FeatureToggles.getInteger( IoUringPageSwapper.class, "maxRings", Runtime.getRuntime().availableProcessors() );
+
+    private static final ConcurrentLinkedQueue<IoUringRing> IDLE_RINGS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger RING_COUNT = new AtomicInteger();
+
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    // Guarded by closeLock.
+    private volatile int fd;
+
+    IoUringPageSwapper( Path path, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction, boolean useDirectIO,
+            boolean preallocateStoreFiles, IOController ioController, SwapperSet swapperSet ) throws IOException
+    {
+        super( path, fs, filePageSize, onEviction, useDirectIO, preallocateStoreFiles, ioController, swapperSet );
+        fd = duplicateFileDescriptor();
+    }
+
+    private int duplicateFileDescriptor()
+    {
+        int channelFd = fileDescriptor();
+        if ( channelFd == INVALID_FILE_DESCRIPTOR )
+        {
+            return INVALID_FILE_DESCRIPTOR;
+        }
+        try
+        {
+            return LinuxIoUring.duplicate( channelFd );
+        }
+        catch ( IOException e )
+        {
+            // The batches will use synchronous io instead.
+            return INVALID_FILE_DESCRIPTOR;
+        }
+    }
+
+    @Override
+    public boolean canBatch()
+    {
+        return fd != INVALID_FILE_DESCRIPTOR;
+    }
+
+    @Override
+    public long readBatch( long[] filePageIds, long[] bufferAddresses, int length ) throws IOException
+    {
+        if ( length == 0 )
+        {
+            return 0;
+        }
+        closeLock.readLock().lock();
+        try
+        {
+            IoUringRing ring = fd == INVALID_FILE_DESCRIPTOR ? null : acquireRing();
+            if ( ring == null )
+            {
+                return super.readBatch( filePageIds, bufferAddresses, length );
+            }
+            try
+            {
+                return readBatch( ring, filePageIds, bufferAddresses, length );
+            }
+            finally
+            {
+                releaseRing( ring );
+            }
+        }
+        finally
+        {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Take an idle ring from the pool, or create a new one if the pool is not exhausted.
+     * @return a ring for the exclusive use of the calling thread, or {@code null} if no ring is available.
+     */
+    private static IoUringRing acquireRing()
+    {
+        IoUringRing ring = IDLE_RINGS.poll();
+        if ( ring != null || !LinuxIoUring.isAvailable() )
+        {
+            return ring;
+        }
+        if ( RING_COUNT.incrementAndGet() > MAX_RINGS )
+        {
+            RING_COUNT.decrementAndGet();
+            return null;
+        }
+        try
+        {
+            return IoUringRing.create( RING_ENTRIES, IOVECS_PER_ENTRY );
+        }
+        catch ( IOException e )
+        {
+            RING_COUNT.decrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Give the ring back to the pool. A broken ring is never reused, since the kernel may still be accessing the memory of
+     * the operations it had in flight. Its slot in the pool is not given back either, so a ring that keeps failing does not
+     * get recreated over and over.
+     */
+    private static void releaseRing( IoUringRing ring )
+    {
+        ring.reset();
+        if ( !ring.isBroken() )
+        {
+            IDLE_RINGS.offer( ring );
+        }
+    }
+
+    private long readBatch( IoUringRing ring, long[] filePageIds, long[] bufferAddresses, int length ) throws IOException
+    {
+        long[] completedPages = new long[ring.capacity()];
+        int[] results = new int[ring.capacity()];
+        long fileSize = getCurrentFileSize();
+        long bytesRead = 0;
+        int index = 0;
+        while ( index < length )
+        {
+            for ( ; index < length; index++ )
+            {
+                long fileOffset = pageIdToPosition( filePageIds[index] );
+                if ( fileOffset >= fileSize )
+                {
+                    clear( bufferAddresses[index], filePageSize );
+                }
+                else if ( !ring.prepare( IORING_OP_READV, fd, fileOffset, bufferAddresses[index], filePageSize, index ) )
+                {
+                    break;
+                }
+            }
+            int completed = ring.submitAndAwait( completedPages, results );
+            ioController.reportIO( completed );
+            for ( int i = 0; i < completed; i++ )
+            {
+                int page = (int) completedPages[i];
+                int result = results[i];
+                if ( result < 0 )
+                {
+                    throw new IOException( "Read of page " + filePageIds[page] + " from " + path() + " failed with error " + -result + ": " +
+                            LinuxIoUring.describeError( -result ) );
+                }
+                if ( result < filePageSize )
+                {
+                    // Short read at the end of the file, or a file that was truncated under our feet.
+                    // The synchronous read takes care of both, and zero fills the rest of the page.
+                    bytesRead += read( filePageIds[page], bufferAddresses[page] );
+                }
+                else
+                {
+                    bytesRead += result;
+                }
+            }
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public long writeBatch( long[] startFilePageIds, int[] runEnds, long[] bufferAddresses, int[] bufferLengths, int runs ) throws IOException
+    {
+        if ( runs == 0 )
+        {
+            return 0;
+        }
+        // The writes submitted to the ring below bypass the write methods of the super class, which is where the io controller
+        // otherwise gets to run before pages are written
+        ioController.beforePageWrite();
+        closeLock.readLock().lock();
+        try
+        {
+            IoUringRing ring = fd == INVALID_FILE_DESCRIPTOR ? null : acquireRing();
+            if ( ring == null )
+            {
+                return super.writeBatch( startFilePageIds, runEnds, bufferAddresses, bufferLengths, runs );
+            }
+            try
+            {
+                return writeBatch( ring, startFilePageIds, runEnds, bufferAddresses, bufferLengths, runs );
+            }
+            finally
+            {
+                releaseRing( ring );
+            }
+        }
+        finally
+        {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    private long writeBatch( IoUringRing ring, long[] startFilePageIds, int[] runEnds, long[] bufferAddresses, int[] bufferLengths, int runs )
+            throws IOException
+    {
+        long[] completedRuns = new long[ring.capacity()];
+        int[] results = new int[ring.capacity()];
+        long bytesWritten = 0;
+        int run = 0;
+        while ( run < runs )
+        {
+            for ( ; run < runs; run++ )
+            {
+                int from = runStart( runEnds, run );
+                int count = runEnds[run] - from;
+                long fileOffset = pageIdToPosition( startFilePageIds[run] );
+                increaseFileSizeTo( fileOffset + runLength( bufferLengths, from, runEnds[run] ) );
+                if ( count > ring.maxVectorLength() )
+                {
+                    // Too long to ever fit in the ring.
+                    bytesWritten += writeRun( startFilePageIds[run], bufferAddresses, bufferLengths, from, runEnds[run] );
+                }
+                else if ( !ring.prepare( IORING_OP_WRITEV, fd, fileOffset, bufferAddresses, bufferLengths, from, count, run ) )
+                {
+                    break;
+                }
+            }
+            // Like the vectored writes of the super class, these writes are not reported to the ioController. They come from
+            // flushes of checkpoints, background writing and eviction, and only the checkpoint io is limited by the controller,
+            // which counts it as part of the checkpoint.
+            int completed = ring.submitAndAwait( completedRuns, results );
+            for ( int i = 0; i < completed; i++ )
+            {
+                int completedRun = (int) completedRuns[i];
+                int result = results[i];
+                if ( result < 0 )
+                {
+                    throw new IOException( "Write of pages from " + startFilePageIds[completedRun] + " to " + path() + " failed with error " +
+                            -result + ": " + LinuxIoUring.describeError( -result ) );
+                }
+                int from = runStart( runEnds, completedRun );
+                if ( result < runLength( bufferLengths, from, runEnds[completedRun] ) )
+                {
+                    // Short writes are rare, but allowed. Rewriting the whole run synchronously is the simplest way to complete it.
+                    bytesWritten += writeRun( startFilePageIds[completedRun], bufferAddresses, bufferLengths, from, runEnds[completedRun] );
+                }
+                else
+                {
+                    bytesWritten += result;
+                }
+            }
+        }
+        return bytesWritten;
+    }
+
+    private static int runStart( int[] runEnds, int run )
+    {
+        return run == 0 ? 0 : runEnds[run - 1];
+    }
+
+    private static long runLength( int[] bufferLengths, int from, int to )
+    {
+        long length = 0;
+        for ( int i = from; i < to; i++ )
+        {
+            length += bufferLengths[i];
+        }
+        return length;
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        closeLock.writeLock().lock();
+        try
+        {
+            if ( fd != INVALID_FILE_DESCRIPTOR )
+            {
+                int duplicate = fd;
+                fd = INVALID_FILE_DESCRIPTOR;
+                LinuxIoUring.closeFileDescriptor( duplicate );
+            }
+        }
+        finally
+        {
+            closeLock.writeLock().unlock();
+            super.close();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "IoUringPageSwapper{" +
+                "filePageSize=" + filePageSize +
+                ", file=" + path() +
+                '}';
+    }
+}
@@ -32,6 +32,7 @@ import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Set;
 
 import org.neo4j.internal.nativeimpl.NativeAccess;
@@ -91,9 +92,9 @@ public class SingleFilePageSwapper implements PageSwapper
 
     private final FileSystemAbstraction fs;
     private final Path path;
-    private final IOController ioController;
+    final IOController ioController;
     private final boolean preallocateStoreFiles;
-    private final int filePageSize;
+    final int filePageSize;
     private final Set<OpenOption> openOptions;
     private volatile PageEvictionCallback onEviction;
     private StoreChannel channel;
@@ -184,7 +185,7 @@ public class SingleFilePageSwapper implements PageSwapper
         }
     }
 
-    private void increaseFileSizeTo( long newFileSize )
+    void increaseFileSizeTo( long newFileSize )
     {
         long currentFileSize;
         do
@@ -194,7 +195,7 @@ public class SingleFilePageSwapper implements PageSwapper
         while ( currentFileSize < newFileSize && !FILE_SIZE.weakCompareAndSet( this, currentFileSize, newFileSize ) );
     }
 
-    private long getCurrentFileSize()
+    long getCurrentFileSize()
     {
         return (long) FILE_SIZE.getVolatile( this );
     }
@@ -286,7 +287,7 @@ public class SingleFilePageSwapper implements PageSwapper
         return bufferLength;
     }
 
-    private static void clear( long bufferAddress, int bufferSize )
+    static void clear( long bufferAddress, int bufferSize )
     {
         UnsafeUtil.setMemory( bufferAddress, bufferSize, MuninnPageCache.ZERO_BYTE );
     }
@@ -444,6 +445,7 @@ public class SingleFilePageSwapper implements PageSwapper
 
     private int write( long filePageId, long bufferAddress, int bufferLength, boolean countIo ) throws IOException
     {
+        ioController.beforePageWrite();
         long fileOffset = pageIdToPosition( filePageId );
         increaseFileSizeTo( fileOffset + bufferLength );
 
@@ -473,6 +475,7 @@ public class SingleFilePageSwapper implements PageSwapper
         {
             return 0;
         }
+        ioController.beforePageWrite();
 
         try ( Retry retry = new Retry() )
         {
@@ -577,6 +580,72 @@ public class SingleFilePageSwapper implements PageSwapper
         return bytes;
     }
 
+    @Override
+    public boolean canBatch()
+    {
+        return false;
+    }
+
+    @Override
+    public long readBatch( long[] filePageIds, long[] bufferAddresses, int length ) throws IOException
+    {
+        long bytes = 0;
+        int runStart = 0;
+        for ( int i = 1; i <= length; i++ )
+        {
+            if ( i == length || filePageIds[i] != filePageIds[i - 1] + 1 )
+            {
+                bytes += readRun( filePageIds[runStart], bufferAddresses, runStart, i );
+                runStart = i;
+            }
+        }
+        return bytes;
+    }
+
+    private long readRun( long startFilePageId, long[] bufferAddresses, int from, int to ) throws IOException
+    {
+        int length = to - from;
+        if ( length == 1 )
+        {
+            return read( startFilePageId, bufferAddresses[from] );
+        }
+        long[] runAddresses = Arrays.copyOfRange( bufferAddresses, from, to );
+        int[] runLengths = new int[length];
+        Arrays.fill( runLengths, filePageSize );
+        return read( startFilePageId, runAddresses, runLengths, length );
+    }
+
+    @Override
+    public long writeBatch( long[] startFilePageIds, int[] runEnds, long[] bufferAddresses, int[] bufferLengths, int runs ) throws IOException
+    {
+        long bytes = 0;
+        int runStart = 0;
+        for ( int run = 0; run < runs; run++ )
+        {
+            bytes += writeRun( startFilePageIds[run], bufferAddresses, bufferLengths, runStart, runEnds[run] );
+            runStart = runEnds[run];
+        }
+        return bytes;
+    }
+
+    long writeRun( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int from, int to ) throws IOException
+    {
+        int length = to - from;
+        long[] runAddresses = Arrays.copyOfRange( bufferAddresses, from, to );
+        int[] runLengths = Arrays.copyOfRange( bufferLengths, from, to );
+        int pages = (int) (countBuffersLengths( runLengths, length ) / filePageSize);
+        return write( startFilePageId, runAddresses, runLengths, length, pages );
+    }
+
+    /**
+     * @return the file descriptor of the current channel, or {@link FileSystemAbstraction#INVALID_FILE_DESCRIPTOR} if the
+     * channel is not backed by a file descriptor.
+     */
+    int fileDescriptor()
+    {
+        return channel.getFileDescriptor();
+    }
+
     @Override
     public void evicted( long filePageId )
     {
@@ -593,7 +662,7 @@ public class SingleFilePageSwapper implements PageSwapper
         return path;
     }
 
-    private long pageIdToPosition( long pageId )
+    long pageIdToPosition( long pageId )
     {
         return filePageSize * pageId;
     }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * The state of the background writer of a page cache, which continuously writes dirty pages in file order, such that there are few dirty
+ * pages left for checkpoints, and for eviction, to write.
+ * <p>
+ * The writer wakes up once every tick, and decides how many pages to write in that tick from the dirty page ratio of the page cache, and from
+ * the rate at which pages have been dirtied during the previous ticks. Every dirtied page corresponds to changes that have been appended to
+ * the transaction log, so the dirtying rate follows the growth of the log. The writer aims to keep up with the dirtying rate, and on top of
+ * that write the currently dirty pages within the configured horizon. The more of the page cache is dirty, the shorter the horizon gets.
+ *
+ * @see MuninnPageCache#continuouslyWriteDirtyPages(BackgroundWriter)
+ */
+final class BackgroundWriter
+{
+    // The time between the rounds of writing.
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos( getInteger( BackgroundWriter.class, "tickMillis", 100 ) );
+    // The number of pages that the dirty page ratio is estimated from in every tick.
+    static final int DIRTY_PAGE_SAMPLES = getInteger( BackgroundWriter.class, "dirtyPageSamples", 4096 );
+    // The maximum number of dirty pages that are flushed together.
+    static final int WRITE_BATCH_SIZE = getInteger( BackgroundWriter.class, "writeBatchSize", 64 );
+    // How much the dirtying rate of the latest tick counts, against the rate observed in the ticks before it.
+    private static final double DIRTYING_RATE_WEIGHT = 0.25;
+
+    private final long horizonNanos;
+    private long previousDirtyPages = -1;
+    private double dirtyingRate;
+
+    // The file that the writer continues from in the next tick, as an index into the list of mapped files.
+    int fileCursor;
+    // Where in the page list the dirty page samples are taken from in the next tick, so every tick samples different pages.
+    int sampleOffset;
+
+    // The thread that runs the writer, which is interrupted when the page cache is closed.
+    volatile Thread writerThread;
+
+    BackgroundWriter( long horizonNanos )
+    {
+        this.horizonNanos = Math.max( horizonNanos, TICK_NANOS );
+    }
+
+    /**
+     * Compute how many pages to write in this tick.
+     *
+     * @param dirtyPages the estimated number of dirty pages in the page cache.
+     * @param pageCount the number of pages in the page cache.
+     * @param pagesWritten the number of pages that the writer wrote in the previous tick.
+     * @return the number of dirty pages to write in this tick.
+     */
+    long pagesToWrite( long dirtyPages, long pageCount, long pagesWritten )
+    {
+        if ( previousDirtyPages >= 0 )
+        {
+            long dirtiedPages = Math.max( 0, dirtyPages - previousDirtyPages + pagesWritten );
+            dirtyingRate = dirtyingRate * (1 - DIRTYING_RATE_WEIGHT) + dirtiedPages * DIRTYING_RATE_WEIGHT;
+        }
+        previousDirtyPages = dirtyPages;
+        if ( dirtyPages == 0 )
+        {
+            return 0;
+        }
+
+        double dirtyRatio = Math.min( 1.0, (double) dirtyPages / pageCount );
+        double horizon = Math.max( TICK_NANOS, horizonNanos * (1 - dirtyRatio) );
+        double drainRate = dirtyPages * TICK_NANOS / horizon;
+        return Math.min( dirtyPages, (long) Math.ceil( dirtyingRate + drainRate ) );
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A concurrent bitmap over the chunks of the translation table of a {@link MuninnPagedFile}, that marks the chunks that may contain dirty pages.
+ * <p>
+ * Write cursors mark the chunk of a page after they have released their write lock on it, and flushes clear the mark of a chunk before they
+ * flush the pages in it. A page that is dirtied while its chunk is being flushed thus gets its chunk marked again, and is not missed by the next
+ * flush. Only flushes clear marks, so a marked chunk can turn out to be clean, but a chunk with pages that have been written through a write
+ * cursor, and not been flushed since, is always marked.
+ * <p>
+ * The bitmap grows with the translation table. A grown bitmap is published before the marks are copied over to it, and a write cursor that
+ * finds that the bitmap grew while it was marking a chunk marks the chunk in the new bitmap as well, so no marks are lost. Flushes work on a
+ * {@link #snapshot() snapshot} of the bitmap, which is only taken when no growth is in progress.
+ */
+final class DirtyChunks
+{
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle( long[].class );
+
+    private volatile long[] words;
+
+    DirtyChunks( int chunks )
+    {
+        words = new long[wordsFor( chunks )];
+    }
+
+    /**
+     * Mark the given chunk as possibly containing dirty pages.
+     */
+    void mark( int chunkId )
+    {
+        int index = chunkId >>> 6;
+        long bit = 1L << chunkId;
+        long[] bitmap = words;
+        for (;;)
+        {
+            // Most writes go to chunks that are already marked, so we avoid the atomic update, and the cache line contention that comes with it,
+            // when we can.
+            if ( ((long) WORDS.getVolatile( bitmap, index ) & bit) == 0 )
+            {
+                WORDS.getAndBitwiseOr( bitmap, index, bit );
+            }
+            long[] current = words;
+            if ( current == bitmap )
+            {
+                return;
+            }
+            bitmap = current;
+        }
+    }
+
+    /**
+     * Make sure the bitmap can hold marks for the given number of chunks.
+     */
+    synchronized void ensureCapacity( int chunks )
+    {
+        long[] bitmap = words;
+        int length = wordsFor( chunks );
+        if ( length > bitmap.length )
+        {
+            long[] grown = new long[length];
+            words = grown;
+            for ( int i = 0; i < bitmap.length; i++ )
+            {
+                WORDS.getAndBitwiseOr( grown, i, (long) WORDS.getVolatile( bitmap, i ) );
+            }
+        }
+    }
+
+    /**
+     * @return the current bitmap, with all the marks of any previous bitmap copied over to it.
+     */
+    synchronized long[] snapshot()
+    {
+        return words;
+    }
+
+    /**
+     * Clear the mark of the given chunk, in a bitmap from {@link #snapshot()}.
+     *
+     * @return {@code true} if the chunk was marked.
+     */
+    static boolean clear( long[] bitmap, int chunkId )
+    {
+        int index = chunkId >>> 6;
+        if ( index >= bitmap.length )
+        {
+            return false;
+        }
+        long bit = 1L << chunkId;
+        return ((long) WORDS.getAndBitwiseAnd( bitmap, index, ~bit ) & bit) != 0;
+    }
+
+    private static int wordsFor( int chunks )
+    {
+        return Math.max( 1, (chunks + Long.SIZE - 1) / Long.SIZE );
+    }
+}
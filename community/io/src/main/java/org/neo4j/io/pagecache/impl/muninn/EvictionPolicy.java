@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * An eviction policy decides which of the loaded pages the eviction sweepers are allowed to evict.
+ * <p>
+ * Both the background eviction thread and page faulting threads doing cooperative eviction, move a clock arm over the
+ * {@link PageList}, and consult the policy for every loaded page they come across. The policy may only look at, and
+ * update, the usage counter and its own book-keeping, since the page is not locked when it is being considered.
+ * <p>
+ * Implementations must be thread-safe, since any number of threads might be sweeping at the same time.
+ *
+ * @see EvictionPolicyType
+ */
+interface EvictionPolicy
+{
+    /**
+     * Called by the sweeping threads for every loaded page they visit.
+     *
+     * @param pageRef the loaded page under the clock arm.
+     * @return {@code true} if the page should be evicted, if it can be locked, otherwise {@code false}.
+     */
+    boolean shouldEvict( long pageRef );
+
+    /**
+     * Called when the given page has been evicted, while it is still exclusively locked and before it is handed out
+     * again, such that the policy can forget about any state it kept for the page.
+     *
+     * @param pageRef the page that was evicted.
+     */
+    void evicted( long pageRef );
+}
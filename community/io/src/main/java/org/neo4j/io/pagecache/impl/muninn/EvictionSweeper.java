@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * A slice of the pages of a {@link PageCacheRegion}, that is swept by its own background eviction thread.
+ * <p>
+ * The slices of the sweepers of a region are disjoint, so the sweepers never compete for the same pages, and share the work of keeping the
+ * freelist of their region topped up. Dirty pages that a sweeper picks for eviction are collected into a batch, and flushed together before
+ * they are evicted, such that consecutive pages of a file can be written with a single vectored write.
+ */
+final class EvictionSweeper
+{
+    final PageCacheRegion region;
+    final int firstPageId;
+    final int endPageId;
+
+    // The dirty pages that this sweeper has picked as victims, and that should be flushed before they are evicted.
+    // Only accessed by the eviction thread of the sweeper.
+    final long[] dirtyVictims;
+    final long[] flushStamps;
+    int dirtyVictimCount;
+
+    // The thread that runs the eviction algorithm for this slice. We unpark this when we've run out of
+    // free pages to grab.
+    volatile Thread evictionThread;
+    // True if the eviction thread is currently parked, without someone having
+    // signalled it to wake up. This is used as a weak guard for unparking the
+    // eviction thread, because calling unpark too much (from many page
+    // faulting threads) can cause contention on the locks protecting that
+    // threads scheduling meta-data in the OS kernel.
+    volatile boolean evictorParked;
+
+    EvictionSweeper( PageCacheRegion region, int firstPageId, int endPageId, int flushBatchSize )
+    {
+        this.region = region;
+        this.firstPageId = firstPageId;
+        this.endPageId = endPageId;
+        this.dirtyVictims = new long[flushBatchSize];
+        this.flushStamps = new long[flushBatchSize];
+    }
+
+    boolean isDirtyVictimBatchFull()
+    {
+        return dirtyVictimCount == dirtyVictims.length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EvictionSweeper[numaNode:" + region.numaNode + ", pages:" + firstPageId + ".." + endPageId + "]";
+    }
+}
@@ -20,22 +20,25 @@
 package org.neo4j.io.pagecache.impl.muninn;
 
 /**
- * This Runnable runs the eviction algorithm. Only one is expected for each page cache.
+ * This Runnable runs the eviction algorithm. Only one is expected for each {@link EvictionSweeper} of a page cache.
  *
  * Interrupting the thread running this runnable, will be interpreted as a shutdown signal.
  *
- * @see MuninnPageCache#continuouslySweepPages()
+ * @see MuninnPageCache#continuouslySweepPages(EvictionSweeper)
  */
 final class EvictionTask extends BackgroundTask
 {
-    EvictionTask( MuninnPageCache pageCache )
+    private final EvictionSweeper sweeper;
+
+    EvictionTask( MuninnPageCache pageCache, EvictionSweeper sweeper )
     {
         super( pageCache );
+        this.sweeper = sweeper;
     }
 
     @Override
     protected void run( MuninnPageCache pageCache )
     {
-        pageCache.continuouslySweepPages();
+        pageCache.continuouslySweepPages( sweeper );
     }
 }
@@ -22,7 +22,7 @@ package org.neo4j.io.pagecache.impl.muninn;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A free page in the MuninnPageCache.freelist.
+ * A free page in the PageCacheRegion.freelist.
  *
  * The next pointers are always other FreePage instances.
  */
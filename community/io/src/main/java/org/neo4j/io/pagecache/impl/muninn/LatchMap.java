@@ -109,6 +109,22 @@ final class LatchMap
         return null;
     }
 
+    /**
+     * Like {@link #takeOrAwaitLatch(long)}, except that this method returns {@code null} immediately, instead of waiting,
+     * if a latch is already installed for the given (or any colliding) identifier. This allows a thread to hold on to many
+     * latches at the same time, without deadlocking on colliding identifiers.
+     */
+    Latch tryTakeLatch( long identifier )
+    {
+        int index = index( identifier );
+        if ( getLatch( index ) != null )
+        {
+            return null;
+        }
+        Latch latch = new Latch( this, index );
+        return tryInsertLatch( index, latch ) ? latch : null;
+    }
+
     private int index( long identifier )
     {
         return (int) (identifier & faultLockMask);
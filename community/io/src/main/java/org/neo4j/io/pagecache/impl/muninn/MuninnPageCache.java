@@ -23,21 +23,24 @@ import org.eclipse.collections.api.set.ImmutableSet;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.VarHandle;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
+import org.neo4j.internal.nativeimpl.LinuxNuma;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.IOController;
@@ -135,6 +138,11 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // The eviction threads collect up to this many dirty victim pages, before they flush them all together and evict them.
+    // Setting this to 1 makes the eviction threads flush every dirty victim individually, as part of evicting it.
+    private static final int evictionFlushBatchSize = getInteger(
+            MuninnPageCache.class, "evictionFlushBatchSize", 64 );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
@@ -162,40 +170,40 @@ public class MuninnPageCache implements PageCache
     private final int pageCacheId;
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
-    private final int keepFree;
     private final PageCacheTracer pageCacheTracer;
     private final IOBufferFactory bufferFactory;
     private final int faultLockStriping;
     private final boolean preallocateStoreFiles;
     private final boolean enableEvictionThread;
+    private final MemoryAllocator memoryAllocator;
+    // The amount of huge page backed memory that has been reported to the tracer so far.
+    private final AtomicLong reportedHugePageBackedMemory = new AtomicLong();
     final PageList pages;
+    final EvictionPolicy evictionPolicy;
+    // The partitioned policy also decorates the evictionPolicy, or null if no partitions are configured.
+    private final PartitionedEvictionPolicy partitions;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
     final long victimPage;
-
-    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
-    // Initially, the field is an AtomicInteger that counts from zero to the max page count, at which point all of the
-    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
-    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
-    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
-    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
-    @SuppressWarnings( "unused" ) // accessed via VarHandle.
-    private volatile Object freelist;
-    private static final VarHandle FREE_LIST;
+    // The regions that the pages are split into, each with its own freelist and eviction threads. The pages of the regular cache page
+    // size come first, with one region per NUMA node if the page cache is NUMA aware, and a single region otherwise. They are followed
+    // by a region for each additional page size class, in order of page size.
+    final PageCacheRegion[] regions;
+    // The regions of the regular cache page size.
+    private final PageCacheRegion[] regularRegions;
+    // The region of each additional page size class, by cache page size.
+    private final Map<Integer,PageCacheRegion[]> pageSizeClassRegions;
+    // The memory of the page size classes, which is not affected by resizing the page cache.
+    private final long pageSizeClassMemory;
+    // Only one thread at a time can retire pages, or bring them back into circulation.
+    private final Object resizeLock = new Object();
+    // Continuously writes dirty pages in the background, or null if the page cache has no background writer.
+    private final BackgroundWriter backgroundWriter;
 
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
 
-    // The thread that runs the eviction algorithm. We unpark this when we've run out of
-    // free pages to grab.
-    private volatile Thread evictionThread;
-    // True if the eviction thread is currently parked, without someone having
-    // signalled it to wake up. This is used as a weak guard for unparking the
-    // eviction thread, because calling unpark too much (from many page
-    // faulting threads) can cause contention on the locks protecting that
-    // threads scheduling meta-data in the OS kernel.
-    private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
@@ -207,19 +215,6 @@ public class MuninnPageCache implements PageCache
     // 'true' (the default) if we should print any exceptions we get when unmapping a file.
     private boolean printExceptionsOnClose;
 
-    static
-    {
-        try
-        {
-            MethodHandles.Lookup l = MethodHandles.lookup();
-            FREE_LIST = l.findVarHandle( MuninnPageCache.class, "freelist", Object.class );
-        }
-        catch ( ReflectiveOperationException e )
-        {
-            throw new ExceptionInInitializerError( e );
-        }
-    }
-
     /**
      * Compute the amount of memory needed for a page cache with the given number of 8 KiB pages.
      * @param pageCount The number of pages
@@ -241,10 +236,18 @@ public class MuninnPageCache implements PageCache
         private final int faultLockStriping;
         private final boolean enableEvictionThread;
         private final boolean preallocateStoreFiles;
+        private final EvictionPolicyType evictionPolicy;
+        private final List<PageCachePartition> partitions;
+        private final int numaNodes;
+        private final int evictionThreads;
+        private final Duration backgroundWriterHorizon;
+        private final Map<Integer,Long> pageSizeClasses;
+        private final long initialMemory;
 
         private Configuration( MemoryAllocator memoryAllocator, SystemNanoClock clock, MemoryTracker memoryTracker, PageCacheTracer pageCacheTracer,
                 int pageSize, IOBufferFactory bufferFactory, int faultLockStriping,
-                boolean enableEvictionThread, boolean preallocateStoreFiles )
+                boolean enableEvictionThread, boolean preallocateStoreFiles, EvictionPolicyType evictionPolicy, List<PageCachePartition> partitions,
+                int numaNodes, int evictionThreads, Duration backgroundWriterHorizon, Map<Integer,Long> pageSizeClasses, long initialMemory )
         {
             this.memoryAllocator = memoryAllocator;
             this.clock = clock;
@@ -255,6 +258,13 @@ public class MuninnPageCache implements PageCache
             this.faultLockStriping = faultLockStriping;
             this.enableEvictionThread = enableEvictionThread;
             this.preallocateStoreFiles = preallocateStoreFiles;
+            this.evictionPolicy = evictionPolicy;
+            this.partitions = partitions;
+            this.numaNodes = numaNodes;
+            this.evictionThreads = evictionThreads;
+            this.backgroundWriterHorizon = backgroundWriterHorizon;
+            this.pageSizeClasses = pageSizeClasses;
+            this.initialMemory = initialMemory;
         }
 
         /**
@@ -263,7 +273,8 @@ public class MuninnPageCache implements PageCache
         public Configuration memoryAllocator( MemoryAllocator memoryAllocator )
         {
             return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
-                    faultLockStriping, enableEvictionThread, preallocateStoreFiles );
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
         }
 
         /**
@@ -272,7 +283,8 @@ public class MuninnPageCache implements PageCache
         public Configuration clock( SystemNanoClock clock )
         {
             return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
-                    faultLockStriping, enableEvictionThread, preallocateStoreFiles );
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
         }
 
         /**
@@ -281,7 +293,8 @@ public class MuninnPageCache implements PageCache
         public Configuration memoryTracker( MemoryTracker memoryTracker )
         {
             return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
-                    faultLockStriping, enableEvictionThread, preallocateStoreFiles );
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
         }
 
         /**
@@ -290,7 +303,8 @@ public class MuninnPageCache implements PageCache
         public Configuration pageCacheTracer( PageCacheTracer pageCacheTracer )
         {
             return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
-                    faultLockStriping, enableEvictionThread, preallocateStoreFiles );
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
         }
 
         /**
@@ -299,7 +313,8 @@ public class MuninnPageCache implements PageCache
         public Configuration pageSize( int pageSize )
         {
             return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
-                    faultLockStriping, enableEvictionThread, preallocateStoreFiles );
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
         }
 
         /**
@@ -308,7 +323,8 @@ public class MuninnPageCache implements PageCache
         public Configuration bufferFactory( IOBufferFactory bufferFactory )
         {
             return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
-                    faultLockStriping, enableEvictionThread, preallocateStoreFiles );
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
         }
 
         /**
@@ -317,7 +333,8 @@ public class MuninnPageCache implements PageCache
         public Configuration faultLockStriping( int faultLockStriping )
         {
             return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
-                    faultLockStriping, enableEvictionThread, preallocateStoreFiles );
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
         }
 
         /**
@@ -326,7 +343,8 @@ public class MuninnPageCache implements PageCache
         public Configuration disableEvictionThread()
         {
             return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
-                    faultLockStriping, false, preallocateStoreFiles );
+                    faultLockStriping, false, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
         }
 
         /**
@@ -335,7 +353,82 @@ public class MuninnPageCache implements PageCache
         public Configuration preallocateStoreFiles( boolean preallocateStoreFiles )
         {
             return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
-                    faultLockStriping, enableEvictionThread, preallocateStoreFiles );
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
+        }
+
+        /**
+         * @param evictionPolicy the policy the eviction sweepers use to pick pages to evict.
+         */
+        public Configuration evictionPolicy( EvictionPolicyType evictionPolicy )
+        {
+            return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
+        }
+
+        /**
+         * @param partitions the partitions that reserve and limit the number of cache pages the mapped files they match can occupy.
+         */
+        public Configuration partitions( List<PageCachePartition> partitions )
+        {
+            return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
+        }
+
+        /**
+         * @param numaNodes the number of NUMA nodes to split the page cache memory, and its eviction, over. 1 disables NUMA awareness.
+         */
+        public Configuration numaNodes( int numaNodes )
+        {
+            return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
+        }
+
+        /**
+         * @param evictionThreads the number of background eviction threads for each region of the page cache. Each thread sweeps its own slice of the pages.
+         */
+        public Configuration evictionThreads( int evictionThreads )
+        {
+            return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
+        }
+
+        /**
+         * @param backgroundWriterHorizon the time within which the background writer should aim to write every dirty page, or {@link Duration#ZERO}
+         * to not write dirty pages in the background.
+         */
+        public Configuration backgroundWriterHorizon( Duration backgroundWriterHorizon )
+        {
+            return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
+        }
+
+        /**
+         * @param pageSizeClasses the memory, in bytes, to set aside for each additional cache page size. Files that are mapped with
+         * {@link PageCacheOpenOptions#PAGE_SIZE_CLASS}, and whose file page size is one of these cache page sizes, are cached in pages of that size,
+         * which are taken from that memory. The rest of the memory is used for pages of the regular cache page size.
+         */
+        public Configuration pageSizeClasses( Map<Integer,Long> pageSizeClasses )
+        {
+            return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
+        }
+
+        /**
+         * @param initialMemory the memory the page cache starts out with, when its memory allocator has room for more, such that it can grow
+         * with {@link MuninnPageCache#resize(long)} later. Zero, the default, starts out with all of the memory of the allocator.
+         */
+        public Configuration initialMemory( long initialMemory )
+        {
+            return new Configuration( memoryAllocator, clock, memoryTracker, pageCacheTracer, pageSize, bufferFactory,
+                    faultLockStriping, enableEvictionThread, preallocateStoreFiles, evictionPolicy, partitions, numaNodes, evictionThreads,
+                    backgroundWriterHorizon, pageSizeClasses, initialMemory );
         }
     }
 
@@ -355,7 +448,8 @@ public class MuninnPageCache implements PageCache
     public static Configuration config( MemoryAllocator memoryAllocator )
     {
         return new Configuration( memoryAllocator, Clocks.nanoClock(), EmptyMemoryTracker.INSTANCE, PageCacheTracer.NULL,
-                PAGE_SIZE, DISABLED_BUFFER_FACTORY, LatchMap.faultLockStriping, true, true );
+                PAGE_SIZE, DISABLED_BUFFER_FACTORY, LatchMap.faultLockStriping, true, true, EvictionPolicyType.CLOCK, List.of(), 1, 1, Duration.ZERO,
+                Map.of(), 0 );
     }
 
     /**
@@ -369,26 +463,104 @@ public class MuninnPageCache implements PageCache
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( configuration.pageSize );
         requireNonNull( jobScheduler );
-        int maxPages = calculatePageCount( configuration.memoryAllocator, configuration.pageSize );
+        int[] classPageSizes = configuration.pageSizeClasses.keySet().stream().mapToInt( Integer::intValue ).sorted().toArray();
+        int[] classPageCounts = new int[classPageSizes.length];
+        long classMemory = 0;
+        for ( int i = 0; i < classPageSizes.length; i++ )
+        {
+            int classPageSize = classPageSizes[i];
+            verifyCachePageSizeIsPowerOfTwo( classPageSize );
+            if ( classPageSize == configuration.pageSize )
+            {
+                throw new IllegalArgumentException( "Page size class " + classPageSize + " is the same as the cache page size." );
+            }
+            classPageCounts[i] = calculatePageCount( configuration.pageSizeClasses.get( classPageSize ), classPageSize );
+            classMemory += (long) classPageCounts[i] * (classPageSize + PageList.META_DATA_BYTES_PER_PAGE);
+        }
+        int regularPages = calculatePageCount( configuration.memoryAllocator.availableMemory() - classMemory, configuration.pageSize );
+        int maxPages = Math.toIntExact( regularPages + Arrays.stream( classPageCounts ).asLongStream().sum() );
 
         this.pageCacheId = pageCacheIdCounter.incrementAndGet();
         this.swapperFactory = swapperFactory;
         this.cachePageSize = configuration.pageSize;
-        this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
         this.pageCacheTracer = configuration.pageCacheTracer;
         this.printExceptionsOnClose = true;
         this.bufferFactory = configuration.bufferFactory;
-        this.victimPage = VictimPageReference.getVictimPage( cachePageSize, configuration.memoryTracker );
-        this.pages = new PageList( maxPages, cachePageSize, configuration.memoryAllocator, new SwapperSet(), victimPage, UnsafeUtil.pageSize() );
+        // The victim page must be large enough for the pages of every page size class.
+        int largestPageSize = Math.max( cachePageSize, classPageSizes.length == 0 ? 0 : classPageSizes[classPageSizes.length - 1] );
+        this.victimPage = VictimPageReference.getVictimPage( largestPageSize, configuration.memoryTracker );
+        this.memoryAllocator = configuration.memoryAllocator;
+        this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, UnsafeUtil.pageSize() );
+        int flushBatchSize = Math.max( 1, evictionFlushBatchSize );
+        this.regularRegions = PageCacheRegion.split( regularPages, cachePageSize, configuration.numaNodes, pagesToKeepFree, configuration.evictionThreads,
+                flushBatchSize );
+        this.pageSizeClassRegions = new HashMap<>();
+        List<PageCacheRegion> allRegions = new ArrayList<>( Arrays.asList( regularRegions ) );
+        int firstPageId = regularPages;
+        for ( int i = 0; i < classPageSizes.length; i++ )
+        {
+            PageCacheRegion region = PageCacheRegion.pageSizeClass( firstPageId, classPageCounts[i], classPageSizes[i], pagesToKeepFree,
+                    configuration.evictionThreads, flushBatchSize );
+            pageSizeClassRegions.put( classPageSizes[i], new PageCacheRegion[]{region} );
+            allRegions.add( region );
+            firstPageId = region.endPageId();
+        }
+        this.regions = allRegions.toArray( new PageCacheRegion[0] );
+        this.pageSizeClassMemory = classMemory;
+        placePageMetaDataOnNumaNodes();
+        EvictionPolicy evictionPolicy = configuration.evictionPolicy.create( pages, configuration.pageCacheTracer );
+        if ( !configuration.partitions.isEmpty() )
+        {
+            this.partitions = new PartitionedEvictionPolicy( evictionPolicy, configuration.partitions, maxPages, configuration.pageCacheTracer );
+            evictionPolicy = partitions;
+        }
+        else
+        {
+            this.partitions = null;
+        }
+        this.evictionPolicy = evictionPolicy;
         this.scheduler = jobScheduler;
         this.clock = configuration.clock;
         this.faultLockStriping = configuration.faultLockStriping;
         this.enableEvictionThread = configuration.enableEvictionThread;
         this.preallocateStoreFiles = configuration.preallocateStoreFiles;
-        setFreelistHead( new AtomicInteger() );
+        this.backgroundWriter = configuration.backgroundWriterHorizon.isZero() ? null : new BackgroundWriter( configuration.backgroundWriterHorizon.toNanos() );
+
+        if ( configuration.initialMemory > 0 )
+        {
+            try
+            {
+                // None of the pages are in use yet, so this only takes pages out of circulation, without evicting any.
+                resize( configuration.initialMemory );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
 
         // Expose the total number of pages
-        configuration.pageCacheTracer.maxPages( maxPages, cachePageSize);
+        configuration.pageCacheTracer.maxPages( activePageCount(), cachePageSize );
+        reportHugePageBackedMemory();
+    }
+
+    private void placePageMetaDataOnNumaNodes()
+    {
+        for ( PageCacheRegion region : regions )
+        {
+            if ( region.numaNode < 0 )
+            {
+                continue;
+            }
+            try
+            {
+                LinuxNuma.preferNode( pages.deref( region.firstPageId ), (long) region.pageCount * PageList.META_DATA_BYTES_PER_PAGE, region.numaNode );
+            }
+            catch ( IOException e )
+            {
+                // The placement is only a preference. The meta-data is just as usable on any other node.
+            }
+        }
     }
 
     private static void verifyHacks()
@@ -406,10 +578,10 @@ public class MuninnPageCache implements PageCache
         }
     }
 
-    private static int calculatePageCount( MemoryAllocator memoryAllocator, int cachePageSize )
+    private static int calculatePageCount( long memory, int cachePageSize )
     {
         long memoryPerPage = cachePageSize + PageList.META_DATA_BYTES_PER_PAGE;
-        long maxPages = memoryAllocator.availableMemory() / memoryPerPage;
+        long maxPages = memory / memoryPerPage;
         int minimumPageCount = 2;
         if ( maxPages < minimumPageCount )
         {
@@ -427,18 +599,13 @@ public class MuninnPageCache implements PageCache
     {
         assertHealthy();
         ensureThreadsInitialised();
-        if ( filePageSize > cachePageSize )
-        {
-            throw new IllegalArgumentException(
-                    "Cannot map files with a filePageSize (" + filePageSize + ") that is greater than the " +
-                    "cachePageSize (" + cachePageSize + ")" );
-        }
         path = path.normalize();
         boolean createIfNotExists = false;
         boolean truncateExisting = false;
         boolean deleteOnClose = false;
         boolean anyPageSize = false;
         boolean useDirectIO = false;
+        PageCacheRegion[] fileRegions = regularRegions;
         for ( OpenOption option : openOptions )
         {
             if ( option.equals( StandardOpenOption.CREATE ) )
@@ -461,11 +628,22 @@ public class MuninnPageCache implements PageCache
             {
                 useDirectIO = true;
             }
+            else if ( option.equals( PageCacheOpenOptions.PAGE_SIZE_CLASS ) )
+            {
+                fileRegions = pageSizeClassRegions.getOrDefault( filePageSize, regularRegions );
+            }
             else if ( !ignoredOpenOptions.contains( option ) )
             {
                 throw new UnsupportedOperationException( "Unsupported OpenOption: " + option );
             }
         }
+        int fileCachePageSize = fileRegions[0].cachePageSize;
+        if ( filePageSize > fileCachePageSize )
+        {
+            throw new IllegalArgumentException(
+                    "Cannot map files with a filePageSize (" + filePageSize + ") that is greater than the " +
+                    "cachePageSize (" + fileCachePageSize + ")" );
+        }
 
         FileMapping current = mappedFiles;
 
@@ -503,10 +681,12 @@ public class MuninnPageCache implements PageCache
         }
 
         // there was no existing mapping
+        PartitionedEvictionPolicy.Partition partition = partitions == null ? null : partitions.partitionFor( databaseName, path );
         MuninnPagedFile pagedFile = new MuninnPagedFile(
                 path,
                 this,
                 filePageSize,
+                fileRegions,
                 swapperFactory,
                 pageCacheTracer,
                 createIfNotExists,
@@ -515,7 +695,12 @@ public class MuninnPageCache implements PageCache
                 preallocateStoreFiles,
                 databaseName,
                 faultLockStriping,
-                ioController );
+                ioController,
+                partition );
+        if ( partition != null )
+        {
+            partitions.register( pagedFile.swapperId, partition );
+        }
         pagedFile.incrementRefCount();
         pagedFile.setDeleteOnClose( deleteOnClose );
         current = new FileMapping( path, pagedFile );
@@ -594,8 +779,31 @@ public class MuninnPageCache implements PageCache
         {
             if ( enableEvictionThread )
             {
-                var monitoringParams = systemJob( "Eviction of pages from the page cache" );
-                scheduler.schedule( Group.PAGE_CACHE_EVICTION, monitoringParams, new EvictionTask( this ) );
+                for ( PageCacheRegion region : regions )
+                {
+                    for ( EvictionSweeper sweeper : region.sweepers )
+                    {
+                        String description = "Eviction of pages from the page cache";
+                        if ( region.numaNode >= 0 )
+                        {
+                            description += " on NUMA node " + region.numaNode;
+                        }
+                        if ( region.cachePageSize != cachePageSize )
+                        {
+                            description += ", " + region.cachePageSize + " byte pages";
+                        }
+                        if ( region.sweepers.length > 1 )
+                        {
+                            description += ", pages " + sweeper.firstPageId + " to " + sweeper.endPageId;
+                        }
+                        scheduler.schedule( Group.PAGE_CACHE_EVICTION, systemJob( description ), new EvictionTask( this, sweeper ) );
+                    }
+                }
+            }
+            if ( backgroundWriter != null )
+            {
+                scheduler.schedule( Group.PAGE_CACHE_WRITER, systemJob( "Background writing of dirty pages from the page cache" ),
+                        new BackgroundWriterTask( this, backgroundWriter ) );
             }
         }
         catch ( Exception e )
@@ -635,6 +843,10 @@ public class MuninnPageCache implements PageCache
                         prev.next = current.next;
                     }
                     pageCacheTracer.unmappedFile( file.swapperId, file );
+                    if ( partitions != null )
+                    {
+                        partitions.unregister( file.swapperId );
+                    }
                     flushAndCloseWithoutFail( file );
                     break;
                 }
@@ -764,8 +976,19 @@ public class MuninnPageCache implements PageCache
 
         closed = true;
 
-        interrupt( evictionThread );
-        evictionThread = null;
+        for ( PageCacheRegion region : regions )
+        {
+            for ( EvictionSweeper sweeper : region.sweepers )
+            {
+                interrupt( sweeper.evictionThread );
+                sweeper.evictionThread = null;
+            }
+        }
+        if ( backgroundWriter != null )
+        {
+            interrupt( backgroundWriter.writerThread );
+            backgroundWriter.writerThread = null;
+        }
     }
 
     private static void interrupt( Thread thread )
@@ -803,7 +1026,72 @@ public class MuninnPageCache implements PageCache
     @Override
     public long maxCachedPages()
     {
-        return pages.getPageCount();
+        return activePageCount();
+    }
+
+    private int activePageCount()
+    {
+        int activePages = 0;
+        for ( PageCacheRegion region : regions )
+        {
+            activePages += region.activePageCount();
+        }
+        return activePages;
+    }
+
+    /**
+     * Grow or shrink the memory that the page cache uses for pages of the regular cache page size, while it is running.
+     * <p>
+     * The page list has room for as many pages as the memory allocator was given memory for, and the pages that do not fit within the
+     * given memory are retired: they are evicted like any other page that is needed for a page fault, and then kept out of circulation
+     * with their buffer memory given back to the operating system, until the page cache grows again. The retired pages are spread evenly
+     * over the regions of the regular cache page size. The memory of the page size classes stays as it is.
+     *
+     * @param memory the total memory the page cache should use, including the memory of its page size classes. This is limited to the
+     * memory the page cache was created with, and to the least memory each region needs to keep its free pages.
+     * @return the memory the page cache uses after the resize.
+     * @throws IOException if a dirty page could not be flushed while it was being evicted.
+     */
+    public long resize( long memory ) throws IOException
+    {
+        long memoryPerPage = cachePageSize + PageList.META_DATA_BYTES_PER_PAGE;
+        long regularPageCount = 0;
+        for ( PageCacheRegion region : regularRegions )
+        {
+            regularPageCount += region.pageCount;
+        }
+        long targetPageCount = Math.max( 0, memory - pageSizeClassMemory ) / memoryPerPage;
+        synchronized ( resizeLock )
+        {
+            assertNotClosed();
+            long activeRegularPages = 0;
+            for ( PageCacheRegion region : regularRegions )
+            {
+                int regionTarget = (int) Math.min( region.pageCount, targetPageCount * region.pageCount / regularPageCount );
+                regionTarget = Math.max( regionTarget, Math.max( 2, region.keepFree ) );
+                while ( region.activePageCount() > regionTarget )
+                {
+                    retirePage( region );
+                }
+                while ( region.activePageCount() < regionTarget )
+                {
+                    addFreePageToFreelist( region.retiredPages.removeAtIndex( region.retiredPages.size() - 1 ), EvictionRunEvent.NULL );
+                }
+                activeRegularPages += region.activePageCount();
+            }
+            pageCacheTracer.maxPages( activePageCount(), cachePageSize );
+            return activeRegularPages * memoryPerPage + pageSizeClassMemory;
+        }
+    }
+
+    private void retirePage( PageCacheRegion region ) throws IOException
+    {
+        // Take the page just like a page fault would. It then comes to us exclusively locked, and unbound from any file.
+        long pageRef = grabFreeAndExclusivelyLockedPage( new PageCacheRegion[]{region}, PageFaultEvent.NULL );
+        // Cursors may still read from the buffer of a page they were pinning when it was evicted, and only then notice that they have to
+        // retry, so the buffer must stay allocated. We only let the operating system take back its physical memory.
+        pages.discardBuffer( pageRef, region.cachePageSize );
+        region.retiredPages.add( pageRef );
     }
 
     @Override
@@ -812,60 +1100,96 @@ public class MuninnPageCache implements PageCache
         return bufferFactory;
     }
 
+    /**
+     * Report any growth in the amount of huge page backed memory to the tracer. The memory allocator measures this whenever it grabs more
+     * memory from the operating system, which happens as the page buffers are initialised on demand.
+     */
+    void reportHugePageBackedMemory()
+    {
+        long hugePageBackedMemory = memoryAllocator.hugePageBackedMemory();
+        long reported = reportedHugePageBackedMemory.getAndAccumulate( hugePageBackedMemory, Math::max );
+        if ( hugePageBackedMemory > reported )
+        {
+            pageCacheTracer.hugePageBackedBytes( hugePageBackedMemory - reported );
+        }
+    }
+
     int getPageCacheId()
     {
         return pageCacheId;
     }
 
-    long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
+    /**
+     * Grab a free page from the given regions, which must be either the regions of the regular cache page size, or the region of a page size class.
+     */
+    long grabFreeAndExclusivelyLockedPage( PageCacheRegion[] fileRegions, PageFaultEvent faultEvent ) throws IOException
     {
-        // Review the comment on the freelist field before making changes to
+        // Review the comment on the PageCacheRegion.freelist field before making changes to
         // this part of the code.
-        // Whatever the case, we're going to the head-pointer of the freelist,
+        // Whatever the case, we're going to the head-pointer of the freelist of our local region,
         // and in doing so, we can discover a number of things.
-        // We can discover a MuninnPage object, in which case we can try to
-        // CAS the freelist pointer to the value of the MuninnPage.nextFree
-        // pointer, and if this succeeds then we've grabbed that page.
-        // We can discover a FreePage object, in which case we'll do a similar
-        // dance by attempting to CAS the freelist to the FreePage objects next
-        // pointer, and again, if we succeed then we've grabbed the MuninnPage
-        // given by the FreePage object.
+        // We can discover an AtomicInteger, in which case we try to increment it to claim the next
+        // page of the region that has never been used.
+        // We can discover a FreePage object, in which case we'll attempt to
+        // CAS the freelist to the FreePage objects next pointer, and if we
+        // succeed then we've grabbed the page given by the FreePage object.
         // We can discover a null-pointer, in which case the freelist has just
         // been emptied for whatever it contained before. New FreePage objects
         // are eventually going to be added to the freelist, but we are not
-        // going to wait around for that to happen. If the freelist is empty,
-        // then we do our own eviction to get a free page.
+        // going to wait around for that to happen. If the page cache has more than
+        // one region, we would rather take a free page from another region, than
+        // do our own eviction. Otherwise, we do our own eviction to get a free page.
         // If we find a FreePage object on the freelist, then it is important
         // to check and see if it is the shutdownSignal instance. If that's the
         // case, then the page cache has been shut down, and we should throw an
         // exception from our page fault routine.
-        Object current;
+        PageCacheRegion localRegion = localRegion( fileRegions );
         for (;;)
         {
             assertHealthy();
-            current = getFreelistHead();
-            if ( current == null )
+            long pageRef = tryGrabFreePage( localRegion, faultEvent );
+            if ( pageRef != 0 )
             {
-                unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
-                if ( pageRef != 0 )
+                return pageRef;
+            }
+            for ( int i = 0; i < fileRegions.length && fileRegions.length > 1; i++ )
+            {
+                if ( fileRegions[i] != localRegion && (pageRef = tryGrabFreePage( fileRegions[i], faultEvent )) != 0 )
                 {
                     return pageRef;
                 }
             }
+            unparkEvictor( localRegion );
+            pageRef = cooperativelyEvict( fileRegions, localRegion, faultEvent );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+        }
+    }
+
+    private long tryGrabFreePage( PageCacheRegion region, PageFaultEvent faultEvent )
+    {
+        for (;;)
+        {
+            Object current = region.getFreelistHead();
+            if ( current == null )
+            {
+                return 0;
+            }
             else if ( current instanceof AtomicInteger )
             {
-                int pageCount = pages.getPageCount();
+                int pageCount = region.pageCount;
                 AtomicInteger counter = (AtomicInteger) current;
-                int pageId = counter.get();
-                if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
+                int pageIndex = counter.get();
+                if ( pageIndex < pageCount && counter.compareAndSet( pageIndex, pageIndex + 1 ) )
                 {
                     faultEvent.freeListSize( pageCount - counter.get() );
-                    return pages.deref( pageId );
+                    return pages.deref( region.firstPageId + pageIndex );
                 }
-                if ( pageId >= pageCount )
+                if ( pageIndex >= pageCount )
                 {
-                    compareAndSetFreelistHead( current, null );
+                    region.compareAndSetFreelistHead( current, null );
                 }
             }
             else if ( current instanceof FreePage )
@@ -877,7 +1201,7 @@ public class MuninnPageCache implements PageCache
                 }
 
                 Object nextPage = freePage.next;
-                if ( compareAndSetFreelistHead( freePage, nextPage ) )
+                if ( region.compareAndSetFreelistHead( freePage, nextPage ) )
                 {
                     faultEvent.freeListSize( getFreeListSize( nextPage ) );
                     return freePage.pageRef;
@@ -886,6 +1210,47 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * @return the one of the given regions that belongs to the NUMA node that the calling thread is running on.
+     */
+    private static PageCacheRegion localRegion( PageCacheRegion[] fileRegions )
+    {
+        if ( fileRegions.length == 1 )
+        {
+            return fileRegions[0];
+        }
+        return fileRegions[LinuxNuma.currentNode() % fileRegions.length];
+    }
+
+    PageCacheRegion regionOf( long pageRef )
+    {
+        if ( regions.length == 1 )
+        {
+            return regions[0];
+        }
+        int pageId = pages.toId( pageRef );
+        for ( PageCacheRegion region : regions )
+        {
+            if ( pageId < region.endPageId() )
+            {
+                return region;
+            }
+        }
+        throw new IllegalArgumentException( "Page " + pageId + " is not in any region of the page cache." );
+    }
+
+    private static boolean hasFreePages( PageCacheRegion[] fileRegions )
+    {
+        for ( PageCacheRegion region : fileRegions )
+        {
+            if ( region.getFreelistHead() != null )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static int getFreeListSize( Object next )
     {
         if ( next instanceof FreePage )
@@ -902,39 +1267,44 @@ public class MuninnPageCache implements PageCache
         }
     }
 
-    private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
+    private long cooperativelyEvict( PageCacheRegion[] fileRegions, PageCacheRegion localRegion, PageFaultEvent faultEvent ) throws IOException
     {
         int iterations = 0;
-        int pageCount = pages.getPageCount();
-        int clockArm = ThreadLocalRandom.current().nextInt( pageCount );
+        // The given regions are adjacent, and only their pages have buffers of the size we need.
+        int firstPageId = fileRegions[0].firstPageId;
+        int endPageId = fileRegions[fileRegions.length - 1].endPageId();
+        // Start in our local region, to prefer evicting pages whose memory is close to us.
+        int clockArm = localRegion.firstPageId + ThreadLocalRandom.current().nextInt( localRegion.pageCount );
         boolean evicted = false;
         long pageRef;
         do
         {
             assertHealthy();
-            if ( getFreelistHead() != null )
+            if ( hasFreePages( fileRegions ) )
             {
                 return 0;
             }
 
-            if ( clockArm == pageCount )
+            if ( clockArm == endPageId )
             {
                 if ( iterations == cooperativeEvictionLiveLockThreshold )
                 {
                     throw cooperativeEvictionLiveLock();
                 }
                 iterations++;
-                clockArm = 0;
+                clockArm = firstPageId;
             }
 
             pageRef = pages.deref( clockArm );
-            if ( PageList.isLoaded( pageRef ) && PageList.decrementUsage( pageRef ) )
+            if ( PageList.isLoaded( pageRef ) && evictionPolicy.shouldEvict( pageRef ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
             clockArm++;
         }
         while ( !evicted );
+        evictionPolicy.evicted( pageRef );
+        pageCacheTracer.cooperativeEvictions( 1 );
         return pageRef;
     }
 
@@ -953,88 +1323,80 @@ public class MuninnPageCache implements PageCache
                 "your database." );
     }
 
-    private void unparkEvictor()
+    private static void unparkEvictor( PageCacheRegion region )
     {
-        if ( evictorParked )
+        for ( EvictionSweeper sweeper : region.sweepers )
         {
-            evictorParked = false;
-            LockSupport.unpark( evictionThread );
+            if ( sweeper.evictorParked )
+            {
+                sweeper.evictorParked = false;
+                LockSupport.unpark( sweeper.evictionThread );
+            }
         }
     }
 
-    private void parkEvictor( long parkNanos )
+    private void parkEvictor( EvictionSweeper sweeper, long parkNanos )
     {
-        // Only called from the background eviction thread!
-        evictorParked = true;
+        // Only called from the background eviction thread of the sweeper!
+        sweeper.evictorParked = true;
         LockSupport.parkNanos( this, parkNanos );
-        evictorParked = false;
-    }
-
-    private Object getFreelistHead()
-    {
-        return FREE_LIST.getVolatile( this );
-    }
-
-    private boolean compareAndSetFreelistHead( Object expected, Object update )
-    {
-        return FREE_LIST.compareAndSet( this, expected, update );
-    }
-
-    private void setFreelistHead( Object newFreelistHead )
-    {
-        FREE_LIST.setVolatile( this, newFreelistHead );
+        sweeper.evictorParked = false;
     }
 
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
-     * If a usage reaches zero, we try-write-locking it, and if we get that lock,
-     * we evict the page. If we don't, we move on to the next page.
+     * Scan through all the pages of the slice of the sweeper, one by one, and ask the {@link EvictionPolicy} about them.
+     * With the default CLOCK policy this decrements their usage stamps.
+     * If the policy says a page should be evicted, we try-write-locking it, and if we get that lock,
+     * we evict the page. If we don't, we move on to the next page. Dirty pages are not evicted right away, but
+     * collected into a batch that is flushed in one go, before the pages in it are evicted.
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
      */
-    void continuouslySweepPages()
+    void continuouslySweepPages( EvictionSweeper sweeper )
     {
-        evictionThread = Thread.currentThread();
-        int clockArm = 0;
+        sweeper.evictionThread = Thread.currentThread();
+        int clockArm = sweeper.firstPageId;
 
         while ( !closed )
         {
-            int pageCountToEvict = parkUntilEvictionRequired( keepFree );
+            int pageCountToEvict = parkUntilEvictionRequired( sweeper );
             try ( EvictionRunEvent evictionRunEvent = pageCacheTracer.beginPageEvictions( pageCountToEvict ) )
             {
-                clockArm = evictPages( pageCountToEvict, clockArm, evictionRunEvent );
+                clockArm = evictPages( pageCountToEvict, clockArm, sweeper, evictionRunEvent );
             }
         }
 
         // The last thing we do, is signalling the shutdown of the cache via
         // the freelist. This signal is looked out for in grabFreePage.
-        setFreelistHead( shutdownSignal );
+        sweeper.region.setFreelistHead( shutdownSignal );
     }
 
-    private int parkUntilEvictionRequired( int keepFree )
+    private int parkUntilEvictionRequired( EvictionSweeper sweeper )
     {
         // Park until we're either interrupted, or the number of free pages drops
         // bellow keepFree.
         long parkNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
         for (;;)
         {
-            parkEvictor( parkNanos );
+            parkEvictor( sweeper, parkNanos );
             if ( Thread.interrupted() || closed )
             {
                 return 0;
             }
 
-            int availablePages = tryGetNumberOfAvailablePages( keepFree );
+            int availablePages = tryGetNumberOfAvailablePages( sweeper.region );
             if ( availablePages != UNKNOWN_AVAILABLE_PAGES )
             {
-                return availablePages;
+                // The sweepers of the region share the work of evicting the pages the region needs.
+                return sweeper.region.pagesToEvictPerSweeper( availablePages );
             }
         }
     }
 
-    private int tryGetNumberOfAvailablePages( int keepFree )
+    private static int tryGetNumberOfAvailablePages( PageCacheRegion region )
     {
-        Object freelistHead = getFreelistHead();
+        Object freelistHead = region.getFreelistHead();
+        int keepFree = region.keepFree;
 
         if ( freelistHead == null )
         {
@@ -1051,7 +1413,7 @@ public class MuninnPageCache implements PageCache
         else if ( freelistHead.getClass() == AtomicInteger.class )
         {
             AtomicInteger counter = (AtomicInteger) freelistHead;
-            long count = pages.getPageCount() - counter.get();
+            long count = region.pageCount - counter.get();
             if ( count < keepFree )
             {
                 return count < 0 ? keepFree : (int) (keepFree - count);
@@ -1062,11 +1424,22 @@ public class MuninnPageCache implements PageCache
 
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
+        return evictPages( pageCountToEvict, clockArm, null, evictionRunEvent );
+    }
+
+    /**
+     * Evict pages from the slice of the given sweeper, or from the whole page cache if the sweeper is {@code null}.
+     */
+    private int evictPages( int pageCountToEvict, int clockArm, EvictionSweeper sweeper, EvictionRunEvent evictionRunEvent )
+    {
+        int firstPageId = sweeper == null ? 0 : sweeper.firstPageId;
+        int endPageId = sweeper == null ? pages.getPageCount() : sweeper.endPageId;
+        boolean batchDirtyVictims = sweeper != null && sweeper.dirtyVictims.length > 1;
         while ( pageCountToEvict > 0 && !closed )
         {
-            if ( clockArm == pages.getPageCount() )
+            if ( clockArm == endPageId )
             {
-                clockArm = 0;
+                clockArm = firstPageId;
             }
 
             if ( closed )
@@ -1076,52 +1449,279 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( PageList.isLoaded( pageRef ) && PageList.decrementUsage( pageRef ) )
+            if ( PageList.isLoaded( pageRef ) && evictionPolicy.shouldEvict( pageRef ) )
             {
-                try
+                pageCountToEvict--;
+                if ( batchDirtyVictims && PageList.isModified( pageRef ) )
                 {
-                    pageCountToEvict--;
-                    if ( pages.tryEvict( pageRef, evictionRunEvent ) )
+                    sweeper.dirtyVictims[sweeper.dirtyVictimCount++] = pageRef;
+                    if ( sweeper.isDirtyVictimBatchFull() )
                     {
-                        clearEvictorException();
-                        addFreePageToFreelist( pageRef, evictionRunEvent );
+                        flushAndEvictDirtyVictims( sweeper, evictionRunEvent );
                     }
                 }
-                catch ( IOException e )
+                else
                 {
-                    evictorException = e;
+                    evictPage( pageRef, evictionRunEvent );
                 }
-                catch ( OutOfMemoryError oom )
+            }
+
+            clockArm++;
+        }
+        if ( sweeper != null && sweeper.dirtyVictimCount > 0 )
+        {
+            flushAndEvictDirtyVictims( sweeper, evictionRunEvent );
+        }
+
+        return clockArm;
+    }
+
+    private void evictPage( long pageRef, EvictionRunEvent evictionRunEvent )
+    {
+        try
+        {
+            if ( pages.tryEvict( pageRef, evictionRunEvent ) )
+            {
+                clearEvictorException();
+                evictionPolicy.evicted( pageRef );
+                addFreePageToFreelist( pageRef, evictionRunEvent );
+            }
+        }
+        catch ( IOException e )
+        {
+            evictorException = e;
+        }
+        catch ( OutOfMemoryError oom )
+        {
+            evictorException = oomException;
+        }
+        catch ( Throwable th )
+        {
+            evictorException = new IOException(
+                    "Eviction thread encountered a problem", th );
+        }
+    }
+
+    /**
+     * Flush the batch of dirty victim pages of the given sweeper, and then evict them.
+     * <p>
+     * The victims are flush locked, and grouped by the file they are bound to, and ordered by their file page ids. Each file then writes
+     * its runs of consecutive victims with vectored writes, rather than writing every victim with a separate write while holding its
+     * exclusive lock, as part of evicting it. Victims that could not be flush locked, or whose flush failed, are flushed
+     * individually when they are evicted.
+     */
+    private void flushAndEvictDirtyVictims( EvictionSweeper sweeper, EvictionRunEvent evictionRunEvent )
+    {
+        long[] victims = sweeper.dirtyVictims;
+        long[] flushStamps = sweeper.flushStamps;
+        int victimCount = sweeper.dirtyVictimCount;
+        sweeper.dirtyVictimCount = 0;
+
+        // Flush lock the victims that are still dirty, and move them to the front of the batch.
+        int lockedCount = 0;
+        for ( int i = 0; i < victimCount; i++ )
+        {
+            long pageRef = victims[i];
+            long stamp = PageList.tryFlushLock( pageRef );
+            if ( stamp != 0 )
+            {
+                if ( PageList.isModified( pageRef ) && PageList.getSwapperId( pageRef ) != 0 )
                 {
-                    evictorException = oomException;
+                    victims[i] = victims[lockedCount];
+                    victims[lockedCount] = pageRef;
+                    flushStamps[lockedCount] = stamp;
+                    lockedCount++;
                 }
-                catch ( Throwable th )
+                else
                 {
-                    evictorException = new IOException(
-                            "Eviction thread encountered a problem", th );
+                    PageList.unlockFlush( pageRef, stamp, false );
                 }
             }
+        }
 
-            clockArm++;
+        sortBySwapperAndFilePageId( victims, flushStamps, lockedCount );
+        int groupStart = 0;
+        while ( groupStart < lockedCount )
+        {
+            int swapperId = PageList.getSwapperId( victims[groupStart] );
+            int groupEnd = groupStart + 1;
+            while ( groupEnd < lockedCount && PageList.getSwapperId( victims[groupEnd] ) == swapperId )
+            {
+                groupEnd++;
+            }
+            flushDirtyVictims( swapperId, victims, flushStamps, groupStart, groupEnd );
+            groupStart = groupEnd;
         }
 
-        return clockArm;
+        for ( int i = 0; i < victimCount; i++ )
+        {
+            evictPage( victims[i], evictionRunEvent );
+        }
+    }
+
+    private void flushDirtyVictims( int swapperId, long[] victims, long[] flushStamps, int from, int to )
+    {
+        MuninnPagedFile pagedFile = pagedFileOf( swapperId );
+        if ( pagedFile == null )
+        {
+            // The file has been unmapped, so there is nothing to flush the pages to. Eviction will sort them out.
+            for ( int i = from; i < to; i++ )
+            {
+                PageList.unlockFlush( victims[i], flushStamps[i], false );
+            }
+            return;
+        }
+        try
+        {
+            pagedFile.flushLockedPages( Arrays.copyOfRange( victims, from, to ), Arrays.copyOfRange( flushStamps, from, to ), to - from );
+        }
+        catch ( IOException e )
+        {
+            // The victims have been unlocked, and are still dirty, so eviction will try flushing them again, one by one.
+            evictorException = e;
+        }
+        catch ( Throwable th )
+        {
+            evictorException = new IOException( "Eviction thread encountered a problem", th );
+        }
+    }
+
+    private static void sortBySwapperAndFilePageId( long[] pageRefs, long[] flushStamps, int count )
+    {
+        // The batches are small, so a simple insertion sort will do.
+        for ( int i = 1; i < count; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long stamp = flushStamps[i];
+            int j = i - 1;
+            while ( j >= 0 && compareBinding( pageRefs[j], pageRef ) > 0 )
+            {
+                pageRefs[j + 1] = pageRefs[j];
+                flushStamps[j + 1] = flushStamps[j];
+                j--;
+            }
+            pageRefs[j + 1] = pageRef;
+            flushStamps[j + 1] = stamp;
+        }
+    }
+
+    private static int compareBinding( long pageRefA, long pageRefB )
+    {
+        int compare = Integer.compare( PageList.getSwapperId( pageRefA ), PageList.getSwapperId( pageRefB ) );
+        return compare != 0 ? compare : Long.compare( PageList.getFilePageId( pageRefA ), PageList.getFilePageId( pageRefB ) );
+    }
+
+    private MuninnPagedFile pagedFileOf( int swapperId )
+    {
+        FileMapping current = mappedFiles;
+        while ( current != null )
+        {
+            if ( current.pagedFile.swapperId == swapperId )
+            {
+                return current.pagedFile;
+            }
+            current = current.next;
+        }
+        return null;
+    }
+
+    /**
+     * Write dirty pages of the mapped files, in file order, once every tick of the given background writer, until the page cache is closed.
+     * The number of pages to write in a tick is decided by the writer, from the estimated number of dirty pages in the page cache.
+     * The written pages are not forced. That is left to the next checkpoint, which then only has to write the pages that are still dirty.
+     */
+    void continuouslyWriteDirtyPages( BackgroundWriter writer )
+    {
+        writer.writerThread = Thread.currentThread();
+        long pagesWritten = 0;
+        while ( !closed )
+        {
+            long tickStart = clock.nanos();
+            long pagesToWrite = writer.pagesToWrite( estimateDirtyPages( writer ), pages.getPageCount(), pagesWritten );
+            pagesWritten = pagesToWrite > 0 ? writeDirtyPages( writer, pagesToWrite ) : 0;
+
+            long parkNanos = BackgroundWriter.TICK_NANOS - (clock.nanos() - tickStart);
+            if ( parkNanos > 0 )
+            {
+                LockSupport.parkNanos( this, parkNanos );
+            }
+            if ( Thread.interrupted() )
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Estimate the number of dirty pages in the page cache, from a sample of pages spread evenly over the page list.
+     */
+    private long estimateDirtyPages( BackgroundWriter writer )
+    {
+        int pageCount = pages.getPageCount();
+        int samples = Math.min( pageCount, BackgroundWriter.DIRTY_PAGE_SAMPLES );
+        int stride = pageCount / samples;
+        int offset = writer.sampleOffset;
+        writer.sampleOffset = (offset + 1) % stride;
+
+        long dirtySamples = 0;
+        for ( int i = 0; i < samples; i++ )
+        {
+            if ( PageList.isModified( pages.deref( offset + i * stride ) ) )
+            {
+                dirtySamples++;
+            }
+        }
+        return dirtySamples * pageCount / samples;
+    }
+
+    private long writeDirtyPages( BackgroundWriter writer, long pagesToWrite )
+    {
+        List<MuninnPagedFile> files = new ArrayList<>();
+        for ( FileMapping current = mappedFiles; current != null; current = current.next )
+        {
+            files.add( current.pagedFile );
+        }
+
+        long pagesWritten = 0;
+        for ( int i = 0; i < files.size() && pagesWritten < pagesToWrite; i++ )
+        {
+            int fileIndex = writer.fileCursor % files.size();
+            long remaining = pagesToWrite - pagesWritten;
+            try
+            {
+                long written = files.get( fileIndex ).writeDirtyPagesInBackground( remaining );
+                pagesWritten += written;
+                if ( written == remaining )
+                {
+                    // Continue from where we left off in this file, in the next tick.
+                    break;
+                }
+            }
+            catch ( IOException e )
+            {
+                // The pages that could not be written are still dirty. They will be written by eviction, or by the next checkpoint,
+                // which will report the failure if it persists. The file might also just have been unmapped.
+            }
+            writer.fileCursor = fileIndex + 1;
+        }
+        return pagesWritten;
     }
 
     void addFreePageToFreelist( long pageRef, EvictionRunEvent evictions )
     {
         Object current;
         FreePage freePage = new FreePage( pageRef );
+        PageCacheRegion region = regionOf( pageRef );
         do
         {
-            current = getFreelistHead();
-            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pages.getPageCount() )
+            current = region.getFreelistHead();
+            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > region.pageCount )
             {
                 current = null;
             }
             freePage.setNext( current );
         }
-        while ( !compareAndSetFreelistHead( current, freePage ) );
+        while ( !region.compareAndSetFreelistHead( current, freePage ) );
         evictions.freeListSize( freePage.count );
     }
 
@@ -1136,14 +1736,22 @@ public class MuninnPageCache implements PageCache
     @Override
     public String toString()
     {
-        int availablePages = tryGetNumberOfAvailablePages( keepFree );
+        int availablePages = UNKNOWN_AVAILABLE_PAGES;
+        for ( PageCacheRegion region : regions )
+        {
+            int regionPages = tryGetNumberOfAvailablePages( region );
+            if ( regionPages != UNKNOWN_AVAILABLE_PAGES )
+            {
+                availablePages = Math.max( availablePages, 0 ) + regionPages;
+            }
+        }
         return format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, availablePages:%s]", getClass().getSimpleName(),
                 pageCacheId, cachePageSize, pages.getPageCount(), availablePages != UNKNOWN_AVAILABLE_PAGES ? String.valueOf( availablePages ) : "N/A" );
     }
 
     void vacuum( SwapperSet swappers )
     {
-        if ( getFreelistHead() instanceof AtomicInteger && swappers.countAvailableIds() > 200 )
+        if ( Arrays.stream( regions ).allMatch( region -> region.getFreelistHead() instanceof AtomicInteger ) && swappers.countAvailableIds() > 200 )
         {
             return; // We probably still have plenty of free pages left. Don't bother vacuuming just yet.
         }
@@ -1159,6 +1767,7 @@ public class MuninnPageCache implements PageCache
                     {
                         if ( pages.tryEvict( pageRef, evictionEvent ) )
                         {
+                            evictionPolicy.evicted( pageRef );
                             addFreePageToFreelist( pageRef, evictionEvent );
                             break;
                         }
@@ -1172,9 +1781,9 @@ public class MuninnPageCache implements PageCache
         } );
     }
 
-    void startPreFetching( MuninnPageCursor cursor, CursorFactory cursorFactory )
+    void startPreFetching( MuninnPageCursor cursor )
     {
-        PreFetcher preFetcher = new PreFetcher( cursor, cursorFactory, pageCacheTracer, clock );
+        PreFetcher preFetcher = new PreFetcher( cursor, pageCacheTracer, clock );
         var pagedFile = cursor.pagedFile;
         var fileName = pagedFile.swapper.path().getFileName();
         var monitoringParams = systemJob( pagedFile.databaseName, "Pre-fetching of file '" + fileName + "'" );
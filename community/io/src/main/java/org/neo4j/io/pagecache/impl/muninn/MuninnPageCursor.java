@@ -446,6 +446,7 @@ public abstract class MuninnPageCursor extends PageCursor
             pageId = pagedFile.toId( pageRef );
             faultEvent.setCachePageId( pageId );
             MuninnPagedFile.TRANSLATION_TABLE_ARRAY.setVolatile( chunk, chunkIndex, pageId );
+            pagedFile.pageFaulted();
             // Once we page has been published to the translation table, we can convert our exclusive lock to whatever we
             // need for the page cursor.
             convertPageFaultLock( pageRef );
@@ -41,7 +41,10 @@ import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PinEvent;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
+import static java.util.Arrays.copyOfRange;
 import static java.util.Arrays.fill;
 import static java.util.Objects.requireNonNull;
 import static org.neo4j.util.FeatureToggles.flag;
@@ -55,6 +58,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private static final int translationTableChunkSizePower = getInteger( MuninnPagedFile.class, "translationTableChunkSizePower", 12 );
     private static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
     private static final long translationTableChunkSizeMask = translationTableChunkSize - 1;
+    // The number of page faults that are swapped in together by faultBatch. Must be less than the fault lock striping.
+    private static final int faultBatchSize = getInteger( MuninnPagedFile.class, "faultBatchSize", 32 );
 
     private static final int headerStateRefCountShift = 48;
     private static final int headerStateRefCountMax = 0x7FFF;
@@ -64,6 +69,9 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 
     final MuninnPageCache pageCache;
     final int filePageSize;
+    // The regions of the page cache that the pages of this file are taken from. Either the regions of the regular cache page size,
+    // or the region of the page size class that the file was mapped into.
+    private final PageCacheRegion[] regions;
     private final PageCacheTracer pageCacheTracer;
     private final IOBufferFactory bufferFactory;
     final LatchMap pageFaultLatches;
@@ -72,15 +80,22 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     // a time, and we ensure this mutual exclusion using the monitor lock on this MuninnPagedFile object.
     static final VarHandle TRANSLATION_TABLE_ARRAY;
     volatile int[][] translationTable;
+    // The chunks of the translation table that may contain dirty pages.
+    private final DirtyChunks dirtyChunks;
 
     final PageSwapper swapper;
     final int swapperId;
     private final CursorFactory cursorFactory;
     final String databaseName;
     private final IOController ioController;
+    // The page cache partition this file belongs to, or null if it does not belong to any.
+    private final PartitionedEvictionPolicy.Partition partition;
 
     private volatile boolean deleteOnClose;
 
+    // Where the background writer continues writing dirty pages of this file from. Only accessed by the background writer thread.
+    private long backgroundWritePosition;
+
     // Used to trace the causes of any exceptions from getLastPageId.
     private volatile Exception closeStackTrace;
 
@@ -136,21 +151,24 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      * @param databaseName an optional name of the database this file belongs to. This option associates the mapped file with a database.
      * This information is currently used only for monitoring purposes.
      * @param ioController io controller to report page file io operations
+     * @param partition the page cache partition the file belongs to, or {@code null} if it does not belong to any.
      * @throws IOException If the {@link PageSwapper} could not be created.
      */
-    MuninnPagedFile( Path path, MuninnPageCache pageCache, int filePageSize, PageSwapperFactory swapperFactory, PageCacheTracer pageCacheTracer,
-            boolean createIfNotExists, boolean truncateExisting, boolean useDirectIo, boolean preallocateStoreFiles, String databaseName,
-            int faultLockStriping, IOController ioController ) throws IOException
+    MuninnPagedFile( Path path, MuninnPageCache pageCache, int filePageSize, PageCacheRegion[] regions, PageSwapperFactory swapperFactory,
+            PageCacheTracer pageCacheTracer, boolean createIfNotExists, boolean truncateExisting, boolean useDirectIo, boolean preallocateStoreFiles,
+            String databaseName, int faultLockStriping, IOController ioController, PartitionedEvictionPolicy.Partition partition ) throws IOException
     {
         super( pageCache.pages );
         this.pageCache = pageCache;
         this.filePageSize = filePageSize;
+        this.regions = regions;
         this.cursorFactory = new CursorFactory( this );
         this.pageCacheTracer = pageCacheTracer;
         this.pageFaultLatches = new LatchMap( faultLockStriping );
         this.bufferFactory = pageCache.getBufferFactory();
         this.databaseName = requireNonNull( databaseName );
         this.ioController = requireNonNull( ioController );
+        this.partition = partition;
 
         // The translation table is an array of arrays of integers that are either UNMAPPED_TTE, or the id of a page in
         // the page list. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -184,6 +202,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             tt[i] = newChunk();
         }
         translationTable = tt;
+        dirtyChunks = new DirtyChunks( initialChunks );
 
         initialiseLastPageId( lastPageId );
         this.swapperId = swapper.swapperId();
@@ -216,7 +235,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         cursor.rewind();
         if ( ( pf_flags & PF_READ_AHEAD ) == PF_READ_AHEAD && ( pf_flags & PF_NO_FAULT ) != PF_NO_FAULT )
         {
-            pageCache.startPreFetching( cursor, cursorFactory );
+            pageCache.startPreFetching( cursor );
         }
         return cursor;
     }
@@ -285,15 +304,46 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             pageCache.vacuum( getSwappers() );
         }
         long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
+        long mappedPages = 0;
         int[][] tt = this.translationTable;
         for ( int[] chunk : tt )
         {
             for ( int i = 0; i < chunk.length; i++ )
             {
                 filePageId++;
-                TRANSLATION_TABLE_ARRAY.setVolatile( chunk, computeChunkIndex( filePageId ), UNMAPPED_TTE );
+                if ( (int) TRANSLATION_TABLE_ARRAY.getAndSet( chunk, computeChunkIndex( filePageId ), UNMAPPED_TTE ) != UNMAPPED_TTE )
+                {
+                    mappedPages++;
+                }
             }
         }
+        if ( partition != null )
+        {
+            // The pages that are still in the cache will be vacuumed without our eviction callback being called.
+            partition.pagesEvicted( mappedPages );
+        }
+    }
+
+    /**
+     * Account for a page of this file that has been faulted into the cache, and published in the translation table.
+     */
+    void pageFaulted()
+    {
+        if ( partition != null )
+        {
+            partition.pagesFaulted( 1 );
+        }
+    }
+
+    @Override
+    void initBuffer( long pageRef )
+    {
+        if ( getAddress( pageRef ) == 0L )
+        {
+            PageCacheRegion region = pageCache.regionOf( pageRef );
+            super.initBuffer( pageRef, region.numaNode, region.cachePageSize );
+            pageCache.reportHugePageBackedMemory();
+        }
     }
 
     @Override
@@ -405,157 +455,225 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         int[] bufferLengths = new int[translationTableChunkSize];
         long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
         int[][] tt = this.translationTable;
+        // Only the chunks that have been marked dirty can contain pages that have been written to, so the other chunks are skipped.
+        // When closing, every chunk is visited, since pages can also be left modified by write locks that did not end up writing to them.
+        long[] dirtyChunkBitmap = dirtyChunks.snapshot();
+        int chunkId = -1;
+        boolean chunkFlushed = true;
+        long dirtyPages = 0;
         boolean useTemporaryBuffer = ioBuffer.isEnabled();
+        // When the swapper can batch writes, all the runs of dirty pages in a chunk are written with a single batch.
+        // The temporary buffer is reused for every run, so it cannot be combined with batching.
+        FlushRuns runs = !useTemporaryBuffer && swapper.canBatch() ? new FlushRuns( translationTableChunkSize ) : null;
 
         flushes.startFlush( tt );
 
-        for ( int[] chunk : tt )
+        try
         {
-            var chunkEvent = flushes.startChunk( chunk );
-            long notModifiedPages = 0;
-            long flushPerChunk = 0;
-            long buffersPerChunk = 0;
-            long mergesPerChunk = 0;
-            // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
-            // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
-            // TODO garbage to the file.
-            int pagesGrabbed = 0;
-            long nextSequentialAddress = -1;
-            int numberOfBuffers = 0;
-            int lastBufferIndex = -1;
-            int mergedPages = 0;
-
-            boolean fillingDirtyBuffer = false;
-            if ( useTemporaryBuffer )
-            {
-                // in case when we use temp intermediate buffer we have only buffer and its address and length are always stored in arrays with index 0
-                bufferAddresses[0] = ioBuffer.getAddress();
-                bufferLengths[0] = 0;
-                buffersPerChunk = 1;
-            }
-
-            chunkLoop:
-            for ( int i = 0; i < chunk.length; i++ )
+            for ( int[] chunk : tt )
             {
-                filePageId++;
-                int chunkIndex = computeChunkIndex( filePageId );
+                chunkId++;
+                if ( !DirtyChunks.clear( dirtyChunkBitmap, chunkId ) && !forClosing )
+                {
+                    filePageId += chunk.length;
+                    continue;
+                }
+                // If we fail to flush the chunk, it must be marked again, since it might still contain dirty pages.
+                chunkFlushed = false;
+                var chunkEvent = flushes.startChunk( chunk );
+                long notModifiedPages = 0;
+                long flushPerChunk = 0;
+                long buffersPerChunk = 0;
+                long mergesPerChunk = 0;
+                // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
+                // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
+                // TODO garbage to the file.
+                int pagesGrabbed = 0;
+                long nextSequentialAddress = -1;
+                int numberOfBuffers = 0;
+                int lastBufferIndex = -1;
+                int mergedPages = 0;
+
+                boolean fillingDirtyBuffer = false;
+                if ( useTemporaryBuffer )
+                {
+                    // in case when we use temp intermediate buffer we have only buffer and its address and length are always stored in arrays with index 0
+                    bufferAddresses[0] = ioBuffer.getAddress();
+                    bufferLengths[0] = 0;
+                    buffersPerChunk = 1;
+                }
 
-                // We might race with eviction, but we also mustn't miss a dirty page, so we loop until we succeed
-                // in getting a lock on all available pages.
-                for ( ; ; )
+                chunkLoop:
+                for ( int i = 0; i < chunk.length; i++ )
                 {
-                    int pageId = (int) TRANSLATION_TABLE_ARRAY.getVolatile( chunk, chunkIndex );
-                    if ( pageId != UNMAPPED_TTE )
+                    filePageId++;
+                    int chunkIndex = computeChunkIndex( filePageId );
+
+                    // We might race with eviction, but we also mustn't miss a dirty page, so we loop until we succeed
+                    // in getting a lock on all available pages.
+                    for ( ; ; )
                     {
-                        long pageRef = deref( pageId );
-                        long stamp = tryOptimisticReadLock( pageRef );
-                        if ( (!isModified( pageRef ) && !fillingDirtyBuffer) && validateReadLock( pageRef, stamp ) )
+                        int pageId = (int) TRANSLATION_TABLE_ARRAY.getVolatile( chunk, chunkIndex );
+                        if ( pageId != UNMAPPED_TTE )
                         {
-                            notModifiedPages++;
-                            break; // not modified, continue with the chunk
-                        }
+                            long pageRef = deref( pageId );
+                            long stamp = tryOptimisticReadLock( pageRef );
+                            if ( (!isModified( pageRef ) && !fillingDirtyBuffer) && validateReadLock( pageRef, stamp ) )
+                            {
+                                notModifiedPages++;
+                                break; // not modified, continue with the chunk
+                            }
 
-                        long flushStamp = 0;
-                        if ( !(forClosing ? tryExclusiveLock( pageRef ) : ((flushStamp = tryFlushLock( pageRef )) != 0)) )
-                        {
-                            continue; // retry lock
-                        }
-                        if ( isBoundTo( pageRef, swapperId, filePageId ) && (isModified( pageRef ) || fillingDirtyBuffer) )
-                        {
-                            // we should try to merge pages into buffer even if they are not modified only when we using intermediate temporary buffer
-                            fillingDirtyBuffer = useTemporaryBuffer;
-                            // The page is still bound to the expected file and file page id after we locked it,
-                            // so we didn't race with eviction and faulting, and the page is dirty.
-                            // So we add it to our IO vector.
-                            pages[pagesGrabbed] = pageRef;
-                            if ( !forClosing )
+                            long flushStamp = 0;
+                            if ( !(forClosing ? tryExclusiveLock( pageRef ) : ((flushStamp = tryFlushLock( pageRef )) != 0)) )
                             {
-                                flushStamps[pagesGrabbed] = flushStamp;
+                                continue; // retry lock
                             }
-                            pagesGrabbed++;
-                            long address = getAddress( pageRef );
-                            if ( useTemporaryBuffer )
+                            if ( isBoundTo( pageRef, swapperId, filePageId ) && (isModified( pageRef ) || fillingDirtyBuffer) )
                             {
-                                // in case we use temp buffer to combine pages address and buffer lengths are located in corresponding arrays and have
-                                // index 0.
-                                // Reset of accumulated effective length of temp buffer happens after intermediate vectored flush if any
-                                UnsafeUtil.copyMemory( address, bufferAddresses[0] + bufferLengths[0], filePageSize );
-                                bufferLengths[0] += filePageSize;
-                                numberOfBuffers = 1;
-                                if ( !ioBuffer.hasMoreCapacity( bufferLengths[0], filePageSize ) )
+                                if ( isModified( pageRef ) )
+                                {
+                                    dirtyPages++;
+                                }
+                                // we should try to merge pages into buffer even if they are not modified only when we using intermediate temporary buffer
+                                fillingDirtyBuffer = useTemporaryBuffer;
+                                // The page is still bound to the expected file and file page id after we locked it,
+                                // so we didn't race with eviction and faulting, and the page is dirty.
+                                // So we add it to our IO vector.
+                                pages[pagesGrabbed] = pageRef;
+                                if ( !forClosing )
+                                {
+                                    flushStamps[pagesGrabbed] = flushStamp;
+                                }
+                                pagesGrabbed++;
+                                long address = getAddress( pageRef );
+                                if ( useTemporaryBuffer )
                                 {
-                                    break; // continue to flush
+                                    // in case we use temp buffer to combine pages address and buffer lengths are located in corresponding arrays and have
+                                    // index 0.
+                                    // Reset of accumulated effective length of temp buffer happens after intermediate vectored flush if any
+                                    UnsafeUtil.copyMemory( address, bufferAddresses[0] + bufferLengths[0], filePageSize );
+                                    bufferLengths[0] += filePageSize;
+                                    numberOfBuffers = 1;
+                                    if ( !ioBuffer.hasMoreCapacity( bufferLengths[0], filePageSize ) )
+                                    {
+                                        break; // continue to flush
+                                    }
+                                    else
+                                    {
+                                        continue chunkLoop; // go to next page
+                                    }
                                 }
                                 else
                                 {
+                                    if ( mergePagesOnFlush && nextSequentialAddress == address )
+                                    {
+                                        // do not add new address, only bump length of previous buffer
+                                        bufferLengths[lastBufferIndex] += filePageSize;
+                                        mergedPages++;
+                                        mergesPerChunk++;
+                                    }
+                                    else
+                                    {
+                                        // add new address
+                                        bufferAddresses[numberOfBuffers] = address;
+                                        lastBufferIndex = numberOfBuffers;
+                                        bufferLengths[numberOfBuffers] = filePageSize;
+                                        numberOfBuffers++;
+                                        buffersPerChunk++;
+                                    }
+                                    nextSequentialAddress = address + filePageSize;
                                     continue chunkLoop; // go to next page
                                 }
                             }
                             else
                             {
-                                if ( mergePagesOnFlush && nextSequentialAddress == address )
+                                if ( forClosing )
                                 {
-                                    // do not add new address, only bump length of previous buffer
-                                    bufferLengths[lastBufferIndex] += filePageSize;
-                                    mergedPages++;
-                                    mergesPerChunk++;
+                                    unlockExclusive( pageRef );
                                 }
                                 else
                                 {
-                                    // add new address
-                                    bufferAddresses[numberOfBuffers] = address;
-                                    lastBufferIndex = numberOfBuffers;
-                                    bufferLengths[numberOfBuffers] = filePageSize;
-                                    numberOfBuffers++;
-                                    buffersPerChunk++;
+                                    unlockFlush( pageRef, flushStamp, false );
+                                }
+                                if ( useTemporaryBuffer && pagesGrabbed > 0 )
+                                {
+                                    // flush previous grabbed region
+                                    break;
                                 }
-                                nextSequentialAddress = address + filePageSize;
-                                continue chunkLoop; // go to next page
                             }
                         }
-                        else
+                        break;
+                    }
+                    if ( runs != null )
+                    {
+                        if ( pagesGrabbed > runs.pageEnd() )
                         {
-                            if ( forClosing )
-                            {
-                                unlockExclusive( pageRef );
-                            }
-                            else
-                            {
-                                unlockFlush( pageRef, flushStamp, false );
-                            }
-                            if ( useTemporaryBuffer && pagesGrabbed > 0 )
-                            {
-                                // flush previous grabbed region
-                                break;
-                            }
+                            runs.add( getFilePageId( pages[runs.pageEnd()] ), pagesGrabbed, numberOfBuffers, mergedPages );
+                            nextSequentialAddress = -1;
+                            mergedPages = 0;
                         }
                     }
-                    break;
+                    else if ( pagesGrabbed > 0 )
+                    {
+                        vectoredFlush( pages, bufferAddresses, flushStamps, bufferLengths, numberOfBuffers, pagesGrabbed, mergedPages, flushes, forClosing );
+                        limiter.maybeLimitIO( numberOfBuffers, this, flushes );
+                        pagesGrabbed = 0;
+                        nextSequentialAddress = -1;
+                        numberOfBuffers = 0;
+                        lastBufferIndex = -1;
+                        mergedPages = 0;
+                        fillingDirtyBuffer = false;
+                        flushPerChunk++;
+                        bufferLengths[0] = 0;
+                    }
                 }
-                if ( pagesGrabbed > 0 )
+                if ( runs != null )
+                {
+                    if ( pagesGrabbed > runs.pageEnd() )
+                    {
+                        runs.add( getFilePageId( pages[runs.pageEnd()] ), pagesGrabbed, numberOfBuffers, mergedPages );
+                    }
+                    if ( runs.count > 0 )
+                    {
+                        batchedFlush( pages, bufferAddresses, flushStamps, bufferLengths, runs, flushes, forClosing );
+                        limiter.maybeLimitIO( numberOfBuffers, this, flushes );
+                        flushPerChunk += runs.count;
+                        runs.clear();
+                    }
+                }
+                else if ( pagesGrabbed > 0 )
                 {
                     vectoredFlush( pages, bufferAddresses, flushStamps, bufferLengths, numberOfBuffers, pagesGrabbed, mergedPages, flushes, forClosing );
                     limiter.maybeLimitIO( numberOfBuffers, this, flushes );
-                    pagesGrabbed = 0;
-                    nextSequentialAddress = -1;
-                    numberOfBuffers = 0;
-                    lastBufferIndex = -1;
-                    mergedPages = 0;
-                    fillingDirtyBuffer = false;
                     flushPerChunk++;
-                    bufferLengths[0] = 0;
                 }
+                chunkEvent.chunkFlushed( notModifiedPages, flushPerChunk, buffersPerChunk, mergesPerChunk );
+                chunkFlushed = true;
             }
-            if ( pagesGrabbed > 0 )
+        }
+        finally
+        {
+            if ( !chunkFlushed )
             {
-                vectoredFlush( pages, bufferAddresses, flushStamps, bufferLengths, numberOfBuffers, pagesGrabbed, mergedPages, flushes, forClosing );
-                limiter.maybeLimitIO( numberOfBuffers, this, flushes );
-                flushPerChunk++;
+                dirtyChunks.mark( chunkId );
             }
-            chunkEvent.chunkFlushed( notModifiedPages, flushPerChunk, buffersPerChunk, mergesPerChunk );
         }
 
         swapper.force();
+        if ( !forClosing )
+        {
+            pageCacheTracer.dirtyPages( this, dirtyPages );
+        }
+    }
+
+    /**
+     * Mark the chunk of the given page as possibly containing dirty pages. Write cursors call this after they have released their write lock
+     * on a page, such that a flush that is concurrent with the write either flushes the page, or leaves its chunk marked for the next flush.
+     */
+    void markChunkDirty( long filePageId )
+    {
+        dirtyChunks.mark( computeChunkId( filePageId ) );
     }
 
     private void vectoredFlush(
@@ -614,6 +732,194 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
     }
 
+    private void batchedFlush( long[] pages, long[] bufferAddresses, long[] flushStamps, int[] bufferLengths, FlushRuns runs,
+            MajorFlushEvent flushEvent, boolean forClosing ) throws IOException
+    {
+        FlushEvent flush = null;
+        boolean successful = false;
+        int pagesToFlush = runs.pageEnd();
+        try
+        {
+            // Write all the runs in one batch
+            flush = flushEvent.beginFlush( pages, swapper, this, pagesToFlush, runs.mergedPages() );
+            long bytesWritten = swapper.writeBatch( runs.startFilePageIds, runs.bufferEnds, bufferAddresses, bufferLengths, runs.count );
+
+            // Update the flush event
+            flush.addBytesWritten( bytesWritten );
+            flush.addPagesFlushed( pagesToFlush );
+            flush.addPagesMerged( runs.mergedPages() );
+            flush.done();
+            successful = true;
+        }
+        catch ( IOException ioe )
+        {
+            if ( flush != null )
+            {
+                flush.done( ioe );
+            }
+            throw ioe;
+        }
+        finally
+        {
+            // Always unlock all the pages in the batch
+            for ( int i = 0; i < pagesToFlush; i++ )
+            {
+                long pageRef = pages[i];
+                if ( forClosing )
+                {
+                    if ( successful )
+                    {
+                        explicitlyMarkPageUnmodifiedUnderExclusiveLock( pageRef );
+                    }
+                    unlockExclusive( pageRef );
+                }
+                else
+                {
+                    unlockFlush( pageRef, flushStamps[i], successful );
+                }
+            }
+        }
+    }
+
+    /**
+     * Flush the given dirty pages of this file, that an eviction thread has picked as victims for eviction, or that the background writer is writing.
+     * The pages must be flush locked with the given stamps, and ordered by their file page ids. Runs of consecutive pages are written with
+     * vectored writes, and all the runs are written in one batch if the swapper supports it. The pages are flush unlocked when this returns.
+     */
+    void flushLockedPages( long[] pages, long[] flushStamps, int pageCount ) throws IOException
+    {
+        long[] bufferAddresses = new long[pageCount];
+        int[] bufferLengths = new int[pageCount];
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            bufferAddresses[i] = getAddress( pages[i] );
+            bufferLengths[i] = filePageSize;
+        }
+
+        try ( MajorFlushEvent flushEvent = pageCacheTracer.beginFileFlush( swapper ) )
+        {
+            if ( swapper.canBatch() )
+            {
+                FlushRuns runs = new FlushRuns( pageCount );
+                int runStart = 0;
+                for ( int i = 1; i <= pageCount; i++ )
+                {
+                    if ( i == pageCount || getFilePageId( pages[i] ) != getFilePageId( pages[i - 1] ) + 1 )
+                    {
+                        runs.add( getFilePageId( pages[runStart] ), i, i, 0 );
+                        runStart = i;
+                    }
+                }
+                batchedFlush( pages, bufferAddresses, flushStamps, bufferLengths, runs, flushEvent, false );
+            }
+            else
+            {
+                int runStart = 0;
+                for ( int i = 1; i <= pageCount; i++ )
+                {
+                    if ( i == pageCount || getFilePageId( pages[i] ) != getFilePageId( pages[i - 1] ) + 1 )
+                    {
+                        flushEvictionVictimRun( pages, flushStamps, bufferAddresses, bufferLengths, runStart, i, pageCount, flushEvent );
+                        runStart = i;
+                    }
+                }
+            }
+        }
+    }
+
+    private void flushEvictionVictimRun( long[] pages, long[] flushStamps, long[] bufferAddresses, int[] bufferLengths, int from, int to,
+            int pageCount, MajorFlushEvent flushEvent ) throws IOException
+    {
+        int length = to - from;
+        try
+        {
+            vectoredFlush( copyOfRange( pages, from, to ), copyOfRange( bufferAddresses, from, to ), copyOfRange( flushStamps, from, to ),
+                    copyOfRange( bufferLengths, from, to ), length, length, 0, flushEvent, false );
+        }
+        catch ( IOException e )
+        {
+            // The pages of the failed run have been unlocked, but the remaining runs must be unlocked as well.
+            for ( int i = to; i < pageCount; i++ )
+            {
+                unlockFlush( pages[i], flushStamps[i], false );
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Write up to the given number of dirty pages of this file, in file order, continuing from where the previous call left off.
+     * The pages are flushed, but not forced. Pages that are already being flushed, or are exclusively locked, are skipped.
+     *
+     * @param maxPages the maximum number of pages to write.
+     * @return the number of pages written. This is less than {@code maxPages} if the end of the file was reached, in which case the next call
+     * starts over from the beginning of the file.
+     * @throws IOException if the pages could not be written. The pages that were not written are still dirty.
+     */
+    long writeDirtyPagesInBackground( long maxPages ) throws IOException
+    {
+        int batchSize = (int) Math.min( maxPages, BackgroundWriter.WRITE_BATCH_SIZE );
+        long[] pages = new long[batchSize];
+        long[] flushStamps = new long[batchSize];
+        long endPageId = getLastPageId() + 1;
+        long filePageId = backgroundWritePosition;
+        long pagesWritten = 0;
+        try
+        {
+            while ( filePageId < endPageId && pagesWritten < maxPages )
+            {
+                int batchLimit = (int) Math.min( batchSize, maxPages - pagesWritten );
+                int pageCount = 0;
+                for ( ; filePageId < endPageId && pageCount < batchLimit; filePageId++ )
+                {
+                    int[][] tt = translationTable;
+                    int chunkId = computeChunkId( filePageId );
+                    if ( chunkId >= tt.length )
+                    {
+                        // None of the remaining pages have been faulted in.
+                        filePageId = endPageId;
+                        break;
+                    }
+                    int pageId = (int) TRANSLATION_TABLE_ARRAY.getVolatile( tt[chunkId], computeChunkIndex( filePageId ) );
+                    if ( pageId == UNMAPPED_TTE )
+                    {
+                        continue;
+                    }
+                    long pageRef = deref( pageId );
+                    if ( !isModified( pageRef ) )
+                    {
+                        continue;
+                    }
+                    long flushStamp = tryFlushLock( pageRef );
+                    if ( flushStamp == 0 )
+                    {
+                        continue;
+                    }
+                    if ( isBoundTo( pageRef, swapperId, filePageId ) && isModified( pageRef ) )
+                    {
+                        pages[pageCount] = pageRef;
+                        flushStamps[pageCount] = flushStamp;
+                        pageCount++;
+                    }
+                    else
+                    {
+                        unlockFlush( pageRef, flushStamp, false );
+                    }
+                }
+                if ( pageCount > 0 )
+                {
+                    flushLockedPages( pages, flushStamps, pageCount );
+                    pagesWritten += pageCount;
+                }
+            }
+        }
+        finally
+        {
+            backgroundWritePosition = filePageId < endPageId ? filePageId : 0;
+        }
+        return pagesWritten;
+    }
+
     boolean flushLockedPage( long pageRef, long filePageId )
     {
         boolean success = false;
@@ -785,7 +1091,198 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      */
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
-        return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
+        return pageCache.grabFreeAndExclusivelyLockedPage( regions, faultEvent );
+    }
+
+    /**
+     * Fault in the pages in the given range that are not already in memory, reading them with
+     * {@link PageSwapper#readBatch(long[], long[], int) batched reads}. Pages that are concurrently being faulted in by other
+     * threads are skipped, as are pages beyond the end of the file.
+     * @param fromPageId The first file page id in the range, inclusive.
+     * @param toPageId The last file page id in the range, exclusive.
+     * @param cursorTracer The tracer of the pins and page faults.
+     * @return The number of pages that were faulted in.
+     */
+    int faultBatch( long fromPageId, long toPageId, PageCursorTracer cursorTracer ) throws IOException
+    {
+        long endPageId = Math.min( toPageId, getLastPageId() + 1 );
+        if ( endPageId <= fromPageId )
+        {
+            return 0;
+        }
+        PageFaultBatch batch = new PageFaultBatch( (int) Math.min( endPageId - fromPageId, faultBatchSize ) );
+        int faulted = 0;
+        for ( long filePageId = fromPageId; filePageId < endPageId; filePageId++ )
+        {
+            int chunkId = computeChunkId( filePageId );
+            int chunkIndex = computeChunkIndex( filePageId );
+            int[][] tt = translationTable;
+            if ( tt.length <= chunkId )
+            {
+                tt = expandCapacity( chunkId );
+            }
+            int[] chunk = tt[chunkId];
+            if ( (int) TRANSLATION_TABLE_ARRAY.getVolatile( chunk, chunkIndex ) != UNMAPPED_TTE )
+            {
+                continue;
+            }
+            LatchMap.Latch latch = pageFaultLatches.tryTakeLatch( filePageId );
+            if ( latch == null )
+            {
+                continue;
+            }
+            if ( (int) TRANSLATION_TABLE_ARRAY.getVolatile( chunk, chunkIndex ) != UNMAPPED_TTE )
+            {
+                latch.release();
+                continue;
+            }
+            PinEvent pinEvent = cursorTracer.beginPin( false, filePageId, swapper );
+            PageFaultEvent faultEvent = pinEvent.beginPageFault( filePageId, swapperId );
+            long pageRef = 0;
+            try
+            {
+                pageRef = grabFreeAndExclusivelyLockedPage( faultEvent );
+                initBuffer( pageRef );
+                prepareFault( pageRef, swapper, swapperId, filePageId );
+            }
+            catch ( Throwable throwable )
+            {
+                if ( pageRef != 0 )
+                {
+                    unlockExclusive( pageRef );
+                }
+                faultEvent.fail( throwable );
+                faultEvent.close();
+                pinEvent.done();
+                latch.release();
+                try
+                {
+                    // The pages we already got are fine, so we still swap them in.
+                    batch.complete();
+                }
+                catch ( IOException e )
+                {
+                    throwable.addSuppressed( e );
+                }
+                throw throwable;
+            }
+            batch.add( filePageId, pageRef, chunk, chunkIndex, latch, pinEvent, faultEvent );
+            if ( batch.isFull() )
+            {
+                faulted += batch.complete();
+            }
+        }
+        return faulted + batch.complete();
+    }
+
+    /**
+     * The page faults of a {@link #faultBatch(long, long, PageCursorTracer)} call, that have been prepared but not yet swapped in.
+     * All the pages in the batch are exclusively locked, and we own their page fault latches.
+     */
+    private final class PageFaultBatch
+    {
+        private final long[] filePageIds;
+        private final long[] pageRefs;
+        private final long[] bufferAddresses;
+        private final int[][] chunks;
+        private final int[] chunkIndexes;
+        private final LatchMap.Latch[] latches;
+        private final PinEvent[] pinEvents;
+        private final PageFaultEvent[] faultEvents;
+        private int size;
+
+        PageFaultBatch( int capacity )
+        {
+            filePageIds = new long[capacity];
+            pageRefs = new long[capacity];
+            bufferAddresses = new long[capacity];
+            chunks = new int[capacity][];
+            chunkIndexes = new int[capacity];
+            latches = new LatchMap.Latch[capacity];
+            pinEvents = new PinEvent[capacity];
+            faultEvents = new PageFaultEvent[capacity];
+        }
+
+        void add( long filePageId, long pageRef, int[] chunk, int chunkIndex, LatchMap.Latch latch, PinEvent pinEvent, PageFaultEvent faultEvent )
+        {
+            filePageIds[size] = filePageId;
+            pageRefs[size] = pageRef;
+            bufferAddresses[size] = getAddress( pageRef );
+            chunks[size] = chunk;
+            chunkIndexes[size] = chunkIndex;
+            latches[size] = latch;
+            pinEvents[size] = pinEvent;
+            faultEvents[size] = faultEvent;
+            size++;
+        }
+
+        boolean isFull()
+        {
+            return size == filePageIds.length;
+        }
+
+        /**
+         * Swap in all the pages of the batch, and publish them in the translation table, or abort the faults if the swap in failed.
+         * @return The number of pages that were faulted in.
+         */
+        int complete() throws IOException
+        {
+            if ( size == 0 )
+            {
+                return 0;
+            }
+            long bytesRead = 0;
+            Throwable failure = null;
+            try
+            {
+                // Check if we're racing with unmapping, before the swapper reopens a closed file channel.
+                getLastPageId();
+                bytesRead = swapper.readBatch( filePageIds, bufferAddresses, size );
+            }
+            catch ( Throwable throwable )
+            {
+                failure = throwable;
+            }
+            for ( int i = 0; i < size; i++ )
+            {
+                long pageRef = pageRefs[i];
+                PageFaultEvent faultEvent = faultEvents[i];
+                if ( failure == null )
+                {
+                    // Only the last page of the file can be partially read, and that is always the last page in the batch.
+                    faultEvent.addBytesRead( i == size - 1 ? bytesRead - (long) filePageSize * i : filePageSize );
+                    completeFault( pageRef, swapperId );
+                    int pageId = toId( pageRef );
+                    faultEvent.setCachePageId( pageId );
+                    TRANSLATION_TABLE_ARRAY.setVolatile( chunks[i], chunkIndexes[i], pageId );
+                    pageFaulted();
+                }
+                else
+                {
+                    faultEvent.fail( failure );
+                }
+                // Make sure to unlock the page either way, so it can be pinned, or so the eviction thread can pick up our trash.
+                unlockExclusive( pageRef );
+                faultEvent.close();
+                pinEvents[i].done();
+                latches[i].release();
+                chunks[i] = null;
+                latches[i] = null;
+                pinEvents[i] = null;
+                faultEvents[i] = null;
+            }
+            int completed = size;
+            size = 0;
+            if ( failure instanceof IOException )
+            {
+                throw (IOException) failure;
+            }
+            if ( failure != null )
+            {
+                throw new IOException( failure );
+            }
+            return completed;
+        }
     }
 
     /**
@@ -802,6 +1299,10 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
         TRANSLATION_TABLE_ARRAY.setVolatile( chunk, chunkIndex, UNMAPPED_TTE );
+        if ( partition != null )
+        {
+            partition.pagesEvicted( 1 );
+        }
     }
 
     private void setHighestEvictedTransactionId( long modifiedTransactionId )
@@ -857,6 +1358,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         // so if the new extended table is published before
         // the allocation has finished, other threads might start
         // using pages in the region, which might not be safe.
+        dirtyChunks.ensureCapacity( tt.length );
         translationTable = tt;
         return tt;
     }
@@ -884,4 +1386,53 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     {
         return (int) (filePageId & translationTableChunkSizeMask);
     }
+
+    /**
+     * The runs of consecutive dirty pages that have been collected for a batched flush.
+     */
+    private static final class FlushRuns
+    {
+        final long[] startFilePageIds;
+        final int[] pageEnds;
+        final int[] bufferEnds;
+        final int[] mergedPages;
+        int count;
+
+        FlushRuns( int capacity )
+        {
+            startFilePageIds = new long[capacity];
+            pageEnds = new int[capacity];
+            bufferEnds = new int[capacity];
+            mergedPages = new int[capacity];
+        }
+
+        void add( long startFilePageId, int pageEnd, int bufferEnd, int merged )
+        {
+            startFilePageIds[count] = startFilePageId;
+            pageEnds[count] = pageEnd;
+            bufferEnds[count] = bufferEnd;
+            mergedPages[count] = merged;
+            count++;
+        }
+
+        int pageEnd()
+        {
+            return count == 0 ? 0 : pageEnds[count - 1];
+        }
+
+        int mergedPages()
+        {
+            int merged = 0;
+            for ( int i = 0; i < count; i++ )
+            {
+                merged += mergedPages[i];
+            }
+            return merged;
+        }
+
+        void clear()
+        {
+            count = 0;
+        }
+    }
 }
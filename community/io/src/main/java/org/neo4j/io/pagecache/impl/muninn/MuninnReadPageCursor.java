@@ -24,9 +24,30 @@ import java.io.IOException;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.context.CursorContext;
 
+import static org.neo4j.util.FeatureToggles.getInteger;
+
 final class MuninnReadPageCursor extends MuninnPageCursor
 {
+    /**
+     * The number of consecutive failed optimistic reads of a page, before the cursor falls back to taking a
+     * pessimistic read lock on the page. A negative value disables the fallback.
+     * <p>
+     * The fallback is disabled by default. Other readers of the page fail their validation while the pessimistic read
+     * lock is held, so it is only worth taking if it pays off with several concurrent readers of contended pages.
+     * Not final, so tests can enable it.
+     */
+    static int retriesBeforePessimisticRead = getInteger( MuninnReadPageCursor.class, "retriesBeforePessimisticRead", -1 );
+    /**
+     * The number of spins a pessimistic read lock will wait for the current writers of a page to finish, before giving
+     * up and going back to optimistic reads.
+     */
+    private static final int pessimisticReadMaxSpins = getInteger( MuninnReadPageCursor.class, "pessimisticReadMaxSpins", 1024 );
+
     private long lockStamp;
+    private int retries;
+    private int consecutiveRetries;
+    private boolean pessimisticReadLocked;
+    private boolean pessimisticReadTaken;
 
     MuninnReadPageCursor( long victimPage, CursorContext cursorContext )
     {
@@ -38,8 +59,19 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     {
         if ( pinnedPageRef != 0 )
         {
+            if ( pessimisticReadLocked )
+            {
+                unlockPessimisticRead();
+            }
             pinEvent.done();
         }
+        if ( retries > 0 )
+        {
+            tracer.readRetries( swapper, retries, pessimisticReadTaken );
+            retries = 0;
+            consecutiveRetries = 0;
+            pessimisticReadTaken = false;
+        }
         lockStamp = 0; // make sure not to accidentally keep a lock state around
         clearPageCursorState();
     }
@@ -103,9 +135,34 @@ final class MuninnReadPageCursor extends MuninnPageCursor
             cursor = (MuninnReadPageCursor) cursor.linkedCursor;
         }
         while ( cursor != null );
+        finishReadLinkedChain();
         return false;
     }
 
+    private void finishReadLinkedChain()
+    {
+        MuninnReadPageCursor cursor = this;
+        do
+        {
+            cursor.consecutiveRetries = 0;
+            if ( cursor.pessimisticReadLocked )
+            {
+                cursor.unlockPessimisticRead();
+            }
+            cursor = (MuninnReadPageCursor) cursor.linkedCursor;
+        }
+        while ( cursor != null );
+    }
+
+    private void unlockPessimisticRead()
+    {
+        PageList.unlockPessimisticRead( pinnedPageRef );
+        pessimisticReadLocked = false;
+        // Unless a writer took the page over, it did not change while we held the lock, so the stamp stays valid until
+        // the next writer comes along. If a writer did take it over, the read is retried anyway.
+        lockStamp = PageList.tryOptimisticReadLock( pinnedPageRef );
+    }
+
     private void startRetryLinkedChain() throws IOException
     {
         MuninnReadPageCursor cursor = this;
@@ -126,6 +183,21 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         setOffset( 0 );
         checkAndClearBoundsFlag();
         clearCursorException();
+        if ( pessimisticReadLocked )
+        {
+            // Another cursor in the linked chain needs to retry. Our page is consistent, but we let the writers in
+            // while the others catch up.
+            unlockPessimisticRead();
+        }
+        else
+        {
+            retries++;
+            consecutiveRetries++;
+            if ( retriesBeforePessimisticRead >= 0 && consecutiveRetries > retriesBeforePessimisticRead && tryPessimisticReadLock( pageRef ) )
+            {
+                return;
+            }
+        }
         lockStamp = PageList.tryOptimisticReadLock( pageRef );
         // The page might have been evicted while we held the optimistic
         // read lock, so we need to check with page.pin that this is still
@@ -149,6 +221,31 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         }
     }
 
+    /**
+     * Writers keep invalidating our optimistic reads of this page, so block out new writers, wait for the current ones
+     * to finish, and read the page under a pessimistic read lock instead. The lock is released once the read has been
+     * validated by {@link #shouldRetry()}, or when the page is unpinned. Writers only wait so long for the lock before
+     * taking the page over, so a reader that stays on the page cannot hold them up, and the read is still validated.
+     */
+    private boolean tryPessimisticReadLock( long pageRef )
+    {
+        long stamp = PageList.tryPessimisticReadLock( pageRef, pessimisticReadMaxSpins );
+        if ( stamp == 0 )
+        {
+            return false;
+        }
+        if ( !PageList.isBoundTo( pageRef, pagedFile.swapperId, loadPlainCurrentPageId() ) )
+        {
+            // The page was evicted before we got the lock, so let the regular retry redo the pinning.
+            PageList.unlockPessimisticRead( pageRef );
+            return false;
+        }
+        lockStamp = stamp;
+        pessimisticReadLocked = true;
+        pessimisticReadTaken = true;
+        return true;
+    }
+
     @Override
     public void putByte( byte value )
     {
@@ -25,8 +25,18 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
 
+import static org.neo4j.util.FeatureToggles.getInteger;
+
 final class MuninnWritePageCursor extends MuninnPageCursor
 {
+    /**
+     * The number of attempts a write cursor makes at locking a page that a reader holds with a pessimistic read lock,
+     * before it takes the page over from the reader. The reader then retries its read, like after any other write.
+     */
+    private static final int pessimisticReadMaxWaits = getInteger( MuninnWritePageCursor.class, "pessimisticReadMaxWaits", 1024 );
+
+    private int pessimisticReadWaits;
+
     MuninnWritePageCursor( long victimPage, CursorContext cursorContext )
     {
         super( victimPage, cursorContext );
@@ -39,6 +49,8 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         if ( pageRef != 0 )
         {
             pinEvent.done();
+            // The page cannot be evicted while we hold the write lock, so this is the file page id the page is bound to.
+            long filePageId = PageList.getFilePageId( pageRef );
             // Mark the page as dirty *after* our write access, to make sure it's dirty even if it was concurrently
             // flushed. Unlocking the write-locked page will mark it as dirty for us.
             if ( eagerFlush )
@@ -49,6 +61,9 @@ final class MuninnWritePageCursor extends MuninnPageCursor
             {
                 PageList.unlockWrite( pageRef );
             }
+            // Mark the chunk of the page *after* unlocking the page, to make sure a concurrent flush that cleared the mark of the chunk
+            // either sees the page as dirty, or leaves the chunk marked for the next flush.
+            pagedFile.markChunkDirty( filePageId );
         }
         clearPageCursorState();
     }
@@ -103,7 +118,23 @@ final class MuninnWritePageCursor extends MuninnPageCursor
     @Override
     protected boolean tryLockPage( long pageRef )
     {
-        return PageList.tryWriteLock( pageRef );
+        if ( PageList.tryWriteLock( pageRef ) )
+        {
+            pessimisticReadWaits = 0;
+            return true;
+        }
+        if ( PageList.isPessimisticReadLocked( pageRef ) )
+        {
+            if ( pessimisticReadWaits < pessimisticReadMaxWaits )
+            {
+                pessimisticReadWaits++;
+                Thread.onSpinWait();
+                return false;
+            }
+            pessimisticReadWaits = 0;
+            return PageList.tryWriteLockOverPessimisticRead( pageRef );
+        }
+        return false;
     }
 
     @Override
@@ -53,6 +53,13 @@ import org.neo4j.internal.unsafe.UnsafeUtil;
  * never block. If a write or flush lock is currently held, the attempt to take the exclusive lock will fail, and
  * the exclusive lock will likewise prevent write and flush locks from being taken.
  * <p>
+ * The pessimistic read lock raises both the flush and the exclusive bit, a combination that no other lock takes. It
+ * keeps new write, flush and exclusive locks out while a reader that keeps getting invalidated gets its read done.
+ * Since the exclusive bit is raised, all other optimistic read locks fail validation while the pessimistic read lock
+ * is held, just as they would during an exclusive lock. Writers that have been kept out for too long can take over
+ * the page with {@link #tryWriteLockOverPessimisticRead(long)}, which invalidates the reader like any other
+ * overlapping write lock.
+ * <p>
  * Because all lock types are non-blocking, and because the lock-word itself is external to the implementation, this
  * class does not need to maintain any state by itself. Thus, the class cannot be instantiated, and all methods are
  * static.
@@ -100,6 +107,8 @@ public final class OffHeapPageLock
     private static final long CHK_MASK = 0b01011111_11111111_11111111_11111111_11111111_11111111_11111111_11111111L;
     // "Flush and/or exclusive" mask:
     private static final long FAE_MASK = 0b11000000_00000000_00000000_00000000_00000000_00000000_00000000_00000000L;
+    // Pessimistic read lock mask, both the flush and exclusive bit:
+    private static final long PRD_MASK = FAE_MASK;
     // Unlocked mask:
     private static final long UNL_MASK = 0b11011111_11111111_11110000_00000000_00000000_00000000_00000000_00000000L;
 
@@ -285,6 +294,98 @@ public final class OffHeapPageLock
         return res;
     }
 
+    /**
+     * Grab a pessimistic read lock, for readers whose optimistic read locks keep getting invalidated by overlapping
+     * writers. The pessimistic read lock takes the flush and exclusive bits even if write locks are currently held,
+     * which makes any new write, exclusive or flush lock attempts fail, and then waits for the current writers to drain.
+     * If the writers have not drained after the given number of spins, the lock is released again and the attempt
+     * fails. This bounds the wait in case one of the writers is itself waiting for this page.
+     * <p>
+     * The lock does not make the read safe by itself. Writers may take the page over with
+     * {@link #tryWriteLockOverPessimisticRead(long)}, so the read must still be validated with the returned stamp.
+     * Successfully grabbed pessimistic read locks must always be paired with a corresponding
+     * {@link #unlockPessimisticRead(long)}.
+     *
+     * @return A stamp that will pass {@link #validateReadLock(long, long)} until the lock is released or taken over,
+     * or {@code 0} if the lock could not be taken.
+     */
+    public static long tryPessimisticReadLock( long address, int maxSpins )
+    {
+        long s = getState( address );
+        if ( (s & FAE_MASK) != 0 || !compareAndSetState( address, s, s | PRD_MASK ) )
+        {
+            return 0;
+        }
+        for ( int spins = 0; ; spins++ )
+        {
+            s = getState( address );
+            if ( (s & PRD_MASK) != PRD_MASK )
+            {
+                // A writer took the page over while we waited.
+                return 0;
+            }
+            if ( (s & CNT_MASK) == 0 )
+            {
+                return s & CHK_MASK;
+            }
+            if ( spins >= maxSpins )
+            {
+                unlockPessimisticRead( address );
+                return 0;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Release a pessimistic read lock taken with {@link #tryPessimisticReadLock(long, int)}. Unlike
+     * {@link #unlockExclusive(long)}, this does not increment the sequence number, because the page was not modified
+     * while the lock was held. Optimistic read locks that overlapped with the pessimistic read lock will still fail
+     * validation if it is done while the lock is held, because the exclusive bit is raised, but will pass once it has
+     * been released. If a writer has taken the page over in the meantime, there is nothing left to release and the lock
+     * word is left alone.
+     */
+    public static void unlockPessimisticRead( long address )
+    {
+        long s;
+        do
+        {
+            s = getState( address );
+            if ( (s & PRD_MASK) != PRD_MASK )
+            {
+                return;
+            }
+        }
+        while ( !compareAndSetState( address, s, s & ~PRD_MASK ) );
+    }
+
+    public static boolean isPessimisticReadLocked( long address )
+    {
+        return (getState( address ) & PRD_MASK) == PRD_MASK;
+    }
+
+    /**
+     * Take a write lock on a page that is currently held with a pessimistic read lock, releasing the pessimistic read
+     * lock in the process. The reader holding it will fail its validation, as with any overlapping write lock. This
+     * is how writers bound the time they can be kept out of a page by a reader, that might stay on the page for any
+     * amount of time.
+     * <p>
+     * Write locks taken this way must be paired with a corresponding {@link #unlockWrite(long)}.
+     *
+     * @return {@code true} if the write lock was taken, {@code false} if the page was not pessimistic read locked.
+     */
+    public static boolean tryWriteLockOverPessimisticRead( long address )
+    {
+        long s = getState( address );
+        if ( (s & PRD_MASK) != PRD_MASK || (s & CNT_MASK) == CNT_MASK )
+        {
+            return false;
+        }
+        boolean res = compareAndSetState( address, s, (s & ~PRD_MASK) + CNT_UNIT | MOD_MASK );
+        VarHandle.releaseFence();
+        return res;
+    }
+
     /**
      * Unlock the currently held exclusive lock, and atomically and implicitly take an optimistic read lock, as
      * represented by the returned stamp.
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+
+/**
+ * The definition of a named partition of the {@link MuninnPageCache}.
+ * <p>
+ * A partition matches the files that are mapped by a given database, and optionally only those of its files whose names
+ * match a regular expression, such that for instance the relationship store of a database can get its own partition.
+ * When a file is mapped, it is assigned to the first of the configured partitions that matches it, if any.
+ * <p>
+ * The eviction sweepers will not evict pages from a partition that occupies {@code minPages} or fewer cache pages, and
+ * will evict pages from a partition that occupies more than {@code maxPages} cache pages, regardless of how recently
+ * they were used. Files that do not belong to any partition compete for the remaining cache pages as usual.
+ */
+public final class PageCachePartition
+{
+    private final String name;
+    private final String databaseName;
+    private final Pattern fileNamePattern;
+    private final long minPages;
+    private final long maxPages;
+
+    private PageCachePartition( String name, String databaseName, Pattern fileNamePattern, long minPages, long maxPages )
+    {
+        if ( minPages < 0 || maxPages < minPages )
+        {
+            throw new IllegalArgumentException( format( "Page cache partition '%s' must have 0 <= min pages <= max pages, but had min pages %d and " +
+                    "max pages %d.", name, minPages, maxPages ) );
+        }
+        this.name = Objects.requireNonNull( name );
+        this.databaseName = Objects.requireNonNull( databaseName );
+        this.fileNamePattern = fileNamePattern;
+        this.minPages = minPages;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * @param name the name of the partition.
+     * @param databaseName the name of the database whose files belong in the partition.
+     * @param minPages the number of cache pages reserved for the partition.
+     * @param maxPages the maximum number of cache pages the partition can occupy.
+     * @return a partition for all the files of the given database.
+     */
+    public static PageCachePartition forDatabase( String name, String databaseName, long minPages, long maxPages )
+    {
+        return new PageCachePartition( name, databaseName, null, minPages, maxPages );
+    }
+
+    /**
+     * @param name the name of the partition.
+     * @param databaseName the name of the database whose files belong in the partition.
+     * @param fileNameRegex a regular expression that the names of the files in the partition must match.
+     * @param minPages the number of cache pages reserved for the partition.
+     * @param maxPages the maximum number of cache pages the partition can occupy.
+     * @return a partition for the files of the given database, whose names match the given regular expression.
+     */
+    public static PageCachePartition forFiles( String name, String databaseName, String fileNameRegex, long minPages, long maxPages )
+    {
+        return new PageCachePartition( name, databaseName, Pattern.compile( fileNameRegex ), minPages, maxPages );
+    }
+
+    /**
+     * Parse a partition definition on the form {@code name:database:minPages:maxPages}, or
+     * {@code name:database:fileNameRegex:minPages:maxPages}.
+     *
+     * @param definition the partition definition.
+     * @return the partition.
+     * @throws IllegalArgumentException if the definition is malformed.
+     */
+    public static PageCachePartition parse( String definition )
+    {
+        String[] parts = definition.split( ":", -1 );
+        if ( parts.length < 4 )
+        {
+            throw new IllegalArgumentException( "Page cache partition definition '" + definition + "' must be on the form " +
+                    "'name:database:minPages:maxPages' or 'name:database:fileNameRegex:minPages:maxPages'." );
+        }
+        String name = parts[0];
+        String databaseName = parts[1];
+        long minPages;
+        long maxPages;
+        try
+        {
+            minPages = Long.parseLong( parts[parts.length - 2] );
+            maxPages = Long.parseLong( parts[parts.length - 1] );
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new IllegalArgumentException( "Page cache partition definition '" + definition + "' has invalid page counts.", e );
+        }
+        if ( parts.length == 4 )
+        {
+            return forDatabase( name, databaseName, minPages, maxPages );
+        }
+        // The file name regex is allowed to contain colons.
+        String fileNameRegex = String.join( ":", Arrays.copyOfRange( parts, 2, parts.length - 2 ) );
+        return forFiles( name, databaseName, fileNameRegex, minPages, maxPages );
+    }
+
+    boolean matches( String databaseName, Path path )
+    {
+        if ( !this.databaseName.equals( databaseName ) )
+        {
+            return false;
+        }
+        if ( fileNamePattern == null )
+        {
+            return true;
+        }
+        Path fileName = path.getFileName();
+        return fileName != null && fileNamePattern.matcher( fileName.toString() ).matches();
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getDatabaseName()
+    {
+        return databaseName;
+    }
+
+    public long getMinPages()
+    {
+        return minPages;
+    }
+
+    public long getMaxPages()
+    {
+        return maxPages;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PageCachePartition[" + name + ", database=" + databaseName + (fileNamePattern == null ? "" : ", files=" + fileNamePattern) +
+                ", minPages=" + minPages + ", maxPages=" + maxPages + "]";
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A contiguous range of the pages in the {@link PageList}, with its own freelist and its own background eviction threads.
+ * <p>
+ * A page cache has a single region, unless it is NUMA aware. Then it has a region for each NUMA node, whose page meta-data and page buffers
+ * are placed in the memory of that node. Page faults take their pages from the region of the node they run on, and every region is swept
+ * by its own eviction threads, such that the pages of a region are mostly accessed from their local node.
+ * <p>
+ * On top of that, the page cache has a region for each of its additional page size classes. The pages of such a region have buffers of the
+ * cache page size of the region, and are only used by the files that are mapped into that page size class.
+ * <p>
+ * When the page cache shrinks, some of the pages of its regions are retired. They are kept exclusively locked and out of circulation,
+ * with their memory given back to the operating system, until the page cache grows again.
+ */
+final class PageCacheRegion
+{
+    private static final VarHandle FREE_LIST;
+
+    /**
+     * The NUMA node of this region, or -1 if the page cache is not NUMA aware.
+     */
+    final int numaNode;
+    final int cachePageSize;
+    final int firstPageId;
+    final int pageCount;
+    final int keepFree;
+
+    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
+    // Initially, the field is an AtomicInteger that counts from zero to the page count of the region, at which point all of the
+    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
+    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
+    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
+    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
+    @SuppressWarnings( "unused" ) // accessed via VarHandle.
+    private volatile Object freelist;
+
+    // The background eviction threads of this region, each sweeping its own slice of the pages of the region.
+    final EvictionSweeper[] sweepers;
+
+    // The exclusively locked and unbound pages that have been taken out of circulation by shrinking the page cache.
+    // Guarded by the resize lock of the page cache.
+    final MutableLongList retiredPages = LongLists.mutable.empty();
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            FREE_LIST = l.findVarHandle( PageCacheRegion.class, "freelist", Object.class );
+        }
+        catch ( ReflectiveOperationException e )
+        {
+            throw new ExceptionInInitializerError( e );
+        }
+    }
+
+    PageCacheRegion( int numaNode, int cachePageSize, int firstPageId, int pageCount, int keepFree, int evictionThreads, int flushBatchSize )
+    {
+        this.numaNode = numaNode;
+        this.cachePageSize = cachePageSize;
+        this.firstPageId = firstPageId;
+        this.pageCount = pageCount;
+        this.keepFree = keepFree;
+        int sweeperCount = Math.max( 1, Math.min( evictionThreads, pageCount ) );
+        this.sweepers = new EvictionSweeper[sweeperCount];
+        for ( int i = 0; i < sweeperCount; i++ )
+        {
+            int first = firstPageId + slice( pageCount, i, sweeperCount );
+            int end = firstPageId + slice( pageCount, i + 1, sweeperCount );
+            sweepers[i] = new EvictionSweeper( this, first, end, flushBatchSize );
+        }
+        setFreelistHead( new AtomicInteger() );
+    }
+
+    /**
+     * Split the given number of pages into the given number of regions of roughly equal size, each with the given number of eviction threads.
+     */
+    static PageCacheRegion[] split( int pageCount, int cachePageSize, int numaNodes, int pagesToKeepFree, int evictionThreads, int flushBatchSize )
+    {
+        if ( numaNodes <= 1 )
+        {
+            return new PageCacheRegion[]{pageSizeClass( 0, pageCount, cachePageSize, pagesToKeepFree, evictionThreads, flushBatchSize )};
+        }
+        PageCacheRegion[] regions = new PageCacheRegion[numaNodes];
+        for ( int node = 0; node < numaNodes; node++ )
+        {
+            int firstPageId = slice( pageCount, node, numaNodes );
+            int regionPageCount = slice( pageCount, node + 1, numaNodes ) - firstPageId;
+            int keepFree = Math.min( pagesToKeepFree, regionPageCount / 2 );
+            regions[node] = new PageCacheRegion( node, cachePageSize, firstPageId, regionPageCount, keepFree, evictionThreads, flushBatchSize );
+        }
+        return regions;
+    }
+
+    /**
+     * A single region for the given range of pages, whose buffers all have the given cache page size.
+     */
+    static PageCacheRegion pageSizeClass( int firstPageId, int pageCount, int cachePageSize, int pagesToKeepFree, int evictionThreads,
+            int flushBatchSize )
+    {
+        int keepFree = Math.min( pagesToKeepFree, pageCount / 2 );
+        return new PageCacheRegion( -1, cachePageSize, firstPageId, pageCount, keepFree, evictionThreads, flushBatchSize );
+    }
+
+    private static int slice( int pageCount, int index, int slices )
+    {
+        return (int) ((long) pageCount * index / slices);
+    }
+
+    /**
+     * @return the number of pages that each sweeper should evict, for the region to have the given number of pages evicted in total.
+     */
+    int pagesToEvictPerSweeper( int pageCountToEvict )
+    {
+        return (pageCountToEvict + sweepers.length - 1) / sweepers.length;
+    }
+
+    int endPageId()
+    {
+        return firstPageId + pageCount;
+    }
+
+    /**
+     * @return the number of pages of this region that are in circulation, which is all of them unless the page cache has been shrunk.
+     */
+    int activePageCount()
+    {
+        return pageCount - retiredPages.size();
+    }
+
+    Object getFreelistHead()
+    {
+        return FREE_LIST.getVolatile( this );
+    }
+
+    boolean compareAndSetFreelistHead( Object expected, Object update )
+    {
+        return FREE_LIST.compareAndSet( this, expected, update );
+    }
+
+    void setFreelistHead( Object newFreelistHead )
+    {
+        FREE_LIST.setVolatile( this, newFreelistHead );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PageCacheRegion[numaNode:" + numaNode + ", cachePageSize:" + cachePageSize + ", pages:" + firstPageId + ".." + endPageId() + "]";
+    }
+}
@@ -270,6 +270,26 @@ class PageList implements PageReferenceTranslator
         OffHeapPageLock.unlockExclusiveAndTakeWriteLock( offLock( pageRef ) );
     }
 
+    static long tryPessimisticReadLock( long pageRef, int maxSpins )
+    {
+        return OffHeapPageLock.tryPessimisticReadLock( offLock( pageRef ), maxSpins );
+    }
+
+    static void unlockPessimisticRead( long pageRef )
+    {
+        OffHeapPageLock.unlockPessimisticRead( offLock( pageRef ) );
+    }
+
+    static boolean isPessimisticReadLocked( long pageRef )
+    {
+        return OffHeapPageLock.isPessimisticReadLocked( offLock( pageRef ) );
+    }
+
+    static boolean tryWriteLockOverPessimisticRead( long pageRef )
+    {
+        return OffHeapPageLock.tryWriteLockOverPessimisticRead( offLock( pageRef ) );
+    }
+
     static long tryFlushLock( long pageRef )
     {
         return OffHeapPageLock.tryFlushLock( offLock( pageRef ) );
@@ -296,14 +316,33 @@ class PageList implements PageReferenceTranslator
     }
 
     void initBuffer( long pageRef )
+    {
+        initBuffer( pageRef, -1, getCachePageSize() );
+    }
+
+    /**
+     * Allocate the buffer of the given page with the given size, if it does not have one yet, preferably on the given NUMA node.
+     * Pages keep their buffers for as long as the page list exists, so a given page must always be given the same buffer size.
+     */
+    void initBuffer( long pageRef, int numaNode, int bufferSize )
     {
         if ( getAddress( pageRef ) == 0L )
         {
-            long addr = memoryAllocator.allocateAligned( getCachePageSize(), bufferAlignment );
+            long addr = memoryAllocator.allocateAligned( bufferSize, bufferAlignment, numaNode );
             UnsafeUtil.putLong( offAddress( pageRef ), addr );
         }
     }
 
+    /**
+     * Give the physical memory behind the buffer of the given page back to the operating system, if the page has a buffer.
+     * The page keeps its buffer, which reads as zeros until it is written to again, so the page must be exclusively locked and unbound.
+     */
+    boolean discardBuffer( long pageRef, int bufferSize )
+    {
+        long address = getAddress( pageRef );
+        return address != 0L && memoryAllocator.discard( address, bufferSize );
+    }
+
     /**
      * Increment the usage stamp to at most 4.
      **/
@@ -343,6 +382,14 @@ class PageList implements PageReferenceTranslator
         return usage <= 1;
     }
 
+    /**
+     * Get the current usage stamp, which is a number between 0 and 4.
+     **/
+    static int getUsage( long pageRef )
+    {
+        return (int) (UnsafeUtil.getLongVolatile( offPageBinding( pageRef ) ) & MASK_USAGE_COUNT);
+    }
+
     static long getFilePageId( long pageRef )
     {
         long filePageId = UnsafeUtil.getLong( offPageBinding( pageRef ) ) >>> SHIFT_FILE_PAGE_ID;
@@ -409,6 +456,19 @@ class PageList implements PageReferenceTranslator
 
     void fault( long pageRef, PageSwapper swapper, int swapperId, long filePageId, PageFaultEvent event )
             throws IOException
+    {
+        prepareFault( pageRef, swapper, swapperId, filePageId );
+        long bytesRead = swapper.read( filePageId, getAddress( pageRef ) );
+        event.addBytesRead( bytesRead );
+        completeFault( pageRef, swapperId );
+    }
+
+    /**
+     * Assign the given file page id to the given exclusively locked page, ahead of swapping the page in.
+     * The page must then be swapped in, and the fault completed with {@link #completeFault(long, int)}.
+     * This allows page faults to be split up, so the swapping in of many pages can be done in one batch.
+     */
+    void prepareFault( long pageRef, PageSwapper swapper, int swapperId, long filePageId )
     {
         if ( swapper == null )
         {
@@ -429,8 +489,14 @@ class PageList implements PageReferenceTranslator
         // the file page, so any subsequent thread that finds the page in their
         // translation table will re-do the page fault.
         setFilePageId( pageRef, filePageId ); // Page now considered isLoaded()
-        long bytesRead = swapper.read( filePageId, getAddress( pageRef ) );
-        event.addBytesRead( bytesRead );
+    }
+
+    /**
+     * Bind the page to the swapper, after a successful swap in of a page prepared with
+     * {@link #prepareFault(long, PageSwapper, int, long)}.
+     */
+    static void completeFault( long pageRef, int swapperId )
+    {
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
     }
 
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+import static java.lang.String.format;
+
+/**
+ * An {@link EvictionPolicy} that enforces the page quotas of the configured {@link PageCachePartition partitions}, and
+ * otherwise defers to another policy.
+ * <p>
+ * The partition of a loaded page is looked up via the swapper id in its page binding. Pages that belong to a partition
+ * that is at or below its reserved number of pages are never evicted, and pages that belong to a partition that is over
+ * its maximum number of pages are always evicted. The number of pages a partition occupies is maintained by the mapped
+ * files of the partition, as pages are faulted in and evicted. Those counts are updated without holding any locks that
+ * would make them exact at the time the sweepers look at them, so the quotas are soft limits.
+ */
+final class PartitionedEvictionPolicy implements EvictionPolicy
+{
+    private final EvictionPolicy delegate;
+    private final PageCacheTracer tracer;
+    private final Partition[] partitions;
+    private volatile Partition[] partitionsBySwapperId = new Partition[0];
+
+    PartitionedEvictionPolicy( EvictionPolicy delegate, List<PageCachePartition> definitions, long maxPages, PageCacheTracer tracer )
+    {
+        this.delegate = delegate;
+        this.tracer = tracer;
+        this.partitions = new Partition[definitions.size()];
+        long reservedPages = 0;
+        for ( int i = 0; i < partitions.length; i++ )
+        {
+            PageCachePartition definition = definitions.get( i );
+            partitions[i] = new Partition( definition );
+            reservedPages += definition.getMinPages();
+        }
+        if ( reservedPages >= maxPages )
+        {
+            // The sweepers must always be able to find something to evict.
+            throw new IllegalArgumentException( format( "The page cache partitions reserve %d pages in total, which is more than the %d pages in the " +
+                    "page cache can accommodate.", reservedPages, maxPages ) );
+        }
+    }
+
+    /**
+     * @return the first partition that matches a file of the given database and path, or {@code null} if none of them do.
+     */
+    Partition partitionFor( String databaseName, Path path )
+    {
+        for ( Partition partition : partitions )
+        {
+            if ( partition.definition.matches( databaseName, path ) )
+            {
+                return partition;
+            }
+        }
+        return null;
+    }
+
+    synchronized void register( int swapperId, Partition partition )
+    {
+        Partition[] bySwapperId = partitionsBySwapperId;
+        if ( swapperId >= bySwapperId.length )
+        {
+            bySwapperId = Arrays.copyOf( bySwapperId, Math.max( swapperId + 1, bySwapperId.length * 2 ) );
+        }
+        bySwapperId[swapperId] = partition;
+        partitionsBySwapperId = bySwapperId; // Volatile store synchronizes-with loads in the sweepers.
+    }
+
+    synchronized void unregister( int swapperId )
+    {
+        Partition[] bySwapperId = partitionsBySwapperId;
+        if ( swapperId < bySwapperId.length )
+        {
+            bySwapperId[swapperId] = null;
+            partitionsBySwapperId = bySwapperId;
+        }
+    }
+
+    @Override
+    public boolean shouldEvict( long pageRef )
+    {
+        int swapperId = PageList.getSwapperId( pageRef );
+        Partition[] bySwapperId = partitionsBySwapperId;
+        Partition partition = swapperId < bySwapperId.length ? bySwapperId[swapperId] : null;
+        if ( partition != null )
+        {
+            long residentPages = partition.residentPages();
+            if ( residentPages <= partition.definition.getMinPages() )
+            {
+                tracer.partitionReservedPageSkips( 1 );
+                return false;
+            }
+            if ( residentPages > partition.definition.getMaxPages() )
+            {
+                tracer.partitionQuotaEvictions( 1 );
+                return true;
+            }
+        }
+        return delegate.shouldEvict( pageRef );
+    }
+
+    @Override
+    public void evicted( long pageRef )
+    {
+        delegate.evicted( pageRef );
+    }
+
+    /**
+     * The runtime state of a {@link PageCachePartition}.
+     */
+    static final class Partition
+    {
+        final PageCachePartition definition;
+        private final AtomicLong residentPages = new AtomicLong();
+
+        private Partition( PageCachePartition definition )
+        {
+            this.definition = definition;
+        }
+
+        void pagesFaulted( long pages )
+        {
+            residentPages.addAndGet( pages );
+        }
+
+        void pagesEvicted( long pages )
+        {
+            residentPages.addAndGet( -pages );
+        }
+
+        long residentPages()
+        {
+            return residentPages.get();
+        }
+    }
+}
@@ -25,14 +25,13 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
-import org.neo4j.io.pagecache.PageCursor;
-import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.scheduler.CancelListener;
 import org.neo4j.time.SystemNanoClock;
 
 import static org.neo4j.io.pagecache.PageCursor.UNBOUND_PAGE_ID;
-import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 /**
  * An adaptive page pre-fetcher for sequential scans, for either forwards (increasing page id order) or backwards (decreasing page id order) scans.
@@ -48,12 +47,25 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
  * The pre-fetcher is adaptive because the number of pages the pre-fetcher will move ahead of the scanning cursor, and the length of time the pre-fetcher
  * will wait in between checking on the progress of the scanner, are dynamically computed and updated based on how fast the scanner appears to be.
  * The pre-fetcher also automatically figures out if the scanner is scanning the file in a forward or backwards direction.
+ *
+ * The pages in each pre-fetch range are faulted in with {@link MuninnPagedFile#faultBatch(long, long, PageCursorTracer) batched faults},
+ * so runs of consecutive pages that are not yet in memory are read with a single vectored read, instead of one page at a time.
+ * On top of following the speed of the scanner, the pre-fetch range also adapts to how much of it turns out to be missing:
+ * the range grows while every page in it has to be faulted in, and it shrinks when it has nothing to fault in.
+ * The range is capped to a fraction of the page cache, so the pre-fetched pages do not evict each other, or the pages of
+ * the scanner, before they are used.
  */
 class PreFetcher implements Runnable, CancelListener
 {
     private static final String TRACER_PRE_FETCHER_TAG = "Pre-fetcher";
+    // The adaptive part of the pre-fetch range starts out at this many pages, and never shrinks below it.
+    private static final int minReadAheadPages = getInteger( PreFetcher.class, "minReadAheadPages", 4 );
+    // The pre-fetch range never grows beyond this many pages.
+    private static final int maxReadAheadPages = getInteger( PreFetcher.class, "maxReadAheadPages", 1024 );
+    // The pre-fetch range never grows beyond this fraction of the pages in the page cache.
+    private static final int cacheFractionDivisor = 16;
     private final MuninnPageCursor observedCursor;
-    private final CursorFactory cursorFactory;
+    private final MuninnPagedFile pagedFile;
     private final PageCacheTracer tracer;
     private final SystemNanoClock clock;
     private volatile boolean cancelled;
@@ -62,10 +74,10 @@ class PreFetcher implements Runnable, CancelListener
     private long tripCount;
     private long pauseNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
 
-    PreFetcher( MuninnPageCursor observedCursor, CursorFactory cursorFactory, PageCacheTracer tracer, SystemNanoClock clock )
+    PreFetcher( MuninnPageCursor observedCursor, PageCacheTracer tracer, SystemNanoClock clock )
     {
         this.observedCursor = observedCursor;
-        this.cursorFactory = cursorFactory;
+        this.pagedFile = observedCursor.pagedFile;
         this.tracer = tracer;
         this.clock = clock;
     }
@@ -120,11 +132,12 @@ class PreFetcher implements Runnable, CancelListener
         // That is, jump is negative if we are pre-fetching backwards.
         // This way, observed position + jump is the end or start of the pre-fetch range,
         // for forwards or backwards pre-fetch respectively.
-        // The initial value don't matter so much. Just same as offset, so we initially fetch one page.
-        long jump = offset;
+        // The initial value is the smallest read-ahead, since we don't know anything about the speed of the scanner yet.
+        long maxJump = Math.max( 1, Math.min( maxReadAheadPages, pagedFile.pageCache.maxCachedPages() / cacheFractionDivisor ) );
+        long readAhead = Math.min( minReadAheadPages, maxJump );
+        long jump = offset * readAhead;
 
-        try ( var tracer = this.tracer.createPageCursorTracer( TRACER_PRE_FETCHER_TAG );
-                PageCursor prefetchCursor = cursorFactory.takeReadCursor( 0, PF_SHARED_READ_LOCK, new CursorContext( tracer ) ) )
+        try ( var tracer = this.tracer.createPageCursorTracer( TRACER_PRE_FETCHER_TAG ) )
         {
             currentPageId = getCurrentObservedPageId();
             while ( currentPageId != UNBOUND_PAGE_ID )
@@ -140,14 +153,12 @@ class PreFetcher implements Runnable, CancelListener
                     fromPage = Math.max( 0, cp + jump );
                     toPage = cp;
                 }
-                while ( fromPage < toPage )
+                if ( fromPage > pagedFile.getLastPageId() || cancelled )
                 {
-                    if ( !prefetchCursor.next( fromPage ) || cancelled )
-                    {
-                        return; // Reached the end of the file. Or got cancelled.
-                    }
-                    fromPage++;
+                    return; // Reached the end of the file. Or got cancelled.
                 }
+                int faulted = pagedFile.faultBatch( fromPage, toPage, tracer );
+                long requested = Math.min( toPage, pagedFile.getLastPageId() + 1 ) - fromPage;
 
                 // Phase 3.5: After each prefetch round, we wait for the cursor to move again.
                 // If it just stops somewhere for more than a second, then we quit.
@@ -168,7 +179,18 @@ class PreFetcher implements Runnable, CancelListener
                 }
                 if ( nextPageId != UNBOUND_PAGE_ID )
                 {
-                    jump = (nextPageId - currentPageId) * 2;
+                    if ( requested > 0 && faulted >= requested )
+                    {
+                        // Everything we looked at was missing, so we are reading cold data, and larger reads pay off.
+                        readAhead = Math.min( readAhead * 2, maxJump );
+                    }
+                    else if ( faulted == 0 )
+                    {
+                        // We are far enough ahead that there was nothing to do.
+                        readAhead = Math.max( readAhead / 2, Math.min( minReadAheadPages, maxJump ) );
+                    }
+                    long progress = Math.abs( nextPageId - currentPageId );
+                    jump = offset * Math.min( Math.max( progress * 2, readAhead ), maxJump );
                 }
                 currentPageId = nextPageId;
             }
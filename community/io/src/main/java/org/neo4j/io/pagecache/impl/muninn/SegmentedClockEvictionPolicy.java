@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A scan resistant variant of CLOCK, that splits the cache pages into a <em>probationary</em> and a <em>protected</em>
+ * segment, in the spirit of 2Q and segmented LRU.
+ * <p>
+ * All pages start out as probationary when they are faulted in. A page that is scanned over will typically only be
+ * pinned once, and is then evicted the first time the clock arm comes across it. If a probationary page has instead
+ * been used at least {@code promotionThreshold} times when the clock arm visits it, it is promoted to the protected
+ * segment. Protected pages are left completely alone by the sweepers for as long as the protected segment is within
+ * its budget, which is a percentage of all the pages in the cache. When the segment grows beyond its budget, the
+ * sweepers start decrementing the usage counters of protected pages, and the protected pages whose counters reach
+ * zero are demoted back to the probationary segment, where they get one more chance to be used before they are
+ * evicted.
+ * <p>
+ * The effect is that a large scan, for instance a label scan or an index population over a store that is much larger
+ * than the page cache, will only cycle through the probationary pages, while the working set in the protected segment
+ * stays in memory.
+ * <p>
+ * The segment membership is kept in an on-heap bit-set with one bit per cache page, which is only touched by the
+ * eviction sweepers, so the pin and unpin code paths are not affected by this policy.
+ */
+final class SegmentedClockEvictionPolicy implements EvictionPolicy
+{
+    // The percentage of the cache pages that the protected segment may occupy before its pages are considered for demotion.
+    private static final int protectedPercentage = getInteger( SegmentedClockEvictionPolicy.class, "protectedPercentage", 80 );
+
+    // A probationary page with at least this usage count when visited by the clock arm, is promoted to the protected segment.
+    // The count includes the pin that faulted the page in, so the default of 3 means the page has been hit at least twice.
+    private static final int promotionThreshold = getInteger( SegmentedClockEvictionPolicy.class, "promotionThreshold", 3 );
+
+    private static final VarHandle PROTECTED_BITS = MethodHandles.arrayElementVarHandle( long[].class );
+
+    private final PageList pages;
+    private final PageCacheTracer tracer;
+    private final long[] protectedBits;
+    private final int maxProtectedPages;
+    private final int promotionLimit;
+    private final AtomicInteger protectedPages = new AtomicInteger();
+
+    SegmentedClockEvictionPolicy( PageList pages, PageCacheTracer tracer )
+    {
+        this( pages, tracer, protectedPercentage );
+    }
+
+    SegmentedClockEvictionPolicy( PageList pages, PageCacheTracer tracer, int protectedPercentage )
+    {
+        if ( protectedPercentage < 0 || protectedPercentage > 100 )
+        {
+            throw new IllegalArgumentException( "Protected segment percentage must be between 0 and 100, but was " + protectedPercentage );
+        }
+        this.pages = pages;
+        this.tracer = tracer;
+        int pageCount = pages.getPageCount();
+        this.protectedBits = new long[(pageCount >>> 6) + 1];
+        this.maxProtectedPages = (int) (((long) pageCount * protectedPercentage) / 100);
+        // We allow promotions to overshoot the budget by half of the probationary segment. The sweepers will demote
+        // cold protected pages to get back within budget, but we must never let the probationary segment run dry.
+        this.promotionLimit = Math.min( maxProtectedPages + (pageCount - maxProtectedPages) / 2, pageCount - 1 );
+    }
+
+    @Override
+    public boolean shouldEvict( long pageRef )
+    {
+        int pageId = pages.toId( pageRef );
+        if ( isProtected( pageId ) )
+        {
+            if ( protectedPages.get() > maxProtectedPages && PageList.decrementUsage( pageRef ) && clearProtected( pageId ) )
+            {
+                tracer.demotions( 1 );
+            }
+            // Protected pages are never evicted directly. They have to be demoted, and then survive probation first.
+            return false;
+        }
+
+        if ( PageList.getUsage( pageRef ) >= promotionThreshold && protectedPages.get() < promotionLimit && setProtected( pageId ) )
+        {
+            tracer.promotions( 1 );
+            return false;
+        }
+        return PageList.decrementUsage( pageRef );
+    }
+
+    @Override
+    public void evicted( long pageRef )
+    {
+        // Pages can be evicted without asking the policy, e.g. when vacuuming the pages of unmapped files.
+        // Whatever page is faulted into this memory page next, must start out in the probationary segment.
+        clearProtected( pages.toId( pageRef ) );
+    }
+
+    int protectedPageCount()
+    {
+        return protectedPages.get();
+    }
+
+    boolean isProtected( int pageId )
+    {
+        long bits = (long) PROTECTED_BITS.getVolatile( protectedBits, pageId >>> 6 );
+        return (bits & (1L << pageId)) != 0;
+    }
+
+    private boolean setProtected( int pageId )
+    {
+        long bit = 1L << pageId;
+        long previous = (long) PROTECTED_BITS.getAndBitwiseOr( protectedBits, pageId >>> 6, bit );
+        if ( (previous & bit) == 0 )
+        {
+            protectedPages.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean clearProtected( int pageId )
+    {
+        long bit = 1L << pageId;
+        long previous = (long) PROTECTED_BITS.getAndBitwiseAnd( protectedBits, pageId >>> 6, ~bit );
+        if ( (previous & bit) != 0 )
+        {
+            protectedPages.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+}
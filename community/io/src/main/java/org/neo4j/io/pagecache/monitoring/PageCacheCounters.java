@@ -96,6 +96,36 @@ public interface PageCacheCounters
      */
     double usageRatio();
 
+    /**
+     * @return The number of pages the eviction policy has promoted to its protected segment thus far.
+     */
+    long promotions();
+
+    /**
+     * @return The number of pages the eviction policy has demoted from its protected segment thus far.
+     */
+    long demotions();
+
+    /**
+     * @return The number of pages the eviction sweepers have picked for eviction, because their page cache partition was over its maximum size, thus far.
+     */
+    long partitionQuotaEvictions();
+
+    /**
+     * @return The number of times the eviction sweepers have skipped a page, because its page cache partition was at or below its reserved size, thus far.
+     */
+    long partitionReservedPageSkips();
+
+    /**
+     * @return The number of bytes of page cache memory that the operating system has backed with huge pages thus far.
+     */
+    long hugePageBackedBytes();
+
+    /**
+     * @return The number of pages that page faulting threads have evicted themselves, because the background eviction threads could not keep up.
+     */
+    long cooperativeEvictions();
+
     /**
      * @return The number of IOPQ performed thus far.
      */
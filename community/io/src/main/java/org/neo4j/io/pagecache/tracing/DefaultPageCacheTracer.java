@@ -20,6 +20,9 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -49,7 +52,18 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder iopqPerformed = new LongAdder();
     protected final LongAdder ioLimitedTimes = new LongAdder();
     protected final LongAdder ioLimitedMillis = new LongAdder();
+    protected final LongAdder promotions = new LongAdder();
+    protected final LongAdder demotions = new LongAdder();
+    protected final LongAdder partitionQuotaEvictions = new LongAdder();
+    protected final LongAdder partitionReservedPageSkips = new LongAdder();
+    protected final LongAdder hugePageBackedBytes = new LongAdder();
+    protected final LongAdder cooperativeEvictions = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    protected final LongAdder readRetries = new LongAdder();
+    protected final LongAdder pessimisticReads = new LongAdder();
+    private final Map<Path,Long> dirtyPagesPerFile = new ConcurrentHashMap<>();
+    private final Map<Path,LongAdder> readRetriesPerFile = new ConcurrentHashMap<>();
+    private final Map<Path,LongAdder> pessimisticReadsPerFile = new ConcurrentHashMap<>();
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -197,6 +211,69 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     public void unmappedFile( int swapperId, PagedFile mappedFile )
     {
         filesUnmapped.increment();
+        dirtyPagesPerFile.remove( mappedFile.path() );
+        readRetriesPerFile.remove( mappedFile.path() );
+        pessimisticReadsPerFile.remove( mappedFile.path() );
+    }
+
+    @Override
+    public void dirtyPages( PagedFile pagedFile, long dirtyPages )
+    {
+        dirtyPagesPerFile.put( pagedFile.path(), dirtyPages );
+    }
+
+    /**
+     * @return the number of dirty pages that the latest flush of the given mapped file found, or 0 if the file has not been flushed.
+     */
+    public long dirtyPages( Path file )
+    {
+        return dirtyPagesPerFile.getOrDefault( file, 0L );
+    }
+
+    @Override
+    public void readRetries( Path file, long retries, long pessimisticReads )
+    {
+        readRetries.add( retries );
+        readRetriesPerFile.computeIfAbsent( file, path -> new LongAdder() ).add( retries );
+        if ( pessimisticReads > 0 )
+        {
+            this.pessimisticReads.add( pessimisticReads );
+            pessimisticReadsPerFile.computeIfAbsent( file, path -> new LongAdder() ).add( pessimisticReads );
+        }
+    }
+
+    /**
+     * @return the number of times optimistic reads have been retried, across all files.
+     */
+    public long readRetries()
+    {
+        return readRetries.sum();
+    }
+
+    /**
+     * @return the number of times optimistic reads of pages in the given mapped file have been retried.
+     */
+    public long readRetries( Path file )
+    {
+        LongAdder retries = readRetriesPerFile.get( file );
+        return retries == null ? 0 : retries.sum();
+    }
+
+    /**
+     * @return the number of reads that fell back to pessimistic read locks, across all files.
+     */
+    public long pessimisticReads()
+    {
+        return pessimisticReads.sum();
+    }
+
+    /**
+     * @return the number of reads of pages in the given mapped file that fell back to pessimistic read locks.
+     */
+    public long pessimisticReads( Path file )
+    {
+        LongAdder reads = pessimisticReadsPerFile.get( file );
+        return reads == null ? 0 : reads.sum();
     }
 
     @Override
@@ -312,6 +389,42 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return Math.max( 0, (faults.sum() - evictions.sum()) / (double) pages );
     }
 
+    @Override
+    public long promotions()
+    {
+        return promotions.sum();
+    }
+
+    @Override
+    public long demotions()
+    {
+        return demotions.sum();
+    }
+
+    @Override
+    public long partitionQuotaEvictions()
+    {
+        return partitionQuotaEvictions.sum();
+    }
+
+    @Override
+    public long partitionReservedPageSkips()
+    {
+        return partitionReservedPageSkips.sum();
+    }
+
+    @Override
+    public long hugePageBackedBytes()
+    {
+        return hugePageBackedBytes.sum();
+    }
+
+    @Override
+    public long cooperativeEvictions()
+    {
+        return cooperativeEvictions.sum();
+    }
+
     @Override
     public long iopqPerformed()
     {
@@ -408,4 +521,40 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         this.maxPages.set( maxPages );
     }
+
+    @Override
+    public void cooperativeEvictions( long cooperativeEvictions )
+    {
+        this.cooperativeEvictions.add( cooperativeEvictions );
+    }
+
+    @Override
+    public void hugePageBackedBytes( long hugePageBackedBytes )
+    {
+        this.hugePageBackedBytes.add( hugePageBackedBytes );
+    }
+
+    @Override
+    public void partitionReservedPageSkips( long partitionReservedPageSkips )
+    {
+        this.partitionReservedPageSkips.add( partitionReservedPageSkips );
+    }
+
+    @Override
+    public void partitionQuotaEvictions( long partitionQuotaEvictions )
+    {
+        this.partitionQuotaEvictions.add( partitionQuotaEvictions );
+    }
+
+    @Override
+    public void promotions( long promotions )
+    {
+        this.promotions.add( promotions );
+    }
+
+    @Override
+    public void demotions( long demotions )
+    {
+        this.demotions.add( demotions );
+    }
 }
@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.tracing;
 
+import java.nio.file.Path;
+
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
@@ -52,6 +54,16 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void dirtyPages( PagedFile pagedFile, long dirtyPages )
+        {
+        }
+
+        @Override
+        public void readRetries( Path file, long retries, long pessimisticReads )
+        {
+        }
+
         @Override
         public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
         {
@@ -160,6 +172,42 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0d;
         }
 
+        @Override
+        public long promotions()
+        {
+            return 0;
+        }
+
+        @Override
+        public long demotions()
+        {
+            return 0;
+        }
+
+        @Override
+        public long partitionQuotaEvictions()
+        {
+            return 0;
+        }
+
+        @Override
+        public long partitionReservedPageSkips()
+        {
+            return 0;
+        }
+
+        @Override
+        public long hugePageBackedBytes()
+        {
+            return 0;
+        }
+
+        @Override
+        public long cooperativeEvictions()
+        {
+            return 0;
+        }
+
         @Override
         public long iopqPerformed()
         {
@@ -233,6 +281,36 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void cooperativeEvictions( long cooperativeEvictions )
+        {
+        }
+
+        @Override
+        public void hugePageBackedBytes( long hugePageBackedBytes )
+        {
+        }
+
+        @Override
+        public void partitionReservedPageSkips( long partitionReservedPageSkips )
+        {
+        }
+
+        @Override
+        public void partitionQuotaEvictions( long partitionQuotaEvictions )
+        {
+        }
+
+        @Override
+        public void promotions( long promotions )
+        {
+        }
+
+        @Override
+        public void demotions( long demotions )
+        {
+        }
+
         @Override
         public void iopq( long iopq )
         {
@@ -267,6 +345,17 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void unmappedFile( int swapperId, PagedFile pagedFile );
 
+    /**
+     * A flush of the given file has found, and written, the given number of dirty pages.
+     */
+    void dirtyPages( PagedFile pagedFile, long dirtyPages );
+
+    /**
+     * Optimistic reads of pages in the given file have been retried the given number of times, and the given
+     * number of reads fell back to pessimistic read locks.
+     */
+    void readRetries( Path file, long retries, long pessimisticReads );
+
     /**
      * A background eviction has begun. Called from the background eviction thread.
      *
@@ -359,6 +448,42 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void maxPages( long maxPages, long pageSize );
 
+    /**
+     * Report pages that a page faulting thread evicted itself, because there were no free pages.
+     * @param cooperativeEvictions cooperativeEvictions number of cooperatively evicted pages
+     */
+    void cooperativeEvictions( long cooperativeEvictions );
+
+    /**
+     * Report that more of the page cache memory is now backed by huge pages.
+     * @param hugePageBackedBytes the number of additional huge page backed bytes
+     */
+    void hugePageBackedBytes( long hugePageBackedBytes );
+
+    /**
+     * Report number of pages skipped by the eviction sweepers because their page cache partition was at or below its reserved size
+     * @param partitionReservedPageSkips number of skipped pages
+     */
+    void partitionReservedPageSkips( long partitionReservedPageSkips );
+
+    /**
+     * Report number of pages picked for eviction because their page cache partition was over its maximum size
+     * @param partitionQuotaEvictions number of pages picked for eviction
+     */
+    void partitionQuotaEvictions( long partitionQuotaEvictions );
+
+    /**
+     * Report number of pages promoted to the protected segment of the eviction policy
+     * @param promotions number of promoted pages
+     */
+    void promotions( long promotions );
+
+    /**
+     * Report number of pages demoted from the protected segment of the eviction policy
+     * @param demotions number of demoted pages
+     */
+    void demotions( long demotions );
+
     /**
      * Report number of performed iopq.
      * @param iopq number of performed io operations per quantum of time.
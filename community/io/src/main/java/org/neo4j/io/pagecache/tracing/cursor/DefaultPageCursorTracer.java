@@ -20,6 +20,9 @@
 package org.neo4j.io.pagecache.tracing.cursor;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.neo4j.internal.helpers.MathUtil;
 import org.neo4j.io.pagecache.PageSwapper;
@@ -42,6 +45,9 @@ public class DefaultPageCursorTracer implements PageCursorTracer
     private long evictionExceptions;
     private long flushes;
     private long merges;
+    private long readRetries;
+    private long pessimisticReads;
+    private Map<Path,long[]> readRetriesPerFile;
 
     private final DefaultPinEvent pinTracingEvent = new DefaultPinEvent();
     private final PageCacheTracer pageCacheTracer;
@@ -102,6 +108,10 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         {
             pageCacheTracer.merges( merges );
         }
+        if ( readRetriesPerFile != null )
+        {
+            readRetriesPerFile.forEach( ( file, counts ) -> pageCacheTracer.readRetries( file, counts[0], counts[1] ) );
+        }
         reset();
     }
 
@@ -117,6 +127,9 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         evictionExceptions = 0;
         flushes = 0;
         merges = 0;
+        readRetries = 0;
+        pessimisticReads = 0;
+        readRetriesPerFile = null;
     }
 
     @Override
@@ -179,6 +192,22 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         return merges;
     }
 
+    /**
+     * @return The number of retried optimistic page reads observed thus far.
+     */
+    public long readRetries()
+    {
+        return readRetries;
+    }
+
+    /**
+     * @return The number of page reads that fell back to pessimistic read locks thus far.
+     */
+    public long pessimisticReads()
+    {
+        return pessimisticReads;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -193,6 +222,24 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         return pinTracingEvent;
     }
 
+    @Override
+    public void readRetries( PageSwapper swapper, long retries, boolean pessimistic )
+    {
+        // Retries are uncommon, so the per file counts are only allocated once a cursor actually has to retry.
+        if ( readRetriesPerFile == null )
+        {
+            readRetriesPerFile = new HashMap<>();
+        }
+        long[] counts = readRetriesPerFile.computeIfAbsent( swapper.path(), file -> new long[2] );
+        counts[0] += retries;
+        readRetries += retries;
+        if ( pessimistic )
+        {
+            counts[1]++;
+            pessimisticReads++;
+        }
+    }
+
     private final EvictionEvent evictionEvent = new EvictionEvent()
     {
         @Override
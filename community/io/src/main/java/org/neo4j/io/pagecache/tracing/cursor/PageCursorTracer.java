@@ -111,6 +111,11 @@ public interface PageCursorTracer extends PageCursorCounters, Closeable
             return PinEvent.NULL;
         }
 
+        @Override
+        public void readRetries( PageSwapper swapper, long retries, boolean pessimistic )
+        {
+        }
+
         @Override
         public void reportEvents()
         {
@@ -126,6 +131,15 @@ public interface PageCursorTracer extends PageCursorCounters, Closeable
 
     PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper );
 
+    /**
+     * An optimistic read of a page in the file of the given swapper had to be retried the given number of times,
+     * before the read was consistent.
+     *
+     * @param pessimistic {@code true} if the reader gave up on optimistic reads, and took a pessimistic read lock
+     * on the page to finish its read.
+     */
+    void readRetries( PageSwapper swapper, long retries, boolean pessimistic );
+
     /**
      * Report to global page cache tracer events observed by current page cursor tracer.
      * As soon as any event will be reported, page cursor tracer reset corresponding counters and completely forgets
@@ -21,7 +21,10 @@ package org.neo4j.io.mem;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
+import org.neo4j.internal.nativeimpl.LinuxHugePages;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageCache;
@@ -30,6 +33,7 @@ import org.neo4j.memory.LocalMemoryTracker;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.neo4j.io.ByteUnit.MebiByte;
 
 class MemoryAllocatorTest
@@ -173,6 +177,22 @@ class MemoryAllocatorTest
         assertEquals( 0, memoryTracker.usedNativeMemory() );
     }
 
+    @Test
+    void discardedMemoryMustStayAccessibleAndReadAsZeros()
+    {
+        assumeTrue( LinuxHugePages.isAvailable(), LinuxHugePages.describe() );
+        MemoryAllocator mman = createAllocator( MebiByte.toBytes( 2 ) );
+        long address = mman.allocateAligned( EIGHT_PAGES, UnsafeUtil.pageSize() );
+        UnsafeUtil.putLong( address, 1 );
+        UnsafeUtil.putLong( address + ONE_PAGE, 2 );
+
+        assertThat( mman.discard( address, ONE_PAGE ) ).isTrue();
+        assertThat( UnsafeUtil.getLong( address ) ).isZero();
+        assertThat( UnsafeUtil.getLong( address + ONE_PAGE ) ).isEqualTo( 2 );
+        UnsafeUtil.putLong( address, 3 );
+        assertThat( UnsafeUtil.getLong( address ) ).isEqualTo( 3 );
+    }
+
     @Test
     void allAllocatedMemoryMustBeAccessibleForAllAlignments() throws Exception
     {
@@ -218,6 +238,65 @@ class MemoryAllocatorTest
         UnsafeUtil.getLong( address + ONE_PAGE - Long.BYTES ); // End of allocation.
     }
 
+    @ParameterizedTest
+    @EnumSource( value = HugePageMode.class, names = {"TRANSPARENT", "EXPLICIT"} )
+    void hugePageBackedAllocationsMustBeAlignedAndAccessible( HugePageMode hugePageMode )
+    {
+        assumeTrue( LinuxHugePages.isAvailable(), LinuxHugePages.describe() );
+        long hugePageSize = LinuxHugePages.hugePageSize();
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        closeAllocator();
+        allocator = MemoryAllocator.createAllocator( MebiByte.toBytes( 8 ), hugePageMode, memoryTracker );
+
+        // Like the page list, allocate the page metadata in one go, and then the page buffers one by one.
+        long metadata = allocator.allocateAligned( ByteUnit.kibiBytes( 32 ), Long.BYTES );
+        assertThat( metadata % hugePageSize ).isZero();
+        for ( int i = 0; i < 512; i++ )
+        {
+            long page = allocator.allocateAligned( PageCache.PAGE_SIZE, UnsafeUtil.pageSize() );
+            assertThat( page % UnsafeUtil.pageSize() ).isZero();
+            // This must not throw any bad access exceptions.
+            UnsafeUtil.putLong( page, i );
+            UnsafeUtil.putLong( page + PageCache.PAGE_SIZE - Long.BYTES, i );
+            assertThat( UnsafeUtil.getLong( page ) ).isEqualTo( i );
+        }
+        UnsafeUtil.getLong( metadata + ByteUnit.kibiBytes( 32 ) - Long.BYTES );
+
+        assertThat( memoryTracker.usedNativeMemory() % hugePageSize ).isZero();
+        assertThat( allocator.hugePageBackedMemory() ).isBetween( 0L, memoryTracker.usedNativeMemory() );
+
+        allocator.close();
+        allocator = null;
+        assertThat( memoryTracker.usedNativeMemory() ).isZero();
+    }
+
+    @Test
+    void mallocBackedAllocationsAreNotReportedAsHugePageBacked()
+    {
+        MemoryAllocator mman = createAllocator( MebiByte.toBytes( 2 ) );
+        mman.allocateAligned( MebiByte.toBytes( 1 ), 1 );
+        assertThat( mman.hugePageBackedMemory() ).isZero();
+    }
+
+    @Test
+    void allocationsForDifferentNumaNodesMustBeAccessibleAndAccounted()
+    {
+        MemoryAllocator mman = createAllocator( MebiByte.toBytes( 2 ) );
+        long[] addresses = new long[3];
+        for ( int node = -1; node < 2; node++ )
+        {
+            long address = mman.allocateAligned( PageCache.PAGE_SIZE, PageCache.PAGE_SIZE, node );
+            assertThat( address % PageCache.PAGE_SIZE ).isZero();
+            UnsafeUtil.setMemory( address, PageCache.PAGE_SIZE, (byte) (node + 2) );
+            addresses[node + 1] = address;
+        }
+        for ( int i = 0; i < addresses.length; i++ )
+        {
+            assertThat( UnsafeUtil.getByte( addresses[i] + PageCache.PAGE_SIZE - 1 ) ).isEqualTo( (byte) (i + 1) );
+        }
+        assertThat( mman.usedMemory() ).isGreaterThanOrEqualTo( 3L * PageCache.PAGE_SIZE );
+    }
+
     private void closeAllocator()
     {
         if ( allocator != null )
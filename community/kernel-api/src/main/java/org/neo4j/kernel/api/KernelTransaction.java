@@ -258,8 +258,17 @@ public interface KernelTransaction extends AssertOpen, AutoCloseable
      */
     void markForTermination( Status reason );
 
+    /**
+     * Meta data key that clients, e.g. over Bolt, can use to choose the durability of a transaction without access to
+     * {@link #setRelaxedDurability(boolean)}. The transaction commits with relaxed durability if the key maps to
+     * {@link #RELAXED_DURABILITY}, and with full durability if it maps to anything else.
+     */
+    String DURABILITY_META_DATA_KEY = "durability";
+    String RELAXED_DURABILITY = "relaxed";
+
     /**
      * Sets the user defined meta data to be associated with started queries.
+     * Also sets the durability of this transaction if the meta data contains {@link #DURABILITY_META_DATA_KEY}.
      * @param data the meta data
      */
     void setMetaData( Map<String,Object> data );
@@ -271,6 +280,16 @@ public interface KernelTransaction extends AssertOpen, AutoCloseable
      */
     Map<String,Object> getMetaData();
 
+    /**
+     * Sets whether or not this transaction commits with relaxed durability. Such a transaction returns from commit as soon as
+     * it has been appended to the transaction log, without waiting for the log to be forced to disk. The log is instead forced
+     * in the background within a configurable interval, or by the next transaction that commits with full durability,
+     * whichever comes first. A crash of the operating system can therefore lose the most recently committed relaxed transactions.
+     *
+     * @param relaxedDurability {@code true} to commit with relaxed durability, {@code false} to force the log before commit returns.
+     */
+    void setRelaxedDurability( boolean relaxedDurability );
+
     enum Type
     {
         IMPLICIT,
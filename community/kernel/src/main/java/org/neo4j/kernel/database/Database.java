@@ -62,7 +62,6 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemUtils;
 import org.neo4j.io.fs.watcher.DatabaseLayoutWatcher;
 import org.neo4j.io.layout.DatabaseLayout;
-import org.neo4j.io.pagecache.IOController;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.context.CursorContext;
@@ -99,9 +98,11 @@ import org.neo4j.kernel.impl.factory.DbmsInfo;
 import org.neo4j.kernel.impl.factory.FacadeKernelTransactionFactory;
 import org.neo4j.kernel.impl.factory.GraphDatabaseFacade;
 import org.neo4j.kernel.impl.factory.KernelTransactionFactory;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.pagecache.IOControllerService;
 import org.neo4j.kernel.impl.pagecache.PageCacheLifecycle;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.query.TransactionExecutionMonitor;
@@ -146,9 +147,11 @@ import org.neo4j.kernel.internal.locker.LockerLifecycleAdapter;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.kernel.monitoring.DatabaseEventListeners;
+import org.neo4j.kernel.monitoring.tracing.Tracers;
 import org.neo4j.kernel.recovery.LoggingLogTailScannerMonitor;
 import org.neo4j.kernel.recovery.RecoveryStartupChecker;
 import org.neo4j.lock.LockService;
+import org.neo4j.lock.LockTracer;
 import org.neo4j.lock.ReentrantLockService;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
@@ -213,6 +216,7 @@ public class Database extends LifecycleAdapter
     private final Locks locks;
     private final DatabaseEventListeners eventListeners;
     private final DatabaseTracers tracers;
+    private final LockContentionProfiler lockContentionProfiler;
     private final AccessCapabilityFactory accessCapabilityFactory;
     private final LeaseService leaseService;
     private final ExternalIdReuseConditionProvider externalIdReuseConditionProvider;
@@ -254,7 +258,7 @@ public class Database extends LifecycleAdapter
     private RecoveryCleanupWorkCollector recoveryCleanupWorkCollector;
     private DatabaseAvailability databaseAvailability;
     private DatabaseTransactionEventListeners databaseTransactionEventListeners;
-    private IOController ioController;
+    private WriteAheadLogIOController ioController;
 
     public Database( DatabaseCreationContext context )
     {
@@ -300,7 +304,8 @@ public class Database extends LifecycleAdapter
         this.databaseAvailabilityGuard = context.getDatabaseAvailabilityGuardFactory().apply( availabilityGuardTimeout );
         this.databaseFacade = new GraphDatabaseFacade( this, databaseConfig, dbmsInfo, databaseAvailabilityGuard );
         this.kernelTransactionFactory = new FacadeKernelTransactionFactory( databaseConfig, databaseFacade );
-        this.tracers = new DatabaseTracers( context.getTracers() );
+        this.lockContentionProfiler = new LockContentionProfiler( databaseConfig, clock );
+        this.tracers = databaseTracers( context.getTracers(), lockContentionProfiler );
         this.fileLockerService = context.getFileLockerService();
         this.leaseService = context.getLeaseService();
         this.startupController = context.getStartupController();
@@ -322,7 +327,7 @@ public class Database extends LifecycleAdapter
         try
         {
             databaseDependencies = new Dependencies( globalDependencies );
-            ioController = ioControllerService.createIOController( databaseConfig, clock );
+            ioController = new WriteAheadLogIOController( ioControllerService.createIOController( databaseConfig, clock ) );
             databasePageCache = new DatabasePageCache( globalPageCache, ioController );
             databaseMonitors = new Monitors( parentMonitors, internalLogProvider );
 
@@ -358,6 +363,7 @@ public class Database extends LifecycleAdapter
             databaseDependencies.satisfyDependency( versionContextSupplier );
             databaseDependencies.satisfyDependency( tracers.getDatabaseTracer() );
             databaseDependencies.satisfyDependency( tracers.getPageCacheTracer() );
+            databaseDependencies.satisfyDependency( lockContentionProfiler );
             databaseDependencies.satisfyDependency( storageEngineFactory );
 
             recoveryCleanupWorkCollector = RecoveryCleanupWorkCollector.immediate();
@@ -441,6 +447,8 @@ public class Database extends LifecycleAdapter
             life.add( storageEngine );
             life.add( storageEngine.schemaAndTokensLifecycle() );
             life.add( logFiles );
+            // Store pages must not be written ahead of the transactions committed with relaxed durability that changed them
+            ioController.setLogFile( logFiles.getLogFile() );
 
             // Token indexes
             FullScanStoreView fullScanStoreView = new FullScanStoreView( lockService, storageEngine::newReader, databaseConfig, scheduler );
@@ -458,7 +466,7 @@ public class Database extends LifecycleAdapter
             versionContextSupplier.init( metadataProvider::getLastClosedTransactionId );
 
             CheckPointerImpl.ForceOperation forceOperation =
-                    new DefaultForceOperation( indexingService, storageEngine );
+                    new DefaultForceOperation( indexingService, storageEngine, logFiles );
             DatabaseTransactionLogModule transactionLogModule =
                     buildTransactionLogs( logFiles, databaseConfig, internalLogProvider, scheduler, forceOperation,
                             logEntryReader, metadataProvider, databaseMonitors, databaseDependencies );
@@ -498,6 +506,11 @@ public class Database extends LifecycleAdapter
 
             this.checkpointerLifecycle = new CheckpointerLifecycle( transactionLogModule.checkPointer(), databaseHealth, ioController );
 
+            if ( databaseConfig.get( GraphDatabaseInternalSettings.pagecache_warmer ) )
+            {
+                life.add( new PageCacheWarmer( fs, databasePageCache, scheduler, databaseLayout.databaseDirectory(), namedDatabaseId.name(), databaseConfig,
+                        internalLogProvider.getLog( PageCacheWarmer.class ), pageCacheTracer ) );
+            }
             life.add( onStart( this::registerUpgradeListener ) );
             life.add( databaseHealth );
             life.add( databaseAvailabilityGuard );
@@ -564,6 +577,7 @@ public class Database extends LifecycleAdapter
                 .withMemoryTracker( otherDatabaseMemoryTracker )
                 .withMonitors( databaseMonitors )
                 .withClock( clock )
+                .withJobScheduler( scheduler )
                 .withCommandReaderFactory( storageEngineFactory.commandReaderFactory() )
                 .build();
     }
@@ -1058,6 +1072,16 @@ public class Database extends LifecycleAdapter
         return started;
     }
 
+    private static DatabaseTracers databaseTracers( Tracers tracers, LockContentionProfiler lockContentionProfiler )
+    {
+        if ( !lockContentionProfiler.isEnabled() )
+        {
+            return new DatabaseTracers( tracers );
+        }
+        LockTracer lockTracer = tracers.getLockTracer().combine( lockContentionProfiler );
+        return new DatabaseTracers( tracers.getDatabaseTracer(), lockTracer, tracers.getPageCacheTracer() );
+    }
+
     private static void safeStorageEngineClose( StorageEngine storageEngine )
     {
         if ( storageEngine != null )
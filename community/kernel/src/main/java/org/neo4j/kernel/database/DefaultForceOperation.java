@@ -24,22 +24,28 @@ import java.io.IOException;
 import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.storageengine.api.StorageEngine;
 
 public class DefaultForceOperation implements CheckPointerImpl.ForceOperation
 {
     private final IndexingService indexingService;
     private final StorageEngine storageEngine;
+    private final LogFiles logFiles;
 
-    public DefaultForceOperation( IndexingService indexingService, StorageEngine storageEngine )
+    public DefaultForceOperation( IndexingService indexingService, StorageEngine storageEngine, LogFiles logFiles )
     {
         this.indexingService = indexingService;
         this.storageEngine = storageEngine;
+        this.logFiles = logFiles;
     }
 
     @Override
     public void flushAndForce( CursorContext cursorContext ) throws IOException
     {
+        // The check point about to be written covers transactions committed with relaxed durability as well,
+        // so those must be durable in the log before the store changes they made are
+        logFiles.getLogFile().forceRelaxedAppends();
         indexingService.forceAll( cursorContext );
         storageEngine.flushAndForce( cursorContext );
     }
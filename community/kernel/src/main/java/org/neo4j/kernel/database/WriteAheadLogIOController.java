@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.database;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.IOController;
+import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+
+/**
+ * {@link IOController} of a database, which makes sure that transactions committed with relaxed durability are forced
+ * to the transaction log before any store page that might contain their changes is written. All other calls are
+ * delegated to the {@link IOController} this one wraps.
+ */
+class WriteAheadLogIOController implements IOController
+{
+    private final IOController delegate;
+    private volatile LogFile logFile;
+
+    WriteAheadLogIOController( IOController delegate )
+    {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param logFile the transaction log file to force before writing store pages, or {@code null} for none.
+     */
+    void setLogFile( LogFile logFile )
+    {
+        this.logFile = logFile;
+    }
+
+    @Override
+    public void beforePageWrite() throws IOException
+    {
+        LogFile file = logFile;
+        if ( file != null )
+        {
+            file.forceRelaxedAppends();
+        }
+        delegate.beforePageWrite();
+    }
+
+    @Override
+    public void maybeLimitIO( int recentlyCompletedIOs, Flushable flushable, MajorFlushEvent flushEvent )
+    {
+        delegate.maybeLimitIO( recentlyCompletedIOs, flushable, flushEvent );
+    }
+
+    @Override
+    public void disable()
+    {
+        delegate.disable();
+    }
+
+    @Override
+    public void reportIO( int completedIOs )
+    {
+        delegate.reportIO( completedIOs );
+    }
+
+    @Override
+    public void enable()
+    {
+        delegate.enable();
+    }
+
+    @Override
+    public boolean isEnabled()
+    {
+        return delegate.isEnabled();
+    }
+}
@@ -204,6 +204,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private volatile ClientConnectionInfo clientInfo;
     private volatile int reuseCount;
     private volatile Map<String,Object> userMetaData;
+    private boolean relaxedDurability;
     private final AllStoreHolder allStoreHolder;
     private final Operations operations;
     private InternalTransaction internalTransaction;
@@ -501,6 +502,10 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     {
         assertOpen();
         this.userMetaData = data;
+        if ( data != null && data.containsKey( DURABILITY_META_DATA_KEY ) )
+        {
+            this.relaxedDurability = RELAXED_DURABILITY.equals( data.get( DURABILITY_META_DATA_KEY ) );
+        }
     }
 
     @Override
@@ -509,6 +514,13 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         return userMetaData;
     }
 
+    @Override
+    public void setRelaxedDurability( boolean relaxedDurability )
+    {
+        assertOpen();
+        this.relaxedDurability = relaxedDurability;
+    }
+
     @Override
     public KernelStatement acquireStatement()
     {
@@ -794,6 +806,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                     // Commit the transaction
                     success = true;
                     TransactionToApply batch = new TransactionToApply( transactionRepresentation, cursorContext );
+                    batch.relaxedDurability( relaxedDurability );
                     kernelTransactionMonitor.beforeApply();
                     txId = commitProcess.commit( batch, commitEvent, INTERNAL );
                     commitTime = timeCommitted;
@@ -1033,6 +1046,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             collectionsFactory.release();
             reuseCount++;
             userMetaData = emptyMap();
+            relaxedDurability = false;
             clientInfo = null;
             internalTransaction = null;
             userTransactionId = 0;
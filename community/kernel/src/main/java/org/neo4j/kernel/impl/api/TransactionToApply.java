@@ -70,6 +70,7 @@ public class TransactionToApply implements CommandsToApply, AutoCloseable
     private long transactionId;
     private final CursorContext cursorContext;
     private TransactionToApply nextTransactionInBatch;
+    private boolean relaxedDurability;
 
     // These fields are provided by commit process, storage engine, or recovery process
     private Commitment commitment;
@@ -97,6 +98,19 @@ public class TransactionToApply implements CommandsToApply, AutoCloseable
         nextTransactionInBatch = next;
     }
 
+    /**
+     * @param relaxedDurability whether or not this transaction may be considered committed before the log has been forced.
+     */
+    public void relaxedDurability( boolean relaxedDurability )
+    {
+        this.relaxedDurability = relaxedDurability;
+    }
+
+    public boolean relaxedDurability()
+    {
+        return relaxedDurability;
+    }
+
     public void publishAsCommitted()
     {
         commitment.publishAsCommitted( cursorContext );
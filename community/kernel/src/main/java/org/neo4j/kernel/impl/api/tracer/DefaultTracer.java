@@ -19,11 +19,13 @@
  */
 package org.neo4j.kernel.impl.api.tracer;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CompressCommandsEvent;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
@@ -43,12 +45,21 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FO
 public class DefaultTracer implements DatabaseTracer
 {
     private final AtomicLong appendedBytes = new AtomicLong();
+    private final AtomicLong commandBytesBeforeCompression = new AtomicLong();
+    private final AtomicLong commandBytesAfterCompression = new AtomicLong();
+    private final AtomicLong commandCompressionNanos = new AtomicLong();
 
     private final CountingLogRotateEvent countingLogRotateEvent = new CountingLogRotateEvent();
     private final LogFileCreateEvent logFileCreateEvent = () -> appendedBytes.addAndGet( CURRENT_FORMAT_LOG_HEADER_SIZE );
     private final CountingLogCheckPointEvent logCheckPointEvent = new CountingLogCheckPointEvent( this::appendLogBytes, countingLogRotateEvent );
     private final LogAppendEvent logAppendEvent = new DefaultLogAppendEvent();
     private final CommitEvent commitEvent = new DefaultCommitEvent();
+    private final CompressCommandsEvent compressCommandsEvent = ( uncompressedBytes, writtenBytes, compressionNanos ) ->
+    {
+        commandBytesBeforeCompression.addAndGet( uncompressedBytes );
+        commandBytesAfterCompression.addAndGet( writtenBytes );
+        commandCompressionNanos.addAndGet( compressionNanos );
+    };
     private final TransactionEvent transactionEvent = new DefaultTransactionEvent();
 
     public DefaultTracer()
@@ -86,6 +97,24 @@ public class DefaultTracer implements DatabaseTracer
         return countingLogRotateEvent.lastLogRotationTimeMillis();
     }
 
+    @Override
+    public long commandBytesBeforeCompression()
+    {
+        return commandBytesBeforeCompression.get();
+    }
+
+    @Override
+    public long commandBytesAfterCompression()
+    {
+        return commandBytesAfterCompression.get();
+    }
+
+    @Override
+    public long commandCompressionAccumulatedTotalTimeMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis( commandCompressionNanos.get() );
+    }
+
     @Override
     public long numberOfCheckPoints()
     {
@@ -125,6 +154,12 @@ public class DefaultTracer implements DatabaseTracer
         return logFileCreateEvent;
     }
 
+    @Override
+    public CompressCommandsEvent compressCommands()
+    {
+        return compressCommandsEvent;
+    }
+
     private class DefaultTransactionEvent implements TransactionEvent
     {
 
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.time.SystemNanoClock;
+
+/**
+ * A {@link LockTracer} that samples every lock wait of a database into a bounded ring buffer, overwriting the oldest samples when full.
+ * A sample records the resource waited upon, the waiting transaction, the transactions holding the lock when the wait started and the time
+ * spent waiting. The samples that ended within the configured window can be listed as they are, which gives the recent wait-for graph of
+ * the database, or aggregated per resource to find the most contended ones.
+ * <p>
+ * Only waits are sampled, so the profiler costs nothing for locks that are granted right away.
+ */
+public class LockContentionProfiler implements LockTracer
+{
+    private static final long[] NO_TRANSACTIONS = new long[0];
+
+    private final AtomicReferenceArray<LockWait> samples;
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final long windowMillis;
+    private final SystemNanoClock clock;
+
+    public LockContentionProfiler( Config config, SystemNanoClock clock )
+    {
+        this( config.get( GraphDatabaseInternalSettings.lock_contention_profiler_samples ),
+                config.get( GraphDatabaseInternalSettings.lock_contention_profiler_window ), clock );
+    }
+
+    public LockContentionProfiler( int capacity, Duration window, SystemNanoClock clock )
+    {
+        this.samples = new AtomicReferenceArray<>( capacity );
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * @return {@code true} if this profiler keeps any samples, otherwise there is no point in tracing lock waits with it.
+     */
+    public boolean isEnabled()
+    {
+        return samples.length() > 0;
+    }
+
+    @Override
+    public LockWaitEvent waitForLock( LockType lockType, ResourceType resourceType, long transactionId, long... resourceIds )
+    {
+        if ( !isEnabled() || resourceIds.length == 0 )
+        {
+            return LockWaitEvent.NONE;
+        }
+        return new SampledWait( lockType, resourceType, transactionId, resourceIds, clock.nanos() );
+    }
+
+    /**
+     * @return the sampled lock waits that ended within the configured window, most recent first.
+     */
+    public List<LockWait> recentWaits()
+    {
+        long oldestMillis = clock.millis() - windowMillis;
+        List<LockWait> waits = new ArrayList<>();
+        for ( int i = 0; i < samples.length(); i++ )
+        {
+            LockWait wait = samples.get( i );
+            if ( wait != null && wait.endMillis >= oldestMillis )
+            {
+                waits.add( wait );
+            }
+        }
+        waits.sort( Comparator.comparingLong( LockWait::endMillis ).reversed() );
+        return waits;
+    }
+
+    /**
+     * @param limit max number of resources to return.
+     * @return the resources waited upon within the configured window, ordered by the total time spent waiting for them, highest first.
+     */
+    public List<ContendedResource> mostContendedResources( int limit )
+    {
+        Map<ResourceType,MutableLongObjectMap<ContendedResource>> resources = new HashMap<>();
+        for ( LockWait wait : recentWaits() )
+        {
+            resources.computeIfAbsent( wait.resourceType, type -> new LongObjectHashMap<>() )
+                    .getIfAbsentPut( wait.resourceId, () -> new ContendedResource( wait.resourceType, wait.resourceId ) )
+                    .add( wait );
+        }
+        List<ContendedResource> result = new ArrayList<>();
+        resources.values().forEach( byId -> result.addAll( byId.values() ) );
+        result.sort( Comparator.comparingLong( ContendedResource::totalWaitNanos ).reversed() );
+        return result.size() > limit ? new ArrayList<>( result.subList( 0, limit ) ) : result;
+    }
+
+    private void sample( LockWait wait )
+    {
+        int slot = (int) (sampleCount.getAndIncrement() % samples.length());
+        samples.set( slot, wait );
+    }
+
+    private class SampledWait implements LockWaitEvent
+    {
+        private final LockType lockType;
+        private final ResourceType resourceType;
+        private final long transactionId;
+        private final long[] resourceIds;
+        private final long startNanos;
+        private long[] holderTransactionIds = NO_TRANSACTIONS;
+
+        SampledWait( LockType lockType, ResourceType resourceType, long transactionId, long[] resourceIds, long startNanos )
+        {
+            this.lockType = lockType;
+            this.resourceType = resourceType;
+            this.transactionId = transactionId;
+            this.resourceIds = resourceIds;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void blockedBy( LongSet holderTransactionIds )
+        {
+            this.holderTransactionIds = holderTransactionIds.reject( id -> id == transactionId ).toSortedArray();
+        }
+
+        @Override
+        public void close()
+        {
+            long waitNanos = clock.nanos() - startNanos;
+            long endMillis = clock.millis();
+            for ( long resourceId : resourceIds )
+            {
+                sample( new LockWait( lockType, resourceType, resourceId, transactionId, holderTransactionIds, waitNanos, endMillis ) );
+            }
+        }
+    }
+
+    /**
+     * A single sampled lock wait.
+     */
+    public static class LockWait
+    {
+        private final LockType lockType;
+        private final ResourceType resourceType;
+        private final long resourceId;
+        private final long waitingTransactionId;
+        private final long[] holderTransactionIds;
+        private final long waitNanos;
+        private final long endMillis;
+
+        LockWait( LockType lockType, ResourceType resourceType, long resourceId, long waitingTransactionId, long[] holderTransactionIds,
+                long waitNanos, long endMillis )
+        {
+            this.lockType = lockType;
+            this.resourceType = resourceType;
+            this.resourceId = resourceId;
+            this.waitingTransactionId = waitingTransactionId;
+            this.holderTransactionIds = holderTransactionIds;
+            this.waitNanos = waitNanos;
+            this.endMillis = endMillis;
+        }
+
+        public LockType lockType()
+        {
+            return lockType;
+        }
+
+        public ResourceType resourceType()
+        {
+            return resourceType;
+        }
+
+        public long resourceId()
+        {
+            return resourceId;
+        }
+
+        public long waitingTransactionId()
+        {
+            return waitingTransactionId;
+        }
+
+        /**
+         * @return ids of the transactions that held the lock when the wait started, empty if the lock manager doesn't report them.
+         */
+        public long[] holderTransactionIds()
+        {
+            return holderTransactionIds.clone();
+        }
+
+        public long waitNanos()
+        {
+            return waitNanos;
+        }
+
+        public long endMillis()
+        {
+            return endMillis;
+        }
+    }
+
+    /**
+     * The lock waits on a single resource, aggregated over the configured window.
+     */
+    public static class ContendedResource
+    {
+        private final ResourceType resourceType;
+        private final long resourceId;
+        private final MutableLongSet waitingTransactionIds = new LongHashSet();
+        private final MutableLongSet holderTransactionIds = new LongHashSet();
+        private long waits;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+
+        ContendedResource( ResourceType resourceType, long resourceId )
+        {
+            this.resourceType = resourceType;
+            this.resourceId = resourceId;
+        }
+
+        private void add( LockWait wait )
+        {
+            waits++;
+            totalWaitNanos += wait.waitNanos;
+            maxWaitNanos = Math.max( maxWaitNanos, wait.waitNanos );
+            waitingTransactionIds.add( wait.waitingTransactionId );
+            holderTransactionIds.addAll( wait.holderTransactionIds );
+        }
+
+        public ResourceType resourceType()
+        {
+            return resourceType;
+        }
+
+        public long resourceId()
+        {
+            return resourceId;
+        }
+
+        public long waits()
+        {
+            return waits;
+        }
+
+        public long totalWaitNanos()
+        {
+            return totalWaitNanos;
+        }
+
+        public long maxWaitNanos()
+        {
+            return maxWaitNanos;
+        }
+
+        public long[] waitingTransactionIds()
+        {
+            return waitingTransactionIds.toSortedArray();
+        }
+
+        public long[] holderTransactionIds()
+        {
+            return holderTransactionIds.toSortedArray();
+        }
+    }
+}
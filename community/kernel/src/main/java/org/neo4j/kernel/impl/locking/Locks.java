@@ -24,6 +24,7 @@ import org.neo4j.kernel.impl.api.LeaseClient;
 import org.neo4j.lock.LockType;
 import org.neo4j.lock.ResourceLocker;
 import org.neo4j.lock.ResourceType;
+import org.neo4j.lock.WaitStrategy;
 import org.neo4j.memory.MemoryTracker;
 
 /**
@@ -119,6 +120,14 @@ public interface Locks
     /** Visit all held locks. */
     void accept( Visitor visitor );
 
+    /**
+     * @return the strategy that clients wait for locks of the given type with, or {@code null} if this lock manager doesn't wait with one.
+     */
+    default WaitStrategy waitStrategy( ResourceType resourceType )
+    {
+        return null;
+    }
+
     void close();
 
     /** An implementation that doesn't do any locking **/
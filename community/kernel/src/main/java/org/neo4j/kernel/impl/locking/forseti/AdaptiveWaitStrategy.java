@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.lock.AcquireLockTimeoutException;
+import org.neo4j.lock.LockWaitStrategies;
+import org.neo4j.lock.WaitStrategy;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.Interrupted;
+
+/**
+ * A {@link WaitStrategy} for the locks of one resource type, which picks how to wait from how long waits for such locks recently took:
+ * <ul>
+ *     <li>If most waits ended within {@link #SPIN_THRESHOLD_NANOS}, it spins for up to {@link #MAX_SPIN_ITERATIONS} iterations,
+ *     like {@link LockWaitStrategies#INCREMENTAL_BACKOFF} does, since parking would add more latency than the wait itself.</li>
+ *     <li>Otherwise it only spins briefly, then yields as long as the waits are expected to be shorter than {@link #YIELD_THRESHOLD_NANOS}
+ *     and finally parks for a fraction of the expected wait, so that long held locks don't burn CPU.</li>
+ * </ul>
+ * Completed waits are recorded in a histogram of power of two buckets, which is halved every {@link #DECAY_INTERVAL} waits so that old waits
+ * weigh less and less, and the expected wait is the median of that histogram. The waits that ended while spinning, along with the park
+ * latency they avoided, and the spin iterations of waits that had to yield or park anyway are counted, to tell whether spinning pays off.
+ */
+public final class AdaptiveWaitStrategy implements WaitStrategy
+{
+    static final long SPIN_THRESHOLD_NANOS = MICROSECONDS.toNanos( 50 );
+    static final long YIELD_THRESHOLD_NANOS = MILLISECONDS.toNanos( 1 );
+    static final int MAX_SPIN_ITERATIONS = 1000;
+    static final int MIN_SPIN_ITERATIONS = 10;
+    static final int MAX_YIELD_ITERATIONS = 100;
+    static final long MIN_PARK_NANOS = MICROSECONDS.toNanos( 1 );
+    static final long MAX_PARK_NANOS = MICROSECONDS.toNanos( 500 );
+    static final int DECAY_INTERVAL = 1024;
+    private static final int ESTIMATE_INTERVAL = 16;
+    private static final long INITIAL_PARK_LATENCY_NANOS = MICROSECONDS.toNanos( 50 );
+
+    private final AtomicLongArray histogram = new AtomicLongArray( Long.SIZE );
+    private final AtomicLong waits = new AtomicLong();
+    private final LongAdder spinningWaits = new LongAdder();
+    private final LongAdder savedLatencyNanos = new LongAdder();
+    private final LongAdder wastedSpinIterations = new LongAdder();
+    private volatile long expectedWaitNanos;
+    private volatile long parkLatencyNanos = INITIAL_PARK_LATENCY_NANOS;
+
+    @Override
+    public void apply( long iteration ) throws AcquireLockTimeoutException
+    {
+        long expectedWait = expectedWaitNanos;
+        int spinIterations = spinIterations( expectedWait );
+        if ( iteration < spinIterations )
+        {
+            Thread.onSpinWait();
+        }
+        else if ( expectedWait < YIELD_THRESHOLD_NANOS && iteration < spinIterations + MAX_YIELD_ITERATIONS )
+        {
+            Thread.yield();
+        }
+        else
+        {
+            park( Math.min( Math.max( expectedWait / 8, MIN_PARK_NANOS ), MAX_PARK_NANOS ) );
+        }
+    }
+
+    @Override
+    public void waitEnded( long iterations, long waitNanos )
+    {
+        int spinIterations = spinIterations( expectedWaitNanos );
+        if ( iterations <= spinIterations )
+        {
+            spinningWaits.increment();
+            savedLatencyNanos.add( parkLatencyNanos );
+        }
+        else
+        {
+            wastedSpinIterations.add( spinIterations );
+        }
+        record( waitNanos );
+    }
+
+    /**
+     * @return the median of the recently observed waits, rounded down to a power of two.
+     */
+    public long expectedWaitNanos()
+    {
+        return expectedWaitNanos;
+    }
+
+    /**
+     * @return number of waits that ended while spinning.
+     */
+    public long spinningWaits()
+    {
+        return spinningWaits.sum();
+    }
+
+    /**
+     * @return estimate of the latency that waits ending while spinning would have added if they had parked instead.
+     */
+    public long savedLatencyNanos()
+    {
+        return savedLatencyNanos.sum();
+    }
+
+    /**
+     * @return number of spin iterations of waits that had to yield or park anyway.
+     */
+    public long wastedSpinIterations()
+    {
+        return wastedSpinIterations.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "AdaptiveWaitStrategy[expectedWait=%dns, spinningWaits=%d, savedLatency=%dns, wastedSpinIterations=%d]",
+                expectedWaitNanos(), spinningWaits(), savedLatencyNanos(), wastedSpinIterations() );
+    }
+
+    private static int spinIterations( long expectedWait )
+    {
+        return expectedWait <= SPIN_THRESHOLD_NANOS ? MAX_SPIN_ITERATIONS : MIN_SPIN_ITERATIONS;
+    }
+
+    private void park( long nanos ) throws AcquireLockTimeoutException
+    {
+        long start = System.nanoTime();
+        LockSupport.parkNanos( nanos );
+        long overshoot = System.nanoTime() - start - nanos;
+        if ( overshoot > 0 )
+        {
+            // A racy moving average is good enough for an estimate
+            parkLatencyNanos = (parkLatencyNanos * 7 + overshoot) / 8;
+        }
+        if ( Thread.interrupted() )
+        {
+            throw new AcquireLockTimeoutException( "Interrupted while waiting.", Interrupted );
+        }
+    }
+
+    private void record( long waitNanos )
+    {
+        histogram.incrementAndGet( Long.SIZE - 1 - Long.numberOfLeadingZeros( Math.max( waitNanos, 1 ) ) );
+        long count = waits.incrementAndGet();
+        if ( count % DECAY_INTERVAL == 0 )
+        {
+            for ( int bucket = 0; bucket < histogram.length(); bucket++ )
+            {
+                histogram.getAndUpdate( bucket, value -> value >>> 1 );
+            }
+        }
+        if ( count <= ESTIMATE_INTERVAL || count % ESTIMATE_INTERVAL == 0 )
+        {
+            expectedWaitNanos = median();
+        }
+    }
+
+    private long median()
+    {
+        long total = 0;
+        for ( int bucket = 0; bucket < histogram.length(); bucket++ )
+        {
+            total += histogram.get( bucket );
+        }
+        long remaining = (total + 1) / 2;
+        for ( int bucket = 0; bucket < histogram.length(); bucket++ )
+        {
+            remaining -= histogram.get( bucket );
+            if ( remaining <= 0 )
+            {
+                return 1L << bucket;
+            }
+        }
+        return 0;
+    }
+}
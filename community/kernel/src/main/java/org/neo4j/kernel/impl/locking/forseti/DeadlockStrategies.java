@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.locking.forseti;
 
+import org.neo4j.kernel.impl.locking.forseti.ForsetiLockManager.DeadlockParticipant;
+
 public enum DeadlockStrategies implements ForsetiLockManager.DeadlockResolutionStrategy
 {
     /**
@@ -33,7 +35,7 @@ public enum DeadlockStrategies implements ForsetiLockManager.DeadlockResolutionS
     ABORT_YOUNG
             {
                 @Override
-                public boolean shouldAbort( ForsetiClient clientThatsAsking, ForsetiClient clientWereDeadlockedWith )
+                public boolean shouldAbort( DeadlockParticipant clientThatsAsking, DeadlockParticipant clientWereDeadlockedWith )
                 {
                     if ( isSameClient( clientThatsAsking, clientWereDeadlockedWith ) )
                     {
@@ -68,7 +70,7 @@ public enum DeadlockStrategies implements ForsetiLockManager.DeadlockResolutionS
     ABORT_OLD
             {
                 @Override
-                public boolean shouldAbort( ForsetiClient clientThatsAsking, ForsetiClient clientWereDeadlockedWith )
+                public boolean shouldAbort( DeadlockParticipant clientThatsAsking, DeadlockParticipant clientWereDeadlockedWith )
                 {
                     if ( isSameClient( clientThatsAsking, clientWereDeadlockedWith ) )
                     {
@@ -86,7 +88,7 @@ public enum DeadlockStrategies implements ForsetiLockManager.DeadlockResolutionS
     ABORT_SHORT_WAIT_LIST
             {
                 @Override
-                public boolean shouldAbort( ForsetiClient clientThatsAsking, ForsetiClient clientWereDeadlockedWith )
+                public boolean shouldAbort( DeadlockParticipant clientThatsAsking, DeadlockParticipant clientWereDeadlockedWith )
                 {
                     if ( isSameClient( clientThatsAsking, clientWereDeadlockedWith ) )
                     {
@@ -119,7 +121,7 @@ public enum DeadlockStrategies implements ForsetiLockManager.DeadlockResolutionS
     ABORT_LONG_WAIT_LIST
             {
                 @Override
-                public boolean shouldAbort( ForsetiClient clientThatsAsking, ForsetiClient clientWereDeadlockedWith )
+                public boolean shouldAbort( DeadlockParticipant clientThatsAsking, DeadlockParticipant clientWereDeadlockedWith )
                 {
                     if ( isSameClient( clientThatsAsking, clientWereDeadlockedWith ) )
                     {
@@ -130,9 +132,9 @@ public enum DeadlockStrategies implements ForsetiLockManager.DeadlockResolutionS
             };
 
     @Override
-    public abstract boolean shouldAbort( ForsetiClient clientThatsAsking, ForsetiClient clientWereDeadlockedWith );
+    public abstract boolean shouldAbort( DeadlockParticipant clientThatsAsking, DeadlockParticipant clientWereDeadlockedWith );
 
-    private static boolean isSameClient( ForsetiClient a, ForsetiClient b )
+    private static boolean isSameClient( DeadlockParticipant a, DeadlockParticipant b )
     {
         // This should never happen, but as a safety net, guard against bugs
         // where a client thinks it's deadlocked with itself.
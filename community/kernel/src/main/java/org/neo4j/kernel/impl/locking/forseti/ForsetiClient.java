@@ -45,6 +45,7 @@ import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
 import org.neo4j.kernel.impl.locking.LockClientStateHolder;
 import org.neo4j.kernel.impl.locking.LockClientStoppedException;
 import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.forseti.ForsetiLockManager.DeadlockParticipant;
 import org.neo4j.kernel.impl.locking.forseti.ForsetiLockManager.DeadlockResolutionStrategy;
 import org.neo4j.kernel.impl.util.collection.SimpleBitSet;
 import org.neo4j.lock.AcquireLockTimeoutException;
@@ -76,7 +77,7 @@ import static org.neo4j.lock.LockType.SHARED;
  * the
  * global lock manager.
  */
-public class ForsetiClient implements Locks.Client
+public class ForsetiClient implements Locks.Client, DeadlockParticipant
 {
     static final int NO_CLIENT_ID = -1;
     /** Id for this client */
@@ -283,11 +284,14 @@ public class ForsetiClient implements Locks.Client
                     if ( waitEvent == null )
                     {
                         waitEvent = tracer.waitForLock( SHARED, resourceType, userTransactionId, resourceId );
+                        reportHolders( waitEvent, existingLock );
                     }
                     // And take note of who we are waiting for. This is used for deadlock detection.
                     waitFor( existingLock, resourceType, resourceId, tries++ );
                 }
 
+                waitEnded( resourceType, tries, waitStartNano );
+
                 // Make a local note about the fact that we now hold this lock
                 heldShareLocks.put( resourceId, 1 );
                 memoryTracker.allocateHeap( CONCURRENT_NODE_SIZE );
@@ -305,6 +309,14 @@ public class ForsetiClient implements Locks.Client
         }
     }
 
+    private void waitEnded( ResourceType type, int tries, long waitStartNano )
+    {
+        if ( tries > 0 )
+        {
+            waitStrategies[type.typeId()].waitEnded( tries, clock.nanos() - waitStartNano );
+        }
+    }
+
     private HeapTrackingLongIntHashMap getSharedLockCount( ResourceType resourceType )
     {
         HeapTrackingLongIntHashMap sharedLockCount = sharedLockCounts[resourceType.typeId()];
@@ -378,10 +390,12 @@ public class ForsetiClient implements Locks.Client
                     if ( waitEvent == null )
                     {
                         waitEvent = tracer.waitForLock( EXCLUSIVE, resourceType, userTransactionId, resourceId );
+                        reportHolders( waitEvent, existingLock );
                     }
                     waitFor( existingLock, resourceType, resourceId, tries++ );
                 }
 
+                waitEnded( resourceType, tries, waitStartNano );
                 heldLocks.put( resourceId, 1 );
                 if ( !upgraded )
                 {
@@ -764,7 +778,8 @@ public class ForsetiClient implements Locks.Client
         return count;
     }
 
-    int waitListSize()
+    @Override
+    public int waitListSize()
     {
         return waitList.size();
     }
@@ -913,6 +928,7 @@ public class ForsetiClient implements Locks.Client
                     if ( waitEvent == null && priorEvent == null )
                     {
                         waitEvent = tracer.waitForLock( EXCLUSIVE, resourceType, userTransactionId, resourceId );
+                        reportHolders( waitEvent, sharedLock );
                     }
                     waitFor( sharedLock, resourceType, resourceId, tries++ );
                 }
@@ -1027,6 +1043,15 @@ public class ForsetiClient implements Locks.Client
         return false;
     }
 
+    private static void reportHolders( LockWaitEvent waitEvent, ForsetiLockManager.Lock lock )
+    {
+        // Collecting the holders allocates, so only do it when the wait is traced
+        if ( waitEvent != LockWaitEvent.NONE )
+        {
+            waitEvent.blockedBy( lock.transactionIds() );
+        }
+    }
+
     private static void collectNextOwners( Set<ForsetiLockManager.Lock> waitedUpon, Set<ForsetiClient> owners, Set<ForsetiLockManager.Lock> nextWaitedUpon,
             Set<ForsetiClient> nextOwners )
     {
@@ -1064,6 +1089,7 @@ public class ForsetiClient implements Locks.Client
         return sb.toString();
     }
 
+    @Override
     public int id()
     {
         return clientId;
@@ -40,6 +40,7 @@ import org.neo4j.lock.ResourceType;
 import org.neo4j.lock.WaitStrategy;
 import org.neo4j.time.SystemNanoClock;
 
+import static org.neo4j.kernel.impl.locking.forseti.LockingInternalSettings.adaptive_lock_wait_strategy;
 import static org.neo4j.kernel.impl.locking.forseti.LockingInternalSettings.forseti_deadlock_resolution_strategy;
 
 /**
@@ -197,7 +198,22 @@ public class ForsetiLockManager implements Locks
          * @return true to make {@code clientThatsAsking} abort, false to take no action, but wait to be called again
          * from the perspective of the other client.
          */
-        boolean shouldAbort( ForsetiClient clientThatsAsking, ForsetiClient clientWereDeadlockedWith );
+        boolean shouldAbort( DeadlockParticipant clientThatsAsking, DeadlockParticipant clientWereDeadlockedWith );
+    }
+
+    /**
+     * The view of a lock client that a {@link DeadlockResolutionStrategy} bases its decision on.
+     */
+    interface DeadlockParticipant
+    {
+        int id();
+
+        long activeLockCount();
+
+        /**
+         * @return the number of clients in the wait list of this client, including the client itself.
+         */
+        int waitListSize();
     }
 
     /** Pointers to lock maps, one array per resource type. */
@@ -209,6 +225,9 @@ public class ForsetiLockManager implements Locks
     /** Pool forseti clients. */
     private final Pool<ForsetiClient> clientPool;
 
+    /** Wait strategies per resource type */
+    private final WaitStrategy[] waitStrategies;
+
     private volatile boolean closed;
 
     @SuppressWarnings( "unchecked" )
@@ -218,13 +237,12 @@ public class ForsetiLockManager implements Locks
         this.lockMaps = new ConcurrentMap[maxResourceId];
         this.resourceTypes = new ResourceType[maxResourceId];
 
-        /* Wait strategies per resource type */
-        WaitStrategy[] waitStrategies = new WaitStrategy[maxResourceId];
+        this.waitStrategies = new WaitStrategy[maxResourceId];
 
         for ( ResourceType type : resourceTypes )
         {
             this.lockMaps[type.typeId()] = new ConcurrentHashMap<>( 16, 0.6f, 512 );
-            waitStrategies[type.typeId()] = type.waitStrategy();
+            waitStrategies[type.typeId()] = newWaitStrategy( config, type );
             this.resourceTypes[type.typeId()] = type;
         }
         // TODO Using a FlyweightPool here might still be more than what we actually need.
@@ -235,6 +253,12 @@ public class ForsetiLockManager implements Locks
         clientPool = new ForsetiClientFlyweightPool( config, clock, lockMaps, waitStrategies );
     }
 
+    @Override
+    public WaitStrategy waitStrategy( ResourceType resourceType )
+    {
+        return waitStrategies[resourceType.typeId()];
+    }
+
     /**
      * Create a new client to use to grab and release locks.
      */
@@ -274,6 +298,11 @@ public class ForsetiLockManager implements Locks
         }
     }
 
+    static WaitStrategy newWaitStrategy( Config config, ResourceType resourceType )
+    {
+        return config.get( adaptive_lock_wait_strategy ) ? new AdaptiveWaitStrategy() : resourceType.waitStrategy();
+    }
+
     private static int findMaxResourceId( ResourceType[] resourceTypes )
     {
         int max = 0;
@@ -30,6 +30,7 @@ import org.neo4j.time.SystemNanoClock;
 public class ForsetiLocksFactory implements LocksFactory
 {
     public static final String FORSETI_LOCKS_NAME = "forseti";
+    static final int PRIORITY = 10;
 
     @Override
     public String getName()
@@ -40,7 +41,7 @@ public class ForsetiLocksFactory implements LocksFactory
     @Override
     public int getPriority()
     {
-        return 10;
+        return PRIORITY;
     }
 
     @Override
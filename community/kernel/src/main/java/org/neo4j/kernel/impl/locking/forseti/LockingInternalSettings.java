@@ -20,11 +20,16 @@
 package org.neo4j.kernel.impl.locking.forseti;
 
 import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.configuration.Description;
 import org.neo4j.configuration.Internal;
 import org.neo4j.configuration.SettingsDeclaration;
 import org.neo4j.graphdb.config.Setting;
 
+import static org.neo4j.configuration.SettingConstraints.POWER_OF_2;
+import static org.neo4j.configuration.SettingConstraints.range;
 import static org.neo4j.configuration.SettingImpl.newBuilder;
+import static org.neo4j.configuration.SettingValueParsers.BOOL;
+import static org.neo4j.configuration.SettingValueParsers.LONG;
 import static org.neo4j.configuration.SettingValueParsers.ofEnum;
 
 @ServiceProvider
@@ -34,4 +39,17 @@ public class LockingInternalSettings implements SettingsDeclaration
     public static final Setting<DeadlockStrategies> forseti_deadlock_resolution_strategy =
             newBuilder( "unsupported.dbms.locks.forseti_deadlock_resolution_strategy", ofEnum( DeadlockStrategies.class ),
                     DeadlockStrategies.ABORT_YOUNG ).build();
+
+    @Internal
+    @Description( "Number of stripes of the lock table of every resource type in the off heap lock manager. " +
+            "More stripes means less contention between transactions locking different resources." )
+    public static final Setting<Long> off_heap_lock_table_stripes =
+            newBuilder( "unsupported.dbms.locks.off_heap_lock_table_stripes", LONG, 64L )
+                    .addConstraint( POWER_OF_2 ).addConstraint( range( 1L, 65536L ) ).build();
+
+    @Internal
+    @Description( "Let the lock managers adapt how they wait for the locks of every resource type to how long recent waits took, " +
+            "spinning when waits are short and parking when they are long, instead of using the static wait strategy of the resource type." )
+    public static final Setting<Boolean> adaptive_lock_wait_strategy =
+            newBuilder( "unsupported.dbms.locks.adaptive_wait_strategy", BOOL, false ).build();
 }
@@ -0,0 +1,922 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import org.eclipse.collections.api.block.procedure.primitive.LongProcedure;
+import org.eclipse.collections.api.iterator.IntIterator;
+import org.eclipse.collections.api.map.primitive.LongIntMap;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+import org.neo4j.collection.pool.Pool;
+import org.neo4j.collection.trackable.HeapTrackingCollections;
+import org.neo4j.collection.trackable.HeapTrackingLongIntHashMap;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.api.LeaseClient;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.forseti.ForsetiLockManager.DeadlockParticipant;
+import org.neo4j.kernel.impl.locking.forseti.ForsetiLockManager.DeadlockResolutionStrategy;
+import org.neo4j.kernel.impl.util.collection.SimpleBitSet;
+import org.neo4j.lock.AcquireLockTimeoutException;
+import org.neo4j.lock.ActiveLock;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.lock.WaitStrategy;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.time.SystemNanoClock;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
+
+/**
+ * Client of the {@link OffHeapLockManager}. Like the {@link ForsetiClient} it tracks the locks it holds in local maps, and only
+ * goes to the global lock tables the first time it takes a lock and the last time it releases it. Waiting clients detect
+ * deadlocks the same way as Forseti clients do, where the holders of a lock are looked up by their ids in the lock tables.
+ */
+public class OffHeapLockClient implements Locks.Client, DeadlockParticipant
+{
+    private static final int NO_CLIENT_ID = ForsetiClient.NO_CLIENT_ID;
+    /** Number of tries before an exclusive lock is claimed, rather than waited for, to not starve readers. */
+    private static final int EXCLUSIVE_CLAIM_GRACE_TRIES = 50;
+
+    private final int clientId;
+
+    /** resourceType -> lock table, shared across all clients. */
+    private final OffHeapLockTable[] lockTables;
+    private final WaitStrategy[] waitStrategies;
+    private final DeadlockResolutionStrategy deadlockResolutionStrategy;
+    private final Pool<OffHeapLockClient> clientPool;
+    private final IntFunction<OffHeapLockClient> clientById;
+
+    /** Array[ resourceType -> Map( resourceId -> num locks ) ] */
+    private final HeapTrackingLongIntHashMap[] sharedLockCounts;
+
+    /** @see #sharedLockCounts */
+    private final HeapTrackingLongIntHashMap[] exclusiveLockCounts;
+
+    private long lockAcquisitionTimeoutNano;
+
+    private final SystemNanoClock clock;
+    private final boolean verboseDeadlocks;
+
+    /** List of other clients this client is waiting for. */
+    private final SimpleBitSet waitList = new SimpleBitSet( 64 );
+    private long waitListCheckPoint;
+    /** Scratch space for the holders of the lock this client waits for. */
+    private final MutableIntSet lockHolders = new IntHashSet();
+
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+
+    private volatile boolean hasLocks;
+
+    private final ReleaseExclusiveLocksAndClearSharedVisitor releaseExclusiveAndClearSharedVisitor =
+            new ReleaseExclusiveLocksAndClearSharedVisitor();
+    private final ReleaseSharedDontCheckExclusiveVisitor releaseSharedDontCheckExclusiveVisitor =
+            new ReleaseSharedDontCheckExclusiveVisitor();
+
+    /**
+     * The lock this client waits for, if any, used for the secondary deadlock verification.
+     */
+    private volatile WaitedUponLock waitingForLock;
+    private volatile long userTransactionId;
+    private volatile MemoryTracker memoryTracker;
+
+    public OffHeapLockClient( int id, OffHeapLockTable[] lockTables, WaitStrategy[] waitStrategies, Pool<OffHeapLockClient> clientPool,
+            DeadlockResolutionStrategy deadlockResolutionStrategy, IntFunction<OffHeapLockClient> clientById, SystemNanoClock clock,
+            boolean verboseDeadlocks )
+    {
+        this.clientId = id;
+        this.lockTables = lockTables;
+        this.waitStrategies = waitStrategies;
+        this.deadlockResolutionStrategy = deadlockResolutionStrategy;
+        this.clientPool = clientPool;
+        this.clientById = clientById;
+        this.sharedLockCounts = new HeapTrackingLongIntHashMap[lockTables.length];
+        this.exclusiveLockCounts = new HeapTrackingLongIntHashMap[lockTables.length];
+        this.clock = clock;
+        this.verboseDeadlocks = verboseDeadlocks;
+    }
+
+    /**
+     * Reset current client state. Make it ready for next bunch of operations.
+     */
+    public void reset()
+    {
+        stateHolder.reset();
+    }
+
+    @Override
+    public void initialize( LeaseClient leaseClient, long transactionId, MemoryTracker memoryTracker, Config config )
+    {
+        this.userTransactionId = transactionId;
+        this.memoryTracker = requireNonNull( memoryTracker );
+        this.lockAcquisitionTimeoutNano = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toNanos();
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds ) throws AcquireLockTimeoutException
+    {
+        hasLocks = true;
+        stateHolder.incrementActiveClients( this );
+        LockWaitEvent waitEvent = null;
+
+        try
+        {
+            OffHeapLockTable lockTable = lockTables[resourceType.typeId()];
+            HeapTrackingLongIntHashMap heldShareLocks = getSharedLockCount( resourceType );
+            HeapTrackingLongIntHashMap heldExclusiveLocks = getExclusiveLockCount( resourceType );
+
+            for ( long resourceId : resourceIds )
+            {
+                int heldCount = heldShareLocks.getIfAbsent( resourceId, NO_CLIENT_ID );
+                if ( heldCount != NO_CLIENT_ID )
+                {
+                    heldShareLocks.put( resourceId, Math.incrementExact( heldCount ) );
+                    continue;
+                }
+
+                if ( heldExclusiveLocks.containsKey( resourceId ) )
+                {
+                    // The exclusive lock is downgraded to this shared lock when it is released
+                    heldShareLocks.put( resourceId, 1 );
+                    continue;
+                }
+
+                int tries = 0;
+                long waitStartNano = clock.nanos();
+                while ( !lockTable.tryAcquireShared( resourceId, clientId ) )
+                {
+                    assertValid( waitStartNano, resourceType, resourceId );
+                    if ( waitEvent == null )
+                    {
+                        waitEvent = tracer.waitForLock( SHARED, resourceType, userTransactionId, resourceId );
+                        reportHolders( waitEvent, resourceType, resourceId );
+                    }
+                    waitFor( resourceType, resourceId, tries++ );
+                }
+
+                waitEnded( resourceType, tries, waitStartNano );
+                heldShareLocks.put( resourceId, 1 );
+            }
+        }
+        finally
+        {
+            if ( waitEvent != null )
+            {
+                waitEvent.close();
+            }
+            clearWaitList();
+            waitingForLock = null;
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds ) throws AcquireLockTimeoutException
+    {
+        hasLocks = true;
+        stateHolder.incrementActiveClients( this );
+        LockWaitEvent waitEvent = null;
+
+        try
+        {
+            OffHeapLockTable lockTable = lockTables[resourceType.typeId()];
+            HeapTrackingLongIntHashMap heldLocks = getExclusiveLockCount( resourceType );
+            HeapTrackingLongIntHashMap heldShareLocks = getSharedLockCount( resourceType );
+
+            for ( long resourceId : resourceIds )
+            {
+                int heldCount = heldLocks.getIfAbsent( resourceId, NO_CLIENT_ID );
+                if ( heldCount != NO_CLIENT_ID )
+                {
+                    heldLocks.put( resourceId, Math.incrementExact( heldCount ) );
+                    continue;
+                }
+
+                boolean holdsShared = heldShareLocks.containsKey( resourceId );
+                boolean tookShared = false;
+                int tries = 0;
+                long waitStartNano = clock.nanos();
+                try
+                {
+                    while ( true )
+                    {
+                        if ( holdsShared || tookShared )
+                        {
+                            if ( lockTable.tryUpgradeToExclusive( resourceId, clientId, tries > EXCLUSIVE_CLAIM_GRACE_TRIES ) )
+                            {
+                                break;
+                            }
+                        }
+                        else if ( lockTable.tryAcquireExclusive( resourceId, clientId ) )
+                        {
+                            break;
+                        }
+                        else if ( tries > EXCLUSIVE_CLAIM_GRACE_TRIES && lockTable.tryAcquireShared( resourceId, clientId ) )
+                        {
+                            // Join the shared holders, to be able to claim the lock exclusively
+                            tookShared = true;
+                            continue;
+                        }
+
+                        assertValid( waitStartNano, resourceType, resourceId );
+                        if ( waitEvent == null )
+                        {
+                            waitEvent = tracer.waitForLock( EXCLUSIVE, resourceType, userTransactionId, resourceId );
+                            reportHolders( waitEvent, resourceType, resourceId );
+                        }
+                        waitFor( resourceType, resourceId, tries++ );
+                    }
+                }
+                catch ( Throwable e )
+                {
+                    if ( holdsShared || tookShared )
+                    {
+                        lockTable.abandonExclusiveClaim( resourceId, clientId );
+                    }
+                    if ( tookShared )
+                    {
+                        lockTable.releaseShared( resourceId, clientId );
+                    }
+                    throw e;
+                }
+
+                waitEnded( resourceType, tries, waitStartNano );
+                heldLocks.put( resourceId, 1 );
+            }
+        }
+        finally
+        {
+            if ( waitEvent != null )
+            {
+                waitEvent.close();
+            }
+            clearWaitList();
+            waitingForLock = null;
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        hasLocks = true;
+        stateHolder.incrementActiveClients( this );
+
+        try
+        {
+            OffHeapLockTable lockTable = lockTables[resourceType.typeId()];
+            HeapTrackingLongIntHashMap heldLocks = getExclusiveLockCount( resourceType );
+
+            int heldCount = heldLocks.getIfAbsent( resourceId, NO_CLIENT_ID );
+            if ( heldCount != NO_CLIENT_ID )
+            {
+                heldLocks.put( resourceId, Math.incrementExact( heldCount ) );
+                return true;
+            }
+
+            boolean acquired = getSharedLockCount( resourceType ).containsKey( resourceId )
+                               ? lockTable.tryUpgradeToExclusive( resourceId, clientId, false )
+                               : lockTable.tryAcquireExclusive( resourceId, clientId );
+            if ( acquired )
+            {
+                heldLocks.put( resourceId, 1 );
+            }
+            return acquired;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        hasLocks = true;
+        stateHolder.incrementActiveClients( this );
+
+        try
+        {
+            HeapTrackingLongIntHashMap heldShareLocks = getSharedLockCount( resourceType );
+
+            int heldCount = heldShareLocks.getIfAbsent( resourceId, NO_CLIENT_ID );
+            if ( heldCount != NO_CLIENT_ID )
+            {
+                heldShareLocks.put( resourceId, Math.incrementExact( heldCount ) );
+                return true;
+            }
+
+            if ( getExclusiveLockCount( resourceType ).containsKey( resourceId ) ||
+                 lockTables[resourceType.typeId()].tryAcquireShared( resourceId, clientId ) )
+            {
+                heldShareLocks.put( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+
+        try
+        {
+            HeapTrackingLongIntHashMap sharedLocks = getSharedLockCount( resourceType );
+            HeapTrackingLongIntHashMap exclusiveLocks = getExclusiveLockCount( resourceType );
+            OffHeapLockTable lockTable = lockTables[resourceType.typeId()];
+            for ( long resourceId : resourceIds )
+            {
+                if ( releaseLocalLock( resourceType, resourceId, sharedLocks ) )
+                {
+                    continue;
+                }
+                // Only release if we were not holding an exclusive lock as well
+                if ( !exclusiveLocks.containsKey( resourceId ) )
+                {
+                    lockTable.releaseShared( resourceId, clientId );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+
+        try
+        {
+            HeapTrackingLongIntHashMap exclusiveLocks = getExclusiveLockCount( resourceType );
+            HeapTrackingLongIntHashMap sharedLocks = getSharedLockCount( resourceType );
+            OffHeapLockTable lockTable = lockTables[resourceType.typeId()];
+            for ( long resourceId : resourceIds )
+            {
+                if ( releaseLocalLock( resourceType, resourceId, exclusiveLocks ) )
+                {
+                    continue;
+                }
+                lockTable.releaseExclusive( resourceId, clientId, sharedLocks.containsKey( resourceId ) );
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private HeapTrackingLongIntHashMap getSharedLockCount( ResourceType resourceType )
+    {
+        HeapTrackingLongIntHashMap sharedLockCount = sharedLockCounts[resourceType.typeId()];
+        if ( sharedLockCount == null )
+        {
+            sharedLockCount = HeapTrackingCollections.newLongIntMap( memoryTracker );
+            sharedLockCounts[resourceType.typeId()] = sharedLockCount;
+        }
+        return sharedLockCount;
+    }
+
+    private HeapTrackingLongIntHashMap getExclusiveLockCount( ResourceType resourceType )
+    {
+        HeapTrackingLongIntHashMap exclusiveLockCount = exclusiveLockCounts[resourceType.typeId()];
+        if ( exclusiveLockCount == null )
+        {
+            exclusiveLockCount = HeapTrackingCollections.newLongIntMap( memoryTracker );
+            exclusiveLockCounts[resourceType.typeId()] = exclusiveLockCount;
+        }
+        return exclusiveLockCount;
+    }
+
+    private void releaseAllClientLocks()
+    {
+        for ( int i = 0; i < exclusiveLockCounts.length; i++ )
+        {
+            HeapTrackingLongIntHashMap exclusiveLocks = exclusiveLockCounts[i];
+            HeapTrackingLongIntHashMap sharedLocks = sharedLockCounts[i];
+
+            // Exclusive locks first, so that shared locks on the same resources can be dropped rather than downgraded to
+            if ( exclusiveLocks != null )
+            {
+                exclusiveLocks.forEachKey( releaseExclusiveAndClearSharedVisitor.initialize( sharedLocks, lockTables[i] ) );
+                exclusiveLockCounts[i] = null;
+                exclusiveLocks.close();
+            }
+
+            if ( sharedLocks != null )
+            {
+                sharedLocks.forEachKey( releaseSharedDontCheckExclusiveVisitor.initialize( lockTables[i] ) );
+                sharedLockCounts[i] = null;
+                sharedLocks.close();
+            }
+        }
+    }
+
+    @Override
+    public void prepareForCommit()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        if ( stateHolder.stopClient() )
+        {
+            waitForAllClientsToLeave();
+            releaseAllLocks();
+        }
+    }
+
+    private void waitForAllClientsToLeave()
+    {
+        while ( stateHolder.hasActiveClients() )
+        {
+            try
+            {
+                Thread.sleep( 10 );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        waitForAllClientsToLeave();
+        releaseAllLocks();
+        userTransactionId = INVALID_TRANSACTION_ID;
+        memoryTracker = null;
+        clientPool.release( this );
+    }
+
+    private void releaseAllLocks()
+    {
+        if ( hasLocks )
+        {
+            releaseAllClientLocks();
+            clearWaitList();
+            hasLocks = false;
+        }
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return clientId;
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        collectActiveLocks( exclusiveLockCounts, locks, EXCLUSIVE, userTransactionId );
+        collectActiveLocks( sharedLockCounts, locks, SHARED, userTransactionId );
+        return locks.stream();
+    }
+
+    @Override
+    public boolean holdsLock( long id, ResourceType resource, LockType lockType )
+    {
+        return lockTables[resource.typeId()].holds( id, clientId, lockType );
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        return countLocks( exclusiveLockCounts ) + countLocks( sharedLockCounts );
+    }
+
+    private static void collectActiveLocks( LongIntMap[] counts, List<ActiveLock> locks, LockType lockType, long userTransactionId )
+    {
+        for ( int typeId = 0; typeId < counts.length; typeId++ )
+        {
+            LongIntMap lockCounts = counts[typeId];
+            if ( lockCounts != null )
+            {
+                ResourceType resourceType = ResourceTypes.fromId( typeId );
+                lockCounts.forEachKeyValue( ( resourceId, count ) -> locks.add( new ActiveLock( resourceType, lockType, userTransactionId, resourceId ) ) );
+            }
+        }
+    }
+
+    private static long countLocks( LongIntMap[] lockCounts )
+    {
+        long count = 0;
+        for ( LongIntMap lockCount : lockCounts )
+        {
+            if ( lockCount != null )
+            {
+                count += lockCount.size();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int waitListSize()
+    {
+        return waitList.size();
+    }
+
+    void copyWaitListTo( SimpleBitSet other )
+    {
+        other.put( waitList );
+    }
+
+    boolean isWaitingFor( int clientId )
+    {
+        return clientId != this.clientId && waitList.contains( clientId );
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        return clientId == ((OffHeapLockClient) o).clientId;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return clientId;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "OffHeapLockClient[%d]", clientId );
+    }
+
+    /** Release a lock locally, and return true if we still hold more references to that lock. */
+    private boolean releaseLocalLock( ResourceType type, long resourceId, HeapTrackingLongIntHashMap localLocks )
+    {
+        int lockCount = localLocks.removeKeyIfAbsent( resourceId, NO_CLIENT_ID );
+        if ( lockCount == NO_CLIENT_ID )
+        {
+            throw new IllegalStateException( this + " cannot release lock that it does not hold: " + type + "[" + resourceId + "]." );
+        }
+
+        if ( lockCount > 1 )
+        {
+            localLocks.put( resourceId, lockCount - 1 );
+            return true;
+        }
+        return false;
+    }
+
+    private void clearWaitList()
+    {
+        waitListCheckPoint = waitList.checkPointAndPut( waitListCheckPoint, clientId );
+    }
+
+    private void waitFor( ResourceType type, long resourceId, int tries )
+    {
+        WaitedUponLock lock = waitingForLock;
+        if ( lock == null || lock.type != type || lock.resourceId != resourceId )
+        {
+            lock = new WaitedUponLock( type, resourceId );
+            waitingForLock = lock;
+        }
+        lockHolders.clear();
+        lockTables[type.typeId()].collectHolders( resourceId, lockHolders );
+        clearWaitList();
+        lockHolders.forEach( holder -> copyHolderWaitList( holder ) );
+        waitStrategies[type.typeId()].apply( tries );
+
+        int id = detectDeadlock( lockHolders );
+        if ( id != NO_CLIENT_ID && deadlockResolutionStrategy.shouldAbort( this, clientById.apply( id ) ) )
+        {
+            // Same as for Forseti, verify the deadlock by looking for a wait cycle through the holders of the locks waited upon,
+            // but only act upon it after some tries, since collecting the holders of locks is racy.
+            if ( tries > 100 && isDeadlockReal( lock ) )
+            {
+                String message = this + " can't acquire " + lock + ", because holders of that lock " +
+                                 "are waiting for " + this + ".\n Wait list:" + describeWaitList( lockHolders );
+                if ( verboseDeadlocks )
+                {
+                    StringBuilder sb = new StringBuilder( " All locks:[" );
+                    for ( OffHeapLockTable lockTable : lockTables )
+                    {
+                        if ( lockTable != null )
+                        {
+                            sb.append( lockTable );
+                        }
+                    }
+                    message += sb.append( "]" );
+                }
+                throw new DeadlockDetectedException( message );
+            }
+            Thread.yield();
+        }
+    }
+
+    private void waitEnded( ResourceType type, int tries, long waitStartNano )
+    {
+        if ( tries > 0 )
+        {
+            waitStrategies[type.typeId()].waitEnded( tries, clock.nanos() - waitStartNano );
+        }
+    }
+
+    private void reportHolders( LockWaitEvent waitEvent, ResourceType type, long resourceId )
+    {
+        // Collecting the holders allocates, so only do it when the wait is traced
+        if ( waitEvent == LockWaitEvent.NONE )
+        {
+            return;
+        }
+        MutableIntSet holders = new IntHashSet();
+        lockTables[type.typeId()].collectHolders( resourceId, holders );
+        MutableLongSet transactionIds = new LongHashSet( holders.size() );
+        holders.forEach( holderId ->
+        {
+            OffHeapLockClient holder = clientById.apply( holderId );
+            if ( holder != null )
+            {
+                transactionIds.add( holder.transactionId() );
+            }
+        } );
+        waitEvent.blockedBy( transactionIds );
+    }
+
+    private void copyHolderWaitList( int holderId )
+    {
+        OffHeapLockClient holder = clientById.apply( holderId );
+        if ( holder != null )
+        {
+            holder.copyWaitListTo( waitList );
+        }
+    }
+
+    /**
+     * @return the id of a holder of the lock that is waiting for this client, or {@link #NO_CLIENT_ID} if there is none.
+     */
+    private int detectDeadlock( MutableIntSet holders )
+    {
+        IntIterator iterator = holders.intIterator();
+        while ( iterator.hasNext() )
+        {
+            int holderId = iterator.next();
+            OffHeapLockClient holder = clientById.apply( holderId );
+            if ( holder != null && holder.isWaitingFor( clientId ) )
+            {
+                return holderId;
+            }
+        }
+        return NO_CLIENT_ID;
+    }
+
+    private boolean isDeadlockReal( WaitedUponLock lock )
+    {
+        if ( isDeadlockRealInternal( lock ) )
+        {
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 10 ) );
+            return isDeadlockRealInternal( lock );
+        }
+        return false;
+    }
+
+    private boolean isDeadlockRealInternal( WaitedUponLock lock )
+    {
+        Set<WaitedUponLock> waitedUpon = new HashSet<>();
+        Set<WaitedUponLock> nextWaitedUpon = new HashSet<>();
+        MutableIntSet owners = new IntHashSet();
+        MutableIntSet nextOwners = new IntHashSet();
+        collectHolders( lock, owners );
+
+        do
+        {
+            waitedUpon.addAll( nextWaitedUpon );
+            nextWaitedUpon.clear();
+            IntIterator iterator = owners.intIterator();
+            while ( iterator.hasNext() )
+            {
+                OffHeapLockClient owner = clientById.apply( iterator.next() );
+                WaitedUponLock ownerWaitingFor = owner == null ? null : owner.waitingForLock;
+                if ( ownerWaitingFor != null && !waitedUpon.contains( ownerWaitingFor ) )
+                {
+                    nextWaitedUpon.add( ownerWaitingFor );
+                }
+            }
+            for ( WaitedUponLock next : nextWaitedUpon )
+            {
+                collectHolders( next, nextOwners );
+            }
+            if ( nextOwners.contains( clientId ) && detectDeadlock( collectHolders( lock, new IntHashSet() ) ) != NO_CLIENT_ID )
+            {
+                return true;
+            }
+            owners.clear();
+            MutableIntSet ownersTmp = owners;
+            owners = nextOwners;
+            nextOwners = ownersTmp;
+        }
+        while ( !nextWaitedUpon.isEmpty() );
+        return false;
+    }
+
+    private MutableIntSet collectHolders( WaitedUponLock lock, MutableIntSet holders )
+    {
+        lockTables[lock.type.typeId()].collectHolders( lock.resourceId, holders );
+        return holders;
+    }
+
+    private String describeWaitList( MutableIntSet holders )
+    {
+        StringBuilder sb = new StringBuilder();
+        holders.forEach( holderId ->
+        {
+            OffHeapLockClient holder = clientById.apply( holderId );
+            if ( holder != null )
+            {
+                sb.append( holder.describeWaitList() );
+            }
+        } );
+        return sb.toString();
+    }
+
+    String describeWaitList()
+    {
+        StringBuilder sb = new StringBuilder( format( "%nClient[%d] waits for [", id() ) );
+        final IntIterator iter = waitList.iterator();
+        for ( boolean first = true; iter.hasNext(); )
+        {
+            int next = iter.next();
+            if ( next == clientId )
+            {
+                continue;
+            }
+            sb.append( (!first) ? "," : "" ).append( next );
+            first = false;
+        }
+        sb.append( "]" );
+        return sb.toString();
+    }
+
+    @Override
+    public int id()
+    {
+        return clientId;
+    }
+
+    public long transactionId()
+    {
+        return userTransactionId;
+    }
+
+    private void assertValid( long waitStartNano, ResourceType resourceType, long resourceId )
+    {
+        if ( stateHolder.isStopped() )
+        {
+            throw new LockClientStoppedException( this );
+        }
+        long timeoutNano = this.lockAcquisitionTimeoutNano;
+        if ( timeoutNano > 0 && (clock.nanos() - waitStartNano) > timeoutNano )
+        {
+            throw new LockAcquisitionTimeoutException( resourceType, resourceId, timeoutNano );
+        }
+    }
+
+    /**
+     * A lock that a client waits for. The lock tables have no lock objects, so this stands in for them in the deadlock
+     * verification.
+     */
+    private static final class WaitedUponLock
+    {
+        private final ResourceType type;
+        private final long resourceId;
+
+        WaitedUponLock( ResourceType type, long resourceId )
+        {
+            this.type = type;
+            this.resourceId = resourceId;
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+            WaitedUponLock that = (WaitedUponLock) o;
+            return resourceId == that.resourceId && type.equals( that.type );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash( type, resourceId );
+        }
+
+        @Override
+        public String toString()
+        {
+            return "lock on " + type + "(" + resourceId + ")";
+        }
+    }
+
+    private class ReleaseSharedDontCheckExclusiveVisitor implements LongProcedure
+    {
+        private OffHeapLockTable lockTable;
+
+        private LongProcedure initialize( OffHeapLockTable lockTable )
+        {
+            this.lockTable = lockTable;
+            return this;
+        }
+
+        @Override
+        public void value( long resourceId )
+        {
+            lockTable.releaseShared( resourceId, clientId );
+        }
+    }
+
+    private class ReleaseExclusiveLocksAndClearSharedVisitor implements LongProcedure
+    {
+        private HeapTrackingLongIntHashMap sharedLockCounts;
+        private OffHeapLockTable lockTable;
+
+        private LongProcedure initialize( HeapTrackingLongIntHashMap sharedLockCounts, OffHeapLockTable lockTable )
+        {
+            this.sharedLockCounts = sharedLockCounts;
+            this.lockTable = lockTable;
+            return this;
+        }
+
+        @Override
+        public void value( long resourceId )
+        {
+            lockTable.releaseExclusive( resourceId, clientId, false );
+            if ( sharedLockCounts != null )
+            {
+                sharedLockCounts.remove( resourceId );
+            }
+        }
+    }
+}
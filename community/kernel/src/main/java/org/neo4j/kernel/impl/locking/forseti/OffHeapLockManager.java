@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.collection.pool.LinkedQueuePool;
+import org.neo4j.collection.pool.Pool;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.lock.WaitStrategy;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.time.SystemNanoClock;
+
+import static java.lang.Math.toIntExact;
+import static org.neo4j.kernel.impl.locking.forseti.LockingInternalSettings.forseti_deadlock_resolution_strategy;
+import static org.neo4j.kernel.impl.locking.forseti.LockingInternalSettings.off_heap_lock_table_stripes;
+
+/**
+ * Lock manager with the locking and deadlock detection algorithms of the {@link ForsetiLockManager}, but where the global locks
+ * are kept in an {@link OffHeapLockTable} per resource type instead of in concurrent maps of lock objects. Taking a lock that
+ * nobody holds does not allocate anything on heap, and the per-lock cost is a 16 byte slot in native memory, which helps
+ * transactions that lock a lot of resources, at the cost of taking a stripe monitor for every global lock operation.
+ * <p/>
+ * Selected with {@link GraphDatabaseInternalSettings#lock_manager} set to {@value OffHeapLocksFactory#OFF_HEAP_LOCKS_NAME}.
+ */
+public class OffHeapLockManager implements Locks
+{
+    private final OffHeapLockTable[] lockTables;
+    private final ResourceType[] resourceTypes;
+    private final Pool<OffHeapLockClient> clientPool;
+    private final ConcurrentMap<Integer,OffHeapLockClient> clientsById = new ConcurrentHashMap<>();
+
+    private final WaitStrategy[] waitStrategies;
+
+    private volatile boolean closed;
+
+    public OffHeapLockManager( Config config, SystemNanoClock clock, ResourceType... resourceTypes )
+    {
+        int maxResourceId = 0;
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            maxResourceId = Math.max( resourceType.typeId(), maxResourceId );
+        }
+        this.lockTables = new OffHeapLockTable[maxResourceId + 1];
+        this.resourceTypes = new ResourceType[maxResourceId + 1];
+        this.waitStrategies = new WaitStrategy[maxResourceId + 1];
+
+        int stripes = toIntExact( config.get( off_heap_lock_table_stripes ) );
+        for ( ResourceType type : resourceTypes )
+        {
+            this.lockTables[type.typeId()] = new OffHeapLockTable( type, stripes, EmptyMemoryTracker.INSTANCE );
+            this.resourceTypes[type.typeId()] = type;
+            waitStrategies[type.typeId()] = ForsetiLockManager.newWaitStrategy( config, type );
+        }
+        this.clientPool = new OffHeapLockClientFlyweightPool( config, clock, lockTables, waitStrategies, clientsById );
+    }
+
+    @Override
+    public WaitStrategy waitStrategy( ResourceType resourceType )
+    {
+        return waitStrategies[resourceType.typeId()];
+    }
+
+    @Override
+    public Client newClient()
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+
+        OffHeapLockClient client = clientPool.acquire();
+        client.reset();
+        return client;
+    }
+
+    @Override
+    public void accept( Visitor out )
+    {
+        for ( int i = 0; i < lockTables.length; i++ )
+        {
+            if ( lockTables[i] != null )
+            {
+                ResourceType resourceType = resourceTypes[i];
+                lockTables[i].accept( ( resourceId, lockType, holders ) ->
+                {
+                    StringBuilder description = new StringBuilder();
+                    holders.forEach( holderId ->
+                    {
+                        OffHeapLockClient holder = clientsById.get( holderId );
+                        if ( holder != null )
+                        {
+                            description.append( holder.describeWaitList() );
+                        }
+                    } );
+                    int lockIdentityHashCode = 31 * resourceType.typeId() + Long.hashCode( resourceId );
+                    holders.forEach( holderId ->
+                    {
+                        OffHeapLockClient holder = clientsById.get( holderId );
+                        if ( holder != null )
+                        {
+                            out.visit( lockType, resourceType, holder.transactionId(), resourceId, description.toString(), 0, lockIdentityHashCode );
+                        }
+                    } );
+                } );
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        for ( OffHeapLockTable lockTable : lockTables )
+        {
+            if ( lockTable != null )
+            {
+                lockTable.close();
+            }
+        }
+    }
+
+    private static class OffHeapLockClientFlyweightPool extends LinkedQueuePool<OffHeapLockClient>
+    {
+        private final AtomicInteger clientIds = new AtomicInteger( 0 );
+
+        /** Re-use ids, they are used in wait lists and stored in lock words, so we want to keep them low. */
+        private final Queue<Integer> unusedIds = new ConcurrentLinkedQueue<>();
+        private final ConcurrentMap<Integer,OffHeapLockClient> clientsById;
+        private final SystemNanoClock clock;
+        private final OffHeapLockTable[] lockTables;
+        private final WaitStrategy[] waitStrategies;
+        private final ForsetiLockManager.DeadlockResolutionStrategy deadlockResolutionStrategy;
+        private final boolean verboseDeadlocks;
+
+        OffHeapLockClientFlyweightPool( Config config, SystemNanoClock clock, OffHeapLockTable[] lockTables, WaitStrategy[] waitStrategies,
+                ConcurrentMap<Integer,OffHeapLockClient> clientsById )
+        {
+            super( 128, null );
+            this.clock = clock;
+            this.lockTables = lockTables;
+            this.waitStrategies = waitStrategies;
+            this.clientsById = clientsById;
+            this.deadlockResolutionStrategy = config.get( forseti_deadlock_resolution_strategy );
+            this.verboseDeadlocks = config.get( GraphDatabaseInternalSettings.lock_manager_verbose_deadlocks );
+        }
+
+        @Override
+        protected OffHeapLockClient create()
+        {
+            Integer id = unusedIds.poll();
+            if ( id == null )
+            {
+                id = clientIds.getAndIncrement();
+            }
+            OffHeapLockClient client = new OffHeapLockClient( id, lockTables, waitStrategies, this, deadlockResolutionStrategy,
+                    clientsById::get, clock, verboseDeadlocks );
+            clientsById.put( id, client );
+            return client;
+        }
+
+        @Override
+        protected void dispose( OffHeapLockClient resource )
+        {
+            super.dispose( resource );
+            clientsById.remove( resource.id() );
+            if ( resource.id() < 1024 )
+            {
+                unusedIds.offer( resource.id() );
+            }
+        }
+    }
+}
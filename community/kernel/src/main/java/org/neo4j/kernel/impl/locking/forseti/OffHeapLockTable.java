@@ -0,0 +1,588 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import org.eclipse.collections.api.collection.primitive.MutableIntCollection;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.memory.MemoryTracker;
+
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
+
+/**
+ * The locks of a single {@link ResourceType} in an {@link OffHeapLockManager}. Instead of lock objects in a map keyed by boxed
+ * resource ids, the state of every lock is a primitive lock word in native memory.
+ * <p/>
+ * The table is split into stripes by the hash of the resource id, and every stripe is an open addressing hash table with linear
+ * probing in its own block of native memory, which is only touched while holding the monitor of the stripe. Operations never
+ * wait for a lock to become available, that is left to the calling client, which retries in between applying its wait strategy.
+ * A slot is a resource id followed by its lock word:
+ * <pre>
+ * bits  0-23  number of clients holding the lock shared
+ * bits 24-47  id + 1 of the client that holds the lock exclusively, or claims it exclusively, or else of the only shared holder
+ * bit     48  set when the lock is held, or claimed, exclusively
+ * bit     49  waiter flag, set while an exclusive claim waits for the other shared holders to leave
+ * </pre>
+ * A lock that nobody holds is removed from the table, so a lock word of zero marks a free slot. Shared holders only fit in the
+ * lock word when there is a single one of them, so the ids of the shared holders of a lock held shared by more than one client
+ * are kept on heap in its stripe.
+ * <p/>
+ * Exclusive claims are what Forseti calls update locks: a shared holder that wants the lock exclusively claims it, after which
+ * no new shared holders get in, and the claim is turned into the exclusive lock once the claiming client is the only holder left.
+ */
+final class OffHeapLockTable
+{
+    static final int MAX_CLIENT_ID = (1 << 24) - 2;
+
+    private static final long SHARED_COUNT_MASK = (1L << 24) - 1;
+    private static final int OWNER_SHIFT = 24;
+    private static final long OWNER_MASK = ((1L << 24) - 1) << OWNER_SHIFT;
+    private static final long EXCLUSIVE_FLAG = 1L << 48;
+    private static final long WAITER_FLAG = 1L << 49;
+
+    private static final int SLOT_SIZE_SHIFT = 4;
+    private static final int WORD_OFFSET = Long.BYTES;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ResourceType resourceType;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final MemoryTracker memoryTracker;
+
+    /**
+     * @param stripes number of stripes, must be a power of two.
+     */
+    OffHeapLockTable( ResourceType resourceType, int stripes, MemoryTracker memoryTracker )
+    {
+        if ( Integer.bitCount( stripes ) != 1 )
+        {
+            throw new IllegalArgumentException( "Number of stripes must be a power of two, was " + stripes );
+        }
+        this.resourceType = resourceType;
+        this.stripes = new Stripe[stripes];
+        for ( int i = 0; i < stripes; i++ )
+        {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripes - 1;
+        this.memoryTracker = memoryTracker;
+    }
+
+    /**
+     * Acquire the lock shared for a client that doesn't hold it yet.
+     *
+     * @return {@code true} if the lock was acquired, {@code false} if it is held or claimed exclusively by another client.
+     */
+    boolean tryAcquireShared( long resourceId, int clientId )
+    {
+        long hash = hash( resourceId );
+        Stripe stripe = stripe( hash );
+        synchronized ( stripe )
+        {
+            int slot = stripe.find( resourceId, (int) hash );
+            if ( slot == -1 )
+            {
+                stripe.insert( resourceId, (int) hash, ownerBits( clientId ) | 1, memoryTracker );
+                return true;
+            }
+            long word = stripe.word( slot );
+            long count = word & SHARED_COUNT_MASK;
+            if ( (word & EXCLUSIVE_FLAG) != 0 || count == SHARED_COUNT_MASK )
+            {
+                return false;
+            }
+            if ( count == 1 )
+            {
+                MutableIntSet holders = new IntHashSet();
+                holders.add( owner( word ) );
+                stripe.sharedHolders().put( resourceId, holders );
+                word &= ~OWNER_MASK;
+            }
+            stripe.sharedHolders.get( resourceId ).add( clientId );
+            stripe.setWord( slot, word + 1 );
+            return true;
+        }
+    }
+
+    /**
+     * Acquire the lock exclusively for a client that holds no lock on the resource.
+     *
+     * @return {@code true} if the lock was acquired, {@code false} if anyone else holds it.
+     */
+    boolean tryAcquireExclusive( long resourceId, int clientId )
+    {
+        long hash = hash( resourceId );
+        Stripe stripe = stripe( hash );
+        synchronized ( stripe )
+        {
+            if ( stripe.find( resourceId, (int) hash ) != -1 )
+            {
+                return false;
+            }
+            stripe.insert( resourceId, (int) hash, EXCLUSIVE_FLAG | ownerBits( clientId ), memoryTracker );
+            return true;
+        }
+    }
+
+    /**
+     * Turn a shared lock held by the client into an exclusive one.
+     *
+     * @param claim whether to claim the lock exclusively if other clients hold it shared as well, which keeps new shared holders
+     * out until the claim is either granted by a later call, or abandoned through {@link #abandonExclusiveClaim(long, int)}.
+     * @return {@code true} if the client now holds the lock exclusively, {@code false} if it has to wait for other holders.
+     */
+    boolean tryUpgradeToExclusive( long resourceId, int clientId, boolean claim )
+    {
+        long hash = hash( resourceId );
+        Stripe stripe = stripe( hash );
+        synchronized ( stripe )
+        {
+            int slot = stripe.find( resourceId, (int) hash );
+            if ( slot == -1 )
+            {
+                throw new IllegalStateException( this + " has no lock on " + resourceId + " to upgrade for client " + clientId );
+            }
+            long word = stripe.word( slot );
+            long count = word & SHARED_COUNT_MASK;
+            if ( (word & EXCLUSIVE_FLAG) != 0 )
+            {
+                if ( (word & WAITER_FLAG) == 0 || owner( word ) != clientId || count != 1 )
+                {
+                    return false;
+                }
+                // Our claim went through, all other shared holders are gone
+                stripe.sharedHolders.remove( resourceId );
+            }
+            else if ( count != 1 )
+            {
+                if ( claim )
+                {
+                    stripe.setWord( slot, word | EXCLUSIVE_FLAG | WAITER_FLAG | ownerBits( clientId ) );
+                }
+                return false;
+            }
+            stripe.setWord( slot, EXCLUSIVE_FLAG | ownerBits( clientId ) );
+            return true;
+        }
+    }
+
+    /**
+     * Give up an exclusive claim made by {@link #tryUpgradeToExclusive(long, int, boolean)}, if the client has one on the lock.
+     */
+    void abandonExclusiveClaim( long resourceId, int clientId )
+    {
+        long hash = hash( resourceId );
+        Stripe stripe = stripe( hash );
+        synchronized ( stripe )
+        {
+            int slot = stripe.find( resourceId, (int) hash );
+            if ( slot != -1 )
+            {
+                long word = stripe.word( slot );
+                if ( (word & WAITER_FLAG) != 0 && owner( word ) == clientId )
+                {
+                    stripe.setWord( slot, normalizeShared( stripe, resourceId, word & SHARED_COUNT_MASK ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * Release the shared lock held by the client. Not to be used for a lock the client holds exclusively.
+     */
+    void releaseShared( long resourceId, int clientId )
+    {
+        long hash = hash( resourceId );
+        Stripe stripe = stripe( hash );
+        synchronized ( stripe )
+        {
+            int slot = stripe.find( resourceId, (int) hash );
+            if ( slot == -1 )
+            {
+                if ( stripe.closed )
+                {
+                    return;
+                }
+                throw new IllegalStateException( this + " has no lock on " + resourceId + " to release for client " + clientId );
+            }
+            long word = stripe.word( slot );
+            long count = (word & SHARED_COUNT_MASK) - 1;
+            if ( count == 0 )
+            {
+                stripe.remove( slot, memoryTracker );
+                return;
+            }
+            stripe.sharedHolders.get( resourceId ).remove( clientId );
+            if ( (word & EXCLUSIVE_FLAG) != 0 )
+            {
+                // Leave the holders on heap for the claiming client to find when it is granted the lock
+                stripe.setWord( slot, word - 1 );
+            }
+            else
+            {
+                stripe.setWord( slot, normalizeShared( stripe, resourceId, count ) );
+            }
+        }
+    }
+
+    /**
+     * Release the exclusive lock held by the client.
+     *
+     * @param keepShared whether the client keeps the lock shared, i.e. the lock is downgraded rather than released.
+     */
+    void releaseExclusive( long resourceId, int clientId, boolean keepShared )
+    {
+        long hash = hash( resourceId );
+        Stripe stripe = stripe( hash );
+        synchronized ( stripe )
+        {
+            int slot = stripe.find( resourceId, (int) hash );
+            if ( slot == -1 && stripe.closed )
+            {
+                return;
+            }
+            if ( slot == -1 || (stripe.word( slot ) & (EXCLUSIVE_FLAG | WAITER_FLAG)) != EXCLUSIVE_FLAG || owner( stripe.word( slot ) ) != clientId )
+            {
+                throw new IllegalStateException( this + " has no exclusive lock on " + resourceId + " to release for client " + clientId );
+            }
+            if ( keepShared )
+            {
+                stripe.setWord( slot, ownerBits( clientId ) | 1 );
+            }
+            else
+            {
+                stripe.remove( slot, memoryTracker );
+            }
+        }
+    }
+
+    /**
+     * Add the ids of the clients holding the lock to the given collection. An exclusive claim is made by a shared holder, so the
+     * claiming client is among the holders too.
+     */
+    void collectHolders( long resourceId, MutableIntCollection holders )
+    {
+        long hash = hash( resourceId );
+        Stripe stripe = stripe( hash );
+        synchronized ( stripe )
+        {
+            int slot = stripe.find( resourceId, (int) hash );
+            if ( slot != -1 )
+            {
+                collectHolders( stripe, resourceId, stripe.word( slot ), holders );
+            }
+        }
+    }
+
+    boolean holds( long resourceId, int clientId, LockType lockType )
+    {
+        long hash = hash( resourceId );
+        Stripe stripe = stripe( hash );
+        synchronized ( stripe )
+        {
+            int slot = stripe.find( resourceId, (int) hash );
+            if ( slot == -1 )
+            {
+                return false;
+            }
+            long word = stripe.word( slot );
+            if ( (word & (EXCLUSIVE_FLAG | WAITER_FLAG)) == EXCLUSIVE_FLAG )
+            {
+                return owner( word ) == clientId;
+            }
+            if ( lockType == EXCLUSIVE )
+            {
+                return false;
+            }
+            return (word & SHARED_COUNT_MASK) == 1 && (word & EXCLUSIVE_FLAG) == 0 ? owner( word ) == clientId
+                                                                                    : stripe.sharedHolders.get( resourceId ).contains( clientId );
+        }
+    }
+
+    /**
+     * Visit every lock in the table. The visitor is called while holding the monitor of the stripe the lock is in, so must not
+     * call back into the table.
+     */
+    void accept( LockVisitor visitor )
+    {
+        IntArrayList holders = new IntArrayList();
+        for ( Stripe stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                for ( int slot = 0; stripe.address != 0 && slot <= stripe.mask; slot++ )
+                {
+                    long word = stripe.word( slot );
+                    if ( word != 0 )
+                    {
+                        long resourceId = stripe.key( slot );
+                        holders.clear();
+                        collectHolders( stripe, resourceId, word, holders );
+                        visitor.visit( resourceId, (word & EXCLUSIVE_FLAG) != 0 ? EXCLUSIVE : SHARED, holders );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Free the native memory of the table. No locks can be taken after this, and releasing locks does nothing.
+     */
+    void close()
+    {
+        for ( Stripe stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                stripe.free( memoryTracker );
+                stripe.sharedHolders = null;
+                stripe.closed = true;
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder( "OffHeapLockTable[" ).append( resourceType ).append( "]{" );
+        accept( ( resourceId, lockType, holders ) -> sb.append( resourceId ).append( '=' ).append( lockType ).append( holders ).append( ' ' ) );
+        return sb.append( '}' ).toString();
+    }
+
+    interface LockVisitor
+    {
+        void visit( long resourceId, LockType lockType, IntArrayList holders );
+    }
+
+    private static void collectHolders( Stripe stripe, long resourceId, long word, MutableIntCollection holders )
+    {
+        if ( (word & SHARED_COUNT_MASK) > 1 || (word & WAITER_FLAG) != 0 )
+        {
+            holders.addAll( stripe.sharedHolders.get( resourceId ) );
+        }
+        else
+        {
+            holders.add( owner( word ) );
+        }
+    }
+
+    /**
+     * @return the lock word of a lock held shared by the given number of clients, which must not be zero.
+     */
+    private static long normalizeShared( Stripe stripe, long resourceId, long count )
+    {
+        if ( count > 1 )
+        {
+            return count;
+        }
+        MutableIntSet holders = stripe.sharedHolders.remove( resourceId );
+        return ownerBits( holders.intIterator().next() ) | 1;
+    }
+
+    private static long ownerBits( int clientId )
+    {
+        if ( clientId < 0 || clientId > MAX_CLIENT_ID )
+        {
+            throw new IllegalArgumentException( "Client id " + clientId + " can not be stored in a lock word" );
+        }
+        return (clientId + 1L) << OWNER_SHIFT;
+    }
+
+    private static int owner( long word )
+    {
+        return (int) ((word & OWNER_MASK) >>> OWNER_SHIFT) - 1;
+    }
+
+    private Stripe stripe( long hash )
+    {
+        return stripes[(int) (hash >>> 32) & stripeMask];
+    }
+
+    private static long hash( long resourceId )
+    {
+        long hash = resourceId * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static final class Stripe
+    {
+        /** Address of the slots of this stripe, or 0 when it holds no locks. */
+        private long address;
+        private int mask;
+        private int size;
+        /** Shared holders of the locks in this stripe that are held shared by more than one client, created on first use. */
+        private LongObjectHashMap<MutableIntSet> sharedHolders;
+        private boolean closed;
+
+        LongObjectHashMap<MutableIntSet> sharedHolders()
+        {
+            if ( sharedHolders == null )
+            {
+                sharedHolders = new LongObjectHashMap<>();
+            }
+            return sharedHolders;
+        }
+
+        int find( long resourceId, int hash )
+        {
+            if ( address == 0 )
+            {
+                return -1;
+            }
+            for ( int slot = hash & mask; ; slot = (slot + 1) & mask )
+            {
+                long word = word( slot );
+                if ( word == 0 )
+                {
+                    return -1;
+                }
+                if ( key( slot ) == resourceId )
+                {
+                    return slot;
+                }
+            }
+        }
+
+        void insert( long resourceId, int hash, long word, MemoryTracker memoryTracker )
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Lock table is closed" );
+            }
+            if ( address == 0 )
+            {
+                allocate( INITIAL_CAPACITY, memoryTracker );
+            }
+            else if ( (size + 1) * 4L > (mask + 1) * 3L )
+            {
+                grow( memoryTracker );
+            }
+            put( resourceId, hash, word );
+            size++;
+        }
+
+        /**
+         * Remove the lock in the given slot, shifting back the slots after it that would otherwise no longer be found.
+         */
+        void remove( int slot, MemoryTracker memoryTracker )
+        {
+            if ( --size == 0 && mask + 1 > INITIAL_CAPACITY )
+            {
+                // Give back the memory of a stripe that grew for a big transaction once it is no longer used
+                free( memoryTracker );
+                return;
+            }
+            int hole = slot;
+            for ( int next = (hole + 1) & mask; ; next = (next + 1) & mask )
+            {
+                long word = word( next );
+                if ( word == 0 )
+                {
+                    break;
+                }
+                long key = key( next );
+                int home = (int) hash( key ) & mask;
+                // Move the entry into the hole, unless its home slot lies cyclically in (hole, next]
+                if ( ((next - home) & mask) >= ((next - hole) & mask) )
+                {
+                    UnsafeUtil.putLong( slotAddress( hole ), key );
+                    setWord( hole, word );
+                    hole = next;
+                }
+            }
+            setWord( hole, 0 );
+        }
+
+        long key( int slot )
+        {
+            return UnsafeUtil.getLong( slotAddress( slot ) );
+        }
+
+        long word( int slot )
+        {
+            return UnsafeUtil.getLong( slotAddress( slot ) + WORD_OFFSET );
+        }
+
+        void setWord( int slot, long word )
+        {
+            UnsafeUtil.putLong( slotAddress( slot ) + WORD_OFFSET, word );
+        }
+
+        void free( MemoryTracker memoryTracker )
+        {
+            if ( address != 0 )
+            {
+                UnsafeUtil.free( address, (long) (mask + 1) << SLOT_SIZE_SHIFT, memoryTracker );
+                address = 0;
+                mask = 0;
+                size = 0;
+            }
+        }
+
+        private void grow( MemoryTracker memoryTracker )
+        {
+            long oldAddress = address;
+            int oldCapacity = mask + 1;
+            allocate( oldCapacity << 1, memoryTracker );
+            for ( int i = 0; i < oldCapacity; i++ )
+            {
+                long slotAddress = oldAddress + ((long) i << SLOT_SIZE_SHIFT);
+                long word = UnsafeUtil.getLong( slotAddress + WORD_OFFSET );
+                if ( word != 0 )
+                {
+                    long key = UnsafeUtil.getLong( slotAddress );
+                    put( key, (int) hash( key ), word );
+                }
+            }
+            UnsafeUtil.free( oldAddress, (long) oldCapacity << SLOT_SIZE_SHIFT, memoryTracker );
+        }
+
+        private void allocate( int capacity, MemoryTracker memoryTracker )
+        {
+            long bytes = (long) capacity << SLOT_SIZE_SHIFT;
+            address = UnsafeUtil.allocateMemory( bytes, memoryTracker );
+            UnsafeUtil.setMemory( address, bytes, (byte) 0 );
+            mask = capacity - 1;
+        }
+
+        private void put( long resourceId, int hash, long word )
+        {
+            int slot = hash & mask;
+            while ( word( slot ) != 0 )
+            {
+                slot = (slot + 1) & mask;
+            }
+            UnsafeUtil.putLong( slotAddress( slot ), resourceId );
+            setWord( slot, word );
+        }
+
+        private long slotAddress( int slot )
+        {
+            return address + ((long) slot << SLOT_SIZE_SHIFT);
+        }
+    }
+}
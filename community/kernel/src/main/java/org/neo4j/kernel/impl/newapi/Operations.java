@@ -221,8 +221,8 @@ public class Operations implements Write, SchemaWrite
         {
             lockingIds[i] = labels[i];
         }
-        Arrays.sort( lockingIds ); // Sort to ensure labels are locked and assigned in order.
-        ktx.lockClient().acquireShared( ktx.lockTracer(), ResourceTypes.LABEL, lockingIds );
+        // Sorts the ids, to ensure labels are locked and assigned in order.
+        ktx.lockClient().acquireSharedBatch( ktx.lockTracer(), ResourceTypes.LABEL, lockingIds );
         sharedTokenSchemaLock( ResourceTypes.LABEL );
 
         TransactionState txState = ktx.txState();
@@ -1558,7 +1558,7 @@ public class Operations implements Write, SchemaWrite
 
     private void exclusiveLock( ResourceType resource, long[] resourceIds )
     {
-        ktx.lockClient().acquireExclusive( ktx.lockTracer(), resource, resourceIds );
+        ktx.lockClient().acquireExclusiveBatch( ktx.lockTracer(), resource, resourceIds );
     }
 
     private void acquireExclusiveNodeLock( long node )
@@ -1591,13 +1591,13 @@ public class Operations implements Write, SchemaWrite
     private void exclusiveSchemaLock( SchemaDescriptor schema )
     {
         long[] lockingIds = schema.lockingKeys();
-        ktx.lockClient().acquireExclusive( ktx.lockTracer(), schema.keyType(), lockingIds );
+        ktx.lockClient().acquireExclusiveBatch( ktx.lockTracer(), schema.keyType(), lockingIds );
     }
 
     private void exclusiveSchemaUnlock( SchemaDescriptor schema )
     {
         long[] lockingIds = schema.lockingKeys();
-        ktx.lockClient().releaseExclusive( schema.keyType(), lockingIds );
+        ktx.lockClient().releaseExclusiveBatch( schema.keyType(), lockingIds );
     }
 
     private void exclusiveSchemaNameLock( String schemaName )
@@ -19,17 +19,28 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.configuration.SettingChangeListener;
 import org.neo4j.configuration.pagecache.ConfigurableIOBufferFactory;
+import org.neo4j.internal.nativeimpl.LinuxNuma;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.impl.CompressedPageSwapperFactory;
+import org.neo4j.io.pagecache.impl.IoUringPageSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.PageCachePartition;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.logging.Log;
 import org.neo4j.memory.MachineMemory;
@@ -38,6 +49,18 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.SystemNanoClock;
 
+import static java.util.stream.Collectors.toList;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_background_writer;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_compressed_files;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_eviction_policy;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_eviction_threads;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_huge_pages;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_io_uring;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_max_memory;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_numa;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_page_size_classes;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_partitions;
+import static org.neo4j.configuration.GraphDatabaseSettings.check_point_interval_time;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.configuration.GraphDatabaseSettings.preallocate_store_files;
 import static org.neo4j.configuration.SettingValueParsers.BYTES;
@@ -90,7 +113,9 @@ public class ConfiguringPageCacheFactory
 
     protected PageCache createPageCache()
     {
-        long pageCacheMaxMemory = getPageCacheMaxMemory( config );
+        long pageCacheMemory = getPageCacheMaxMemory( config );
+        Long configuredMaxMemory = config.get( pagecache_max_memory );
+        long pageCacheMaxMemory = configuredMaxMemory == null ? pageCacheMemory : Math.max( configuredMaxMemory, pageCacheMemory );
         var memoryPool = memoryPools.pool( PAGE_CACHE, pageCacheMaxMemory, false, null );
         var memoryTracker = memoryPool.getPoolMemoryTracker();
         MemoryAllocator memoryAllocator = buildMemoryAllocator( pageCacheMaxMemory, memoryTracker );
@@ -99,14 +124,77 @@ public class ConfiguringPageCacheFactory
                 .memoryTracker( memoryTracker )
                 .bufferFactory( bufferFactory )
                 .preallocateStoreFiles( config.get( preallocate_store_files ) )
+                .evictionPolicy( config.get( pagecache_eviction_policy ) )
+                .partitions( config.get( pagecache_partitions ).stream().map( PageCachePartition::parse ).collect( toList() ) )
+                .numaNodes( config.get( pagecache_numa ) ? LinuxNuma.nodeCount() : 1 )
+                .evictionThreads( config.get( pagecache_eviction_threads ) )
+                .pageSizeClasses( parsePageSizeClasses( config.get( pagecache_page_size_classes ) ) )
+                .backgroundWriterHorizon( config.get( pagecache_background_writer ) ? config.get( check_point_interval_time ).dividedBy( 2 ) : Duration.ZERO )
                 .clock( clock )
+                .initialMemory( pageCacheMaxMemory > pageCacheMemory ? pageCacheMemory : 0 )
                 .pageCacheTracer( pageCacheTracer );
-        return new MuninnPageCache( swapperFactory, scheduler, configuration );
+        return new ResizablePageCache( swapperFactory, scheduler, configuration );
+    }
+
+    /**
+     * Page cache that follows the changes to {@link GraphDatabaseSettings#pagecache_memory}, for as long as it is open.
+     */
+    private class ResizablePageCache extends MuninnPageCache
+    {
+        private final SettingChangeListener<String> memoryListener = ( before, after ) -> resizePageCache( this );
+
+        ResizablePageCache( PageSwapperFactory swapperFactory, JobScheduler scheduler, Configuration configuration )
+        {
+            super( swapperFactory, scheduler, configuration );
+            config.addListener( pagecache_memory, memoryListener );
+        }
+
+        @Override
+        public synchronized void close()
+        {
+            super.close();
+            config.removeListener( pagecache_memory, memoryListener );
+        }
+    }
+
+    private void resizePageCache( MuninnPageCache muninnPageCache )
+    {
+        try
+        {
+            long memory = muninnPageCache.resize( getPageCacheMaxMemory( config ) );
+            log.info( "The page cache has been resized to " + memory + " bytes." );
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Failed to resize the page cache after " + pagecache_memory.name() + " was changed.", e );
+        }
+    }
+
+    /**
+     * Parse page size class definitions on the form 'pageSize:memory', into the memory of each page size.
+     */
+    static Map<Integer,Long> parsePageSizeClasses( List<String> definitions )
+    {
+        Map<Integer,Long> pageSizeClasses = new HashMap<>();
+        for ( String definition : definitions )
+        {
+            String[] parts = definition.split( ":" );
+            if ( parts.length != 2 )
+            {
+                throw new IllegalArgumentException( "Page size class definition '" + definition + "' must be on the form 'pageSize:memory'." );
+            }
+            int pageSize = Math.toIntExact( ByteUnit.parse( parts[0] ) );
+            if ( pageSizeClasses.put( pageSize, ByteUnit.parse( parts[1] ) ) != null )
+            {
+                throw new IllegalArgumentException( "Page size class " + pageSize + " is defined more than once." );
+            }
+        }
+        return pageSizeClasses;
     }
 
     private MemoryAllocator buildMemoryAllocator( long pageCacheMaxMemory, MemoryTracker memoryTracker )
     {
-        return createAllocator( pageCacheMaxMemory, memoryTracker );
+        return createAllocator( pageCacheMaxMemory, config.get( pagecache_huge_pages ), memoryTracker );
     }
 
     private long getPageCacheMaxMemory( Config config )
@@ -184,8 +272,29 @@ public class ConfiguringPageCacheFactory
         log.info( msg );
     }
 
-    private static PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs )
+    private PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs )
     {
+        PageSwapperFactory uncompressedSwapperFactory = createUncompressedSwapperFactory( fs );
+        Set<String> compressedFiles = Set.copyOf( config.get( pagecache_compressed_files ) );
+        if ( compressedFiles.isEmpty() )
+        {
+            // Spare every mapping the look up of the offsets file, when compression is not in use.
+            return uncompressedSwapperFactory;
+        }
+        return new CompressedPageSwapperFactory( fs, uncompressedSwapperFactory, file -> compressedFiles.contains( file.getFileName().toString() ) );
+    }
+
+    private PageSwapperFactory createUncompressedSwapperFactory( FileSystemAbstraction fs )
+    {
+        if ( config.get( pagecache_io_uring ) )
+        {
+            if ( IoUringPageSwapperFactory.isAvailable() )
+            {
+                return new IoUringPageSwapperFactory( fs );
+            }
+            log.warn( "The " + pagecache_io_uring.name() + " setting is enabled, but io_uring is not available on this system. " +
+                    "Regular file channel io will be used instead." );
+        }
         return new SingleFilePageSwapperFactory( fs );
     }
 }
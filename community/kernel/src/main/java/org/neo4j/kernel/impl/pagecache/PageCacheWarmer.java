@@ -0,0 +1,431 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.time.Stopwatch;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_allowlist;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_profiling_interval;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
+
+/**
+ * Keeps the page cache warm across restarts of a database.
+ * <p>
+ * While the database is running, the warmer periodically takes a profile of which pages of each mapped file are in
+ * memory, and writes it as a compressed bitmap to a profile file per mapped file, in the {@value #PROFILES_DIRECTORY}
+ * directory of the database. When the database starts, the pages recorded in the profiles are loaded back into the page
+ * cache. The files are warmed up in parallel, and the pages of each file are loaded in ascending file order, using the
+ * read-ahead of the page cursors, such that the IO is as sequential as the profile allows.
+ * <p>
+ * The warmup runs in the background, so the database can become available while it is still in progress. If
+ * {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_warmup_prefetch} is enabled, all pages of the files
+ * matching the allowlist are loaded instead of the profiled pages.
+ * <p>
+ * Databases only get a warmer when {@link org.neo4j.configuration.GraphDatabaseInternalSettings#pagecache_warmer} is enabled.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    public static final String PROFILES_DIRECTORY = "profiles";
+    public static final String PROFILE_SUFFIX = ".cacheprof";
+    private static final String PROFILE_TMP_SUFFIX = ".tmp";
+    private static final int PROFILE_FORMAT_VERSION = 1;
+    private static final String WARMUP_TAG = "pageCacheWarmup";
+    private static final String PROFILE_TAG = "pageCacheProfile";
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final Path databaseDirectory;
+    private final Path profilesDirectory;
+    private final String databaseName;
+    private final Config config;
+    private final Log log;
+    private final PageCacheTracer pageCacheTracer;
+    private final Lock workLock = new ReentrantLock();
+    private volatile boolean stopped;
+    private volatile JobHandle<?> warmupHandle;
+    private volatile JobHandle<?> profileHandle;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, Path databaseDirectory, String databaseName,
+            Config config, Log log, PageCacheTracer pageCacheTracer )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory;
+        this.profilesDirectory = databaseDirectory.resolve( PROFILES_DIRECTORY );
+        this.databaseName = databaseName;
+        this.config = config;
+        this.log = log;
+        this.pageCacheTracer = pageCacheTracer;
+    }
+
+    @Override
+    public void start()
+    {
+        if ( !config.get( pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        stopped = false;
+        warmupHandle = scheduler.schedule( Group.STORAGE_MAINTENANCE, systemJob( databaseName, "Page cache warmup" ), this::warmUpAndStartProfiling );
+    }
+
+    @Override
+    public void stop()
+    {
+        stopped = true;
+        cancel( warmupHandle );
+        cancel( profileHandle );
+        // Wait for any ongoing warmup or profiling to notice that we have stopped, since they have cursors open on the mapped files.
+        workLock.lock();
+        workLock.unlock();
+    }
+
+    private static void cancel( JobHandle<?> handle )
+    {
+        if ( handle != null )
+        {
+            handle.cancel();
+        }
+    }
+
+    private void warmUpAndStartProfiling()
+    {
+        try
+        {
+            boolean preload = config.get( pagecache_warmup_prefetch );
+            long pagesLoaded = preload ? preload() : reheat();
+            if ( pagesLoaded >= 0 )
+            {
+                log.info( "Page cache warmup completed. %d pages loaded.", pagesLoaded );
+            }
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache warmup failed.", e );
+        }
+        if ( !stopped )
+        {
+            long intervalMillis = config.get( pagecache_warmup_profiling_interval ).toMillis();
+            profileHandle = scheduler.scheduleRecurring( Group.STORAGE_MAINTENANCE, systemJob( databaseName, "Profiling of page cache" ),
+                    this::profileQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS );
+            if ( stopped )
+            {
+                // We raced with stop, which might not have seen the new profiling job.
+                cancel( profileHandle );
+            }
+        }
+    }
+
+    /**
+     * Load the pages recorded in the profiles of the currently mapped files, into the page cache.
+     *
+     * @return the number of pages loaded, or {@code -1} if the warmup was interrupted by {@link #stop()}.
+     */
+    long reheat() throws IOException
+    {
+        return warmUp( file -> readProfile( profileFile( file ) ) );
+    }
+
+    /**
+     * Load all pages of the mapped files that match the preload allowlist, into the page cache.
+     *
+     * @return the number of pages loaded, or {@code -1} if the warmup was interrupted by {@link #stop()}.
+     */
+    long preload() throws IOException
+    {
+        Pattern allowlist = Pattern.compile( config.get( pagecache_warmup_prefetch_allowlist ) );
+        return warmUp( file -> allowlist.matcher( file.path().getFileName().toString() ).matches() ? allPages( file ) : null );
+    }
+
+    private long warmUp( ProfileSource profileSource ) throws IOException
+    {
+        workLock.lock();
+        try
+        {
+            if ( stopped )
+            {
+                return -1;
+            }
+            Stopwatch stopwatch = Stopwatch.start();
+            LongAdder pagesLoaded = new LongAdder();
+            List<JobHandle<?>> jobs = new ArrayList<>();
+            for ( PagedFile file : mappedFilesInFileOrder() )
+            {
+                long[] profile = profileSource.profile( file );
+                if ( profile == null )
+                {
+                    continue;
+                }
+                jobs.add( scheduler.schedule( Group.FILE_IO_HELPER,
+                        systemJob( databaseName, "Page cache warmup of file '" + file.path().getFileName() + "'" ),
+                        () ->
+                        {
+                            try
+                            {
+                                pagesLoaded.add( loadPages( file, profile ) );
+                            }
+                            catch ( IOException e )
+                            {
+                                throw new UncheckedIOException( e );
+                            }
+                        } ) );
+            }
+            for ( JobHandle<?> job : jobs )
+            {
+                try
+                {
+                    job.waitTermination();
+                }
+                catch ( InterruptedException | ExecutionException e )
+                {
+                    throw new IOException( e );
+                }
+            }
+            log.debug( "Page cache warmup of %d files took %d ms.", jobs.size(), stopwatch.elapsed( TimeUnit.MILLISECONDS ) );
+            return stopped ? -1 : pagesLoaded.sum();
+        }
+        finally
+        {
+            workLock.unlock();
+        }
+    }
+
+    private long loadPages( PagedFile file, long[] profile ) throws IOException
+    {
+        long pagesLoaded = 0;
+        long lastPageId = file.getLastPageId();
+        try ( var cursorContext = new CursorContext( pageCacheTracer.createPageCursorTracer( WARMUP_TAG ) );
+              PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD, cursorContext ) )
+        {
+            for ( int word = 0; word < profile.length && !stopped; word++ )
+            {
+                long bits = profile[word];
+                while ( bits != 0 )
+                {
+                    long pageId = ((long) word << 6) + Long.numberOfTrailingZeros( bits );
+                    bits &= bits - 1;
+                    if ( pageId > lastPageId || !cursor.next( pageId ) )
+                    {
+                        return pagesLoaded;
+                    }
+                    pagesLoaded++;
+                }
+            }
+        }
+        return pagesLoaded;
+    }
+
+    private void profileQuietly()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache profiling failed.", e );
+        }
+    }
+
+    /**
+     * Record which pages of the currently mapped files are in memory, and write a profile file for each of them.
+     *
+     * @return the number of files that were profiled, or {@code -1} if the profiling was interrupted by {@link #stop()}.
+     */
+    long profile() throws IOException
+    {
+        workLock.lock();
+        try
+        {
+            long filesProfiled = 0;
+            for ( PagedFile file : mappedFilesInFileOrder() )
+            {
+                if ( stopped )
+                {
+                    return -1;
+                }
+                long[] profile = profileResidentPages( file );
+                if ( profile != null )
+                {
+                    writeProfile( profileFile( file ), profile );
+                    filesProfiled++;
+                }
+            }
+            return filesProfiled;
+        }
+        finally
+        {
+            workLock.unlock();
+        }
+    }
+
+    private long[] profileResidentPages( PagedFile file ) throws IOException
+    {
+        long lastPageId = file.getLastPageId();
+        long[] profile = new long[bitmapWords( lastPageId )];
+        try ( var cursorContext = new CursorContext( pageCacheTracer.createPageCursorTracer( PROFILE_TAG ) );
+              PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, cursorContext ) )
+        {
+            for ( long pageId = 0; pageId <= lastPageId; pageId++ )
+            {
+                if ( stopped || !cursor.next( pageId ) )
+                {
+                    return null;
+                }
+                // With PF_NO_FAULT the cursor is only bound to the page if the page is in memory.
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    profile[(int) (pageId >>> 6)] |= 1L << pageId;
+                }
+            }
+        }
+        return profile;
+    }
+
+    private void writeProfile( Path profileFile, long[] profile ) throws IOException
+    {
+        Path tmpFile = profileFile.resolveSibling( profileFile.getFileName() + PROFILE_TMP_SUFFIX );
+        fs.mkdirs( profileFile.getParent() );
+        try ( OutputStream out = fs.openAsOutputStream( tmpFile, false );
+              DataOutputStream data = new DataOutputStream( new GZIPOutputStream( out ) ) )
+        {
+            data.writeInt( PROFILE_FORMAT_VERSION );
+            data.writeInt( profile.length );
+            for ( long word : profile )
+            {
+                data.writeLong( word );
+            }
+        }
+        fs.renameFile( tmpFile, profileFile, ATOMIC_MOVE, REPLACE_EXISTING );
+    }
+
+    private long[] readProfile( Path profileFile )
+    {
+        if ( !fs.fileExists( profileFile ) )
+        {
+            return null;
+        }
+        try ( InputStream in = fs.openAsInputStream( profileFile );
+              DataInputStream data = new DataInputStream( new GZIPInputStream( in ) ) )
+        {
+            int version = data.readInt();
+            if ( version != PROFILE_FORMAT_VERSION )
+            {
+                log.warn( "Ignoring page cache profile '%s' with unknown format version %d.", profileFile, version );
+                return null;
+            }
+            long[] profile = new long[data.readInt()];
+            for ( int i = 0; i < profile.length; i++ )
+            {
+                profile[i] = data.readLong();
+            }
+            return profile;
+        }
+        catch ( IOException e )
+        {
+            // A broken profile is not a problem for the database, it just means that this file will not be warmed up.
+            log.warn( "Ignoring unreadable page cache profile '" + profileFile + "'.", e );
+            return null;
+        }
+    }
+
+    private static long[] allPages( PagedFile file ) throws IOException
+    {
+        long lastPageId = file.getLastPageId();
+        long[] profile = new long[bitmapWords( lastPageId )];
+        for ( long pageId = 0; pageId <= lastPageId; pageId++ )
+        {
+            profile[(int) (pageId >>> 6)] |= 1L << pageId;
+        }
+        return profile;
+    }
+
+    private static int bitmapWords( long lastPageId )
+    {
+        return Math.toIntExact( (lastPageId + 64) >>> 6 );
+    }
+
+    private List<PagedFile> mappedFilesInFileOrder() throws IOException
+    {
+        List<PagedFile> files = new ArrayList<>();
+        for ( PagedFile file : pageCache.listExistingMappings() )
+        {
+            // Only files that belong in the database directory have a stable name we can give their profile.
+            if ( file.path().startsWith( databaseDirectory ) && !file.path().startsWith( profilesDirectory ) )
+            {
+                files.add( file );
+            }
+        }
+        files.sort( Comparator.comparing( PagedFile::path ) );
+        return files;
+    }
+
+    Path profileFile( PagedFile file )
+    {
+        Path relativePath = databaseDirectory.relativize( file.path() );
+        return profilesDirectory.resolve( relativePath.toString() + PROFILE_SUFFIX );
+    }
+
+    @FunctionalInterface
+    private interface ProfileSource
+    {
+        long[] profile( PagedFile file ) throws IOException;
+    }
+}
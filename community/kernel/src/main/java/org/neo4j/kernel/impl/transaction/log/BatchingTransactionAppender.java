@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
 
+import org.neo4j.io.ByteUnit;
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
@@ -31,6 +32,7 @@ import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.monitoring.Health;
 import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.util.FeatureToggles;
 import org.neo4j.util.VisibleForTesting;
 
 import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SPECIFIED;
@@ -41,6 +43,13 @@ import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SP
  */
 public class BatchingTransactionAppender extends LifecycleAdapter implements TransactionAppender
 {
+    /**
+     * Transactions whose commands serialize to at most this many bytes are serialized before taking the log file monitor.
+     * Larger transactions, or all transactions if set to zero, are serialized directly into the log channel under the monitor.
+     */
+    private static final int PRE_SERIALIZE_MAX_SIZE =
+            FeatureToggles.getInteger( BatchingTransactionAppender.class, "preSerializeMaxSize", (int) ByteUnit.mebiBytes( 1 ) );
+
     private final TransactionMetadataCache transactionMetadataCache;
     private final LogFile logFile;
     private final LogRotation logRotation;
@@ -84,6 +93,10 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     {
         // Assigned base tx id just to make compiler happy
         long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        boolean relaxedDurability = true;
+        // Serializing the commands is the bulk of the work of appending a transaction, and does not depend on the log,
+        // so we do that concurrently with other committers and only copy the serialized bytes under the monitor below
+        SerializedCommands[] serializedCommands = serializeCommands( batch );
         // Synchronized with logFile to get absolute control over concurrent rotations happening
         synchronized ( logFile )
         {
@@ -93,6 +106,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             {
                 // Append all transactions in this batch to the log under the same logFile monitor
                 TransactionToApply tx = batch;
+                int index = 0;
                 while ( tx != null )
                 {
                     long transactionId = transactionIdStore.nextCommittingTransactionId();
@@ -103,27 +117,40 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
                     // really recover from and would point to a bug somewhere.
                     matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
 
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId, logAppendEvent, previousChecksum );
+                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), serializedCommands[index++], transactionId, logAppendEvent,
+                            previousChecksum );
                     previousChecksum = commitment.getTransactionChecksum();
                     tx.commitment( commitment, transactionId );
                     tx.logPosition( commitment.logPosition() );
+                    relaxedDurability &= tx.relaxedDurability();
                     tx = tx.next();
                     lastTransactionId = transactionId;
                 }
             }
         }
 
-        // At this point we've appended all transactions in this batch, but we can't mark any of them
-        // as committed since they haven't been forced to disk yet. So here we force, or potentially
-        // piggy-back on another force, but anyway after this call below we can be sure that all our transactions
-        // in this batch exist durably on disk.
-        if ( logFile.forceAfterAppend( logAppendEvent ) )
+        if ( relaxedDurability )
         {
-            // We got lucky and were the one forcing the log. It's enough if ones of all doing concurrent committers
-            // checks the need for log rotation.
+            // None of the transactions in this batch wants to wait for the log to be forced, so we only hand them over
+            // to the file system and leave the force to the log file. Anyone forcing the log after this point will include them.
+            logFile.writeAfterAppend();
             boolean logRotated = logRotation.rotateLogIfNeeded( logAppendEvent );
             logAppendEvent.setLogRotated( logRotated );
         }
+        else
+        {
+            // At this point we've appended all transactions in this batch, but we can't mark any of them
+            // as committed since they haven't been forced to disk yet. So here we force, or potentially
+            // piggy-back on another force, but anyway after this call below we can be sure that all our transactions
+            // in this batch exist durably on disk.
+            if ( logFile.forceAfterAppend( logAppendEvent ) )
+            {
+                // We got lucky and were the one forcing the log. It's enough if ones of all doing concurrent committers
+                // checks the need for log rotation.
+                boolean logRotated = logRotation.rotateLogIfNeeded( logAppendEvent );
+                logAppendEvent.setLogRotated( logRotated );
+            }
+        }
 
         // Mark all transactions as committed
         publishAsCommitted( batch );
@@ -148,6 +175,25 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
     }
 
+    private SerializedCommands[] serializeCommands( TransactionToApply batch ) throws IOException
+    {
+        int batchSize = 0;
+        for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+        {
+            batchSize++;
+        }
+        SerializedCommands[] serializedCommands = new SerializedCommands[batchSize];
+        if ( PRE_SERIALIZE_MAX_SIZE > 0 )
+        {
+            int index = 0;
+            for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+            {
+                serializedCommands[index++] = transactionLogWriter.serializeCommands( tx.transactionRepresentation(), PRE_SERIALIZE_MAX_SIZE );
+            }
+        }
+        return serializedCommands;
+    }
+
     private static void publishAsCommitted( TransactionToApply batch )
     {
         while ( batch != null )
@@ -161,8 +207,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
      * @return A TransactionCommitment instance with metadata about the committed transaction, such as whether or not
      * this transaction contains any explicit index changes.
      */
-    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId, LogAppendEvent logAppendEvent, int previousChecksum )
-            throws IOException
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, SerializedCommands serializedCommands, long transactionId,
+            LogAppendEvent logAppendEvent, int previousChecksum ) throws IOException
     {
         // The outcome of this try block is either of:
         // a) transaction successfully appended, at which point we return a Commitment to be used after force
@@ -173,7 +219,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         try
         {
             var logPositionBeforeCommit = transactionLogWriter.getCurrentPosition();
-            int checksum = transactionLogWriter.append( transaction, transactionId, previousChecksum );
+            int checksum = serializedCommands != null
+                           ? transactionLogWriter.append( transaction, transactionId, previousChecksum, serializedCommands )
+                           : transactionLogWriter.append( transaction, transactionId, previousChecksum );
             var logPositionAfterCommit = transactionLogWriter.getCurrentPosition();
             logAppendEvent.appendToLogFile( logPositionBeforeCommit, logPositionAfterCommit );
 
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.fs.ChecksumMismatchException;
+import org.neo4j.io.fs.ChecksumWriter;
+import org.neo4j.io.fs.ReadPastEndException;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.util.FeatureToggles;
+
+import static java.lang.Math.toIntExact;
+import static org.neo4j.io.fs.ChecksumWriter.CHECKSUM_FACTORY;
+
+/**
+ * A sequence of log files seen as one, like {@link ReadAheadLogChannel}, but reading completed log files through a read-only
+ * memory mapping of the whole file. Entries are parsed straight out of the mapped buffer instead of first being copied into a
+ * read-ahead buffer, which makes long sequential scans, like recovery, considerably cheaper on the CPU.
+ * <p>
+ * Log files that the {@link LogFileMapper} declines to map, like the one currently being appended to, are read through a
+ * {@link ReadAheadLogChannel}. Since the log file being appended to is always the last one, this channel keeps reading
+ * through that read-ahead channel once it has switched over to it.
+ * <p>
+ * Log entries never span log files, which means that a mapped log file ending in the middle of a value is treated as the
+ * end of the readable log.
+ */
+public class MappedLogChannel implements PositionableLogChannel
+{
+    // Same toggle as the one disabling checksums in the channels of the io module
+    private static final boolean DISABLE_WAL_CHECKSUM = FeatureToggles.flag( ChecksumWriter.class, "disableChecksum", false );
+
+    private final LogVersionBridge bridge;
+    private final LogFileMapper mapper;
+    private final MemoryTracker memoryTracker;
+    private final boolean raw;
+    private final Checksum checksum;
+
+    private LogVersionedStoreChannel channel;
+    private ByteBuffer buffer;
+    private int checksumStart;
+    private ReadAheadLogChannel readAhead;
+
+    public MappedLogChannel( LogVersionedStoreChannel startingChannel, LogVersionBridge bridge, LogFileMapper mapper, MemoryTracker memoryTracker,
+            boolean raw ) throws IOException
+    {
+        this.bridge = bridge;
+        this.mapper = mapper;
+        this.memoryTracker = memoryTracker;
+        this.raw = raw;
+        this.checksum = CHECKSUM_FACTORY.get();
+        open( startingChannel );
+    }
+
+    @Override
+    public byte get() throws IOException
+    {
+        return ensureMapped( Byte.BYTES ) ? buffer.get() : readAhead.get();
+    }
+
+    @Override
+    public short getShort() throws IOException
+    {
+        return ensureMapped( Short.BYTES ) ? buffer.getShort() : readAhead.getShort();
+    }
+
+    @Override
+    public int getInt() throws IOException
+    {
+        return ensureMapped( Integer.BYTES ) ? buffer.getInt() : readAhead.getInt();
+    }
+
+    @Override
+    public long getLong() throws IOException
+    {
+        return ensureMapped( Long.BYTES ) ? buffer.getLong() : readAhead.getLong();
+    }
+
+    @Override
+    public float getFloat() throws IOException
+    {
+        return ensureMapped( Float.BYTES ) ? buffer.getFloat() : readAhead.getFloat();
+    }
+
+    @Override
+    public double getDouble() throws IOException
+    {
+        return ensureMapped( Double.BYTES ) ? buffer.getDouble() : readAhead.getDouble();
+    }
+
+    @Override
+    public void get( byte[] bytes, int length ) throws IOException
+    {
+        assert length <= bytes.length;
+        if ( ensureMapped( length ) )
+        {
+            buffer.get( bytes, 0, length );
+        }
+        else
+        {
+            readAhead.get( bytes, length );
+        }
+    }
+
+    @Override
+    public int endChecksumAndValidate() throws IOException
+    {
+        if ( !ensureMapped( Integer.BYTES ) )
+        {
+            return readAhead.endChecksumAndValidate();
+        }
+
+        if ( DISABLE_WAL_CHECKSUM )
+        {
+            buffer.getInt();
+            return 0xDEAD5EED;
+        }
+
+        updateChecksum();
+        int calculatedChecksum = (int) checksum.getValue();
+        int storedChecksum = buffer.getInt();
+        if ( calculatedChecksum != storedChecksum )
+        {
+            throw new ChecksumMismatchException( storedChecksum, calculatedChecksum );
+        }
+        beginChecksum();
+
+        return calculatedChecksum;
+    }
+
+    @Override
+    public void beginChecksum()
+    {
+        if ( readAhead != null )
+        {
+            readAhead.beginChecksum();
+            return;
+        }
+        if ( DISABLE_WAL_CHECKSUM )
+        {
+            return;
+        }
+        checksum.reset();
+        checksumStart = buffer.position();
+    }
+
+    @Override
+    public LogPositionMarker getCurrentPosition( LogPositionMarker positionMarker ) throws IOException
+    {
+        if ( readAhead != null )
+        {
+            return readAhead.getCurrentPosition( positionMarker );
+        }
+        positionMarker.mark( channel.getVersion(), buffer.position() );
+        return positionMarker;
+    }
+
+    @Override
+    public LogPosition getCurrentPosition() throws IOException
+    {
+        if ( readAhead != null )
+        {
+            return readAhead.getCurrentPosition();
+        }
+        return new LogPosition( channel.getVersion(), buffer.position() );
+    }
+
+    @Override
+    public void setCurrentPosition( long byteOffset ) throws IOException
+    {
+        if ( readAhead != null )
+        {
+            readAhead.setCurrentPosition( byteOffset );
+            return;
+        }
+        buffer.position( toIntExact( Math.min( byteOffset, buffer.limit() ) ) );
+        beginChecksum();
+    }
+
+    @Override
+    public long getVersion()
+    {
+        return channel.getVersion();
+    }
+
+    @Override
+    public byte getLogFormatVersion()
+    {
+        return channel.getLogFormatVersion();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if ( readAhead != null )
+        {
+            readAhead.close();
+        }
+        else if ( channel != null )
+        {
+            unmap();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * @return {@code true} if the requested number of bytes can be read from the mapped buffer, or {@code false} if reads go
+     * through the read-ahead channel.
+     */
+    private boolean ensureMapped( int requestedNumberOfBytes ) throws IOException
+    {
+        while ( readAhead == null )
+        {
+            if ( buffer.remaining() >= requestedNumberOfBytes )
+            {
+                return true;
+            }
+            if ( buffer.hasRemaining() )
+            {
+                // The value would span log files, which is never the case for a well-formed log
+                throw ReadPastEndException.INSTANCE;
+            }
+
+            LogVersionedStoreChannel nextChannel = bridge.next( channel, raw );
+            assert nextChannel != null;
+            if ( nextChannel == channel )
+            {
+                throw ReadPastEndException.INSTANCE;
+            }
+            // Carry the checksum over into the next log file. A read-ahead channel starts a checksum of its own, which is fine
+            // since transactions never span log files either
+            if ( !DISABLE_WAL_CHECKSUM )
+            {
+                updateChecksum();
+            }
+            unmap();
+            open( nextChannel );
+        }
+        return false;
+    }
+
+    private void open( LogVersionedStoreChannel logChannel ) throws IOException
+    {
+        channel = logChannel;
+        ByteBuffer mapped = mapper.map( logChannel );
+        if ( mapped == null )
+        {
+            readAhead = new ReadAheadLogChannel( logChannel, bridge, memoryTracker, raw );
+            return;
+        }
+        mapped.position( toIntExact( logChannel.position() ) );
+        buffer = mapped;
+        checksumStart = mapped.position();
+    }
+
+    private void updateChecksum()
+    {
+        checksum.update( buffer.duplicate().position( checksumStart ).limit( buffer.position() ) );
+        checksumStart = buffer.position();
+    }
+
+    private void unmap()
+    {
+        if ( buffer != null )
+        {
+            UnsafeUtil.invokeCleaner( buffer );
+            buffer = null;
+        }
+    }
+
+    /**
+     * Maps log files for a {@link MappedLogChannel}.
+     */
+    @FunctionalInterface
+    public interface LogFileMapper
+    {
+        /**
+         * Map the whole log file behind the given channel for reading.
+         *
+         * @param logChannel the channel of the log file to map, positioned where reading should start.
+         * @return a read-only buffer with the contents of the whole log file, or {@code null} if the log file should be read
+         * through a read-ahead buffer instead.
+         * @throws IOException on I/O error.
+         */
+        ByteBuffer map( LogVersionedStoreChannel logChannel ) throws IOException;
+    }
+}
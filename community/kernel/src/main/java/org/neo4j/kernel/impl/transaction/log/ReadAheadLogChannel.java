@@ -30,7 +30,7 @@ import org.neo4j.memory.MemoryTracker;
 /**
  * Basically a sequence of {@link StoreChannel channels} seamlessly seen as one.
  */
-public class ReadAheadLogChannel extends ReadAheadChannel<LogVersionedStoreChannel> implements ReadableLogChannel
+public class ReadAheadLogChannel extends ReadAheadChannel<LogVersionedStoreChannel> implements PositionableLogChannel
 {
     private final LogVersionBridge bridge;
     private final boolean raw;
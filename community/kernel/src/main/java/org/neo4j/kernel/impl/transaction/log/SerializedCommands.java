@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.neo4j.io.fs.WritableChannel;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Heap buffer that the commands of a transaction are serialized into before the transaction is appended to the log.
+ * This lets committing threads do the serialization work concurrently, leaving only the copying of the already serialized bytes,
+ * framed by the start and commit entries, to be done while holding the log file monitor.
+ * <p>
+ * The buffer starts out small and doubles as needed, but never beyond the given limit. Transactions larger than that
+ * abort the serialization with a {@link TooLargeException} and are serialized directly into the log channel instead.
+ * The checksum of a transaction is calculated by the log channel when the bytes are copied into it.
+ */
+public class SerializedCommands implements WritableChannel
+{
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int maxSize;
+    private final byte parserSetVersion;
+    private ByteBuffer buffer;
+
+    SerializedCommands( int maxSize, byte parserSetVersion )
+    {
+        this.maxSize = maxSize;
+        this.parserSetVersion = parserSetVersion;
+        this.buffer = ByteBuffer.allocate( min( INITIAL_CAPACITY, maxSize ) );
+    }
+
+    /**
+     * @return the log entry version that the command entries in this buffer were written with.
+     */
+    public byte getParserSetVersion()
+    {
+        return parserSetVersion;
+    }
+
+    /**
+     * @return the number of serialized bytes.
+     */
+    public int size()
+    {
+        return buffer.position();
+    }
+
+    byte[] array()
+    {
+        return buffer.array();
+    }
+
+    void clear()
+    {
+        buffer.clear();
+    }
+
+    /**
+     * Copies the serialized bytes into the given channel.
+     */
+    public void writeTo( WritableChannel channel ) throws IOException
+    {
+        channel.put( buffer.array(), buffer.position() );
+    }
+
+    @Override
+    public SerializedCommands put( byte value )
+    {
+        ensureCapacity( Byte.BYTES ).put( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putShort( short value )
+    {
+        ensureCapacity( Short.BYTES ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putInt( int value )
+    {
+        ensureCapacity( Integer.BYTES ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putLong( long value )
+    {
+        ensureCapacity( Long.BYTES ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putFloat( float value )
+    {
+        ensureCapacity( Float.BYTES ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putDouble( double value )
+    {
+        ensureCapacity( Double.BYTES ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands put( byte[] value, int length )
+    {
+        ensureCapacity( length ).put( value, 0, length );
+        return this;
+    }
+
+    private ByteBuffer ensureCapacity( int bytes )
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            long required = (long) buffer.position() + bytes;
+            if ( required > maxSize )
+            {
+                throw TooLargeException.INSTANCE;
+            }
+            int newCapacity = (int) min( maxSize, max( required, (long) buffer.capacity() << 1 ) );
+            buffer = ByteBuffer.wrap( Arrays.copyOf( buffer.array(), newCapacity ) ).position( buffer.position() );
+        }
+        return buffer;
+    }
+
+    /**
+     * Thrown when the serialized commands would not fit within the size limit of the buffer.
+     * Carries no stack trace, since it is an expected outcome for large transactions rather than an error.
+     */
+    static final class TooLargeException extends RuntimeException
+    {
+        private static final TooLargeException INSTANCE = new TooLargeException();
+
+        private TooLargeException()
+        {
+            super( "Serialized commands exceed the buffer size limit", null, false, false );
+        }
+    }
+}
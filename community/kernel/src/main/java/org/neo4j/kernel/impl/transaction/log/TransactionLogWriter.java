@@ -21,20 +21,49 @@ package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
 
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.kernel.KernelVersion;
 import org.neo4j.kernel.database.LogEntryWriterFactory;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandCompression;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.impl.transaction.tracing.CompressCommandsEvent;
+import org.neo4j.util.FeatureToggles;
 import org.neo4j.util.VisibleForTesting;
 
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMPRESSED_COMMANDS;
+
 public class TransactionLogWriter
 {
+    /**
+     * Commands of a transaction are compressed in frames of about this size, so that large transactions need not be buffered in full.
+     */
+    private static final int COMPRESSION_FRAME_SIZE =
+            FeatureToggles.getInteger( TransactionLogWriter.class, "compressionFrameSize", (int) ByteUnit.mebiBytes( 1 ) );
+
     private final FlushablePositionAwareChecksumChannel channel;
     private final LogEntryWriterFactory logEntryWriterFactory;
+    private final int compressionLevel;
+    private final CompressCommandsEvent compressCommandsEvent;
 
     public TransactionLogWriter( FlushablePositionAwareChecksumChannel channel, LogEntryWriterFactory logEntryWriterFactory )
+    {
+        this( channel, logEntryWriterFactory, 0, CompressCommandsEvent.NULL );
+    }
+
+    /**
+     * @param compressionLevel zstd level to compress the commands of transactions with, or {@code 0} to write them uncompressed.
+     * @param compressCommandsEvent notified about every compressed frame of commands.
+     */
+    public TransactionLogWriter( FlushablePositionAwareChecksumChannel channel, LogEntryWriterFactory logEntryWriterFactory, int compressionLevel,
+            CompressCommandsEvent compressCommandsEvent )
     {
         this.channel = channel;
         this.logEntryWriterFactory = logEntryWriterFactory;
+        this.compressionLevel = compressionLevel;
+        this.compressCommandsEvent = compressCommandsEvent;
     }
 
     /**
@@ -47,12 +76,128 @@ public class TransactionLogWriter
         writer.writeStartEntry( transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(), previousChecksum, transaction.additionalHeader() );
 
         // Write all the commands to the log channel
-        writer.serialize( transaction );
+        serialize( transaction, writer );
 
         // Write commit record
         return writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
     }
 
+    /**
+     * Append a transaction to the transaction log file, copying in its commands from an earlier call to
+     * {@link #serializeCommands(TransactionRepresentation, int)}. The commands are serialized again if the log entry version
+     * has changed since then, so that all entries of one transaction are always written with the same version.
+     * @return checksum of the transaction
+     */
+    public int append( TransactionRepresentation transaction, long transactionId, int previousChecksum, SerializedCommands serializedCommands )
+            throws IOException
+    {
+        var writer = logEntryWriterFactory.createEntryWriter( channel, transaction.version() );
+        writer.writeStartEntry( transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(), previousChecksum, transaction.additionalHeader() );
+
+        if ( serializedCommands.getParserSetVersion() == writer.getParserSetVersion() )
+        {
+            serializedCommands.writeTo( channel );
+        }
+        else
+        {
+            serialize( transaction, writer );
+        }
+
+        return writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
+    }
+
+    /**
+     * Serialize the commands of a transaction into a heap buffer, to later be appended with
+     * {@link #append(TransactionRepresentation, long, int, SerializedCommands)}. Does not touch the log channel,
+     * and can therefore be called concurrently with appends.
+     * @return the serialized commands, or {@code null} if they would not fit in {@code maxSize} bytes.
+     */
+    public SerializedCommands serializeCommands( TransactionRepresentation transaction, int maxSize ) throws IOException
+    {
+        // The writer is only asked for the version it would write the transaction with, nothing is written to the channel
+        byte parserSetVersion = logEntryWriterFactory.createEntryWriter( channel, transaction.version() ).getParserSetVersion();
+        var serializedCommands = new SerializedCommands( maxSize, parserSetVersion );
+        try
+        {
+            var writer = new CommandEntryWriter( serializedCommands, parserSetVersion );
+            if ( compress( parserSetVersion ) )
+            {
+                serializeCompressed( transaction, writer );
+            }
+            else
+            {
+                writer.serialize( transaction );
+            }
+        }
+        catch ( SerializedCommands.TooLargeException e )
+        {
+            return null;
+        }
+        return serializedCommands;
+    }
+
+    private void serialize( TransactionRepresentation transaction, LogEntryWriter<?> writer ) throws IOException
+    {
+        if ( compress( writer.getParserSetVersion() ) )
+        {
+            serializeCompressed( transaction, new CommandEntryWriter( writer.getChannel(), writer.getParserSetVersion() ) );
+        }
+        else
+        {
+            writer.serialize( transaction );
+        }
+    }
+
+    private boolean compress( byte parserSetVersion )
+    {
+        // Compressed frames can only be read by the parser sets of versions that know about them
+        return compressionLevel != 0 &&
+                !KernelVersion.getForVersion( parserSetVersion ).isLessThan( KernelVersion.VERSION_IN_WHICH_COMMAND_COMPRESSION_IS_INTRODUCED );
+    }
+
+    private void serializeCompressed( TransactionRepresentation transaction, CommandEntryWriter writer ) throws IOException
+    {
+        SerializedCommands frame = new SerializedCommands( Integer.MAX_VALUE, writer.getParserSetVersion() );
+        CommandEntryWriter frameWriter = new CommandEntryWriter( frame, writer.getParserSetVersion() );
+        transaction.accept( command ->
+        {
+            frameWriter.serialize( command );
+            if ( frame.size() >= COMPRESSION_FRAME_SIZE )
+            {
+                writeCompressedFrame( frame, writer );
+            }
+            return false;
+        } );
+        if ( frame.size() > 0 )
+        {
+            writeCompressedFrame( frame, writer );
+        }
+    }
+
+    private void writeCompressedFrame( SerializedCommands frame, CommandEntryWriter writer ) throws IOException
+    {
+        long startTime = System.nanoTime();
+        byte[] compressed = CommandCompression.compress( frame.array(), frame.size(), compressionLevel );
+        long compressionNanos = System.nanoTime() - startTime;
+
+        WritableChannel target = writer.getChannel();
+        long writtenBytes;
+        if ( compressed != null )
+        {
+            writer.writeLogEntryHeader( COMPRESSED_COMMANDS );
+            target.putInt( frame.size() ).putInt( compressed.length ).put( compressed, compressed.length );
+            writtenBytes = 2 + CommandCompression.FRAME_HEADER_SIZE + compressed.length;
+        }
+        else
+        {
+            // Not worth it, the command entries are just as valid uncompressed
+            frame.writeTo( target );
+            writtenBytes = frame.size();
+        }
+        compressCommandsEvent.commandsCompressed( frame.size(), writtenBytes, compressionNanos );
+        frame.clear();
+    }
+
     @VisibleForTesting
     public void legacyCheckPoint( LogPosition logPosition ) throws IOException
     {
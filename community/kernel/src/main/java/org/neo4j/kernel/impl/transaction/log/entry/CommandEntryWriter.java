@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+
+import org.neo4j.internal.helpers.collection.Visitor;
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMMAND;
+
+/**
+ * Writes command entries of a transaction, with a given log entry version, into any channel. Unlike {@link LogEntryWriter}, which
+ * writes whole transactions including their checksums, this only needs a plain {@link WritableChannel}, so that commands can be
+ * serialized into buffers that are later copied into the checksummed log channel.
+ */
+public class CommandEntryWriter implements Visitor<StorageCommand,IOException>
+{
+    private final WritableChannel channel;
+    private final byte parserSetVersion;
+
+    public CommandEntryWriter( WritableChannel channel, byte parserSetVersion )
+    {
+        this.channel = channel;
+        this.parserSetVersion = parserSetVersion;
+    }
+
+    public void writeLogEntryHeader( byte type ) throws IOException
+    {
+        channel.put( parserSetVersion ).put( type );
+    }
+
+    public void serialize( TransactionRepresentation tx ) throws IOException
+    {
+        tx.accept( this );
+    }
+
+    public void serialize( StorageCommand command ) throws IOException
+    {
+        visit( command );
+    }
+
+    @Override
+    public boolean visit( StorageCommand command ) throws IOException
+    {
+        writeLogEntryHeader( COMMAND );
+        command.serialize( channel );
+        return false;
+    }
+
+    public WritableChannel getChannel()
+    {
+        return channel;
+    }
+
+    public byte getParserSetVersion()
+    {
+        return parserSetVersion;
+    }
+}
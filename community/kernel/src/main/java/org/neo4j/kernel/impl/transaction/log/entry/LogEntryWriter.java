@@ -124,6 +124,11 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
         return channel;
     }
 
+    public byte getParserSetVersion()
+    {
+        return parserSetVersion;
+    }
+
     private static class StorageCommandSerializer implements Visitor<StorageCommand,IOException>
     {
         private final WritableChannel channel;
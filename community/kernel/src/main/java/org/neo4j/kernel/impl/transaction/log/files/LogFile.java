@@ -104,6 +104,15 @@ public interface LogFile extends RotatableFile
 
     long getLowestLogVersion();
 
+    /**
+     * Offers a pruned log file for reuse as a future log version, instead of having it deleted.
+     *
+     * @param version version of the pruned log file, which must not be written anymore. Readers that still have it open are not affected.
+     * @return {@code true} if the log file was kept for reuse, or {@code false} if it is up to the caller to delete it.
+     * @throws IOException on I/O error.
+     */
+    boolean recycleLogFile( long version ) throws IOException;
+
     LogHeader extractHeader( long version ) throws IOException;
 
     boolean versionExists( long version );
@@ -118,5 +127,22 @@ public interface LogFile extends RotatableFile
 
     boolean forceAfterAppend( LogForceEvents logForceEvents ) throws IOException;
 
+    /**
+     * Called by the appender that just appended transactions committing with relaxed durability, instead of
+     * {@link #forceAfterAppend(LogForceEvents)}. The appended transactions are handed over to the file system, but forcing them
+     * is left to a background policy, or to the next force of the log, whichever comes first.
+     *
+     * @throws IOException on I/O error.
+     */
+    void writeAfterAppend() throws IOException;
+
+    /**
+     * Forces transactions appended with relaxed durability that have not been forced yet, if there are any.
+     * Must be called before writing store pages that may contain changes of such transactions, and is cheap when there is nothing to force.
+     *
+     * @throws IOException on I/O error.
+     */
+    void forceRelaxedAppends() throws IOException;
+
     void flush() throws IOException;
 }
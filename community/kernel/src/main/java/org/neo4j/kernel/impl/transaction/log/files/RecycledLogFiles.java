@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+
+/**
+ * A pool of pruned transaction log files that are kept around to become future log versions, instead of being deleted.
+ * Taking a recycled file for a new log version is a rename of a file that is already allocated on disk, so rotation
+ * neither has to create and grow a new file, nor preallocate space for it.
+ * <p>
+ * A recycled file is a new file, preallocated the same way as a new log file is on rotation, which reads back as all
+ * zeros: an all zero header tells that the header has not been written yet, and zeros after the last entry tell that
+ * there are no more entries. Preallocation does not write the file contents, so recycling is cheap enough for the
+ * checkpoint that prunes the logs. Since there is nothing to gain from recycling when log files are not preallocated,
+ * pruned files are then left to the caller to delete. The pruned log file itself is only deleted once its replacement
+ * has been allocated, and is never written to, so readers that still have it open keep reading its original contents.
+ * <p>
+ * Recycled files left over from a previous run are deleted on {@link #init()}, since there is no telling whether they were
+ * completely allocated.
+ */
+public class RecycledLogFiles
+{
+    private final FileSystemAbstraction fileSystem;
+    private final TransactionLogFilesHelper fileHelper;
+    private final int capacity;
+    private final ChannelNativeAccessor nativeChannelAccessor;
+    private final AtomicBoolean tryPreallocate;
+    private final Queue<Path> pool = new ConcurrentLinkedQueue<>();
+    // Files in the pool, and files on their way into it
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    public RecycledLogFiles( FileSystemAbstraction fileSystem, TransactionLogFilesHelper fileHelper, int capacity,
+            ChannelNativeAccessor nativeChannelAccessor, AtomicBoolean tryPreallocate )
+    {
+        this.fileSystem = fileSystem;
+        this.fileHelper = fileHelper;
+        this.capacity = capacity;
+        this.nativeChannelAccessor = nativeChannelAccessor;
+        this.tryPreallocate = tryPreallocate;
+    }
+
+    public void init() throws IOException
+    {
+        for ( Path leftover : fileHelper.getRecycledLogFiles() )
+        {
+            fileSystem.deleteFile( leftover );
+        }
+    }
+
+    /**
+     * Keep the given log file for reuse, if there is room for it in the pool.
+     *
+     * The log file is replaced by a preallocated file, and then deleted.
+     *
+     * @param version the version of the pruned log file.
+     * @param logFile a pruned log file, which must not be written anymore.
+     * @return {@code true} if the log file was replaced by a file in the pool, or {@code false} if it is up to the caller to delete it.
+     * @throws IOException if the replacement could not be created, or the log file could not be deleted.
+     */
+    public boolean recycle( long version, Path logFile ) throws IOException
+    {
+        if ( !tryPreallocate.get() )
+        {
+            return false;
+        }
+        if ( reserved.incrementAndGet() > capacity )
+        {
+            reserved.decrementAndGet();
+            return false;
+        }
+
+        Path recycled = fileHelper.getRecycledLogFile( nextSequence.getAndIncrement() );
+        try
+        {
+            // Never clear the log file in place, readers that opened it before it was pruned may still be reading it
+            allocate( version, recycled );
+            fileSystem.deleteFile( logFile );
+        }
+        catch ( IOException e )
+        {
+            reserved.decrementAndGet();
+            try
+            {
+                fileSystem.deleteFile( recycled );
+            }
+            catch ( IOException deleteException )
+            {
+                e.addSuppressed( deleteException );
+            }
+            throw e;
+        }
+        pool.add( recycled );
+        return true;
+    }
+
+    /**
+     * Move a recycled log file, if there is one, into place as the given log file.
+     *
+     * @param logFile the log file to create.
+     * @return {@code true} if a recycled file now is the given log file, or {@code false} if the pool was empty.
+     * @throws IOException if a recycled file could not be moved into place.
+     */
+    public boolean take( Path logFile ) throws IOException
+    {
+        Path recycled;
+        while ( (recycled = pool.poll()) != null )
+        {
+            reserved.decrementAndGet();
+            try
+            {
+                fileSystem.renameFile( recycled, logFile );
+                return true;
+            }
+            catch ( NoSuchFileException e )
+            {
+                // Someone removed the recycled file from under us, try the next one
+            }
+        }
+        return false;
+    }
+
+    public int size()
+    {
+        return pool.size();
+    }
+
+    private void allocate( long version, Path file ) throws IOException
+    {
+        try ( StoreChannel channel = fileSystem.write( file ) )
+        {
+            nativeChannelAccessor.preallocateSpace( channel, version );
+        }
+    }
+}
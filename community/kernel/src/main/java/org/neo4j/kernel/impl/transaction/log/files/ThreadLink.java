@@ -21,15 +21,22 @@ package org.neo4j.kernel.impl.transaction.log.files;
 
 import java.util.concurrent.locks.LockSupport;
 
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvents;
+
 class ThreadLink
 {
     final Thread thread;
+    // The trace events of the committer, for when another thread forces the log on its behalf
+    final LogForceEvents logForceEvents;
     volatile ThreadLink next;
     volatile boolean done;
+    volatile boolean checkRotation;
 
-    ThreadLink( Thread thread )
+    ThreadLink( Thread thread, LogForceEvents logForceEvents )
     {
         this.thread = thread;
+        this.logForceEvents = logForceEvents;
     }
 
     public void unpark()
@@ -37,7 +44,7 @@ class ThreadLink
         LockSupport.unpark( thread );
     }
 
-    static final ThreadLink END = new ThreadLink( null );
+    static final ThreadLink END = new ThreadLink( null, LogAppendEvent.NULL );
 
     static
     {
@@ -47,9 +47,18 @@ public class TransactionLogChannelAllocator
     private final LogHeaderCache logHeaderCache;
     private final ChannelNativeAccessor nativeChannelAccessor;
     private final DatabaseTracer databaseTracer;
+    private final RecycledLogFiles recycledLogFiles;
 
     public TransactionLogChannelAllocator( TransactionLogFilesContext logFilesContext, TransactionLogFilesHelper fileHelper, LogHeaderCache logHeaderCache,
             ChannelNativeAccessor nativeChannelAccessor )
+    {
+        this( logFilesContext, fileHelper, logHeaderCache, nativeChannelAccessor,
+                new RecycledLogFiles( logFilesContext.getFileSystem(), fileHelper, 0, nativeChannelAccessor,
+                        logFilesContext.getTryPreallocateTransactionLogs() ) );
+    }
+
+    public TransactionLogChannelAllocator( TransactionLogFilesContext logFilesContext, TransactionLogFilesHelper fileHelper, LogHeaderCache logHeaderCache,
+            ChannelNativeAccessor nativeChannelAccessor, RecycledLogFiles recycledLogFiles )
     {
         this.logFilesContext = logFilesContext;
         this.fileSystem = logFilesContext.getFileSystem();
@@ -57,6 +66,7 @@ public class TransactionLogChannelAllocator
         this.fileHelper = fileHelper;
         this.logHeaderCache = logHeaderCache;
         this.nativeChannelAccessor = nativeChannelAccessor;
+        this.recycledLogFiles = recycledLogFiles;
     }
 
     public PhysicalLogVersionedStoreChannel createLogChannel( long version, LongSupplier lastCommittedTransactionId ) throws IOException
@@ -147,7 +157,8 @@ public class TransactionLogChannelAllocator
     private AllocatedFile allocateFile( long version ) throws IOException
     {
         Path file = fileHelper.getLogFileForVersion( version );
-        boolean fileExist = fileSystem.fileExists( file );
+        // A recycled file is already allocated, so it is treated just like an existing file
+        boolean fileExist = fileSystem.fileExists( file ) || recycledLogFiles.take( file );
         StoreChannel storeChannel = fileSystem.write( file );
         if ( fileExist )
         {
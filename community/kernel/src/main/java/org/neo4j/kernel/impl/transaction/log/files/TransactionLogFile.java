@@ -22,9 +22,12 @@ package org.neo4j.kernel.impl.transaction.log.files;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -35,6 +38,7 @@ import java.util.function.LongSupplier;
 
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.DelegatingStoreChannel;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
@@ -47,6 +51,7 @@ import org.neo4j.kernel.impl.transaction.log.LogHeaderCache;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.LogVersionBridge;
 import org.neo4j.kernel.impl.transaction.log.LogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.MappedLogChannel;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PositionAwarePhysicalFlushableChecksumChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
@@ -63,14 +68,38 @@ import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.DatabaseHealth;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 
 import static java.lang.Math.min;
 import static java.lang.Runtime.getRuntime;
+import static java.nio.file.StandardOpenOption.READ;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_commit_delay;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_compression;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_compression_level;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_dedicated_flusher;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_memory_mapped_reader;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_recycle_pool_size;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_relaxed_force_interval;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_relaxed_force_size;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
 
 /**
  * {@link LogFile} backed by one or more files in a {@link FileSystemAbstraction}.
+ * <p>
+ * Appended transactions are made durable by {@link #forceAfterAppend(LogForceEvents)}, which by default elects one of the
+ * concurrently committing threads to force the log on behalf of all of them. If the dedicated flusher is enabled, a job on the
+ * job scheduler does all forcing instead, optionally waiting a configurable commit delay for more transactions to join each force,
+ * and committing threads merely wait for it. The election is still used whenever the flusher is not running, e.g. after stop.
+ * <p>
+ * Transactions committing with relaxed durability call {@link #writeAfterAppend()} instead, which only hands the appended bytes
+ * over to the file system. Those are forced by a job on the job scheduler, scheduled on the first such commit, once the oldest of
+ * them has waited for the relaxed force interval or enough of them have accumulated, unless a regular force gets to them first.
+ * Since they are not durable when their changes reach the store, the database calls {@link #forceRelaxedAppends()} before writing
+ * any store page, which keeps the store from getting ahead of the log.
  */
 public class TransactionLogFile extends LifecycleAdapter implements LogFile
 {
@@ -85,9 +114,35 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
     private final MemoryTracker memoryTracker;
     private final TransactionLogFileInformation logFileInformation;
     private final TransactionLogChannelAllocator channelAllocator;
+    private final RecycledLogFiles recycledLogFiles;
     private final DatabaseHealth databaseHealth;
+    private final boolean dedicatedFlusher;
+    private final long commitDelayNanos;
+    private final boolean memoryMappedReader;
+    private final long relaxedForceIntervalNanos;
+    private final long relaxedForceSize;
 
     private volatile PhysicalLogVersionedStoreChannel channel;
+    private final JobScheduler jobScheduler;
+    private JobHandle<?> flusherJob;
+    // Whether committers should leave forcing to the flusher job, which is the case from when it is scheduled until it exits
+    private volatile boolean flusherRunning;
+    // The thread of the flusher job once it has started, which committers unpark to have the log forced
+    private volatile Thread flusher;
+    // Guarded by this. Whether the relaxed forcer job may be scheduled, which is the case from start until stop
+    private boolean relaxedForcerAllowed;
+    private JobHandle<?> relaxedForcerJob;
+    // Whether committers of relaxed transactions should leave forcing to the relaxed forcer job, the same way as for the flusher
+    private volatile boolean relaxedForcerRunning;
+    private volatile Thread relaxedForcer;
+    // How many appends with relaxed durability there have been, incremented under this, and how many of those are known
+    // to have been forced. Both are read without holding this, to cheaply tell whether anything is pending.
+    private volatile long relaxedAppends;
+    private final AtomicLong forcedRelaxedAppends = new AtomicLong();
+    // Guarded by this. Since when the oldest relaxed append not yet forced has been waiting
+    private long relaxedAppendsPendingSince;
+    // The position in the current log file up to which the log was last forced
+    private volatile long forcedPosition;
     private PositionAwarePhysicalFlushableChecksumChannel writer;
     private LogVersionRepository logVersionRepository;
     private final LogHeaderCache logHeaderCache;
@@ -100,14 +155,24 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         this.rotateAtSize = context.getRotationThreshold();
         this.fileSystem = context.getFileSystem();
         this.databaseHealth = context.getDatabaseHealth();
+        this.jobScheduler = context.getJobScheduler();
         this.fileHelper = new TransactionLogFilesHelper( fileSystem, logFiles.logFilesDirectory(), name );
         this.logHeaderCache = new LogHeaderCache( 1000 );
         this.logFileInformation = new TransactionLogFileInformation( logFiles, logHeaderCache, context );
-        this.channelAllocator = new TransactionLogChannelAllocator( context, fileHelper, logHeaderCache,
-                new LogFileChannelNativeAccessor( fileSystem, context ) );
+        var nativeChannelAccessor = new LogFileChannelNativeAccessor( fileSystem, context );
+        this.recycledLogFiles = new RecycledLogFiles( fileSystem, fileHelper, context.getConfig().get( tx_log_recycle_pool_size ),
+                nativeChannelAccessor, context.getTryPreallocateTransactionLogs() );
+        this.channelAllocator = new TransactionLogChannelAllocator( context, fileHelper, logHeaderCache, nativeChannelAccessor, recycledLogFiles );
         this.readerLogVersionBridge = new ReaderLogVersionBridge( this );
         this.pageCacheTracer = context.getDatabaseTracers().getPageCacheTracer();
         this.memoryTracker = context.getMemoryTracker();
+        // Without a scheduler to run the flusher on, the committers elect a forcer amongst themselves
+        this.dedicatedFlusher = context.getConfig().get( tx_log_dedicated_flusher ) && jobScheduler != null;
+        this.commitDelayNanos = context.getConfig().get( tx_log_commit_delay ).toNanos();
+        // Only files on the real file system can be mapped
+        this.memoryMappedReader = context.getConfig().get( tx_log_memory_mapped_reader ) && fileSystem instanceof DefaultFileSystemAbstraction;
+        this.relaxedForceIntervalNanos = context.getConfig().get( tx_log_relaxed_force_interval ).toNanos();
+        this.relaxedForceSize = context.getConfig().get( tx_log_relaxed_force_size );
     }
 
     @Override
@@ -119,15 +184,73 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
     @Override
     public void start() throws IOException
     {
+        recycledLogFiles.init();
         long currentLogVersion = logVersionRepository.getCurrentLogVersion();
         channel = createLogChannelForVersion( currentLogVersion, context::getLastCommittedTransactionId );
         context.getMonitors().newMonitor( LogRotationMonitor.class ).started( channel.getPath(), currentLogVersion );
 
         //try to set position
         seekChannelPosition( currentLogVersion );
+        forcedPosition = channel.position();
+        synchronized ( this )
+        {
+            // Without a scheduler to run the relaxed forcer on, relaxed transactions are forced by their committers
+            relaxedForcerAllowed = jobScheduler != null;
+        }
 
         writer = new PositionAwarePhysicalFlushableChecksumChannel( channel, new NativeScopedBuffer( calculateLogBufferSize(), memoryTracker ) );
-        transactionLogWriter = new TransactionLogWriter( writer, new DbmsLogEntryWriterFactory( context.getKernelVersionProvider() ) );
+        int compressionLevel = context.getConfig().get( tx_log_compression ) ? context.getConfig().get( tx_log_compression_level ) : 0;
+        transactionLogWriter = new TransactionLogWriter( writer, new DbmsLogEntryWriterFactory( context.getKernelVersionProvider() ), compressionLevel,
+                context.getDatabaseTracers().getDatabaseTracer().compressCommands() );
+
+        if ( dedicatedFlusher )
+        {
+            flusherRunning = true;
+            flusherJob = jobScheduler.schedule( Group.TRANSACTION_LOG_FLUSHER, systemJob( "Forcing the transaction log for committing transactions" ),
+                    this::flushContinuously );
+        }
+    }
+
+    @Override
+    public void stop() throws IOException, InterruptedException, ExecutionException
+    {
+        JobHandle<?> relaxedJob;
+        synchronized ( this )
+        {
+            // Relaxed transactions that come after this point will be forced by their committers
+            relaxedForcerAllowed = false;
+            relaxedForcerRunning = false;
+            relaxedJob = relaxedForcerJob;
+            relaxedForcerJob = null;
+        }
+        if ( relaxedJob != null )
+        {
+            Thread relaxedForcerThread = relaxedForcer;
+            if ( relaxedForcerThread != null )
+            {
+                LockSupport.unpark( relaxedForcerThread );
+            }
+            relaxedJob.waitTermination();
+        }
+        if ( databaseHealth.isHealthy() )
+        {
+            forceRelaxedAppends();
+        }
+
+        JobHandle<?> job = flusherJob;
+        if ( job != null )
+        {
+            // Committers that come after this point will go back to electing a forcer amongst themselves,
+            // and those already waiting will do the same if the flusher exits without having forced for them.
+            flusherJob = null;
+            flusherRunning = false;
+            Thread flusherThread = flusher;
+            if ( flusherThread != null )
+            {
+                LockSupport.unpark( flusherThread );
+            }
+            job.waitTermination();
+        }
     }
 
     // In order to be able to write into a logfile after life.stop during shutdown sequence
@@ -185,6 +308,9 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         {
             channel = rotate( channel, cursorContext );
             writer.setChannel( channel );
+            // Rotation forced everything appended to the previous log file
+            forcedPosition = channel.position();
+            relaxedAppendsForced( relaxedAppends );
             return channel.getPath();
         }
     }
@@ -223,9 +349,36 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
     {
         PhysicalLogVersionedStoreChannel logChannel = openForVersion( position.getLogVersion(), raw );
         logChannel.position( position.getByteOffset() );
+        if ( memoryMappedReader )
+        {
+            return new MappedLogChannel( logChannel, logVersionBridge, this::mapCompletedLogFile, memoryTracker, raw );
+        }
         return new ReadAheadLogChannel( logChannel, logVersionBridge, memoryTracker, raw );
     }
 
+    /**
+     * Map log files that will not be appended to anymore. The log file currently being appended to is left to a read-ahead
+     * buffer, since a mapping would not see what is appended after it was made.
+     */
+    private ByteBuffer mapCompletedLogFile( LogVersionedStoreChannel logChannel ) throws IOException
+    {
+        PhysicalLogVersionedStoreChannel appendChannel = channel;
+        long appendVersion = appendChannel != null ? appendChannel.getVersion() : getHighestLogVersion();
+        if ( logChannel.getVersion() >= appendVersion )
+        {
+            return null;
+        }
+        try ( FileChannel fileChannel = FileChannel.open( getLogFileForVersion( logChannel.getVersion() ), READ ) )
+        {
+            long size = fileChannel.size();
+            if ( size > Integer.MAX_VALUE )
+            {
+                return null;
+            }
+            return fileChannel.map( FileChannel.MapMode.READ_ONLY, 0, size );
+        }
+    }
+
     @Override
     public void accept( LogFileVisitor visitor, LogPosition startingFromPosition ) throws IOException
     {
@@ -265,6 +418,12 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         return fileSystem.fileExists( getLogFileForVersion( version ) );
     }
 
+    @Override
+    public boolean recycleLogFile( long version ) throws IOException
+    {
+        return recycledLogFiles.recycle( version, getLogFileForVersion( version ) );
+    }
+
     @Override
     public LogHeader extractHeader( long version ) throws IOException
     {
@@ -379,14 +538,15 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
      * Called by the appender that just appended a transaction to the log.
      *
      * @param logForceEvents A trace event for the given log append operation.
-     * @return {@code true} if we got lucky and were the ones forcing the log.
+     * @return {@code true} if we got lucky and were the ones forcing the log, or, with the dedicated flusher,
+     * if we were the latest committer included in a force. Either way one of the committers in each force gets to check log rotation.
      */
     @Override
     public boolean forceAfterAppend( LogForceEvents logForceEvents ) throws IOException
     {
         // There's a benign race here, where we add our link before we update our next pointer.
         // This is okay, however, because unparkAll() spins when it sees a null next pointer.
-        ThreadLink threadLink = new ThreadLink( Thread.currentThread() );
+        ThreadLink threadLink = new ThreadLink( Thread.currentThread(), logForceEvents );
         threadLink.next = threadLinkHead.getAndSet( threadLink );
         boolean attemptedForce = false;
 
@@ -394,7 +554,16 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         {
             do
             {
-                if ( forceLock.tryLock() )
+                if ( flusherRunning )
+                {
+                    Thread flusherThread = flusher;
+                    if ( flusherThread != null )
+                    {
+                        LockSupport.unpark( flusherThread );
+                    }
+                    waitForLogForce();
+                }
+                else if ( forceLock.tryLock() )
                 {
                     attemptedForce = true;
                     try
@@ -429,7 +598,87 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
                 databaseHealth.assertHealthy( IOException.class );
             }
         }
-        return attemptedForce;
+        return attemptedForce || threadLink.checkRotation;
+    }
+
+    @Override
+    public void writeAfterAppend() throws IOException
+    {
+        boolean forceNow;
+        boolean forceSoon;
+        synchronized ( this )
+        {
+            databaseHealth.assertHealthy( IOException.class );
+            writer.prepareForFlush();
+            if ( forcedRelaxedAppends.get() == relaxedAppends )
+            {
+                relaxedAppendsPendingSince = System.nanoTime();
+            }
+            relaxedAppends++;
+            if ( relaxedForcerJob == null && relaxedForcerAllowed )
+            {
+                relaxedForcerRunning = true;
+                relaxedForcerJob = jobScheduler.schedule( Group.TRANSACTION_LOG_RELAXED_FORCER,
+                        systemJob( "Forcing the transaction log for transactions committed with relaxed durability" ), this::forceRelaxedContinuously );
+            }
+            forceNow = !relaxedForcerRunning;
+            forceSoon = channel.position() - forcedPosition >= relaxedForceSize;
+        }
+
+        if ( forceNow )
+        {
+            forceRelaxedAppends();
+        }
+        else if ( forceSoon )
+        {
+            Thread relaxedForcerThread = relaxedForcer;
+            if ( relaxedForcerThread != null )
+            {
+                LockSupport.unpark( relaxedForcerThread );
+            }
+        }
+    }
+
+    /**
+     * Relaxed appends are handed over to the channel as they are made, so all that is left to do is forcing the channel.
+     * That is done without taking the monitor of this log file, and without joining the committers in
+     * {@link #forceAfterAppend(LogForceEvents)}, since this is also called before store pages are written. The thread writing
+     * them may hold page locks that a thread holding the monitor, e.g. while rotating, is waiting for.
+     */
+    @Override
+    public void forceRelaxedAppends() throws IOException
+    {
+        long relaxedAppendsToForce = relaxedAppends;
+        if ( forcedRelaxedAppends.get() >= relaxedAppendsToForce )
+        {
+            return;
+        }
+        // Read after the number of appends. Appends that went into an earlier channel were forced when rotating away from it.
+        PhysicalLogVersionedStoreChannel currentChannel = channel;
+        long position;
+        try
+        {
+            databaseHealth.assertHealthy( IOException.class );
+            position = currentChannel.position();
+            currentChannel.flush();
+        }
+        catch ( ClosedChannelException ignored )
+        {
+            // The channel was closed by a rotation away from it, which forced it before closing it
+            return;
+        }
+        catch ( final Throwable panic )
+        {
+            databaseHealth.panic( panic );
+            throw panic;
+        }
+        relaxedAppendsForced( relaxedAppendsToForce );
+        if ( channel == currentChannel )
+        {
+            // Only used to tell when enough has been appended to force again, so it does not matter if we lose a race with a
+            // rotation here, other than that the next force may come when the relaxed force interval is up instead
+            forcedPosition = position;
+        }
     }
 
     /**
@@ -605,7 +854,11 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
 
     private void forceLog( LogForceEvents logForceEvents ) throws IOException
     {
-        ThreadLink links = threadLinkHead.getAndSet( ThreadLink.END );
+        forceLog( logForceEvents, threadLinkHead.getAndSet( ThreadLink.END ) );
+    }
+
+    private void forceLog( LogForceEvents logForceEvents, ThreadLink links ) throws IOException
+    {
         try ( LogForceEvent logForceEvent = logForceEvents.beginLogForce() )
         {
             force();
@@ -639,6 +892,114 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         while ( links != ThreadLink.END );
     }
 
+    /**
+     * Main loop of the dedicated flusher job. Forces the log whenever there are committers waiting for it, after first
+     * giving more committers the chance to join the force for the duration of the commit delay. The force is traced as
+     * part of the latest committer in it. The flusher exits once the database is no longer healthy, leaving the committers
+     * to find that out when they go back to forcing the log themselves.
+     */
+    private void flushContinuously()
+    {
+        flusher = Thread.currentThread();
+        try
+        {
+            while ( flusherRunning && databaseHealth.isHealthy() )
+            {
+                if ( threadLinkHead.get() == ThreadLink.END )
+                {
+                    waitForLogForce();
+                    continue;
+                }
+
+                // Committers unpark us on arrival, so keep parking until the full delay has passed
+                long delayDeadline = System.nanoTime() + commitDelayNanos;
+                long remainingDelay;
+                while ( (remainingDelay = delayDeadline - System.nanoTime()) > 0 && flusherRunning )
+                {
+                    LockSupport.parkNanos( this, remainingDelay );
+                }
+
+                forceLock.lock();
+                try
+                {
+                    ThreadLink links = threadLinkHead.getAndSet( ThreadLink.END );
+                    if ( links != ThreadLink.END )
+                    {
+                        // The latest committer in this force checks whether the log needs rotating
+                        links.checkRotation = true;
+                        forceLog( links.logForceEvents, links );
+                    }
+                }
+                catch ( IOException e )
+                {
+                    // The failed force has panicked the database, which the waiting committers notice when they check
+                    // the database health.
+                    return;
+                }
+                finally
+                {
+                    forceLock.unlock();
+                }
+            }
+        }
+        finally
+        {
+            flusherRunning = false;
+            flusher = null;
+        }
+    }
+
+    /**
+     * Main loop of the relaxed forcer job. Forces the log once the oldest relaxed transaction not yet forced has waited for
+     * the relaxed force interval, or earlier if a committer unparks us because enough relaxed appends have accumulated.
+     * Like the flusher, the relaxed forcer exits once the database is no longer healthy, after which committers of relaxed
+     * transactions force the log themselves and find out about it.
+     */
+    private void forceRelaxedContinuously()
+    {
+        relaxedForcer = Thread.currentThread();
+        try
+        {
+            while ( relaxedForcerRunning && databaseHealth.isHealthy() )
+            {
+                long remainingInterval;
+                synchronized ( this )
+                {
+                    if ( forcedRelaxedAppends.get() == relaxedAppends )
+                    {
+                        remainingInterval = relaxedForceIntervalNanos;
+                    }
+                    else if ( channel.position() - forcedPosition >= relaxedForceSize )
+                    {
+                        remainingInterval = 0;
+                    }
+                    else
+                    {
+                        remainingInterval = relaxedAppendsPendingSince + relaxedForceIntervalNanos - System.nanoTime();
+                    }
+                }
+                if ( remainingInterval > 0 )
+                {
+                    // Wake up every now and then to notice whether the database has panicked
+                    LockSupport.parkNanos( this, Math.min( remainingInterval, TimeUnit.MILLISECONDS.toNanos( 100 ) ) );
+                }
+                else
+                {
+                    forceRelaxedAppends();
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            // The failed force has panicked the database, which committers notice when they check the database health
+        }
+        finally
+        {
+            relaxedForcerRunning = false;
+            relaxedForcer = null;
+        }
+    }
+
     private void waitForLogForce()
     {
         long parkTime = TimeUnit.MILLISECONDS.toNanos( 100 );
@@ -652,10 +1013,14 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         // on logFile because it would cause deadlocks. Synchronizing on writer assumes that appenders
         // also synchronize on writer.
         Flushable flushable;
+        long relaxedAppendsToForce;
         synchronized ( this )
         {
             databaseHealth.assertHealthy( IOException.class );
             flushable = writer.prepareForFlush();
+            // Whatever was appended so far is part of this force
+            forcedPosition = channel.position();
+            relaxedAppendsToForce = relaxedAppends;
         }
         // Force the writer outside of the lock.
         // This allows other threads access to the buffer while the writer is being forced.
@@ -670,6 +1035,13 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
             // successful in emptying the buffer *UNDER THE LOCK* we know that the rotating thread included the changes
             // we emptied into the channel, and thus it is already flushed by that thread.
         }
+        relaxedAppendsForced( relaxedAppendsToForce );
+    }
+
+    private void relaxedAppendsForced( long relaxedAppendsToForce )
+    {
+        // Forces may complete out of order, so never go back on what is known to be forced
+        forcedRelaxedAppends.accumulateAndGet( relaxedAppendsToForce, Math::max );
     }
 
     private static class UncloseableChannel extends DelegatingStoreChannel<LogVersionedStoreChannel> implements LogVersionedStoreChannel
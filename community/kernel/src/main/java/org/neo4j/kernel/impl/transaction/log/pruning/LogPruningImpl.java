@@ -28,6 +28,7 @@ import java.util.function.LongConsumer;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
@@ -155,10 +156,13 @@ public class LogPruningImpl implements LogPruning
         {
             fromVersion = fromVersion == NO_VERSION ? version : Math.min( fromVersion, version );
             toVersion = toVersion == NO_VERSION ? version : Math.max( toVersion, version );
-            Path logFile = logFiles.getLogFile().getLogFileForVersion( version );
+            LogFile logFile = logFiles.getLogFile();
             try
             {
-                fs.deleteFile( logFile );
+                if ( !logFile.recycleLogFile( version ) )
+                {
+                    fs.deleteFile( logFile.getLogFileForVersion( version ) );
+                }
             }
             catch ( IOException e )
             {
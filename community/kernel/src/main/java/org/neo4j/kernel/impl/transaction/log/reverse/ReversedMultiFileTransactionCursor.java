@@ -25,7 +25,7 @@ import org.neo4j.function.ThrowingFunction;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionCursor;
-import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
+import org.neo4j.kernel.impl.transaction.log.PositionableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
@@ -74,11 +74,11 @@ public class ReversedMultiFileTransactionCursor implements TransactionCursor
         ThrowingFunction<LogPosition,TransactionCursor,IOException> factory = position ->
         {
             ReadableLogChannel channel = logFile.getReader( position, NO_MORE_CHANNELS );
-            if ( channel instanceof ReadAheadLogChannel )
+            if ( channel instanceof PositionableLogChannel )
             {
                 // This is a channel which can be positioned explicitly and is the typical case for such channels
                 // Let's take advantage of this fact and use a bit smarter reverse implementation
-                return new ReversedSingleFileTransactionCursor( (ReadAheadLogChannel) channel, logEntryReader,
+                return new ReversedSingleFileTransactionCursor( (PositionableLogChannel) channel, logEntryReader,
                         failOnCorruptedLogFiles, monitor );
             }
 
@@ -27,8 +27,10 @@ import java.util.Deque;
 import org.neo4j.io.fs.ReadAheadChannel;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
 import org.neo4j.kernel.impl.transaction.log.LogVersionBridge;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionCursor;
+import org.neo4j.kernel.impl.transaction.log.PositionableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
 import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
@@ -42,7 +44,9 @@ import org.neo4j.kernel.impl.transaction.log.entry.UnsupportedLogVersionExceptio
  * per chunk "move". This is all internal, so from the outside it simply reverses a transaction log.
  * The memory overhead compared to reading a log in the natural order is almost negligible.
  *
- * This cursor currently only works for a single log file, such that the given {@link ReadAheadLogChannel} should not be
+ * Any other {@link PositionableLogChannel}, like a memory mapped one, works just as well.
+ *
+ * This cursor currently only works for a single log file, such that the given {@link PositionableLogChannel} should not be
  * instantiated with a {@link LogVersionBridge} moving it over to other versions when exhausted. For reversing a whole
  * log stream consisting of multiple log files have a look at {@link ReversedMultiFileTransactionCursor}.
  *
@@ -65,7 +69,8 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
     // Should this be passed in or extracted from the read-ahead channel instead?
     private static final int CHUNK_SIZE = ReadAheadChannel.DEFAULT_READ_AHEAD_SIZE;
 
-    private final ReadAheadLogChannel channel;
+    private final PositionableLogChannel channel;
+    private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final boolean failOnCorruptedLogFiles;
     private final ReversedTransactionCursorMonitor monitor;
     private final TransactionCursor transactionCursor;
@@ -78,7 +83,7 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
     private int chunkStartOffsetIndex;
     private long totalSize;
 
-    ReversedSingleFileTransactionCursor( ReadAheadLogChannel channel, LogEntryReader logEntryReader, boolean failOnCorruptedLogFiles,
+    ReversedSingleFileTransactionCursor( PositionableLogChannel channel, LogEntryReader logEntryReader, boolean failOnCorruptedLogFiles,
             ReversedTransactionCursorMonitor monitor ) throws IOException
     {
         this.channel = channel;
@@ -98,7 +103,7 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
         int offsetCursor = 0;
 
         long logVersion = channel.getVersion();
-        long startOffset = channel.position();
+        long startOffset = channelOffset();
         try
         {
             while ( transactionCursor.next() )
@@ -108,7 +113,7 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
                     offsets = Arrays.copyOf( offsets, offsetCursor * 2 );
                 }
                 offsets[offsetCursor++] = startOffset;
-                startOffset = channel.position();
+                startOffset = channelOffset();
             }
         }
         catch ( IOException | UnsupportedLogVersionException e )
@@ -128,11 +133,16 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
 
         offsetsLength = offsetCursor;
         chunkStartOffsetIndex = offsetCursor;
-        totalSize = channel.position();
+        totalSize = channelOffset();
 
         return offsets;
     }
 
+    private long channelOffset() throws IOException
+    {
+        return channel.getCurrentPosition( positionMarker ).getByteOffset();
+    }
+
     @Override
     public boolean next() throws IOException
     {
@@ -44,4 +44,23 @@ public interface TransactionLogCounters
      * @return last log rotation time in milliseconds
      */
     long lastLogRotationTimeMillis();
+
+    /**
+     * Total number of bytes of transaction commands that have been compressed before being appended to transaction logs.
+     * Divided by {@link #commandBytesAfterCompression()} this gives the compression ratio.
+     * @return total number of command bytes before compression
+     */
+    long commandBytesBeforeCompression();
+
+    /**
+     * Total number of bytes appended to transaction logs for the commands counted by {@link #commandBytesBeforeCompression()}
+     * @return total number of command bytes after compression
+     */
+    long commandBytesAfterCompression();
+
+    /**
+     * Accumulated time spent compressing transaction commands in milliseconds
+     * @return accumulated command compression time in milliseconds
+     */
+    long commandCompressionAccumulatedTotalTimeMillis();
 }
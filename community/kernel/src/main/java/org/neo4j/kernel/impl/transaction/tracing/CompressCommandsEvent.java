@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.tracing;
+
+/**
+ * Event for compression of the commands of transactions appended to the transaction log
+ */
+public interface CompressCommandsEvent
+{
+    CompressCommandsEvent NULL = ( uncompressedBytes, writtenBytes, compressionNanos ) ->
+    {
+
+    };
+
+    /**
+     * A frame of serialized commands has been compressed and written to the log.
+     * @param uncompressedBytes size of the serialized commands.
+     * @param writtenBytes number of bytes written to the log for these commands, which is the uncompressed size if compression did not pay off.
+     * @param compressionNanos time spent compressing.
+     */
+    void commandsCompressed( long uncompressedBytes, long writtenBytes, long compressionNanos );
+}
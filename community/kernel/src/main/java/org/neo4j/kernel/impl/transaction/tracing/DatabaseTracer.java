@@ -84,7 +84,33 @@ public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
         {
             return 0;
         }
+
+        @Override
+        public long commandBytesBeforeCompression()
+        {
+            return 0;
+        }
+
+        @Override
+        public long commandBytesAfterCompression()
+        {
+            return 0;
+        }
+
+        @Override
+        public long commandCompressionAccumulatedTotalTimeMillis()
+        {
+            return 0;
+        }
+
+        @Override
+        public CompressCommandsEvent compressCommands()
+        {
+            return CompressCommandsEvent.NULL;
+        }
     };
 
     LogFileCreateEvent createLogFile();
+
+    CompressCommandsEvent compressCommands();
 }
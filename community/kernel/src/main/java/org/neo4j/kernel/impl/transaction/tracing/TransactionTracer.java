@@ -66,6 +66,24 @@ public interface TransactionTracer extends TransactionLogCounters
         {
             return 0;
         }
+
+        @Override
+        public long commandBytesBeforeCompression()
+        {
+            return 0;
+        }
+
+        @Override
+        public long commandBytesAfterCompression()
+        {
+            return 0;
+        }
+
+        @Override
+        public long commandCompressionAccumulatedTotalTimeMillis()
+        {
+            return 0;
+        }
     };
 
     /**
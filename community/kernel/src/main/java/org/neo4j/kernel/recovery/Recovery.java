@@ -366,7 +366,7 @@ public final class Recovery
                                         transactionStore, metadataProvider, schemaLife, databaseLayout, failOnCorruptedLogFiles, recoveryLog,
                                         startupChecker, tracers.getPageCacheTracer(), memoryTracker, doParallelRecovery );
 
-        CheckPointerImpl.ForceOperation forceOperation = new DefaultForceOperation( indexingService, storageEngine );
+        CheckPointerImpl.ForceOperation forceOperation = new DefaultForceOperation( indexingService, storageEngine, logFiles );
         var checkpointAppender = logFiles.getCheckpointFile().getCheckpointAppender();
         CheckPointerImpl checkPointer =
                 new CheckPointerImpl( metadataProvider, RecoveryThreshold.INSTANCE, forceOperation, LogPruning.NO_PRUNING, checkpointAppender,
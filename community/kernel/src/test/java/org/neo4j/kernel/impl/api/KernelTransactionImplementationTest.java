@@ -25,6 +25,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
@@ -92,6 +93,8 @@ import static org.neo4j.internal.helpers.collection.MapUtil.map;
 import static org.neo4j.internal.kernel.api.connectioninfo.ClientConnectionInfo.EMBEDDED_CONNECTION;
 import static org.neo4j.internal.kernel.api.security.LoginContext.AUTH_DISABLED;
 import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.kernel.api.KernelTransaction.DURABILITY_META_DATA_KEY;
+import static org.neo4j.kernel.api.KernelTransaction.RELAXED_DURABILITY;
 import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionValidationFailed;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
 
@@ -431,6 +434,43 @@ class KernelTransactionImplementationTest extends KernelTransactionTestBase
         assertEquals( startingTime + 5, getObservedFirstTransaction().getTimeCommitted() );
     }
 
+    @SuppressWarnings( "unchecked" )
+    @Test
+    void shouldCommitWithDurabilityRequestedThroughMetaData() throws Exception
+    {
+        doAnswer( invocation ->
+        {
+            Collection<StorageCommand> commands = invocation.getArgument( 0 );
+            commands.add( mock( StorageCommand.class ) );
+            return null;
+        } ).when( storageEngine ).createCommands(
+            any( Collection.class ),
+            any( TransactionState.class ),
+            any( StorageReader.class ),
+            any( CommandCreationContext.class ),
+            any( ResourceLocker.class ),
+            any( LockTracer.class ),
+            anyLong(), any( TxStateVisitor.Decorator.class ), any( CursorContext.class ), any( MemoryTracker.class ) );
+
+        KernelTransactionImplementation transaction = newNotInitializedTransaction();
+        List<Consumer<KernelTransaction>> durabilityInitializers = List.of(
+                tx -> tx.setMetaData( map( "Robot", "Bender", DURABILITY_META_DATA_KEY, RELAXED_DURABILITY ) ),
+                tx -> tx.setMetaData( map( "Robot", "Bender", DURABILITY_META_DATA_KEY, "strict" ) ),
+                tx -> tx.setRelaxedDurability( true ),
+                // Relaxed durability must not stick to the pooled transaction
+                tx -> tx.setMetaData( map( "Robot", "Bender" ) ) );
+        for ( Consumer<KernelTransaction> durabilityInitializer : durabilityInitializers )
+        {
+            transaction.initialize( 5L, BASE_TX_COMMIT_TIMESTAMP, new NoOpClient(), KernelTransaction.Type.IMPLICIT,
+                    SecurityContext.AUTH_DISABLED, 0L, 1L, EMBEDDED_CONNECTION );
+            durabilityInitializer.accept( transaction );
+            transaction.txState().nodeDoCreate( 1L );
+            transaction.commit();
+        }
+
+        assertThat( commitProcess.relaxedDurabilities ).containsExactly( true, false, true, false );
+    }
+
     @ParameterizedTest
     @MethodSource( "parameters" )
     void successfulTxShouldNotifyKernelTransactionsThatItIsClosed( String name, boolean isWriteTx, Consumer<KernelTransaction> transactionInitializer )
@@ -208,12 +208,14 @@ class KernelTransactionTestBase
     {
         private long txId = TransactionIdStore.BASE_TX_ID;
         public List<TransactionRepresentation> transactions = new ArrayList<>();
+        public List<Boolean> relaxedDurabilities = new ArrayList<>();
 
         @Override
         public long commit( TransactionToApply batch, CommitEvent commitEvent,
                             TransactionApplicationMode mode )
         {
             transactions.add( batch.transactionRepresentation() );
+            relaxedDurabilities.add( batch.relaxedDurability() );
             return ++txId;
         }
     }
@@ -25,6 +25,7 @@ import java.util.concurrent.Future;
 
 import org.neo4j.lock.LockTracer;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -93,6 +94,27 @@ abstract class AcquireAndReleaseLocksCompatibility extends LockCompatibilityTest
         assertNotWaiting( clientBLock );
     }
 
+    @Test
+    void shouldAcquireAndReleaseBatchOfLocksOnceEach()
+    {
+        // When
+        long[] ids = {3L, 1L, 2L, 3L, 1L};
+        clientA.acquireExclusiveBatch( LockTracer.NONE, NODE, ids );
+
+        // Then
+        assertArrayEquals( new long[]{1L, 1L, 2L, 3L, 3L}, ids );
+        assertEquals( 3, clientA.activeLockCount() );
+        assertFalse( clientB.trySharedLock( NODE, 2L ) );
+
+        // And when releasing the same batch
+        clientA.releaseExclusiveBatch( NODE, ids );
+
+        // Then every lock taken by the batch is released
+        assertEquals( 0, clientA.activeLockCount() );
+        assertTrue( clientB.tryExclusiveLock( NODE, 1L ) );
+        assertTrue( clientB.tryExclusiveLock( NODE, 3L ) );
+    }
+
     @Test
     void shouldTrySharedLock()
     {
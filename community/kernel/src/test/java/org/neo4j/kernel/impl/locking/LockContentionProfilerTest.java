@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.eclipse.collections.impl.factory.primitive.LongSets;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import org.neo4j.kernel.impl.locking.LockContentionProfiler.ContendedResource;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler.LockWait;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.FakeClock;
+
+import static java.time.Duration.ofMinutes;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
+import static org.neo4j.lock.ResourceTypes.NODE;
+import static org.neo4j.lock.ResourceTypes.RELATIONSHIP;
+
+class LockContentionProfilerTest
+{
+    private final FakeClock clock = Clocks.fakeClock();
+
+    @Test
+    void shouldSampleWaitingAndHoldingTransactions()
+    {
+        LockContentionProfiler profiler = new LockContentionProfiler( 16, ofMinutes( 1 ), clock );
+
+        LockWaitEvent event = profiler.waitForLock( EXCLUSIVE, NODE, 3, 42 );
+        event.blockedBy( LongSets.immutable.of( 1, 2, 3 ) );
+        clock.forward( 5, MILLISECONDS );
+        event.close();
+
+        List<LockWait> waits = profiler.recentWaits();
+        assertThat( waits ).hasSize( 1 );
+        LockWait wait = waits.get( 0 );
+        assertThat( wait.lockType() ).isEqualTo( EXCLUSIVE );
+        assertThat( wait.resourceType() ).isEqualTo( NODE );
+        assertThat( wait.resourceId() ).isEqualTo( 42 );
+        assertThat( wait.waitingTransactionId() ).isEqualTo( 3 );
+        assertThat( wait.holderTransactionIds() ).containsExactly( 1, 2 );
+        assertThat( wait.waitNanos() ).isEqualTo( MILLISECONDS.toNanos( 5 ) );
+    }
+
+    @Test
+    void shouldOnlyKeepMostRecentSamples()
+    {
+        LockContentionProfiler profiler = new LockContentionProfiler( 4, ofMinutes( 1 ), clock );
+
+        for ( long resourceId = 0; resourceId < 10; resourceId++ )
+        {
+            clock.forward( 1, MILLISECONDS );
+            profiler.waitForLock( SHARED, NODE, 1, resourceId ).close();
+        }
+
+        assertThat( profiler.recentWaits() ).extracting( LockWait::resourceId ).containsExactly( 9L, 8L, 7L, 6L );
+    }
+
+    @Test
+    void shouldForgetSamplesOutsideOfWindow()
+    {
+        LockContentionProfiler profiler = new LockContentionProfiler( 16, ofMinutes( 1 ), clock );
+
+        profiler.waitForLock( SHARED, NODE, 1, 1 ).close();
+        clock.forward( 50, SECONDS );
+        profiler.waitForLock( SHARED, NODE, 1, 2 ).close();
+        clock.forward( 20, SECONDS );
+
+        assertThat( profiler.recentWaits() ).extracting( LockWait::resourceId ).containsExactly( 2L );
+    }
+
+    @Test
+    void shouldAggregateMostContendedResources()
+    {
+        LockContentionProfiler profiler = new LockContentionProfiler( 16, ofMinutes( 1 ), clock );
+
+        sampleWait( profiler, 1, 10, 4, 100 );
+        sampleWait( profiler, 2, 10, 4, 300 );
+        sampleWait( profiler, 3, 10, 5, 200 );
+        sampleWait( profiler, 4, 11, 6, 50 );
+        LockWaitEvent event = profiler.waitForLock( EXCLUSIVE, RELATIONSHIP, 5, 10 );
+        clock.forward( 1000, MILLISECONDS );
+        event.close();
+
+        List<ContendedResource> resources = profiler.mostContendedResources( 2 );
+
+        assertThat( resources ).hasSize( 2 );
+        ContendedResource relationship = resources.get( 0 );
+        assertThat( relationship.resourceType() ).isEqualTo( RELATIONSHIP );
+        assertThat( relationship.waits() ).isEqualTo( 1 );
+        ContendedResource node = resources.get( 1 );
+        assertThat( node.resourceType() ).isEqualTo( NODE );
+        assertThat( node.resourceId() ).isEqualTo( 10 );
+        assertThat( node.waits() ).isEqualTo( 3 );
+        assertThat( node.totalWaitNanos() ).isEqualTo( MILLISECONDS.toNanos( 600 ) );
+        assertThat( node.maxWaitNanos() ).isEqualTo( MILLISECONDS.toNanos( 300 ) );
+        assertThat( node.waitingTransactionIds() ).containsExactly( 1, 2, 3 );
+        assertThat( node.holderTransactionIds() ).containsExactly( 4, 5 );
+    }
+
+    @Test
+    void shouldNotTraceWhenDisabled()
+    {
+        LockContentionProfiler profiler = new LockContentionProfiler( 0, ofMinutes( 1 ), clock );
+
+        assertThat( profiler.isEnabled() ).isFalse();
+        assertThat( profiler.waitForLock( SHARED, NODE, 1, 1 ) ).isSameAs( LockWaitEvent.NONE );
+        assertThat( profiler.recentWaits() ).isEmpty();
+    }
+
+    @Test
+    void shouldReceiveHoldersThroughCombinedTracer()
+    {
+        LockContentionProfiler profiler = new LockContentionProfiler( 16, ofMinutes( 1 ), clock );
+        LockTracer tracer = ( lockType, resourceType, transactionId, resourceIds ) -> LockWaitEvent.NONE;
+
+        try ( LockWaitEvent event = tracer.combine( profiler ).waitForLock( SHARED, NODE, 1, 1 ) )
+        {
+            event.blockedBy( LongSets.immutable.of( 7 ) );
+        }
+
+        assertThat( profiler.recentWaits().get( 0 ).holderTransactionIds() ).containsExactly( 7 );
+    }
+
+    private void sampleWait( LockContentionProfiler profiler, long transactionId, long resourceId, long holderTransactionId, long waitMillis )
+    {
+        LockWaitEvent event = profiler.waitForLock( EXCLUSIVE, NODE, transactionId, resourceId );
+        event.blockedBy( LongSets.immutable.of( holderTransactionId ) );
+        clock.forward( waitMillis, MILLISECONDS );
+        event.close();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.lock.AcquireLockTimeoutException;
+import org.neo4j.lock.ResourceTypes;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.kernel.impl.locking.forseti.AdaptiveWaitStrategy.DECAY_INTERVAL;
+import static org.neo4j.kernel.impl.locking.forseti.AdaptiveWaitStrategy.MAX_SPIN_ITERATIONS;
+import static org.neo4j.kernel.impl.locking.forseti.AdaptiveWaitStrategy.MIN_SPIN_ITERATIONS;
+import static org.neo4j.kernel.impl.locking.forseti.AdaptiveWaitStrategy.SPIN_THRESHOLD_NANOS;
+import static org.neo4j.kernel.impl.locking.forseti.AdaptiveWaitStrategy.YIELD_THRESHOLD_NANOS;
+import static org.neo4j.kernel.impl.locking.forseti.LockingInternalSettings.adaptive_lock_wait_strategy;
+
+class AdaptiveWaitStrategyTest
+{
+    @Test
+    void shouldCountShortWaitsAsSavedBySpinning()
+    {
+        AdaptiveWaitStrategy strategy = new AdaptiveWaitStrategy();
+
+        recordWaits( strategy, 100, MICROSECONDS.toNanos( 2 ), 10 );
+
+        assertThat( strategy.expectedWaitNanos() ).isLessThanOrEqualTo( SPIN_THRESHOLD_NANOS );
+        assertThat( strategy.spinningWaits() ).isEqualTo( 100 );
+        assertThat( strategy.savedLatencyNanos() ).isPositive();
+        assertThat( strategy.wastedSpinIterations() ).isZero();
+    }
+
+    @Test
+    void shouldStopSpinningForLongWaits()
+    {
+        AdaptiveWaitStrategy strategy = new AdaptiveWaitStrategy();
+
+        // The first waits are spun for, until the strategy has learned that they are long
+        recordWaits( strategy, 100, MILLISECONDS.toNanos( 10 ), MAX_SPIN_ITERATIONS + 100 );
+        assertThat( strategy.expectedWaitNanos() ).isGreaterThanOrEqualTo( YIELD_THRESHOLD_NANOS );
+        long wastedSpinIterations = strategy.wastedSpinIterations();
+
+        recordWaits( strategy, 10, MILLISECONDS.toNanos( 10 ), MAX_SPIN_ITERATIONS + 100 );
+
+        assertThat( strategy.spinningWaits() ).isZero();
+        assertThat( strategy.wastedSpinIterations() - wastedSpinIterations ).isEqualTo( 10L * MIN_SPIN_ITERATIONS );
+    }
+
+    @Test
+    void shouldForgetOldWaits()
+    {
+        AdaptiveWaitStrategy strategy = new AdaptiveWaitStrategy();
+        recordWaits( strategy, DECAY_INTERVAL, MILLISECONDS.toNanos( 10 ), MAX_SPIN_ITERATIONS + 100 );
+        assertThat( strategy.expectedWaitNanos() ).isGreaterThanOrEqualTo( YIELD_THRESHOLD_NANOS );
+
+        recordWaits( strategy, DECAY_INTERVAL, MICROSECONDS.toNanos( 2 ), 10 );
+
+        assertThat( strategy.expectedWaitNanos() ).isLessThanOrEqualTo( SPIN_THRESHOLD_NANOS );
+    }
+
+    @Test
+    void shouldThrowWhenInterruptedWhileParked()
+    {
+        AdaptiveWaitStrategy strategy = new AdaptiveWaitStrategy();
+        recordWaits( strategy, 100, MILLISECONDS.toNanos( 10 ), MAX_SPIN_ITERATIONS + 100 );
+
+        Thread.currentThread().interrupt();
+
+        assertThrows( AcquireLockTimeoutException.class, () -> strategy.apply( MIN_SPIN_ITERATIONS ) );
+        assertThat( Thread.currentThread().isInterrupted() ).isFalse();
+    }
+
+    @Test
+    void shouldOnlyUseAdaptiveStrategyWhenConfigured()
+    {
+        assertThat( ForsetiLockManager.newWaitStrategy( Config.defaults(), ResourceTypes.NODE ) ).isSameAs( ResourceTypes.NODE.waitStrategy() );
+        assertThat( ForsetiLockManager.newWaitStrategy( Config.defaults( adaptive_lock_wait_strategy, true ), ResourceTypes.NODE ) )
+                .isInstanceOf( AdaptiveWaitStrategy.class );
+    }
+
+    private static void recordWaits( AdaptiveWaitStrategy strategy, int count, long waitNanos, long iterations )
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            strategy.waitEnded( iterations, waitNanos );
+        }
+    }
+}
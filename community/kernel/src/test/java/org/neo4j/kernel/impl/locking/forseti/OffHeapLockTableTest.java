@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.forseti;
+
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.memory.LocalMemoryTracker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
+import static org.neo4j.lock.ResourceTypes.NODE;
+
+class OffHeapLockTableTest
+{
+    private final LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+    private final OffHeapLockTable table = new OffHeapLockTable( NODE, 4, memoryTracker );
+
+    @AfterEach
+    void closeTable()
+    {
+        table.close();
+        assertThat( memoryTracker.usedNativeMemory() ).isZero();
+    }
+
+    @Test
+    void shouldShareLockBetweenClients()
+    {
+        assertTrue( table.tryAcquireShared( 1, 0 ) );
+        assertTrue( table.tryAcquireShared( 1, 1 ) );
+        assertTrue( table.tryAcquireShared( 1, 2 ) );
+
+        assertThat( holders( 1 ).toSortedArray() ).containsExactly( 0, 1, 2 );
+        assertTrue( table.holds( 1, 1, SHARED ) );
+        assertFalse( table.holds( 1, 1, EXCLUSIVE ) );
+        assertFalse( table.tryAcquireExclusive( 1, 3 ) );
+
+        table.releaseShared( 1, 0 );
+        table.releaseShared( 1, 2 );
+        assertThat( holders( 1 ).toSortedArray() ).containsExactly( 1 );
+        assertTrue( table.tryUpgradeToExclusive( 1, 1, false ) );
+        assertTrue( table.holds( 1, 1, EXCLUSIVE ) );
+        assertFalse( table.tryAcquireShared( 1, 0 ) );
+
+        table.releaseExclusive( 1, 1, false );
+        assertThat( holders( 1 ).isEmpty() ).isTrue();
+    }
+
+    @Test
+    void shouldKeepNewSharedHoldersOutWhileExclusiveClaimIsPending()
+    {
+        assertTrue( table.tryAcquireShared( 7, 0 ) );
+        assertTrue( table.tryAcquireShared( 7, 1 ) );
+
+        assertFalse( table.tryUpgradeToExclusive( 7, 0, true ) );
+        assertFalse( table.tryAcquireShared( 7, 2 ) );
+        assertFalse( table.tryUpgradeToExclusive( 7, 1, true ) );
+        assertThat( holders( 7 ).toSortedArray() ).containsExactly( 0, 1 );
+
+        table.releaseShared( 7, 1 );
+        assertTrue( table.tryUpgradeToExclusive( 7, 0, true ) );
+        assertTrue( table.holds( 7, 0, EXCLUSIVE ) );
+
+        // Downgrade back to a shared lock
+        table.releaseExclusive( 7, 0, true );
+        assertTrue( table.tryAcquireShared( 7, 2 ) );
+        assertThat( holders( 7 ).toSortedArray() ).containsExactly( 0, 2 );
+        table.releaseShared( 7, 0 );
+        table.releaseShared( 7, 2 );
+    }
+
+    @Test
+    void shouldLetSharedHoldersInAgainWhenExclusiveClaimIsAbandoned()
+    {
+        assertTrue( table.tryAcquireShared( 3, 0 ) );
+        assertTrue( table.tryAcquireShared( 3, 1 ) );
+        assertFalse( table.tryUpgradeToExclusive( 3, 1, true ) );
+
+        table.abandonExclusiveClaim( 3, 1 );
+
+        assertTrue( table.tryAcquireShared( 3, 2 ) );
+        table.releaseShared( 3, 1 );
+        table.releaseShared( 3, 0 );
+        assertThat( holders( 3 ).toSortedArray() ).containsExactly( 2 );
+        assertTrue( table.holds( 3, 2, SHARED ) );
+        table.releaseShared( 3, 2 );
+    }
+
+    @Test
+    void shouldFindAllLocksThroughGrowthAndRemoval()
+    {
+        int count = 10_000;
+        for ( long resourceId = 0; resourceId < count; resourceId++ )
+        {
+            assertTrue( table.tryAcquireExclusive( resourceId * 17, (int) (resourceId % 100) ) );
+        }
+        assertThat( memoryTracker.usedNativeMemory() ).isPositive();
+
+        // Remove every other lock, the rest must still be found
+        for ( long resourceId = 0; resourceId < count; resourceId += 2 )
+        {
+            table.releaseExclusive( resourceId * 17, (int) (resourceId % 100), false );
+        }
+        AtomicInteger locks = new AtomicInteger();
+        table.accept( ( resourceId, lockType, holders ) -> locks.incrementAndGet() );
+        assertThat( locks.get() ).isEqualTo( count / 2 );
+        for ( long resourceId = 0; resourceId < count; resourceId++ )
+        {
+            assertThat( table.holds( resourceId * 17, (int) (resourceId % 100), EXCLUSIVE ) ).isEqualTo( resourceId % 2 == 1 );
+        }
+
+        for ( long resourceId = 1; resourceId < count; resourceId += 2 )
+        {
+            table.releaseExclusive( resourceId * 17, (int) (resourceId % 100), false );
+        }
+        // Stripes that grew give back their memory once empty
+        assertThat( memoryTracker.usedNativeMemory() ).isZero();
+    }
+
+    @Test
+    void shouldNotReleaseLockNotHeld()
+    {
+        assertThrows( IllegalStateException.class, () -> table.releaseShared( 5, 0 ) );
+        assertTrue( table.tryAcquireExclusive( 5, 0 ) );
+        assertThrows( IllegalStateException.class, () -> table.releaseExclusive( 5, 1, false ) );
+        table.releaseExclusive( 5, 0, false );
+    }
+
+    private MutableIntSet holders( long resourceId )
+    {
+        MutableIntSet holders = new IntHashSet();
+        table.collectHolders( resourceId, holders );
+        return holders;
+    }
+}
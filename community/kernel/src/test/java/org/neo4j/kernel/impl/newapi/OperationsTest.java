@@ -80,12 +80,14 @@ import org.neo4j.token.api.TokenHolder;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.platform.commons.util.UnrecoverableExceptions.rethrowIfUnrecoverable;
+import static org.mockito.Answers.CALLS_REAL_METHODS;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 import static org.neo4j.internal.kernel.api.connectioninfo.ClientConnectionInfo.EMBEDDED_CONNECTION;
 import static org.neo4j.io.pagecache.context.CursorContext.NULL;
 import static org.neo4j.lock.LockTracer.NONE;
@@ -98,7 +100,7 @@ abstract class OperationsTest
 
     protected final KernelTransactionImplementation transaction = mock( KernelTransactionImplementation.class );
     protected Operations operations;
-    protected final Locks.Client locks = mock( Locks.Client.class );
+    protected final Locks.Client locks = mock( Locks.Client.class, withSettings().defaultAnswer( CALLS_REAL_METHODS ) );
     protected final Write write = mock( Write.class );
     protected InOrder order;
     protected FullAccessNodeCursor nodeCursor;
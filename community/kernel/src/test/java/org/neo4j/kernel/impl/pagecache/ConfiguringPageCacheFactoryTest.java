@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import org.eclipse.collections.api.factory.Sets;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,6 +28,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -34,8 +37,11 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.context.CursorContext;
+import org.neo4j.io.pagecache.impl.CompressedPageSwapper;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.logging.AssertableLogProvider;
+import org.neo4j.logging.LogAssertions;
 import org.neo4j.logging.NullLog;
 import org.neo4j.memory.MemoryPools;
 import org.neo4j.scheduler.JobScheduler;
@@ -49,9 +55,14 @@ import org.neo4j.time.Clocks;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_compressed_files;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_max_memory;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_page_size_classes;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.configuration.GraphDatabaseSettings.preallocate_store_files;
 import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.PAGE_SIZE_CLASS;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.context.CursorContext.NULL;
@@ -117,4 +128,146 @@ class ConfiguringPageCacheFactoryTest
             assertEquals( bigPageToExpand, file.getLastPageId() );
         }
     }
+
+    @Test
+    void compressConfiguredFiles() throws IOException
+    {
+        Config config = Config.defaults( pagecache_compressed_files, List.of( "compressed" ) );
+
+        ConfiguringPageCacheFactory factory =
+                new ConfiguringPageCacheFactory( fs, config, PageCacheTracer.NULL, NullLog.getInstance(), jobScheduler, Clocks.nanoClock(), new MemoryPools() );
+
+        Path compressed = testDirectory.createFile( "compressed" );
+        Path plain = testDirectory.createFile( "plain" );
+        try ( var cache = factory.getOrCreatePageCache() )
+        {
+            writeRecords( cache, compressed );
+            writeRecords( cache, plain );
+        }
+
+        assertThat( fs.fileExists( CompressedPageSwapper.offsetsFile( compressed ) ) ).isTrue();
+        assertThat( fs.fileExists( CompressedPageSwapper.offsetsFile( plain ) ) ).isFalse();
+        assertThat( fs.getFileSize( compressed ) ).isLessThan( fs.getFileSize( plain ) );
+
+        // Compressed files must be recognised even when they are no longer configured to be compressed.
+        factory = new ConfiguringPageCacheFactory( fs, Config.defaults( pagecache_compressed_files, List.of( "other" ) ), PageCacheTracer.NULL,
+                NullLog.getInstance(), jobScheduler, Clocks.nanoClock(), new MemoryPools() );
+        try ( var cache = factory.getOrCreatePageCache() )
+        {
+            verifyRecords( cache, compressed );
+            verifyRecords( cache, plain );
+        }
+    }
+
+    @Test
+    void pageSizeClassesMustShareThePageCacheMemory() throws IOException
+    {
+        long regularPages = 60;
+        long classPages = 10;
+        int classPageSize = 64 * 1024;
+        // A bit more than what the class pages need, since their meta-data is smaller than that of the equivalent number of regular pages.
+        long classMemory = MuninnPageCache.memoryRequiredForPages( classPages * classPageSize / PAGE_SIZE );
+        Config config = Config.defaults( Map.of(
+                pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( regularPages ) + classMemory ),
+                pagecache_page_size_classes, List.of( "64k:" + classMemory ) ) );
+
+        ConfiguringPageCacheFactory factory =
+                new ConfiguringPageCacheFactory( fs, config, PageCacheTracer.NULL, NullLog.getInstance(), jobScheduler, Clocks.nanoClock(), new MemoryPools() );
+
+        Path testFile = testDirectory.createFile( "a" );
+        try ( var cache = factory.getOrCreatePageCache();
+              var file = cache.map( testFile, classPageSize, "foo", Sets.immutable.of( PAGE_SIZE_CLASS ) );
+              var io = file.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            assertThat( cache.maxCachedPages() ).isEqualTo( regularPages + classPages );
+            assertThat( io.next( 3 ) ).isTrue();
+            io.putLong( classPageSize - Long.BYTES, 42 );
+            assertThat( io.getLong( classPageSize - Long.BYTES ) ).isEqualTo( 42 );
+        }
+    }
+
+    @Test
+    void changingPageCacheMemoryMustResizeThePageCache()
+    {
+        Config config = Config.defaults( Map.of(
+                pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( 100 ) ),
+                pagecache_max_memory, MuninnPageCache.memoryRequiredForPages( 200 ) ) );
+
+        ConfiguringPageCacheFactory factory =
+                new ConfiguringPageCacheFactory( fs, config, PageCacheTracer.NULL, NullLog.getInstance(), jobScheduler, Clocks.nanoClock(), new MemoryPools() );
+
+        try ( PageCache cache = factory.getOrCreatePageCache() )
+        {
+            assertThat( cache.maxCachedPages() ).isEqualTo( 100 );
+
+            config.setDynamic( pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( 200 ) ), "test" );
+            assertThat( cache.maxCachedPages() ).isEqualTo( 200 );
+
+            config.setDynamic( pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( 60 ) ), "test" );
+            assertThat( cache.maxCachedPages() ).isEqualTo( 60 );
+
+            // The page cache cannot grow beyond its max size.
+            config.setDynamic( pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( 300 ) ), "test" );
+            assertThat( cache.maxCachedPages() ).isEqualTo( 200 );
+        }
+    }
+
+    @Test
+    void closedPageCacheMustStopFollowingThePageCacheMemory()
+    {
+        Config config = Config.defaults( Map.of(
+                pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( 100 ) ),
+                pagecache_max_memory, MuninnPageCache.memoryRequiredForPages( 200 ) ) );
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory( fs, config, PageCacheTracer.NULL, logProvider.getLog( getClass() ),
+                jobScheduler, Clocks.nanoClock(), new MemoryPools() );
+        factory.getOrCreatePageCache().close();
+
+        config.setDynamic( pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( 200 ) ), "test" );
+        LogAssertions.assertThat( logProvider ).doesNotHaveAnyLogs();
+    }
+
+    @Test
+    void parsePageSizeClasses()
+    {
+        assertThat( ConfiguringPageCacheFactory.parsePageSizeClasses( List.of( "4k:10m", "65536:1g" ) ) )
+                .isEqualTo( Map.of( 4096, 10L * 1024 * 1024, 65536, 1024L * 1024 * 1024 ) );
+        assertThrows( IllegalArgumentException.class, () -> ConfiguringPageCacheFactory.parsePageSizeClasses( List.of( "4k" ) ) );
+        assertThrows( IllegalArgumentException.class, () -> ConfiguringPageCacheFactory.parsePageSizeClasses( List.of( "4k:1m", "4096:2m" ) ) );
+    }
+
+    private static void writeRecords( PageCache cache, Path path ) throws IOException
+    {
+        try ( var file = cache.map( path, PAGE_SIZE, "foo" );
+              var io = file.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( int page = 0; page < 10; page++ )
+            {
+                assertThat( io.next( page ) ).isTrue();
+                io.putLong( 0, page );
+            }
+            file.flushAndForce();
+        }
+    }
+
+    private static void verifyRecords( PageCache cache, Path path ) throws IOException
+    {
+        try ( var file = cache.map( path, PAGE_SIZE, "foo" );
+              var io = file.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            assertEquals( 9, file.getLastPageId() );
+            for ( int page = 0; page < 10; page++ )
+            {
+                assertThat( io.next( page ) ).isTrue();
+                long value;
+                do
+                {
+                    value = io.getLong( 0 );
+                }
+                while ( io.shouldRetry() );
+                assertEquals( page, value );
+            }
+        }
+    }
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.logging.NullLog;
+import org.neo4j.memory.MemoryPools;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_allowlist;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.context.CursorContext.NULL;
+
+@EphemeralTestDirectoryExtension
+class PageCacheWarmerTest
+{
+    private static final int PAGES_IN_FILE = 100;
+
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private TestDirectory testDirectory;
+
+    private JobScheduler jobScheduler;
+    private PageCache pageCache;
+    private Path databaseDirectory;
+
+    @BeforeEach
+    void setUp()
+    {
+        jobScheduler = new ThreadPoolJobScheduler();
+        Config config = Config.defaults( pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( 10 * PAGES_IN_FILE ) ) );
+        pageCache = new ConfiguringPageCacheFactory( fs, config, PageCacheTracer.NULL, NullLog.getInstance(), jobScheduler, Clocks.nanoClock(),
+                new MemoryPools() ).getOrCreatePageCache();
+        databaseDirectory = testDirectory.directory( "db" );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void mustReloadProfiledPages() throws IOException
+    {
+        Path storeFile = databaseDirectory.resolve( "store" );
+        createFile( storeFile );
+        PageCacheWarmer warmer = warmer( Config.defaults() );
+
+        try ( PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE, "db" ) )
+        {
+            touchPages( pagedFile, 3, 7, 64, 99 );
+            assertThat( warmer.profile() ).isOne();
+            assertThat( fs.fileExists( warmer.profileFile( pagedFile ) ) ).isTrue();
+        }
+
+        // Mapping the file again starts out with a cold page cache.
+        try ( PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE, "db" ) )
+        {
+            assertThat( residentPages( pagedFile ) ).isZero();
+            assertThat( warmer.reheat() ).isEqualTo( 4 );
+            assertThat( isResident( pagedFile, 3 ) ).isTrue();
+            assertThat( isResident( pagedFile, 7 ) ).isTrue();
+            assertThat( isResident( pagedFile, 64 ) ).isTrue();
+            assertThat( isResident( pagedFile, 99 ) ).isTrue();
+            assertThat( residentPages( pagedFile ) ).isEqualTo( 4 );
+        }
+    }
+
+    @Test
+    void mustNotLoadAnythingWithoutProfile() throws IOException
+    {
+        Path storeFile = databaseDirectory.resolve( "store" );
+        createFile( storeFile );
+        PageCacheWarmer warmer = warmer( Config.defaults() );
+
+        try ( PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE, "db" ) )
+        {
+            assertThat( warmer.reheat() ).isZero();
+            assertThat( residentPages( pagedFile ) ).isZero();
+        }
+    }
+
+    @Test
+    void mustPreloadAllPagesOfAllowedFiles() throws IOException
+    {
+        Path allowedFile = databaseDirectory.resolve( "allowed" );
+        Path otherFile = databaseDirectory.resolve( "other" );
+        createFile( allowedFile );
+        createFile( otherFile );
+        PageCacheWarmer warmer = warmer( Config.defaults( pagecache_warmup_prefetch_allowlist, "allowed" ) );
+
+        try ( PagedFile allowed = pageCache.map( allowedFile, PAGE_SIZE, "db" );
+              PagedFile other = pageCache.map( otherFile, PAGE_SIZE, "db" ) )
+        {
+            assertThat( warmer.preload() ).isEqualTo( PAGES_IN_FILE );
+            assertThat( residentPages( allowed ) ).isEqualTo( PAGES_IN_FILE );
+            assertThat( residentPages( other ) ).isZero();
+        }
+    }
+
+    @Test
+    void mustOnlyProfileFilesInDatabaseDirectory() throws IOException
+    {
+        Path storeFile = testDirectory.directory( "elsewhere" ).resolve( "store" );
+        createFile( storeFile );
+        PageCacheWarmer warmer = warmer( Config.defaults() );
+
+        try ( PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE, "db" ) )
+        {
+            touchPages( pagedFile, 1 );
+            assertThat( warmer.profile() ).isZero();
+        }
+    }
+
+    @Test
+    void mustNotWarmUpOrProfileAfterStop() throws IOException
+    {
+        Path storeFile = databaseDirectory.resolve( "store" );
+        createFile( storeFile );
+        PageCacheWarmer warmer = warmer( Config.defaults() );
+        warmer.start();
+        warmer.stop();
+
+        try ( PagedFile ignored = pageCache.map( storeFile, PAGE_SIZE, "db" ) )
+        {
+            assertThat( warmer.profile() ).isEqualTo( -1 );
+            assertThat( warmer.reheat() ).isEqualTo( -1 );
+        }
+    }
+
+    private PageCacheWarmer warmer( Config config )
+    {
+        return new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, "db", config, NullLog.getInstance(), PageCacheTracer.NULL );
+    }
+
+    private void createFile( Path file ) throws IOException
+    {
+        fs.write( file ).close();
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, "db" );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( int i = 0; i < PAGES_IN_FILE; i++ )
+            {
+                assertThat( cursor.next() ).isTrue();
+                cursor.putLong( i );
+            }
+        }
+    }
+
+    private static void touchPages( PagedFile pagedFile, long... pageIds ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            for ( long pageId : pageIds )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+            }
+        }
+    }
+
+    private static boolean isResident( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+        {
+            return cursor.next() && cursor.getCurrentPageId() == pageId;
+        }
+    }
+
+    private static long residentPages( PagedFile pagedFile ) throws IOException
+    {
+        long resident = 0;
+        for ( long pageId = 0; pageId <= pagedFile.getLastPageId(); pageId++ )
+        {
+            if ( isResident( pagedFile, pageId ) )
+            {
+                resident++;
+            }
+        }
+        return resident;
+    }
+}
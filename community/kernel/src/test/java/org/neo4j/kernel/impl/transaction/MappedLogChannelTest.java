@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.zip.Checksum;
+
+import org.neo4j.internal.helpers.collection.Visitor;
+import org.neo4j.io.fs.ChecksumMismatchException;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.ReadPastEndException;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.LogVersionBridge;
+import org.neo4j.kernel.impl.transaction.log.LogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.MappedLogChannel;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.files.LogFileChannelNativeAccessor;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.io.ByteUnit.KibiByte;
+import static org.neo4j.io.fs.ChecksumWriter.CHECKSUM_FACTORY;
+import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+@TestDirectoryExtension
+class MappedLogChannelTest
+{
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private TestDirectory directory;
+    private final LogFileChannelNativeAccessor nativeChannelAccessor = mock( LogFileChannelNativeAccessor.class );
+
+    @Test
+    void shouldReadMappedFilesAndFallBackToReadAheadForUnmappedOnes() throws Exception
+    {
+        for ( int version = 0; version < 3; version++ )
+        {
+            long first = version * 10L;
+            writeSomeData( file( version ), buffer ->
+            {
+                for ( long i = first; i < first + 10; i++ )
+                {
+                    buffer.putLong( i );
+                }
+                return true;
+            } );
+        }
+
+        // Only the first two files are mapped, the last one is read as if it was still being appended to
+        MappedLogChannel.LogFileMapper mapper = logChannel -> logChannel.getVersion() < 2 ? map( file( logChannel.getVersion() ) ) : null;
+        try ( MappedLogChannel channel = new MappedLogChannel( openChannel( 0 ), nextVersionBridge( 2 ), mapper, INSTANCE, false ) )
+        {
+            for ( long i = 0; i < 30; i++ )
+            {
+                assertEquals( i, channel.getLong() );
+                assertEquals( new LogPosition( i / 10, (i % 10 + 1) * Long.BYTES ), channel.getCurrentPosition() );
+            }
+            assertThrows( ReadPastEndException.class, channel::get );
+        }
+    }
+
+    @Test
+    void shouldStartReadingFromThePositionOfTheGivenChannel() throws Exception
+    {
+        writeSomeData( file( 0 ), buffer ->
+        {
+            for ( long i = 0; i < 10; i++ )
+            {
+                buffer.putLong( i );
+            }
+            return true;
+        } );
+
+        PhysicalLogVersionedStoreChannel logChannel = openChannel( 0 );
+        logChannel.position( 4 * Long.BYTES );
+        try ( MappedLogChannel channel = new MappedLogChannel( logChannel, NO_MORE_CHANNELS, this::map, INSTANCE, false ) )
+        {
+            assertEquals( 4, channel.getLong() );
+            channel.setCurrentPosition( 8 * Long.BYTES );
+            assertEquals( 8, channel.getLong() );
+        }
+    }
+
+    @Test
+    void shouldValidateChecksumsOfMappedContent() throws Exception
+    {
+        writeChecksummedData( file( 0 ), 0 );
+        writeChecksummedData( file( 1 ), 1 );
+
+        try ( MappedLogChannel channel = new MappedLogChannel( openChannel( 0 ), NO_MORE_CHANNELS, this::map, INSTANCE, false ) )
+        {
+            channel.beginChecksum();
+            assertEquals( 1234567L, channel.getLong() );
+            channel.endChecksumAndValidate();
+        }
+        try ( MappedLogChannel channel = new MappedLogChannel( openChannel( 1 ), NO_MORE_CHANNELS, this::map, INSTANCE, false ) )
+        {
+            channel.beginChecksum();
+            assertEquals( 1234567L, channel.getLong() );
+            assertThrows( ChecksumMismatchException.class, channel::endChecksumAndValidate );
+        }
+    }
+
+    private void writeChecksummedData( Path file, int checksumDelta ) throws IOException
+    {
+        writeSomeData( file, buffer ->
+        {
+            buffer.putLong( 1234567L );
+            Checksum checksum = CHECKSUM_FACTORY.get();
+            checksum.update( buffer.duplicate().flip() );
+            buffer.putInt( (int) checksum.getValue() + checksumDelta );
+            return true;
+        } );
+    }
+
+    private ByteBuffer map( LogVersionedStoreChannel logChannel ) throws IOException
+    {
+        return map( file( logChannel.getVersion() ) );
+    }
+
+    private static ByteBuffer map( Path file ) throws IOException
+    {
+        try ( FileChannel fileChannel = FileChannel.open( file, READ ) )
+        {
+            return fileChannel.map( FileChannel.MapMode.READ_ONLY, 0, fileChannel.size() );
+        }
+    }
+
+    private LogVersionBridge nextVersionBridge( long lastVersion )
+    {
+        return ( channel, raw ) ->
+        {
+            if ( channel.getVersion() >= lastVersion )
+            {
+                return channel;
+            }
+            channel.close();
+            return openChannel( channel.getVersion() + 1 );
+        };
+    }
+
+    private PhysicalLogVersionedStoreChannel openChannel( long version ) throws IOException
+    {
+        return new PhysicalLogVersionedStoreChannel( fileSystem.read( file( version ) ), version, (byte) -1, file( version ), nativeChannelAccessor );
+    }
+
+    private void writeSomeData( Path file, Visitor<ByteBuffer, IOException> visitor ) throws IOException
+    {
+        try ( StoreChannel channel = fileSystem.write( file ) )
+        {
+            ByteBuffer buffer = ByteBuffers.allocate( 1, KibiByte, INSTANCE );
+            visitor.visit( buffer );
+            buffer.flip();
+            channel.writeAll( buffer );
+        }
+    }
+
+    private Path file( long version )
+    {
+        return directory.homePath().resolve( "" + version );
+    }
+}
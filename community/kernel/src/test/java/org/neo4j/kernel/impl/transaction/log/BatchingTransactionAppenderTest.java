@@ -59,6 +59,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
@@ -150,6 +151,50 @@ class BatchingTransactionAppenderTest
         assertNull( tx.next() );
     }
 
+    @Test
+    void shouldNotForceLogForBatchOfTransactionsWithRelaxedDurability() throws Exception
+    {
+        // GIVEN
+        when( logFile.getTransactionLogWriter() ).thenReturn( new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( () -> LATEST ) ) );
+
+        TransactionAppender appender = life.add( createTransactionAppender() );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L, 3L );
+        TransactionToApply batch = batchOf(
+                transaction( singleTestCommand(), new byte[0], 0, 1, 0 ),
+                transaction( singleTestCommand(), new byte[0], 0, 1, 0 ) );
+        batch.relaxedDurability( true );
+        batch.next().relaxedDurability( true );
+
+        // WHEN
+        appender.append( batch, logAppendEvent );
+
+        // THEN
+        verify( logFile ).writeAfterAppend();
+        verify( logFile, never() ).forceAfterAppend( any() );
+        verify( transactionIdStore ).transactionCommitted( eq( 3L ), anyInt(), anyLong(), any() );
+    }
+
+    @Test
+    void shouldForceLogForBatchWithAnyTransactionWithFullDurability() throws Exception
+    {
+        // GIVEN
+        when( logFile.getTransactionLogWriter() ).thenReturn( new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( () -> LATEST ) ) );
+
+        TransactionAppender appender = life.add( createTransactionAppender() );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L, 3L );
+        TransactionToApply batch = batchOf(
+                transaction( singleTestCommand(), new byte[0], 0, 1, 0 ),
+                transaction( singleTestCommand(), new byte[0], 0, 1, 0 ) );
+        batch.relaxedDurability( true );
+
+        // WHEN
+        appender.append( batch, logAppendEvent );
+
+        // THEN
+        verify( logFile ).forceAfterAppend( any() );
+        verify( logFile, never() ).writeAfterAppend();
+    }
+
     @Test
     void shouldAppendCommittedTransactions() throws Exception
     {
@@ -285,6 +330,7 @@ class BatchingTransactionAppenderTest
     void shouldKernelPanicIfTransactionIdsMismatch()
     {
         // Given
+        when( logFile.getTransactionLogWriter() ).thenReturn( new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( () -> LATEST ) ) );
         BatchingTransactionAppender appender = life.add( createTransactionAppender() );
         when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 42L );
         TransactionToApply batch = new TransactionToApply( mock( TransactionRepresentation.class ), 43L, NULL );
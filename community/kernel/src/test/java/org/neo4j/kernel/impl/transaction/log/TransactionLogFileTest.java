@@ -24,8 +24,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -34,6 +36,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
+import org.neo4j.configuration.Config;
 import org.neo4j.internal.nativeimpl.NativeAccess;
 import org.neo4j.internal.nativeimpl.NativeCallResult;
 import org.neo4j.io.ByteUnit;
@@ -43,6 +46,7 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.ReadableChannel;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
 import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.entry.IncompleteLogHeaderException;
@@ -52,7 +56,15 @@ import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFilesHelper;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvents;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
 import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.logging.NullLog;
+import org.neo4j.monitoring.DatabaseHealth;
+import org.neo4j.monitoring.PanicEventGenerator;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StoreId;
 import org.neo4j.storageengine.api.TransactionIdStore;
@@ -61,11 +73,17 @@ import org.neo4j.test.extension.LifeExtension;
 import org.neo4j.test.extension.Neo4jLayoutExtension;
 import org.neo4j.util.concurrent.Futures;
 
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.locks.LockSupport.parkNanos;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_commit_delay;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_dedicated_flusher;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_recycle_pool_size;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_relaxed_force_interval;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -80,6 +98,8 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLo
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
 import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
+import static org.neo4j.test.assertion.Assert.assertEventually;
+import static org.neo4j.test.conditions.Conditions.equalityCondition;
 
 @Neo4jLayoutExtension
 @ExtendWith( LifeExtension.class )
@@ -93,15 +113,18 @@ class TransactionLogFileTest
     private LifeSupport life;
 
     private CapturingChannelFileSystem wrappingFileSystem;
+    private JobScheduler jobScheduler;
 
     private final long rotationThreshold = ByteUnit.mebiBytes( 1 );
     private final LogVersionRepository logVersionRepository = new SimpleLogVersionRepository( 1L );
     private final TransactionIdStore transactionIdStore = new SimpleTransactionIdStore( 2L, 0, BASE_TX_COMMIT_TIMESTAMP, 0, 0 );
+    private final DatabaseHealth databaseHealth = new DatabaseHealth( PanicEventGenerator.NO_OP, NullLog.getInstance() );
 
     @BeforeEach
     void setUp()
     {
         wrappingFileSystem = new CapturingChannelFileSystem( fileSystem );
+        jobScheduler = life.add( JobSchedulerFactory.createInitialisedScheduler() );
     }
 
     @Test
@@ -450,6 +473,293 @@ class TransactionLogFileTest
         assertThat( capturingChannel.getFlushCounter().get() - flushesBefore ).isEqualTo( 2 );
     }
 
+    @Test
+    void dedicatedFlusherMustForceLogOnBehalfOfWaitingCommitters() throws Throwable
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_dedicated_flusher, true ) );
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        var capturingChannel = wrappingFileSystem.getCapturingChannel();
+        var flushesBefore = capturingChannel.getFlushCounter().get();
+
+        int executors = 10;
+        var executorService = Executors.newFixedThreadPool( executors );
+        try
+        {
+            List<Future<Boolean>> futures = Stream.iterate( 0, i -> i + 1 )
+                    .limit( executors )
+                    .map( v -> executorService.submit( () -> logFile.forceAfterAppend( LogAppendEvent.NULL ) ) )
+                    .collect( toList() );
+            // One of the committers in each force is told to check for log rotation
+            assertThat( Futures.getAllResults( futures ) ).contains( true );
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+        assertThat( capturingChannel.getFlushCounter().get() - flushesBefore ).isBetween( 1, executors );
+    }
+
+    @Test
+    void dedicatedFlusherMustWaitForCommitDelayBeforeForcing() throws Throwable
+    {
+        Duration commitDelay = Duration.ofMillis( 200 );
+        LogFiles logFiles = buildLogFiles( Config.newBuilder().set( tx_log_dedicated_flusher, true ).set( tx_log_commit_delay, commitDelay ).build() );
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        var capturingChannel = wrappingFileSystem.getCapturingChannel();
+        var flushesBefore = capturingChannel.getFlushCounter().get();
+
+        long startTime = System.nanoTime();
+        assertTrue( logFile.forceAfterAppend( LogAppendEvent.NULL ) );
+
+        assertThat( System.nanoTime() - startTime ).isGreaterThanOrEqualTo( commitDelay.toNanos() );
+        assertEquals( 1, capturingChannel.getFlushCounter().get() - flushesBefore );
+    }
+
+    @Test
+    void dedicatedFlusherMustTraceForceAsPartOfCommitter() throws Throwable
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_dedicated_flusher, true ) );
+        life.start();
+        life.add( logFiles );
+
+        AtomicInteger forces = new AtomicInteger();
+        LogForceEvents logForceEvents = new LogForceEvents()
+        {
+            @Override
+            public LogForceWaitEvent beginLogForceWait()
+            {
+                return LogForceWaitEvent.NULL;
+            }
+
+            @Override
+            public LogForceEvent beginLogForce()
+            {
+                forces.incrementAndGet();
+                return LogForceEvent.NULL;
+            }
+        };
+        assertTrue( logFiles.getLogFile().forceAfterAppend( logForceEvents ) );
+        assertEquals( 1, forces.get() );
+    }
+
+    @Test
+    void dedicatedFlusherMustRunOnJobSchedulerUntilDatabasePanics() throws Throwable
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_dedicated_flusher, true ) );
+        life.start();
+        life.add( logFiles );
+        assertEventually( () -> runningJobs( Group.TRANSACTION_LOG_FLUSHER ), equalityCondition( 1L ), 1, MINUTES );
+
+        databaseHealth.panic( new IOException( "Failed force" ) );
+        assertEventually( () -> runningJobs( Group.TRANSACTION_LOG_FLUSHER ), equalityCondition( 0L ), 1, MINUTES );
+        // Committers must not be left waiting for a flusher that is gone
+        assertThrows( IOException.class, () -> logFiles.getLogFile().forceAfterAppend( LogAppendEvent.NULL ) );
+    }
+
+    @Test
+    void shouldForceLogItselfWhenDedicatedFlusherIsStopped() throws Throwable
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_dedicated_flusher, true ) );
+        life.add( logFiles );
+        life.start();
+        life.stop();
+
+        LogFile logFile = logFiles.getLogFile();
+        var capturingChannel = wrappingFileSystem.getCapturingChannel();
+        var flushesBefore = capturingChannel.getFlushCounter().get();
+
+        assertTrue( logFile.forceAfterAppend( LogAppendEvent.NULL ) );
+        assertEquals( 1, capturingChannel.getFlushCounter().get() - flushesBefore );
+    }
+
+    @Test
+    void relaxedAppendsMustBeWrittenButOnlyForcedAfterRelaxedForceInterval() throws Throwable
+    {
+        Duration forceInterval = Duration.ofMillis( 200 );
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_relaxed_force_interval, forceInterval ) );
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        var capturingChannel = wrappingFileSystem.getCapturingChannel();
+        var flushesBefore = capturingChannel.getFlushCounter().get();
+        var writesBefore = capturingChannel.getWriteAllCounter().get();
+
+        long startTime = System.nanoTime();
+        logFile.getTransactionLogWriter().getChannel().putLong( 42 );
+        logFile.writeAfterAppend();
+        assertEquals( 1, capturingChannel.getWriteAllCounter().get() - writesBefore );
+
+        assertEventually( () -> capturingChannel.getFlushCounter().get() - flushesBefore, equalityCondition( 1 ), 1, MINUTES );
+        assertThat( System.nanoTime() - startTime ).isGreaterThanOrEqualTo( forceInterval.toNanos() );
+    }
+
+    @Test
+    void shouldForceRelaxedAppendsOnlyWhenThereAreAny() throws Throwable
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_relaxed_force_interval, Duration.ofHours( 1 ) ) );
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        var capturingChannel = wrappingFileSystem.getCapturingChannel();
+        var flushesBefore = capturingChannel.getFlushCounter().get();
+
+        logFile.forceRelaxedAppends();
+        assertEquals( 0, capturingChannel.getFlushCounter().get() - flushesBefore );
+
+        logFile.writeAfterAppend();
+        logFile.forceRelaxedAppends();
+        logFile.forceRelaxedAppends();
+        assertEquals( 1, capturingChannel.getFlushCounter().get() - flushesBefore );
+
+        // A regular force includes the relaxed appends before it
+        logFile.writeAfterAppend();
+        logFile.forceAfterAppend( LogAppendEvent.NULL );
+        logFile.forceRelaxedAppends();
+        assertEquals( 2, capturingChannel.getFlushCounter().get() - flushesBefore );
+    }
+
+    @Test
+    void stopMustForcePendingRelaxedAppends() throws Throwable
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_relaxed_force_interval, Duration.ofHours( 1 ) ) );
+        life.add( logFiles );
+        life.start();
+
+        LogFile logFile = logFiles.getLogFile();
+        var capturingChannel = wrappingFileSystem.getCapturingChannel();
+        var flushesBefore = capturingChannel.getFlushCounter().get();
+
+        logFile.writeAfterAppend();
+        assertEquals( 0, capturingChannel.getFlushCounter().get() - flushesBefore );
+        life.stop();
+        assertEquals( 1, capturingChannel.getFlushCounter().get() - flushesBefore );
+
+        // Once stopped, relaxed appends are forced right away
+        logFile.writeAfterAppend();
+        assertEquals( 2, capturingChannel.getFlushCounter().get() - flushesBefore );
+    }
+
+    @Test
+    void relaxedForcerMustRunOnJobSchedulerUntilDatabasePanics() throws Throwable
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_relaxed_force_interval, Duration.ofHours( 1 ) ) );
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        assertEquals( 0, runningJobs( Group.TRANSACTION_LOG_RELAXED_FORCER ) );
+        logFile.writeAfterAppend();
+        assertEventually( () -> runningJobs( Group.TRANSACTION_LOG_RELAXED_FORCER ), equalityCondition( 1L ), 1, MINUTES );
+
+        databaseHealth.panic( new IOException( "Failed force" ) );
+        assertEventually( () -> runningJobs( Group.TRANSACTION_LOG_RELAXED_FORCER ), equalityCondition( 0L ), 1, MINUTES );
+        assertThrows( IOException.class, logFile::writeAfterAppend );
+        assertThrows( IOException.class, logFile::forceRelaxedAppends );
+    }
+
+    @Test
+    void forcingRelaxedAppendsWhileRotatingMustNotDeadlockWithWaitingCommitters() throws Throwable
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_relaxed_force_interval, Duration.ofHours( 1 ) ) );
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        logFile.writeAfterAppend();
+        // Store pages written while rotating, e.g. when bumping the log version, make the rotating thread force relaxed
+        // appends while holding the monitor of the log file, which a committer forcing the log at the same time needs as well
+        Thread committer = new Thread( () ->
+        {
+            try
+            {
+                logFile.forceAfterAppend( LogAppendEvent.NULL );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        } );
+        synchronized ( logFile )
+        {
+            committer.start();
+            assertEventually( committer::getState, equalityCondition( Thread.State.BLOCKED ), 1, MINUTES );
+            logFile.forceRelaxedAppends();
+        }
+        committer.join();
+    }
+
+    @Test
+    void forcingRelaxedAppendsMustNotWaitForTheLogFileMonitor() throws Throwable
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_relaxed_force_interval, Duration.ofHours( 1 ) ) );
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        var capturingChannel = wrappingFileSystem.getCapturingChannel();
+        var flushesBefore = capturingChannel.getFlushCounter().get();
+        logFile.writeAfterAppend();
+        // A thread evicting store pages forces relaxed appends while holding page locks, which a thread holding the monitor
+        // of the log file, e.g. one that is rotating the log and bumping the log version in the store, may be waiting for
+        var executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            synchronized ( logFile )
+            {
+                executor.submit( () ->
+                {
+                    logFile.forceRelaxedAppends();
+                    return null;
+                } ).get( 1, MINUTES );
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertEquals( 1, capturingChannel.getFlushCounter().get() - flushesBefore );
+    }
+
+    @Test
+    void rotationMustReuseRecycledLogFile() throws Exception
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( tx_log_recycle_pool_size, 1 ) );
+        life.add( logFiles );
+        life.start();
+
+        LogFile logFile = logFiles.getLogFile();
+        logFile.getTransactionLogWriter().getChannel().putLong( 42 );
+        logFile.flush();
+        long prunedVersion = logFile.getCurrentLogVersion();
+        Path prunedFile = logFile.getLogFileForVersion( prunedVersion );
+        logFile.rotate();
+
+        assertTrue( logFile.recycleLogFile( prunedVersion ) );
+        assertFalse( fileSystem.fileExists( prunedFile ) );
+
+        logFile.rotate();
+        long reusedVersion = logFile.getCurrentLogVersion();
+        assertEquals( reusedVersion, logFile.extractHeader( reusedVersion ).getLogVersion() );
+        // Nothing of what the pruned log file contained is left after the header
+        try ( ReadableChannel reader = logFile.getReader( logFile.getTransactionLogWriter().getCurrentPosition() ) )
+        {
+            assertEquals( 0, reader.getLong() );
+        }
+    }
+
+    private long runningJobs( Group group )
+    {
+        return jobScheduler.getMonitoredJobs().stream().filter( job -> job.getGroup() == group ).count();
+    }
+
     private static byte[] readBytes( ReadableChannel reader, int length ) throws IOException
     {
         byte[] result = new byte[length];
@@ -458,8 +768,16 @@ class TransactionLogFileTest
     }
 
     private LogFiles buildLogFiles() throws IOException
+    {
+        return buildLogFiles( Config.defaults() );
+    }
+
+    private LogFiles buildLogFiles( Config config ) throws IOException
     {
         return LogFilesBuilder.builder( databaseLayout, wrappingFileSystem )
+                .withConfig( config )
+                .withJobScheduler( jobScheduler )
+                .withDatabaseHealth( databaseHealth )
                 .withRotationThreshold( rotationThreshold )
                 .withTransactionIdStore( transactionIdStore )
                 .withLogVersionRepository( logVersionRepository )
@@ -534,6 +852,12 @@ class TransactionLogFileTest
             return NativeCallResult.SUCCESS;
         }
 
+        @Override
+        public long tryCountCachedBytes( int fd, long length )
+        {
+            return 0;
+        }
+
         @Override
         public String describe()
         {
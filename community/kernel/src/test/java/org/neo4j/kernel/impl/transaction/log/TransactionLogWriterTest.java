@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.kernel.KernelVersion;
+import org.neo4j.kernel.database.DbmsLogEntryWriterFactory;
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.transaction.tracing.CompressCommandsEvent;
+import org.neo4j.storageengine.api.KernelVersionRepository;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.internal.kernel.api.security.AuthSubject.ANONYMOUS;
+import static org.neo4j.kernel.KernelVersion.LATEST;
+import static org.neo4j.kernel.KernelVersion.V4_2;
+import static org.neo4j.kernel.KernelVersion.V4_3_D4;
+
+class TransactionLogWriterTest
+{
+    @Test
+    void appendOfSerializedCommandsMustWriteSameBytesAsPlainAppend() throws IOException
+    {
+        TransactionRepresentation transaction = transaction( new TestCommand( 100 ), new TestCommand( 3000 ), new TestCommand( 7 ) );
+
+        InMemoryClosableChannel plainChannel = new InMemoryClosableChannel( 8192 );
+        int plainChecksum = writer( plainChannel, () -> LATEST ).append( transaction, 17, 42 );
+
+        InMemoryClosableChannel serializedChannel = new InMemoryClosableChannel( 8192 );
+        TransactionLogWriter writer = writer( serializedChannel, () -> LATEST );
+        SerializedCommands serializedCommands = writer.serializeCommands( transaction, 1024 * 1024 );
+        assertNotNull( serializedCommands );
+        int serializedChecksum = writer.append( transaction, 17, 42, serializedCommands );
+
+        assertEquals( plainChecksum, serializedChecksum );
+        assertArrayEquals( writtenBytes( plainChannel ), writtenBytes( serializedChannel ) );
+    }
+
+    @Test
+    void serializeCommandsMustGiveUpOnTransactionsLargerThanMaxSize() throws IOException
+    {
+        TransactionLogWriter writer = writer( new InMemoryClosableChannel( 8192 ), () -> LATEST );
+
+        assertNull( writer.serializeCommands( transaction( new TestCommand( 2000 ) ), 1024 ) );
+        assertNotNull( writer.serializeCommands( transaction( new TestCommand( 500 ) ), 1024 ) );
+    }
+
+    @Test
+    void appendMustSerializeCommandsAgainIfKernelVersionChangedSinceSerialization() throws IOException
+    {
+        AtomicReference<KernelVersion> kernelVersion = new AtomicReference<>( V4_2 );
+        TransactionRepresentation transaction = transaction( new VersionlessCommand() );
+
+        InMemoryClosableChannel serializedChannel = new InMemoryClosableChannel( 8192 );
+        TransactionLogWriter writer = writer( serializedChannel, kernelVersion::get );
+        SerializedCommands serializedCommands = writer.serializeCommands( transaction, 1024 );
+        kernelVersion.set( LATEST );
+        int serializedChecksum = writer.append( transaction, 17, 42, serializedCommands );
+
+        InMemoryClosableChannel plainChannel = new InMemoryClosableChannel( 8192 );
+        int plainChecksum = writer( plainChannel, () -> LATEST ).append( transaction, 17, 42 );
+
+        assertEquals( plainChecksum, serializedChecksum );
+        assertArrayEquals( writtenBytes( plainChannel ), writtenBytes( serializedChannel ) );
+    }
+
+    @Test
+    void compressedCommandsMustBeReadBackAsTheOriginalCommands() throws IOException
+    {
+        List<StorageCommand> commands = List.of( new TestCommand( 4000 ), new TestCommand( new byte[]{1, 2, 3} ), new TestCommand( 2000 ) );
+        TransactionRepresentation transaction = transaction( commands.toArray( StorageCommand[]::new ) );
+        AtomicLong uncompressedBytes = new AtomicLong();
+        AtomicLong writtenBytes = new AtomicLong();
+        CompressCommandsEvent compressCommandsEvent = ( uncompressed, written, nanos ) ->
+        {
+            uncompressedBytes.addAndGet( uncompressed );
+            writtenBytes.addAndGet( written );
+        };
+
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 16384, true );
+        TransactionLogWriter writer = new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( () -> LATEST ), 3, compressCommandsEvent );
+        writer.append( transaction, 17, 42 );
+        writer.append( transaction, 18, 43, writer.serializeCommands( transaction, 1024 * 1024 ) );
+
+        assertThat( writtenBytes.get() ).isLessThan( uncompressedBytes.get() / 10 );
+        VersionAwareLogEntryReader reader = new VersionAwareLogEntryReader( new TestCommandReaderFactory(), false );
+        for ( int i = 0; i < 2; i++ )
+        {
+            assertThat( reader.readLogEntry( channel ) ).isInstanceOf( LogEntryStart.class );
+            List<StorageCommand> readCommands = new ArrayList<>();
+            LogEntry entry;
+            while ( (entry = reader.readLogEntry( channel )) instanceof LogEntryCommand )
+            {
+                readCommands.add( ((LogEntryCommand) entry).getCommand() );
+            }
+            assertEquals( commands, readCommands );
+            assertThat( entry ).isInstanceOf( LogEntryCommit.class );
+        }
+        assertNull( reader.readLogEntry( channel ) );
+    }
+
+    @Test
+    void commandsMustNotBeCompressedWhileRunningAKernelVersionThatCannotReadThem() throws IOException
+    {
+        StorageCommand[] commands = new StorageCommand[500];
+        Arrays.fill( commands, new VersionlessCommand() );
+        TransactionRepresentation transaction = transaction( commands );
+        AtomicLong compressions = new AtomicLong();
+        CompressCommandsEvent compressCommandsEvent = ( uncompressed, written, nanos ) -> compressions.incrementAndGet();
+
+        InMemoryClosableChannel compressingChannel = new InMemoryClosableChannel( 16384 );
+        new TransactionLogWriter( compressingChannel, new DbmsLogEntryWriterFactory( () -> V4_3_D4 ), 3, compressCommandsEvent )
+                .append( transaction, 17, 42 );
+
+        InMemoryClosableChannel plainChannel = new InMemoryClosableChannel( 16384 );
+        writer( plainChannel, () -> V4_3_D4 ).append( transaction, 17, 42 );
+
+        assertEquals( 0, compressions.get() );
+        assertArrayEquals( writtenBytes( plainChannel ), writtenBytes( compressingChannel ) );
+    }
+
+    private static TransactionLogWriter writer( InMemoryClosableChannel channel, KernelVersionRepository kernelVersion )
+    {
+        return new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( kernelVersion ) );
+    }
+
+    private static TransactionRepresentation transaction( StorageCommand... commands )
+    {
+        PhysicalTransactionRepresentation tx = new PhysicalTransactionRepresentation( List.of( commands ) );
+        tx.setHeader( new byte[]{1, 2, 3}, 1, 2, 3, -1, ANONYMOUS );
+        return tx;
+    }
+
+    private static byte[] writtenBytes( InMemoryClosableChannel channel ) throws IOException
+    {
+        byte[] bytes = new byte[channel.writerPosition()];
+        channel.get( bytes, bytes.length );
+        return bytes;
+    }
+
+    private static class VersionlessCommand implements StorageCommand
+    {
+        @Override
+        public void serialize( WritableChannel channel ) throws IOException
+        {
+            channel.putLong( 123 );
+        }
+
+        @Override
+        public KernelVersion version()
+        {
+            return null;
+        }
+    }
+}
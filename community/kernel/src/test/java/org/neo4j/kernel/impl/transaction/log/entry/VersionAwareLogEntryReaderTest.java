@@ -62,7 +62,7 @@ class VersionAwareLogEntryReaderTest
     void shouldReadACommitLogEntry() throws IOException
     {
         // given
-        final LogEntryCommit commit = new LogEntryCommit( 42, 21, 1734331568 );
+        final LogEntryCommit commit = new LogEntryCommit( 42, 21, 1262535265 );
         final InMemoryClosableChannel channel = new InMemoryClosableChannel( true );
 
         writeCommitEntry( channel, commit );
@@ -94,6 +94,44 @@ class VersionAwareLogEntryReaderTest
         assertEquals( command, logEntry );
     }
 
+    @Test
+    void shouldReadTheCommandsOfACompressedCommandsLogEntryOneByOne() throws IOException
+    {
+        // given
+        KernelVersion version = LATEST;
+        TestCommand first = new TestCommand( 300 );
+        TestCommand second = new TestCommand( new byte[] {1, 2, 3} );
+        TestCommand third = new TestCommand( 700 );
+        final InMemoryClosableChannel commandEntries = new InMemoryClosableChannel( 2000 );
+        for ( TestCommand testCommand : new TestCommand[] {first, second, third} )
+        {
+            commandEntries.put( version.version() );
+            commandEntries.put( LogEntryTypeCodes.COMMAND );
+            testCommand.serialize( commandEntries );
+        }
+        int uncompressedLength = commandEntries.writerPosition();
+        byte[] uncompressed = new byte[uncompressedLength];
+        commandEntries.get( uncompressed, uncompressedLength );
+        byte[] compressed = CommandCompression.compress( uncompressed, uncompressedLength, 3 );
+
+        final LogEntryCommit commit = new LogEntryCommit( 42, 21, BASE_TX_CHECKSUM );
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel( true );
+        channel.put( version.version() );
+        channel.put( LogEntryTypeCodes.COMPRESSED_COMMANDS );
+        channel.putInt( uncompressedLength );
+        channel.putInt( compressed.length );
+        channel.put( compressed, compressed.length );
+        writeCommitEntry( channel, commit );
+
+        // when/then
+        assertTrue( compressed.length < uncompressedLength );
+        assertEquals( new LogEntryCommand( version, first ), logEntryReader.readLogEntry( channel ) );
+        assertEquals( new LogEntryCommand( version, second ), logEntryReader.readLogEntry( channel ) );
+        assertEquals( new LogEntryCommand( version, third ), logEntryReader.readLogEntry( channel ) );
+        assertEquals( LogEntryCommit.class, logEntryReader.readLogEntry( channel ).getClass() );
+        assertNull( logEntryReader.readLogEntry( channel ) );
+    }
+
     @Test
     void shouldReadACheckPointLogEntry() throws IOException
     {
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestDirectoryExtension
+class RecycledLogFilesTest
+{
+    private static final int FILE_SIZE = 100_000;
+
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private TestDirectory testDirectory;
+    private TransactionLogFilesHelper fileHelper;
+    private final MutableLongList preallocatedVersions = new LongArrayList();
+    private final ChannelNativeAccessor nativeChannelAccessor = new ChannelNativeAccessor.EmptyChannelNativeAccessor()
+    {
+        @Override
+        public void preallocateSpace( StoreChannel storeChannel, long version )
+        {
+            preallocatedVersions.add( version );
+        }
+    };
+    private final AtomicBoolean tryPreallocate = new AtomicBoolean( true );
+
+    @BeforeEach
+    void setUp()
+    {
+        fileHelper = new TransactionLogFilesHelper( fileSystem, testDirectory.homePath() );
+    }
+
+    @Test
+    void recycledLogFileMustBePreallocatedAndNoLongerBeALogFile() throws IOException
+    {
+        Path logFile = createLogFile( 3 );
+        RecycledLogFiles recycledLogFiles = recycledLogFiles( 2 );
+
+        assertTrue( recycledLogFiles.recycle( 3, logFile ) );
+
+        assertFalse( fileSystem.fileExists( logFile ) );
+        assertThat( fileHelper.getMatchedFiles() ).isEmpty();
+        assertThat( fileHelper.getRecycledLogFiles() ).hasSize( 1 );
+        assertThat( preallocatedVersions.toArray() ).containsExactly( 3 );
+    }
+
+    @Test
+    void mustNotRecycleLogFilesWhenLogFilesAreNotPreallocated() throws IOException
+    {
+        Path logFile = createLogFile( 3 );
+        RecycledLogFiles recycledLogFiles = recycledLogFiles( 2 );
+        tryPreallocate.set( false );
+
+        assertFalse( recycledLogFiles.recycle( 3, logFile ) );
+
+        assertTrue( fileSystem.fileExists( logFile ) );
+        assertThat( fileHelper.getRecycledLogFiles() ).isEmpty();
+        assertThat( preallocatedVersions.toArray() ).isEmpty();
+    }
+
+    @Test
+    void recyclingMustNotChangeContentsSeenByOpenReaders() throws IOException
+    {
+        Path logFile = createLogFile( 3 );
+        RecycledLogFiles recycledLogFiles = recycledLogFiles( 2 );
+
+        try ( StoreChannel reader = fileSystem.read( logFile ) )
+        {
+            assertTrue( recycledLogFiles.recycle( 3, logFile ) );
+            recycledLogFiles.take( fileHelper.getLogFileForVersion( 7 ) );
+
+            ByteBuffer buffer = ByteBuffer.allocate( FILE_SIZE );
+            reader.readAll( buffer );
+            byte[] expected = new byte[FILE_SIZE];
+            Arrays.fill( expected, (byte) 7 );
+            assertTrue( Arrays.equals( expected, buffer.array() ) );
+        }
+    }
+
+    @Test
+    void takeMustMoveRecycledFileIntoPlace() throws IOException
+    {
+        RecycledLogFiles recycledLogFiles = recycledLogFiles( 2 );
+        recycledLogFiles.recycle( 3, createLogFile( 3 ) );
+
+        Path newLogFile = fileHelper.getLogFileForVersion( 7 );
+        assertTrue( recycledLogFiles.take( newLogFile ) );
+
+        assertTrue( fileSystem.fileExists( newLogFile ) );
+        assertThat( fileHelper.getRecycledLogFiles() ).isEmpty();
+        assertEquals( 0, recycledLogFiles.size() );
+        assertFalse( recycledLogFiles.take( fileHelper.getLogFileForVersion( 8 ) ) );
+    }
+
+    @Test
+    void mustNotKeepMoreFilesThanItsCapacity() throws IOException
+    {
+        RecycledLogFiles recycledLogFiles = recycledLogFiles( 1 );
+        Path firstLogFile = createLogFile( 3 );
+        Path secondLogFile = createLogFile( 4 );
+
+        assertTrue( recycledLogFiles.recycle( 3, firstLogFile ) );
+        assertFalse( recycledLogFiles.recycle( 4, secondLogFile ) );
+
+        assertTrue( fileSystem.fileExists( secondLogFile ) );
+        assertEquals( 1, recycledLogFiles.size() );
+
+        // Taking a file makes room for another one
+        recycledLogFiles.take( fileHelper.getLogFileForVersion( 5 ) );
+        assertTrue( recycledLogFiles.recycle( 4, secondLogFile ) );
+    }
+
+    @Test
+    void mustDeleteRecycledFilesLeftOverFromPreviousRun() throws IOException
+    {
+        recycledLogFiles( 2 ).recycle( 3, createLogFile( 3 ) );
+        assertThat( fileHelper.getRecycledLogFiles() ).hasSize( 1 );
+
+        recycledLogFiles( 2 ).init();
+
+        assertThat( fileHelper.getRecycledLogFiles() ).isEmpty();
+    }
+
+    private Path createLogFile( long version ) throws IOException
+    {
+        Path logFile = fileHelper.getLogFileForVersion( version );
+        byte[] content = new byte[FILE_SIZE];
+        Arrays.fill( content, (byte) 7 );
+        try ( StoreChannel channel = fileSystem.write( logFile ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( content ) );
+        }
+        return logFile;
+    }
+
+    private RecycledLogFiles recycledLogFiles( int capacity )
+    {
+        return new RecycledLogFiles( fileSystem, fileHelper, capacity, nativeChannelAccessor, tryPreallocate );
+    }
+}
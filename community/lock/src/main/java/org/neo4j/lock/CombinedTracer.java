@@ -19,6 +19,8 @@
  */
 package org.neo4j.lock;
 
+import org.eclipse.collections.api.set.primitive.LongSet;
+
 import java.util.Arrays;
 
 /**
@@ -79,6 +81,15 @@ final class CombinedTracer implements LockTracer
             this.events = events;
         }
 
+        @Override
+        public void blockedBy( LongSet holderTransactionIds )
+        {
+            for ( LockWaitEvent event : events )
+            {
+                event.blockedBy( holderTransactionIds );
+            }
+        }
+
         @Override
         public void close()
         {
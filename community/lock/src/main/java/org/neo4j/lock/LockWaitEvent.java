@@ -19,8 +19,19 @@
  */
 package org.neo4j.lock;
 
+import org.eclipse.collections.api.set.primitive.LongSet;
+
 public interface LockWaitEvent extends AutoCloseable
 {
+    /**
+     * Called by lock clients that know which transactions hold the lock being waited upon, right after the event has been created.
+     *
+     * @param holderTransactionIds ids of the transactions holding the lock when the wait started, may include the waiting transaction itself.
+     */
+    default void blockedBy( LongSet holderTransactionIds )
+    {
+    }
+
     @Override
     void close();
 
@@ -73,6 +73,61 @@ public interface ResourceLocker
      */
     void releaseShared( ResourceType resourceType, long... resourceIds );
 
+    /**
+     * Acquires exclusive locks on a batch of resources in a single call. The ids are locked in ascending order, so that transactions
+     * locking overlapping batches of the same type can not deadlock with each other on them, and an id occurring several times
+     * is only locked once.
+     *
+     * @param tracer lock tracer
+     * @param resourceType type of resources to lock.
+     * @param resourceIds ids of resources to lock, in any order. The array is sorted in place.
+     *
+     * @throws AcquireLockTimeoutException in case of timeout
+     */
+    default void acquireExclusiveBatch( LockTracer tracer, ResourceType resourceType, long[] resourceIds )
+    {
+        acquireExclusive( tracer, resourceType, sortedUnique( resourceIds ) );
+    }
+
+    /**
+     * Acquires shared locks on a batch of resources in a single call, in the same way as
+     * {@link #acquireExclusiveBatch(LockTracer, ResourceType, long[])} does exclusive ones.
+     *
+     * @param tracer lock tracer
+     * @param resourceType type of resources to lock.
+     * @param resourceIds ids of resources to lock, in any order. The array is sorted in place.
+     *
+     * @throws AcquireLockTimeoutException in case of timeout
+     */
+    default void acquireSharedBatch( LockTracer tracer, ResourceType resourceType, long[] resourceIds )
+    {
+        acquireShared( tracer, resourceType, sortedUnique( resourceIds ) );
+    }
+
+    /**
+     * Releases exclusive locks previously {@link #acquireExclusiveBatch(LockTracer, ResourceType, long[]) acquired} as a batch, where an
+     * id occurring several times is only released once.
+     *
+     * @param resourceType type of resources to unlock.
+     * @param resourceIds ids of resources to unlock, in any order. The array is sorted in place.
+     */
+    default void releaseExclusiveBatch( ResourceType resourceType, long[] resourceIds )
+    {
+        releaseExclusive( resourceType, sortedUnique( resourceIds ) );
+    }
+
+    /**
+     * Releases shared locks previously {@link #acquireSharedBatch(LockTracer, ResourceType, long[]) acquired} as a batch, where an
+     * id occurring several times is only released once.
+     *
+     * @param resourceType type of resources to unlock.
+     * @param resourceIds ids of resources to unlock, in any order. The array is sorted in place.
+     */
+    default void releaseSharedBatch( ResourceType resourceType, long[] resourceIds )
+    {
+        releaseShared( resourceType, sortedUnique( resourceIds ) );
+    }
+
     /**
      * @return all locks that are "active", i.e. either locked or being awaited to be locked.
      */
@@ -179,4 +234,34 @@ public interface ResourceLocker
             return false;
         }
     };
+
+    /**
+     * Sorts the ids in place and returns them without duplicates, which is the given array itself unless there were any.
+     */
+    private static long[] sortedUnique( long[] resourceIds )
+    {
+        Arrays.sort( resourceIds );
+        int unique = resourceIds.length == 0 ? 0 : 1;
+        for ( int i = 1; i < resourceIds.length; i++ )
+        {
+            if ( resourceIds[i] != resourceIds[i - 1] )
+            {
+                unique++;
+            }
+        }
+        if ( unique == resourceIds.length )
+        {
+            return resourceIds;
+        }
+        long[] uniqueIds = new long[unique];
+        uniqueIds[0] = resourceIds[0];
+        for ( int i = 1, j = 1; i < resourceIds.length; i++ )
+        {
+            if ( resourceIds[i] != resourceIds[i - 1] )
+            {
+                uniqueIds[j++] = resourceIds[i];
+            }
+        }
+        return uniqueIds;
+    }
 }
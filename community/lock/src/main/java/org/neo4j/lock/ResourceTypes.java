@@ -61,6 +61,12 @@ import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
  *         Lock the full relationship group chain for a given node(dense). This will not lock the node in contrast to {@link #NODE_RELATIONSHIP_GROUP_DELETE}.
  *     </dd>
  *
+ *     <dt>{@link #RELATIONSHIP_TYPE_GROUP} - Node id and relationship type id (XXH64 hashed)</dt>
+ *     <dd>
+ *         Lock the relationship group of a single relationship type for a given node(dense), taken while holding a shared {@link #RELATIONSHIP_GROUP}.
+ *         Note, collisions are possible since we hash the pair, but this only affect concurrency and not correctness.
+ *     </dd>
+ *
  *     <dt>{@link #RELATIONSHIP} - Relationship id</dt>
  *     <dd>Lock on a relationship, or more specifically a relationship record, to prevent concurrent updates.</dd>
  * </dl>
@@ -79,7 +85,8 @@ public enum ResourceTypes implements ResourceType
     RELATIONSHIP_GROUP( 9, LockWaitStrategies.INCREMENTAL_BACKOFF ),
     RELATIONSHIP_DELETE( 10, LockWaitStrategies.INCREMENTAL_BACKOFF ),
     NODE_RELATIONSHIP_GROUP_DELETE( 11, LockWaitStrategies.INCREMENTAL_BACKOFF ),
-    DEGREES( 12, LockWaitStrategies.INCREMENTAL_BACKOFF );
+    DEGREES( 12, LockWaitStrategies.INCREMENTAL_BACKOFF ),
+    RELATIONSHIP_TYPE_GROUP( 13, LockWaitStrategies.INCREMENTAL_BACKOFF );
 
     private static final MutableIntObjectMap<ResourceType> idToType = new IntObjectHashMap<>();
 
@@ -29,4 +29,14 @@ public interface WaitStrategy
      * @throws AcquireLockTimeoutException in case of timeout
      */
     void apply( long iteration );
+
+    /**
+     * Called when a wait this strategy was applied to ends with the lock being granted, for strategies that adapt to observed waits.
+     *
+     * @param iterations number of times this strategy was applied during the wait.
+     * @param waitNanos time spent waiting for the lock.
+     */
+    default void waitEnded( long iterations, long waitNanos )
+    {
+    }
 }
@@ -51,6 +51,12 @@ public class AbsentNativeAccess implements NativeAccess
         return NativeCallResult.SUCCESS;
     }
 
+    @Override
+    public long tryCountCachedBytes( int fd, long length )
+    {
+        return ERROR;
+    }
+
     @Override
     public String describe()
     {
@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.EAGAIN;
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.EBUSY;
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.EINTR;
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.IORING_ENTER_GETEVENTS;
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.IORING_OFF_CQ_RING;
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.IORING_OFF_SQES;
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.IORING_OFF_SQ_RING;
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.PARAMS_SIZE;
+
+/**
+ * A single io_uring instance, with a submission queue that is filled by one thread at a time, and a completion queue
+ * that the same thread waits on.
+ * <p>
+ * The owning thread {@link #prepare(byte, int, long, long, int, long) prepares} as many operations as fit in the ring,
+ * and then {@link #submitAndAwait(long[], int[]) submits} them all with one system call and waits for them to complete.
+ * The ring is not thread safe, and must be handed between threads through some other means of synchronisation, e.g. a
+ * concurrent pool.
+ * <p>
+ * The ring memory is shared with the kernel. We own the submission queue tail and the completion queue head, and the kernel
+ * owns the submission queue head and the completion queue tail. Stores to the fields we own are preceded by a release fence,
+ * and loads of the fields the kernel owns are followed by an acquire fence.
+ */
+public final class IoUringRing implements AutoCloseable
+{
+    // struct io_uring_params
+    private static final int PARAMS_SQ_ENTRIES = 0;
+    private static final int PARAMS_CQ_ENTRIES = 4;
+    private static final int PARAMS_SQ_OFF = 40;
+    private static final int PARAMS_CQ_OFF = 80;
+    // struct io_sqring_offsets
+    private static final int SQ_OFF_HEAD = 0;
+    private static final int SQ_OFF_TAIL = 4;
+    private static final int SQ_OFF_RING_MASK = 8;
+    private static final int SQ_OFF_ARRAY = 24;
+    // struct io_cqring_offsets
+    private static final int CQ_OFF_HEAD = 0;
+    private static final int CQ_OFF_TAIL = 4;
+    private static final int CQ_OFF_RING_MASK = 8;
+    private static final int CQ_OFF_CQES = 20;
+    // struct io_uring_sqe
+    private static final int SQE_SIZE = 64;
+    private static final int SQE_OPCODE = 0;
+    private static final int SQE_FD = 4;
+    private static final int SQE_OFF = 8;
+    private static final int SQE_ADDR = 16;
+    private static final int SQE_LEN = 24;
+    private static final int SQE_USER_DATA = 32;
+    // struct io_uring_cqe
+    private static final int CQE_SIZE = 16;
+    private static final int CQE_USER_DATA = 0;
+    private static final int CQE_RES = 8;
+    // struct iovec
+    private static final int IOVEC_SIZE = 16;
+
+    private final int ringFd;
+    private final int entries;
+    private final long sqRingAddress;
+    private final long sqRingSize;
+    private final long cqRingAddress;
+    private final long cqRingSize;
+    private final long sqesAddress;
+    private final long sqesSize;
+    private final Pointer sqRing;
+    private final Pointer cqRing;
+    private final Pointer sqes;
+    private final long sqHead;
+    private final long sqTail;
+    private final long sqArray;
+    private final int sqMask;
+    private final long cqHead;
+    private final long cqTail;
+    private final long cqes;
+    private final int cqMask;
+    private final Pointer iovecs;
+    private final long iovecsAddress;
+    private final int iovecCapacity;
+    private int iovecsUsed;
+    private int queued;
+    private boolean broken;
+
+    private IoUringRing( int ringFd, Pointer params, int iovecsPerEntry, long sqRingAddress, long cqRingAddress, long sqesAddress )
+    {
+        this.ringFd = ringFd;
+        this.entries = params.getInt( PARAMS_SQ_ENTRIES );
+        this.sqRingAddress = sqRingAddress;
+        this.sqRingSize = sqRingSize( params );
+        this.cqRingAddress = cqRingAddress;
+        this.cqRingSize = cqRingSize( params );
+        this.sqesAddress = sqesAddress;
+        this.sqesSize = sqesSize( params );
+        this.sqRing = new Pointer( sqRingAddress );
+        this.cqRing = new Pointer( cqRingAddress );
+        this.sqes = new Pointer( sqesAddress );
+
+        sqHead = params.getInt( PARAMS_SQ_OFF + SQ_OFF_HEAD );
+        sqTail = params.getInt( PARAMS_SQ_OFF + SQ_OFF_TAIL );
+        sqArray = params.getInt( PARAMS_SQ_OFF + SQ_OFF_ARRAY );
+        sqMask = sqRing.getInt( params.getInt( PARAMS_SQ_OFF + SQ_OFF_RING_MASK ) );
+        cqHead = params.getInt( PARAMS_CQ_OFF + CQ_OFF_HEAD );
+        cqTail = params.getInt( PARAMS_CQ_OFF + CQ_OFF_TAIL );
+        cqes = params.getInt( PARAMS_CQ_OFF + CQ_OFF_CQES );
+        cqMask = cqRing.getInt( params.getInt( PARAMS_CQ_OFF + CQ_OFF_RING_MASK ) );
+
+        iovecCapacity = entries * iovecsPerEntry;
+        iovecsAddress = Native.malloc( (long) iovecCapacity * IOVEC_SIZE );
+        if ( iovecsAddress == 0 )
+        {
+            throw new OutOfMemoryError( "Could not allocate " + iovecCapacity + " iovecs for io_uring" );
+        }
+        iovecs = new Pointer( iovecsAddress );
+    }
+
+    /**
+     * Set up a new ring.
+     * @param entries the requested size of the submission queue. The kernel rounds this up to a power of two.
+     * @param iovecsPerEntry the average number of buffers that each operation can use.
+     * @return the new ring, which must be {@link #close() closed} when no longer needed.
+     * @throws IOException if io_uring is not available, or the ring could not be set up.
+     */
+    public static IoUringRing create( int entries, int iovecsPerEntry ) throws IOException
+    {
+        if ( !LinuxIoUring.isAvailable() )
+        {
+            throw new IOException( "io_uring is not available: " + LinuxIoUring.describe() );
+        }
+        long paramsAddress = Native.malloc( PARAMS_SIZE );
+        if ( paramsAddress == 0 )
+        {
+            throw new OutOfMemoryError( "Could not allocate io_uring parameters" );
+        }
+        try
+        {
+            Pointer params = new Pointer( paramsAddress );
+            params.setMemory( 0, PARAMS_SIZE, (byte) 0 );
+            int ringFd = LinuxIoUring.setup( entries, paramsAddress );
+            long sqRingAddress = 0;
+            long cqRingAddress = 0;
+            try
+            {
+                sqRingAddress = LinuxIoUring.map( ringFd, sqRingSize( params ), IORING_OFF_SQ_RING );
+                cqRingAddress = LinuxIoUring.map( ringFd, cqRingSize( params ), IORING_OFF_CQ_RING );
+                long sqesAddress = LinuxIoUring.map( ringFd, sqesSize( params ), IORING_OFF_SQES );
+                return new IoUringRing( ringFd, params, iovecsPerEntry, sqRingAddress, cqRingAddress, sqesAddress );
+            }
+            catch ( IOException e )
+            {
+                if ( cqRingAddress != 0 )
+                {
+                    LinuxIoUring.unmap( cqRingAddress, cqRingSize( params ) );
+                }
+                if ( sqRingAddress != 0 )
+                {
+                    LinuxIoUring.unmap( sqRingAddress, sqRingSize( params ) );
+                }
+                LinuxIoUring.closeFileDescriptor( ringFd );
+                throw e;
+            }
+        }
+        finally
+        {
+            Native.free( paramsAddress );
+        }
+    }
+
+    private static long sqRingSize( Pointer params )
+    {
+        return params.getInt( PARAMS_SQ_OFF + SQ_OFF_ARRAY ) + (long) params.getInt( PARAMS_SQ_ENTRIES ) * Integer.BYTES;
+    }
+
+    private static long cqRingSize( Pointer params )
+    {
+        return params.getInt( PARAMS_CQ_OFF + CQ_OFF_CQES ) + (long) params.getInt( PARAMS_CQ_ENTRIES ) * CQE_SIZE;
+    }
+
+    private static long sqesSize( Pointer params )
+    {
+        return (long) params.getInt( PARAMS_SQ_ENTRIES ) * SQE_SIZE;
+    }
+
+    /**
+     * @return the number of operations that fit in the submission queue.
+     */
+    public int capacity()
+    {
+        return entries;
+    }
+
+    /**
+     * @return the number of buffers that a single vectored operation can at most use.
+     */
+    public int maxVectorLength()
+    {
+        return iovecCapacity;
+    }
+
+    /**
+     * @return the number of operations that have been prepared, but not yet submitted.
+     */
+    public int queued()
+    {
+        return queued;
+    }
+
+    /**
+     * @return {@code true} if this ring failed in a way that may have left operations in flight. A broken ring must not be
+     * reused, since the kernel may still be accessing the memory of those operations.
+     */
+    public boolean isBroken()
+    {
+        return broken;
+    }
+
+    /**
+     * Forget about any operations that were prepared but never submitted.
+     */
+    public void reset()
+    {
+        if ( queued > 0 )
+        {
+            // The entries are already visible to the kernel through the tail, so we can only take them back if the kernel has not
+            // picked them up yet. We cannot know that for sure, so the ring is no longer safe to use.
+            broken = true;
+        }
+        queued = 0;
+        iovecsUsed = 0;
+    }
+
+    /**
+     * Queue a vectored operation with a single buffer.
+     * @return {@code false} if the ring is full, and the queued operations have to be submitted first.
+     */
+    public boolean prepare( byte opcode, int fd, long fileOffset, long bufferAddress, int bufferLength, long userData )
+    {
+        if ( queued == entries || iovecsUsed == iovecCapacity )
+        {
+            return false;
+        }
+        long iovec = nextIovec( 1 );
+        iovecs.setLong( iovec, bufferAddress );
+        iovecs.setLong( iovec + Long.BYTES, bufferLength );
+        queue( opcode, fd, fileOffset, iovec, 1, userData );
+        return true;
+    }
+
+    /**
+     * Queue a vectored operation over {@code count} buffers, starting at index {@code from} in the given arrays.
+     * @return {@code false} if the ring is full, and the queued operations have to be submitted first.
+     */
+    public boolean prepare( byte opcode, int fd, long fileOffset, long[] bufferAddresses, int[] bufferLengths, int from, int count, long userData )
+    {
+        if ( queued == entries || iovecsUsed + count > iovecCapacity )
+        {
+            return false;
+        }
+        long vector = nextIovec( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            long iovec = vector + (long) i * IOVEC_SIZE;
+            iovecs.setLong( iovec, bufferAddresses[from + i] );
+            iovecs.setLong( iovec + Long.BYTES, bufferLengths[from + i] );
+        }
+        queue( opcode, fd, fileOffset, vector, count, userData );
+        return true;
+    }
+
+    private long nextIovec( int count )
+    {
+        long offset = (long) iovecsUsed * IOVEC_SIZE;
+        iovecsUsed += count;
+        return offset;
+    }
+
+    private void queue( byte opcode, int fd, long fileOffset, long iovecOffset, int iovecCount, long userData )
+    {
+        int tail = sqRing.getInt( sqTail );
+        int index = tail & sqMask;
+        long sqe = (long) index * SQE_SIZE;
+        sqes.setMemory( sqe, SQE_SIZE, (byte) 0 );
+        sqes.setByte( sqe + SQE_OPCODE, opcode );
+        sqes.setInt( sqe + SQE_FD, fd );
+        sqes.setLong( sqe + SQE_OFF, fileOffset );
+        sqes.setLong( sqe + SQE_ADDR, iovecsAddress + iovecOffset );
+        sqes.setInt( sqe + SQE_LEN, iovecCount );
+        sqes.setLong( sqe + SQE_USER_DATA, userData );
+        sqRing.setInt( sqArray + (long) index * Integer.BYTES, index );
+        VarHandle.releaseFence();
+        sqRing.setInt( sqTail, tail + 1 );
+        queued++;
+    }
+
+    /**
+     * Submit all queued operations, and wait for all of them to complete.
+     * @param userData receives the user data of each completed operation, in completion order.
+     * @param results receives the result of each completed operation, in completion order. That is the number of bytes
+     * transferred, or a negated error number.
+     * @return the number of completed operations, which is the number of operations that were queued.
+     * @throws IOException if the ring failed. The ring is then {@link #isBroken() broken}.
+     */
+    public int submitAndAwait( long[] userData, int[] results ) throws IOException
+    {
+        int expected = queued;
+        int toSubmit = queued;
+        int completed = 0;
+        while ( completed < expected )
+        {
+            // The kernel only waits for completions if all of the entries were submitted, so this never waits for more
+            // completions than there are operations in flight.
+            int submitted = LinuxIoUring.enter( ringFd, toSubmit, expected - completed, IORING_ENTER_GETEVENTS );
+            if ( submitted >= 0 )
+            {
+                toSubmit -= submitted;
+            }
+            else if ( submitted != -EINTR && submitted != -EAGAIN && submitted != -EBUSY )
+            {
+                broken = true;
+                throw new IOException( "io_uring_enter failed with error " + -submitted + ": " + LinuxIoUring.describeError( -submitted ) );
+            }
+            completed += reap( userData, results, completed );
+        }
+        queued = 0;
+        iovecsUsed = 0;
+        return completed;
+    }
+
+    private int reap( long[] userData, int[] results, int offset )
+    {
+        int head = cqRing.getInt( cqHead );
+        int tail = cqRing.getInt( cqTail );
+        VarHandle.acquireFence();
+        int count = 0;
+        while ( head != tail )
+        {
+            long cqe = cqes + (long) (head & cqMask) * CQE_SIZE;
+            userData[offset + count] = cqRing.getLong( cqe + CQE_USER_DATA );
+            results[offset + count] = cqRing.getInt( cqe + CQE_RES );
+            count++;
+            head++;
+        }
+        VarHandle.releaseFence();
+        cqRing.setInt( cqHead, head );
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            LinuxIoUring.unmap( sqesAddress, sqesSize );
+            LinuxIoUring.unmap( cqRingAddress, cqRingSize );
+            LinuxIoUring.unmap( sqRingAddress, sqRingSize );
+            LinuxIoUring.closeFileDescriptor( ringFd );
+        }
+        finally
+        {
+            Native.free( iovecsAddress );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "IoUringRing{fd=" + ringFd + ", entries=" + entries + ", queued=" + queued + ", broken=" + broken + "}";
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
+
+/**
+ * Anonymous memory mappings that are backed by huge pages, either explicitly from the hugetlb pool, or transparently by advising the
+ * kernel to use huge pages for the mapping. Huge pages reduce the number of TLB entries needed to cover large regions of memory.
+ * <p>
+ * See {@code Documentation/admin-guide/mm/hugetlbpage.rst} and {@code Documentation/admin-guide/mm/transhuge.rst} in the kernel
+ * sources for how the two kinds of huge pages are configured.
+ */
+public final class LinuxHugePages
+{
+    private static final long DEFAULT_HUGE_PAGE_SIZE = 2 * 1024 * 1024;
+
+    private static final int PROT_READ = 0x1;
+    private static final int PROT_WRITE = 0x2;
+    private static final int MAP_PRIVATE = 0x02;
+    private static final int MAP_ANONYMOUS = 0x20;
+    private static final int MAP_HUGETLB = 0x40000;
+    private static final int MADV_DONTNEED = 4;
+    private static final int MADV_HUGEPAGE = 14;
+    private static final long MAP_FAILED = -1;
+
+    private static final boolean HUGE_PAGES_AVAILABLE;
+    private static final long HUGE_PAGE_SIZE;
+    private static final Throwable INITIALIZATION_FAILURE;
+
+    static
+    {
+        Throwable initFailure = null;
+        boolean available = false;
+        long hugePageSize = DEFAULT_HUGE_PAGE_SIZE;
+        try
+        {
+            if ( Platform.isLinux() && Platform.is64Bit() )
+            {
+                Native.register( Platform.C_LIBRARY_NAME );
+                hugePageSize = readHugePageSize();
+                available = true;
+            }
+        }
+        catch ( Throwable t )
+        {
+            initFailure = t;
+        }
+        HUGE_PAGES_AVAILABLE = available;
+        HUGE_PAGE_SIZE = hugePageSize;
+        INITIALIZATION_FAILURE = initFailure;
+    }
+
+    private LinuxHugePages()
+    {
+    }
+
+    private static native long mmap( long address, long length, int protection, int flags, int fd, long offset ) throws LastErrorException;
+
+    private static native int munmap( long address, long length ) throws LastErrorException;
+
+    private static native int madvise( long address, long length, int advice ) throws LastErrorException;
+
+    /**
+     * Check if huge page backed mappings can be created by this process. This does not mean that the kernel will actually hand out
+     * huge pages; the hugetlb pool can be empty, and transparent huge pages can be disabled.
+     * @return true if available, false otherwise
+     */
+    public static boolean isAvailable()
+    {
+        return HUGE_PAGES_AVAILABLE;
+    }
+
+    /**
+     * @return the default huge page size of the system, in bytes.
+     */
+    public static long hugePageSize()
+    {
+        return HUGE_PAGE_SIZE;
+    }
+
+    /**
+     * Map anonymous memory from the hugetlb pool. The mapping is aligned to the huge page size.
+     * @param length number of bytes to map, must be a multiple of {@link #hugePageSize()}
+     * @return address of the mapping
+     * @throws IOException if the mapping failed, for instance because there are not enough free huge pages in the pool
+     */
+    public static long mapExplicit( long length ) throws IOException
+    {
+        try
+        {
+            long address = mmap( 0, length, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANONYMOUS | MAP_HUGETLB, -1, 0 );
+            if ( address == MAP_FAILED )
+            {
+                throw new IOException( "Failed to map " + length + " bytes of huge page memory" );
+            }
+            return address;
+        }
+        catch ( LastErrorException e )
+        {
+            throw callFailed( "mmap", e );
+        }
+    }
+
+    /**
+     * Map anonymous memory, aligned to the huge page size, and advise the kernel to back it with transparent huge pages.
+     * @param length number of bytes to map, must be a multiple of {@link #hugePageSize()}
+     * @return address of the mapping
+     * @throws IOException if the mapping failed
+     */
+    public static long mapTransparent( long length ) throws IOException
+    {
+        long address;
+        try
+        {
+            // Anonymous mappings are only page aligned, so we over-allocate and trim the mapping to the huge page boundaries.
+            long mapped = mmap( 0, length + HUGE_PAGE_SIZE, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANONYMOUS, -1, 0 );
+            if ( mapped == MAP_FAILED )
+            {
+                throw new IOException( "Failed to map " + length + " bytes of memory" );
+            }
+            address = (mapped + HUGE_PAGE_SIZE - 1) & -HUGE_PAGE_SIZE;
+            if ( address > mapped )
+            {
+                munmap( mapped, address - mapped );
+            }
+            long tail = mapped + length + HUGE_PAGE_SIZE - (address + length);
+            if ( tail > 0 )
+            {
+                munmap( address + length, tail );
+            }
+        }
+        catch ( LastErrorException e )
+        {
+            throw callFailed( "mmap", e );
+        }
+        try
+        {
+            madvise( address, length, MADV_HUGEPAGE );
+        }
+        catch ( LastErrorException e )
+        {
+            // Kernels without transparent huge page support reject the advice. The memory is still usable with regular pages.
+        }
+        return address;
+    }
+
+    /**
+     * Unmap memory previously mapped by {@link #mapExplicit(long)} or {@link #mapTransparent(long)}.
+     */
+    public static void unmap( long address, long length ) throws IOException
+    {
+        try
+        {
+            munmap( address, length );
+        }
+        catch ( LastErrorException e )
+        {
+            throw callFailed( "munmap", e );
+        }
+    }
+
+    /**
+     * Let the kernel take back the physical memory behind the given range of private anonymous memory. The range stays mapped, and reads
+     * as zeros until it is written to again, at which point the kernel faults in fresh memory for it. Ranges inside of a transparent huge
+     * page split that huge page. Explicit huge pages can only be discarded in whole.
+     * @param address start of the range, must be aligned to the operating system page size
+     * @param length number of bytes to discard, must be a multiple of the operating system page size
+     * @throws IOException if the kernel rejected the advice
+     */
+    public static void discard( long address, long length ) throws IOException
+    {
+        try
+        {
+            madvise( address, length, MADV_DONTNEED );
+        }
+        catch ( LastErrorException e )
+        {
+            throw callFailed( "madvise", e );
+        }
+    }
+
+    /**
+     * Find how many bytes of the given address ranges the kernel currently backs with huge pages, both explicit and transparent ones.
+     * This reads the memory map of the process from {@code /proc/self/smaps}, so it is too expensive to call on any hot path.
+     * <p>
+     * The kernel merges adjacent mappings with the same properties, and only reports huge pages per merged mapping. The huge pages of
+     * a mapping that only partially overlaps the given ranges are counted in proportion to the overlap.
+     * @param addresses start addresses of the ranges
+     * @param lengths lengths in bytes of the ranges
+     * @return the number of huge page backed bytes
+     * @throws IOException if the memory map could not be read
+     */
+    public static long hugePageBackedBytes( long[] addresses, long[] lengths ) throws IOException
+    {
+        long backed = 0;
+        try ( BufferedReader reader = Files.newBufferedReader( Path.of( "/proc/self/smaps" ) ) )
+        {
+            long overlap = 0;
+            long mappingSize = 0;
+            long hugeKiloBytes = 0;
+            String line;
+            while ( (line = reader.readLine()) != null )
+            {
+                int separator = line.indexOf( ':' );
+                int dash = line.indexOf( '-' );
+                if ( dash > 0 && (separator < 0 || dash < separator) )
+                {
+                    // A new mapping starts, with a header like "7f1c2a000000-7f1c2a200000 rw-p 00000000 00:00 0".
+                    backed += proportion( hugeKiloBytes * 1024, overlap, mappingSize );
+                    int space = line.indexOf( ' ', dash );
+                    long start = Long.parseUnsignedLong( line.substring( 0, dash ), 16 );
+                    long end = Long.parseUnsignedLong( line.substring( dash + 1, space ), 16 );
+                    mappingSize = end - start;
+                    overlap = overlap( start, end, addresses, lengths );
+                    hugeKiloBytes = 0;
+                }
+                else if ( overlap > 0 && (line.startsWith( "AnonHugePages:" ) || line.startsWith( "Private_Hugetlb:" ) ||
+                        line.startsWith( "Shared_Hugetlb:" )) )
+                {
+                    hugeKiloBytes += parseKiloBytes( line, separator );
+                }
+            }
+            backed += proportion( hugeKiloBytes * 1024, overlap, mappingSize );
+        }
+        return backed;
+    }
+
+    /**
+     * Details about huge page availability
+     * @return details about huge page availability
+     */
+    public static String describe()
+    {
+        if ( HUGE_PAGES_AVAILABLE )
+        {
+            return "Huge pages are available, with a huge page size of " + HUGE_PAGE_SIZE + " bytes.";
+        }
+        StringBuilder descriptionBuilder = new StringBuilder( "Huge pages are not available." );
+        if ( INITIALIZATION_FAILURE != null )
+        {
+            descriptionBuilder.append( " Details: " ).append( getStackTrace( INITIALIZATION_FAILURE ) );
+        }
+        return descriptionBuilder.toString();
+    }
+
+    private static long overlap( long start, long end, long[] addresses, long[] lengths )
+    {
+        long overlap = 0;
+        for ( int i = 0; i < addresses.length; i++ )
+        {
+            long from = Math.max( start, addresses[i] );
+            long to = Math.min( end, addresses[i] + lengths[i] );
+            if ( to > from )
+            {
+                overlap += to - from;
+            }
+        }
+        return overlap;
+    }
+
+    private static long proportion( long hugeBytes, long overlap, long mappingSize )
+    {
+        if ( hugeBytes == 0 || overlap == 0 )
+        {
+            return 0;
+        }
+        if ( overlap >= mappingSize )
+        {
+            return hugeBytes;
+        }
+        return (long) (hugeBytes * ((double) overlap / mappingSize));
+    }
+
+    private static long parseKiloBytes( String line, int separator )
+    {
+        String value = line.substring( separator + 1 ).trim();
+        int unit = value.indexOf( ' ' );
+        return Long.parseLong( unit < 0 ? value : value.substring( 0, unit ) );
+    }
+
+    private static long readHugePageSize() throws IOException
+    {
+        Path meminfo = Path.of( "/proc/meminfo" );
+        if ( Files.exists( meminfo ) )
+        {
+            for ( String line : Files.readAllLines( meminfo ) )
+            {
+                if ( line.startsWith( "Hugepagesize:" ) )
+                {
+                    return parseKiloBytes( line, line.indexOf( ':' ) ) * 1024;
+                }
+            }
+        }
+        return DEFAULT_HUGE_PAGE_SIZE;
+    }
+
+    private static IOException callFailed( String call, LastErrorException e )
+    {
+        return new IOException( call + " failed with error " + e.getErrorCode() + ": " + LinuxNativeAccess.tryExtractError( e.getErrorCode() ), e );
+    }
+}
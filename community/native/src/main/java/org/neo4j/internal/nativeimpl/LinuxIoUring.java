@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+
+import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
+
+/**
+ * Access to the Linux io_uring system calls, and to the few other calls that are needed to set up and tear down a ring.
+ * <p>
+ * This class only wraps the raw system calls. The submission and completion queues live in memory that is shared with the
+ * kernel, and it is up to the caller to lay out the queue entries and to order the accesses to the ring heads and tails.
+ * See {@code man 7 io_uring} for the details.
+ */
+public final class LinuxIoUring
+{
+    /**
+     * Size in bytes of {@code struct io_uring_params}.
+     */
+    public static final int PARAMS_SIZE = 120;
+
+    /**
+     * Opcode of a vectored read, from io_uring.h.
+     */
+    public static final byte IORING_OP_READV = 1;
+
+    /**
+     * Opcode of a vectored write, from io_uring.h.
+     */
+    public static final byte IORING_OP_WRITEV = 2;
+
+    /**
+     * Flag for io_uring_enter, that makes the call wait for the requested number of completions.
+     */
+    public static final int IORING_ENTER_GETEVENTS = 1;
+
+    /**
+     * Magic mmap offsets of the submission queue ring, the completion queue ring and the submission queue entries.
+     */
+    public static final long IORING_OFF_SQ_RING = 0L;
+    public static final long IORING_OFF_CQ_RING = 0x8000000L;
+    public static final long IORING_OFF_SQES = 0x10000000L;
+
+    public static final int EINTR = 4;
+    public static final int EAGAIN = 11;
+    public static final int EBUSY = 16;
+
+    // The io_uring system calls have the same numbers on all architectures that we run on.
+    private static final long SYS_IO_URING_SETUP = 425;
+    private static final long SYS_IO_URING_ENTER = 426;
+
+    private static final int PROT_READ = 0x1;
+    private static final int PROT_WRITE = 0x2;
+    private static final int MAP_SHARED = 0x01;
+    private static final int MAP_POPULATE = 0x08000;
+    private static final long MAP_FAILED = -1;
+
+    private static final boolean IO_URING_AVAILABLE;
+    private static final Throwable INITIALIZATION_FAILURE;
+
+    static
+    {
+        Throwable initFailure = null;
+        boolean available = false;
+        try
+        {
+            if ( Platform.isLinux() && Platform.is64Bit() )
+            {
+                Native.register( Platform.C_LIBRARY_NAME );
+                available = probe();
+            }
+        }
+        catch ( Throwable t )
+        {
+            initFailure = t;
+        }
+        IO_URING_AVAILABLE = available;
+        INITIALIZATION_FAILURE = initFailure;
+    }
+
+    private LinuxIoUring()
+    {
+    }
+
+    /**
+     * Indirect system call. The io_uring calls have no wrappers in the C library, so they have to be made through this one.
+     * Unused arguments are ignored by the kernel.
+     */
+    private static native long syscall( long number, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6 ) throws LastErrorException;
+
+    private static native long mmap( long address, long length, int protection, int flags, int fd, long offset ) throws LastErrorException;
+
+    private static native int munmap( long address, long length ) throws LastErrorException;
+
+    private static native int dup( int fd ) throws LastErrorException;
+
+    private static native int close( int fd ) throws LastErrorException;
+
+    private static boolean probe() throws IOException
+    {
+        // Kernels without io_uring, and containers with seccomp profiles that deny it, will fail the set up of a tiny ring.
+        long params = Native.malloc( PARAMS_SIZE );
+        if ( params == 0 )
+        {
+            return false;
+        }
+        try
+        {
+            new Pointer( params ).clear( PARAMS_SIZE );
+            int fd = (int) syscall( SYS_IO_URING_SETUP, 1, params, 0, 0, 0, 0 );
+            closeFileDescriptor( fd );
+            return true;
+        }
+        catch ( LastErrorException e )
+        {
+            return false;
+        }
+        finally
+        {
+            Native.free( params );
+        }
+    }
+
+    /**
+     * Check if io_uring can be used by this process.
+     * @return true if available, false otherwise
+     */
+    public static boolean isAvailable()
+    {
+        return IO_URING_AVAILABLE;
+    }
+
+    /**
+     * Create a new ring with room for the given number of submission queue entries.
+     * @param entries number of submission queue entries, must be a power of two
+     * @param paramsAddress address of a zeroed {@code struct io_uring_params}, that the kernel fills with the ring geometry
+     * @return file descriptor of the ring
+     * @throws IOException if the ring could not be created
+     */
+    public static int setup( int entries, long paramsAddress ) throws IOException
+    {
+        try
+        {
+            return (int) syscall( SYS_IO_URING_SETUP, entries, paramsAddress, 0, 0, 0, 0 );
+        }
+        catch ( LastErrorException e )
+        {
+            throw callFailed( "io_uring_setup", e );
+        }
+    }
+
+    /**
+     * Submit queued entries and/or wait for completions.
+     * @param ringFd file descriptor of the ring
+     * @param toSubmit number of entries to submit from the submission queue
+     * @param minComplete number of completions to wait for, if {@link #IORING_ENTER_GETEVENTS} is given
+     * @param flags io_uring_enter flags
+     * @return the number of submitted entries, or the negated error number on failure
+     */
+    public static int enter( int ringFd, int toSubmit, int minComplete, int flags )
+    {
+        try
+        {
+            return (int) syscall( SYS_IO_URING_ENTER, ringFd, toSubmit, minComplete, flags, 0, 0 );
+        }
+        catch ( LastErrorException e )
+        {
+            return -e.getErrorCode();
+        }
+    }
+
+    /**
+     * Map a part of a ring into memory.
+     * @param ringFd file descriptor of the ring
+     * @param length number of bytes to map
+     * @param offset one of the {@code IORING_OFF_*} offsets
+     * @return address of the mapping
+     * @throws IOException if the mapping failed
+     */
+    public static long map( int ringFd, long length, long offset ) throws IOException
+    {
+        try
+        {
+            long address = mmap( 0, length, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd, offset );
+            if ( address == MAP_FAILED )
+            {
+                throw new IOException( "Failed to map io_uring memory at offset " + offset );
+            }
+            return address;
+        }
+        catch ( LastErrorException e )
+        {
+            throw callFailed( "mmap", e );
+        }
+    }
+
+    /**
+     * Unmap memory previously mapped by {@link #map(int, long, long)}.
+     */
+    public static void unmap( long address, long length ) throws IOException
+    {
+        try
+        {
+            munmap( address, length );
+        }
+        catch ( LastErrorException e )
+        {
+            throw callFailed( "munmap", e );
+        }
+    }
+
+    /**
+     * Duplicate the given file descriptor, so IO can be submitted for a file independently of the channel that opened it.
+     * @param fd file descriptor to duplicate
+     * @return the new file descriptor
+     * @throws IOException if the descriptor could not be duplicated
+     */
+    public static int duplicate( int fd ) throws IOException
+    {
+        try
+        {
+            return dup( fd );
+        }
+        catch ( LastErrorException e )
+        {
+            throw callFailed( "dup", e );
+        }
+    }
+
+    /**
+     * Close a ring, or a descriptor from {@link #duplicate(int)}.
+     */
+    public static void closeFileDescriptor( int fd ) throws IOException
+    {
+        try
+        {
+            close( fd );
+        }
+        catch ( LastErrorException e )
+        {
+            throw callFailed( "close", e );
+        }
+    }
+
+    /**
+     * Describe the error of a failed operation, given the error number from a completion queue entry.
+     */
+    public static String describeError( int errorCode )
+    {
+        return LinuxNativeAccess.tryExtractError( errorCode );
+    }
+
+    /**
+     * Details about io_uring availability
+     * @return details about io_uring availability
+     */
+    public static String describe()
+    {
+        if ( IO_URING_AVAILABLE )
+        {
+            return "Linux io_uring is available.";
+        }
+        StringBuilder descriptionBuilder = new StringBuilder( "Linux io_uring is not available." );
+        if ( INITIALIZATION_FAILURE != null )
+        {
+            descriptionBuilder.append( " Details: " ).append( getStackTrace( INITIALIZATION_FAILURE ) );
+        }
+        return descriptionBuilder.toString();
+    }
+
+    private static IOException callFailed( String call, LastErrorException e )
+    {
+        return new IOException( call + " failed with error " + e.getErrorCode() + ": " + describeError( e.getErrorCode() ), e );
+    }
+}
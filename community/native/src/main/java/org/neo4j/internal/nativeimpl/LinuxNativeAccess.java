@@ -47,6 +47,13 @@ public class LinuxNativeAccess implements NativeAccess
      */
     private static final int POSIX_FADV_DONTNEED = 4;
 
+    private static final int PROT_READ = 0x1;
+    private static final int MAP_SHARED = 0x01;
+    private static final long MAP_FAILED = -1;
+    private static final int SC_PAGESIZE = 30;
+    // Number of pages that we check for residency with a single mincore call.
+    private static final int RESIDENCY_CHUNK_PAGES = 64 * 1024;
+
     private static final int EINVAL = 22;
     private static final int ERANGE = 34;
 
@@ -98,6 +105,22 @@ public class LinuxNativeAccess implements NativeAccess
      */
     private static native int posix_fallocate( int fd, long offset, long len ) throws LastErrorException;
 
+    /**
+     * Determine whether the pages of a mapping starting at address and extending for length bytes are resident in memory.
+     * The least significant bit of each byte in vec is set if the corresponding page is resident.
+     * @param address page aligned start address of the range
+     * @param length length of the range in bytes
+     * @param vec pointer to an array with one byte per page in the range
+     * @return 0 on success, -1 on error
+     */
+    private static native int mincore( long address, long length, long vec ) throws LastErrorException;
+
+    private static native long mmap( long address, long length, int protection, int flags, int fd, long offset ) throws LastErrorException;
+
+    private static native int munmap( long address, long length ) throws LastErrorException;
+
+    private static native long sysconf( int name ) throws LastErrorException;
+
     /**
      * Return pointer to a string describing error number, possibly using the LC_MESSAGES part of the current locale to select the appropriate language.
      * @param errnum error number to describe
@@ -156,6 +179,71 @@ public class LinuxNativeAccess implements NativeAccess
         return wrapResult( () -> posix_fallocate( fd, 0, bytes ) );
     }
 
+    @Override
+    public long tryCountCachedBytes( int fd, long length )
+    {
+        if ( fd <= 0 || !NATIVE_ACCESS_AVAILABLE )
+        {
+            return ERROR;
+        }
+        if ( length <= 0 )
+        {
+            return 0;
+        }
+        try
+        {
+            // The file is mapped without populating it, so the mapping itself does not bring any pages into the cache.
+            long address = mmap( 0, length, PROT_READ, MAP_SHARED, fd, 0 );
+            if ( address == MAP_FAILED )
+            {
+                return ERROR;
+            }
+            try
+            {
+                return countResidentBytes( address, length );
+            }
+            finally
+            {
+                munmap( address, length );
+            }
+        }
+        catch ( LastErrorException e )
+        {
+            return ERROR;
+        }
+    }
+
+    private static long countResidentBytes( long address, long length )
+    {
+        long pageSize = sysconf( SC_PAGESIZE );
+        long pages = (length + pageSize - 1) / pageSize;
+        long vector = Native.malloc( Math.min( pages, RESIDENCY_CHUNK_PAGES ) );
+        if ( vector == 0 )
+        {
+            return ERROR;
+        }
+        try
+        {
+            long residentPages = 0;
+            for ( long page = 0; page < pages; page += RESIDENCY_CHUNK_PAGES )
+            {
+                int chunkPages = (int) Math.min( pages - page, RESIDENCY_CHUNK_PAGES );
+                long chunkLength = Math.min( (long) chunkPages * pageSize, length - page * pageSize );
+                mincore( address + page * pageSize, chunkLength, vector );
+                byte[] residency = new Pointer( vector ).getByteArray( 0, chunkPages );
+                for ( byte resident : residency )
+                {
+                    residentPages += resident & 1;
+                }
+            }
+            return Math.min( residentPages * pageSize, length );
+        }
+        finally
+        {
+            Native.free( vector );
+        }
+    }
+
     @Override
     public String describe()
     {
@@ -192,7 +280,7 @@ public class LinuxNativeAccess implements NativeAccess
         }
     }
 
-    private static String tryExtractError( int errorCode )
+    static String tryExtractError( int errorCode )
     {
         // The GNU C Library uses a buffer of 1024 characters for strerror().
         // This buffer size therefore should be sufficient to avoid an ERANGE error when calling strerror_r() and strerror_l().
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
+
+/**
+ * Access to the NUMA topology of the machine, and to the memory policy system call that places memory on a given NUMA node.
+ * <p>
+ * The topology is read from {@code /sys/devices/system/node} once, when this class is initialised. Machines without NUMA support
+ * look like a single node that holds every CPU.
+ */
+public final class LinuxNuma
+{
+    private static final long SYS_MBIND_X86_64 = 237;
+    private static final long SYS_MBIND_AARCH64 = 235;
+    private static final int MPOL_PREFERRED = 1;
+    private static final int MPOL_MF_MOVE = 1 << 1;
+    private static final int MAX_NODES = Long.SIZE;
+    private static final Path NODES = Path.of( "/sys/devices/system/node" );
+
+    private static final boolean NUMA_AVAILABLE;
+    private static final long SYS_MBIND;
+    private static final int NODE_COUNT;
+    private static final int[] CPU_TO_NODE;
+    private static final Throwable INITIALIZATION_FAILURE;
+
+    static
+    {
+        Throwable initFailure = null;
+        boolean available = false;
+        int nodeCount = 1;
+        int[] cpuToNode = new int[0];
+        long mbind = -1;
+        try
+        {
+            if ( Platform.isLinux() && Platform.is64Bit() && Files.isDirectory( NODES ) )
+            {
+                Native.register( Platform.C_LIBRARY_NAME );
+                mbind = Platform.isIntel() ? SYS_MBIND_X86_64 : Platform.isARM() ? SYS_MBIND_AARCH64 : -1;
+                int[] nodes = parseList( Files.readString( NODES.resolve( "online" ) ).trim() );
+                nodeCount = nodes.length == 0 ? 1 : nodes[nodes.length - 1] + 1;
+                cpuToNode = readCpuToNode( nodes );
+                available = mbind != -1 && nodeCount <= MAX_NODES;
+            }
+        }
+        catch ( Throwable t )
+        {
+            initFailure = t;
+        }
+        NUMA_AVAILABLE = available;
+        SYS_MBIND = mbind;
+        NODE_COUNT = available ? nodeCount : 1;
+        CPU_TO_NODE = cpuToNode;
+        INITIALIZATION_FAILURE = initFailure;
+    }
+
+    private LinuxNuma()
+    {
+    }
+
+    private static native long syscall( long number, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6 ) throws LastErrorException;
+
+    private static native int sched_getcpu() throws LastErrorException;
+
+    /**
+     * Check if memory can be placed on specific NUMA nodes by this process.
+     * @return true if available, false otherwise
+     */
+    public static boolean isAvailable()
+    {
+        return NUMA_AVAILABLE;
+    }
+
+    /**
+     * @return the number of NUMA nodes of the machine, which is 1 if NUMA is not available.
+     */
+    public static int nodeCount()
+    {
+        return NODE_COUNT;
+    }
+
+    /**
+     * Find the NUMA node of the CPU that the calling thread is currently running on. The thread can be migrated to another CPU at any time,
+     * so this is only a hint.
+     * @return the NUMA node of the current CPU, or 0 if it cannot be determined.
+     */
+    public static int currentNode()
+    {
+        if ( !NUMA_AVAILABLE )
+        {
+            return 0;
+        }
+        try
+        {
+            int cpu = sched_getcpu();
+            return cpu >= 0 && cpu < CPU_TO_NODE.length ? CPU_TO_NODE[cpu] : 0;
+        }
+        catch ( LastErrorException e )
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * Ask the kernel to place the pages of the given memory range on the given NUMA node, as long as that node has free memory. Pages
+     * that are already placed on other nodes are moved. Only the whole pages inside the range are affected.
+     * @param address start of the memory range
+     * @param length length of the memory range in bytes
+     * @param node the NUMA node to prefer
+     * @throws IOException if the memory policy could not be set, for instance because the node does not exist
+     */
+    public static void preferNode( long address, long length, int node ) throws IOException
+    {
+        if ( !NUMA_AVAILABLE || node < 0 || node >= MAX_NODES )
+        {
+            throw new IOException( "Cannot place memory on NUMA node " + node + ". " + describe() );
+        }
+        long pageSize = 4096;
+        long start = (address + pageSize - 1) & -pageSize;
+        long end = (address + length) & -pageSize;
+        if ( end <= start )
+        {
+            return;
+        }
+        // The node mask is a bit set of nodes, in an array of longs. We only support as many nodes as fits in a single long.
+        long nodeMask = Native.malloc( Long.BYTES );
+        try
+        {
+            new Pointer( nodeMask ).setLong( 0, 1L << node );
+            syscall( SYS_MBIND, start, end - start, MPOL_PREFERRED, nodeMask, MAX_NODES, MPOL_MF_MOVE );
+        }
+        catch ( LastErrorException e )
+        {
+            throw new IOException( "mbind failed with error " + e.getErrorCode() + ": " + LinuxNativeAccess.tryExtractError( e.getErrorCode() ), e );
+        }
+        finally
+        {
+            Native.free( nodeMask );
+        }
+    }
+
+    /**
+     * Details about NUMA availability
+     * @return details about NUMA availability
+     */
+    public static String describe()
+    {
+        if ( NUMA_AVAILABLE )
+        {
+            return "NUMA is available, with " + NODE_COUNT + (NODE_COUNT == 1 ? " node." : " nodes.");
+        }
+        StringBuilder descriptionBuilder = new StringBuilder( "NUMA is not available." );
+        if ( INITIALIZATION_FAILURE != null )
+        {
+            descriptionBuilder.append( " Details: " ).append( getStackTrace( INITIALIZATION_FAILURE ) );
+        }
+        return descriptionBuilder.toString();
+    }
+
+    private static int[] readCpuToNode( int[] nodes ) throws IOException
+    {
+        int[] cpuToNode = new int[0];
+        for ( int node : nodes )
+        {
+            Path cpuList = NODES.resolve( "node" + node ).resolve( "cpulist" );
+            if ( !Files.exists( cpuList ) )
+            {
+                continue;
+            }
+            for ( int cpu : parseList( Files.readString( cpuList ).trim() ) )
+            {
+                if ( cpu >= cpuToNode.length )
+                {
+                    cpuToNode = Arrays.copyOf( cpuToNode, cpu + 1 );
+                }
+                cpuToNode[cpu] = node;
+            }
+        }
+        return cpuToNode;
+    }
+
+    /**
+     * Parse a list of numbers in the kernel's list format, like "0-3,8,10-11".
+     */
+    static int[] parseList( String list )
+    {
+        if ( list.isEmpty() )
+        {
+            return new int[0];
+        }
+        return Arrays.stream( list.split( "," ) ).flatMapToInt( range ->
+        {
+            int dash = range.indexOf( '-' );
+            if ( dash < 0 )
+            {
+                return IntStream.of( Integer.parseInt( range ) );
+            }
+            return IntStream.rangeClosed( Integer.parseInt( range.substring( 0, dash ) ), Integer.parseInt( range.substring( dash + 1 ) ) );
+        } ).sorted().toArray();
+    }
+}
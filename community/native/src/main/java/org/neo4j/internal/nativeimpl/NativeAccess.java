@@ -69,6 +69,15 @@ public interface NativeAccess
      */
     NativeCallResult tryPreallocateSpace( int fd, long bytes );
 
+    /**
+     * Try to find out how many bytes of the file referenced by provided file descriptor are currently cached by the operating system.
+     * Useful for observing how much memory a file occupies outside of our own caches. For example: store files that are not opened with direct IO.
+     * @param fd file descriptor
+     * @param length number of bytes from the start of the file to check
+     * @return number of cached bytes, or {@link #ERROR} if it could not be determined
+     */
+    long tryCountCachedBytes( int fd, long length );
+
     /**
      * Details about native access provider
      * @return details about native access
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.apache.commons.lang3.reflect.FieldUtils.getDeclaredField;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.IORING_OP_READV;
+import static org.neo4j.internal.nativeimpl.LinuxIoUring.IORING_OP_WRITEV;
+
+@EnabledOnOs( OS.LINUX )
+class IoUringRingTest
+{
+    private static final int BUFFER_SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void checkAvailability()
+    {
+        assumeTrue( LinuxIoUring.isAvailable(), LinuxIoUring.describe() );
+    }
+
+    @Test
+    void writeAndReadBackThroughRing() throws Exception
+    {
+        Path file = directory.resolve( "file" );
+        long buffers = Native.malloc( 4 * BUFFER_SIZE );
+        try ( FileChannel channel = FileChannel.open( file, READ, WRITE, CREATE );
+              IoUringRing ring = IoUringRing.create( 4, 2 ) )
+        {
+            int fd = getDescriptor( channel );
+            Pointer memory = new Pointer( buffers );
+            for ( int i = 0; i < 4; i++ )
+            {
+                memory.setMemory( (long) i * BUFFER_SIZE, BUFFER_SIZE, (byte) (i + 1) );
+            }
+            long[] addresses = {buffers, buffers + BUFFER_SIZE, buffers + 2 * BUFFER_SIZE, buffers + 3 * BUFFER_SIZE};
+            int[] lengths = {BUFFER_SIZE, BUFFER_SIZE, BUFFER_SIZE, BUFFER_SIZE};
+
+            // One vectored write of the first two buffers, and two single buffer writes further out in the file.
+            assertThat( ring.prepare( IORING_OP_WRITEV, fd, 0, addresses, lengths, 0, 2, 0 ) ).isTrue();
+            assertThat( ring.prepare( IORING_OP_WRITEV, fd, 4 * BUFFER_SIZE, addresses[2], BUFFER_SIZE, 1 ) ).isTrue();
+            assertThat( ring.prepare( IORING_OP_WRITEV, fd, 6 * BUFFER_SIZE, addresses[3], BUFFER_SIZE, 2 ) ).isTrue();
+            assertThat( ring.queued() ).isEqualTo( 3 );
+
+            long[] userData = new long[ring.capacity()];
+            int[] results = new int[ring.capacity()];
+            assertThat( ring.submitAndAwait( userData, results ) ).isEqualTo( 3 );
+            assertThat( ring.queued() ).isZero();
+            for ( int i = 0; i < 3; i++ )
+            {
+                assertThat( results[i] ).isEqualTo( userData[i] == 0 ? 2 * BUFFER_SIZE : BUFFER_SIZE );
+            }
+
+            byte[] bytes = Files.readAllBytes( file );
+            assertThat( bytes ).hasSize( 7 * BUFFER_SIZE );
+            assertThat( bytes[0] ).isEqualTo( (byte) 1 );
+            assertThat( bytes[BUFFER_SIZE] ).isEqualTo( (byte) 2 );
+            assertThat( bytes[2 * BUFFER_SIZE] ).isZero();
+            assertThat( bytes[4 * BUFFER_SIZE] ).isEqualTo( (byte) 3 );
+            assertThat( bytes[6 * BUFFER_SIZE] ).isEqualTo( (byte) 4 );
+
+            memory.setMemory( 0, 4 * BUFFER_SIZE, (byte) 0 );
+            assertThat( ring.prepare( IORING_OP_READV, fd, 6 * BUFFER_SIZE, addresses[0], BUFFER_SIZE, 7 ) ).isTrue();
+            assertThat( ring.submitAndAwait( userData, results ) ).isEqualTo( 1 );
+            assertThat( userData[0] ).isEqualTo( 7 );
+            assertThat( results[0] ).isEqualTo( BUFFER_SIZE );
+            assertThat( memory.getByte( BUFFER_SIZE - 1 ) ).isEqualTo( (byte) 4 );
+        }
+        finally
+        {
+            Native.free( buffers );
+        }
+    }
+
+    @Test
+    void mustNotPrepareMoreThanTheRingCanHold() throws IOException
+    {
+        try ( IoUringRing ring = IoUringRing.create( 2, 1 ) )
+        {
+            assertThat( ring.capacity() ).isEqualTo( 2 );
+            assertThat( ring.maxVectorLength() ).isEqualTo( 2 );
+            assertThat( ring.prepare( IORING_OP_READV, 0, 0, new long[3], new int[3], 0, 3, 0 ) ).isFalse();
+            assertThat( ring.prepare( IORING_OP_READV, 0, 0, 0, 0, 0 ) ).isTrue();
+            assertThat( ring.prepare( IORING_OP_READV, 0, 0, 0, 0, 1 ) ).isTrue();
+            assertThat( ring.prepare( IORING_OP_READV, 0, 0, 0, 0, 2 ) ).isFalse();
+            assertThat( ring.queued() ).isEqualTo( 2 );
+
+            // Taking back prepared but unsubmitted operations leaves the ring in an unknown state.
+            ring.reset();
+            assertThat( ring.queued() ).isZero();
+            assertThat( ring.isBroken() ).isTrue();
+        }
+    }
+
+    @Test
+    void failedOperationsReportNegatedErrorNumbers() throws IOException
+    {
+        long buffer = Native.malloc( BUFFER_SIZE );
+        try ( IoUringRing ring = IoUringRing.create( 2, 1 ) )
+        {
+            assertThat( ring.prepare( IORING_OP_READV, -1, 0, buffer, BUFFER_SIZE, 0 ) ).isTrue();
+            long[] userData = new long[ring.capacity()];
+            int[] results = new int[ring.capacity()];
+            assertThat( ring.submitAndAwait( userData, results ) ).isEqualTo( 1 );
+            assertThat( results[0] ).isNegative();
+            assertThat( ring.isBroken() ).isFalse();
+        }
+        finally
+        {
+            Native.free( buffer );
+        }
+    }
+
+    @Test
+    void mustFailToCreateRingWithInvalidSize()
+    {
+        assertThrows( IOException.class, () -> IoUringRing.create( 0, 1 ) );
+    }
+
+    private static int getDescriptor( Channel channel ) throws ClassNotFoundException, IllegalAccessException
+    {
+        Class<?> fileChannelImpl = Class.forName( "sun.nio.ch.FileChannelImpl" );
+        FileDescriptor fd = (FileDescriptor) getDeclaredField( fileChannelImpl, "fd", true ).get( channel );
+        return getDeclaredField( FileDescriptor.class, "fd", true ).getInt( fd );
+    }
+}
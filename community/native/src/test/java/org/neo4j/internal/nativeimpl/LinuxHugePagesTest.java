@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.Pointer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LinuxHugePagesTest
+{
+    @Test
+    @DisabledOnOs( OS.LINUX )
+    void disabledOnNonLinux()
+    {
+        assertThat( LinuxHugePages.isAvailable() ).isFalse();
+    }
+
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void transparentMappingIsAlignedToHugePages() throws IOException
+    {
+        assumeTrue( LinuxHugePages.isAvailable(), LinuxHugePages.describe() );
+        long hugePageSize = LinuxHugePages.hugePageSize();
+        assertThat( Long.bitCount( hugePageSize ) ).isOne();
+
+        long length = 4 * hugePageSize;
+        long address = LinuxHugePages.mapTransparent( length );
+        try
+        {
+            assertThat( address & (hugePageSize - 1) ).isZero();
+            Pointer pointer = new Pointer( address );
+            for ( long offset = 0; offset < length; offset += hugePageSize )
+            {
+                pointer.setLong( offset, offset );
+            }
+            for ( long offset = 0; offset < length; offset += hugePageSize )
+            {
+                assertThat( pointer.getLong( offset ) ).isEqualTo( offset );
+            }
+            long backed = LinuxHugePages.hugePageBackedBytes( new long[]{address}, new long[]{length} );
+            assertThat( backed ).isBetween( 0L, length );
+        }
+        finally
+        {
+            LinuxHugePages.unmap( address, length );
+        }
+    }
+
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void explicitMappingIsFullyHugePageBacked() throws IOException
+    {
+        assumeTrue( LinuxHugePages.isAvailable(), LinuxHugePages.describe() );
+        long length = LinuxHugePages.hugePageSize();
+        long address = mapExplicitIfPoolHasPages( length );
+        assumeTrue( address != 0, "The hugetlb pool has no free huge pages" );
+        try
+        {
+            new Pointer( address ).setLong( 0, 1 );
+            assertThat( LinuxHugePages.hugePageBackedBytes( new long[]{address}, new long[]{length} ) ).isEqualTo( length );
+        }
+        finally
+        {
+            LinuxHugePages.unmap( address, length );
+        }
+    }
+
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void rangesOutsideOfAnyMappingHaveNoHugePages() throws IOException
+    {
+        assumeTrue( LinuxHugePages.isAvailable(), LinuxHugePages.describe() );
+        assertThat( LinuxHugePages.hugePageBackedBytes( new long[]{0}, new long[]{4096} ) ).isZero();
+        assertThat( LinuxHugePages.hugePageBackedBytes( new long[0], new long[0] ) ).isZero();
+    }
+
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void discardedMemoryReadsAsZerosAndCanBeWrittenAgain() throws IOException
+    {
+        assumeTrue( LinuxHugePages.isAvailable(), LinuxHugePages.describe() );
+        long length = 2 * LinuxHugePages.hugePageSize();
+        long address = LinuxHugePages.mapTransparent( length );
+        try
+        {
+            Pointer pointer = new Pointer( address );
+            pointer.setLong( 0, 1 );
+            pointer.setLong( 4096, 2 );
+            LinuxHugePages.discard( address, 4096 );
+            assertThat( pointer.getLong( 0 ) ).isZero();
+            assertThat( pointer.getLong( 4096 ) ).isEqualTo( 2 );
+            pointer.setLong( 0, 3 );
+            assertThat( pointer.getLong( 0 ) ).isEqualTo( 3 );
+        }
+        finally
+        {
+            LinuxHugePages.unmap( address, length );
+        }
+    }
+
+    private static long mapExplicitIfPoolHasPages( long length )
+    {
+        try
+        {
+            return LinuxHugePages.mapExplicit( length );
+        }
+        catch ( IOException e )
+        {
+            return 0;
+        }
+    }
+}
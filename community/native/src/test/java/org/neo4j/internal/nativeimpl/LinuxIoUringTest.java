@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LinuxIoUringTest
+{
+    @Test
+    @DisabledOnOs( OS.LINUX )
+    void disabledOnNonLinux()
+    {
+        assertThat( LinuxIoUring.isAvailable() ).isFalse();
+    }
+
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void setUpAndTearDownRing() throws IOException
+    {
+        assumeTrue( LinuxIoUring.isAvailable(), LinuxIoUring.describe() );
+        long params = Native.malloc( LinuxIoUring.PARAMS_SIZE );
+        try
+        {
+            new Pointer( params ).clear( LinuxIoUring.PARAMS_SIZE );
+            int ringFd = LinuxIoUring.setup( 4, params );
+            assertThat( ringFd ).isPositive();
+            // The kernel reports the number of submission queue entries it actually allocated.
+            assertThat( new Pointer( params ).getInt( 0 ) ).isEqualTo( 4 );
+
+            long sqes = LinuxIoUring.map( ringFd, 4 * 64, LinuxIoUring.IORING_OFF_SQES );
+            LinuxIoUring.unmap( sqes, 4 * 64 );
+
+            // Nothing to submit, and nothing to wait for.
+            assertThat( LinuxIoUring.enter( ringFd, 0, 0, 0 ) ).isZero();
+            LinuxIoUring.closeFileDescriptor( ringFd );
+        }
+        finally
+        {
+            Native.free( params );
+        }
+    }
+
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void failOnIncorrectDescriptors()
+    {
+        assumeTrue( LinuxIoUring.isAvailable(), LinuxIoUring.describe() );
+        assertThrows( IOException.class, () -> LinuxIoUring.duplicate( -1 ) );
+        assertThat( LinuxIoUring.enter( -1, 1, 1, LinuxIoUring.IORING_ENTER_GETEVENTS ) ).isNegative();
+        assertThat( LinuxIoUring.describeError( LinuxIoUring.EINTR ) ).isNotEmpty();
+    }
+}
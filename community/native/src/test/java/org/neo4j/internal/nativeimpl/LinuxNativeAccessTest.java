@@ -28,6 +28,7 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.FileDescriptor;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
 import java.nio.channels.FileChannel;
 import java.nio.file.FileStore;
@@ -166,6 +167,32 @@ class LinuxNativeAccessTest
                 assertFalse( nativeAccess.tryEvictFromCache( descriptor ).isError() );
             }
         }
+
+        @Test
+        void failToCountCachedBytesForIncorrectDescriptor() throws IOException, IllegalAccessException, ClassNotFoundException
+        {
+            assertEquals( ERROR, nativeAccess.tryCountCachedBytes( 0, 1024 ) );
+            assertEquals( ERROR, nativeAccess.tryCountCachedBytes( -1, 1024 ) );
+
+            Path file = tempFile.resolve( "file" );
+            int descriptor = getClosedDescriptor( file );
+            assertEquals( ERROR, nativeAccess.tryCountCachedBytes( descriptor, 1024 ) );
+        }
+
+        @Test
+        void countCachedBytesOfRecentlyWrittenFile() throws IOException, IllegalAccessException, ClassNotFoundException
+        {
+            Path file = tempFile.resolve( "cachedFile" );
+            int size = 1024 * 1024;
+            try ( FileChannel channel = FileChannel.open( file, READ, WRITE, CREATE ) )
+            {
+                channel.write( ByteBuffer.allocate( size ) );
+                int descriptor = getDescriptor( channel );
+                assertEquals( 0, nativeAccess.tryCountCachedBytes( descriptor, 0 ) );
+                long cachedBytes = nativeAccess.tryCountCachedBytes( descriptor, size );
+                assertThat( cachedBytes ).isGreaterThan( 0 ).isLessThanOrEqualTo( size );
+            }
+        }
     }
 
     private void preallocate( Path file, long bytes ) throws IOException, IllegalAccessException, ClassNotFoundException
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LinuxNumaTest
+{
+    @Test
+    @DisabledOnOs( OS.LINUX )
+    void singleNodeOnNonLinux()
+    {
+        assertThat( LinuxNuma.isAvailable() ).isFalse();
+        assertThat( LinuxNuma.nodeCount() ).isOne();
+        assertThat( LinuxNuma.currentNode() ).isZero();
+    }
+
+    @Test
+    void parseKernelListFormat()
+    {
+        assertThat( LinuxNuma.parseList( "" ) ).isEmpty();
+        assertThat( LinuxNuma.parseList( "0" ) ).containsExactly( 0 );
+        assertThat( LinuxNuma.parseList( "0-3,8,10-11" ) ).containsExactly( 0, 1, 2, 3, 8, 10, 11 );
+    }
+
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void currentNodeMustBeOneOfTheNodes()
+    {
+        assumeTrue( LinuxNuma.isAvailable(), LinuxNuma.describe() );
+        assertThat( LinuxNuma.nodeCount() ).isPositive();
+        assertThat( LinuxNuma.currentNode() ).isBetween( 0, LinuxNuma.nodeCount() - 1 );
+    }
+
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void placeMemoryOnCurrentNode() throws IOException
+    {
+        assumeTrue( LinuxNuma.isAvailable(), LinuxNuma.describe() );
+        long length = 1024 * 1024;
+        long address = Native.malloc( length );
+        try
+        {
+            LinuxNuma.preferNode( address, length, LinuxNuma.currentNode() );
+            new Pointer( address ).setMemory( 0, length, (byte) 1 );
+            assertThat( new Pointer( address ).getByte( length - 1 ) ).isEqualTo( (byte) 1 );
+            assertThrows( IOException.class, () -> LinuxNuma.preferNode( address, length, Long.SIZE ) );
+        }
+        finally
+        {
+            Native.free( address );
+        }
+    }
+}
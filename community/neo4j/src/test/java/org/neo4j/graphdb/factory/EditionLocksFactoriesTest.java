@@ -62,6 +62,16 @@ class EditionLocksFactoriesTest
         assertThat( lockFactory ).isInstanceOf( ForsetiLocksFactory.class );
     }
 
+    @Test
+    void createForsetiLocksFactoryByPriorityWhenNoNameIsConfigured()
+    {
+        Config config = Config.defaults( GraphDatabaseInternalSettings.lock_manager, "" );
+
+        LocksFactory lockFactory = createLockFactory( config, NullLogService.getInstance() );
+
+        assertThat( lockFactory ).isInstanceOf( ForsetiLocksFactory.class );
+    }
+
     @Test
     void createForsetiWhenObsoleteCommunityLocksFactorySpecified()
     {
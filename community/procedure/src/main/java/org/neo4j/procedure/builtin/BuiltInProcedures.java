@@ -54,15 +54,24 @@ import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.internal.schema.IndexProviderDescriptor;
 import org.neo4j.internal.schema.SchemaDescriptor;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.exceptions.InvalidArgumentsException;
 import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.api.procedure.SystemProcedure;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler.ContendedResource;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler.LockWait;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.forseti.AdaptiveWaitStrategy;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.lock.WaitStrategy;
 import org.neo4j.procedure.Admin;
 import org.neo4j.procedure.Context;
 import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Internal;
 import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
@@ -512,6 +521,65 @@ public class BuiltInProcedures
         return Stream.of( new BooleanResult( Boolean.TRUE ) );
     }
 
+    @Admin
+    @Internal
+    @Description( "List the most contended lock resources of the database within the window of the lock contention profiler, " +
+                  "ordered by the total time transactions spent waiting for them." )
+    @Procedure( name = "db.lockContention.resources", mode = READ )
+    public Stream<LockContentionResult> lockContentionResources( @Name( value = "limit", defaultValue = "10" ) long limit )
+            throws InvalidArgumentsException
+    {
+        if ( limit < 0 )
+        {
+            throw new InvalidArgumentsException( "The limit must not be negative, but was " + limit );
+        }
+        String database = graphDatabaseAPI.databaseName();
+        List<LockContentionResult> results = new ArrayList<>();
+        for ( ContendedResource resource : lockContentionProfiler().mostContendedResources( (int) Math.min( limit, Integer.MAX_VALUE ) ) )
+        {
+            results.add( new LockContentionResult( database, resource ) );
+        }
+        return results.stream();
+    }
+
+    @Admin
+    @Internal
+    @Description( "List the lock waits of the database sampled by the lock contention profiler within its window, most recent first. " +
+                  "Each wait links the waiting transaction to the transactions holding the lock, which makes up the recent wait-for graph." )
+    @Procedure( name = "db.lockContention.waits", mode = READ )
+    public Stream<LockWaitResult> lockContentionWaits() throws InvalidArgumentsException
+    {
+        String database = graphDatabaseAPI.databaseName();
+        ZoneId zoneId = getConfiguredTimeZone();
+        List<LockWaitResult> results = new ArrayList<>();
+        for ( LockWait wait : lockContentionProfiler().recentWaits() )
+        {
+            results.add( new LockWaitResult( database, wait, zoneId ) );
+        }
+        return results.stream();
+    }
+
+    @Admin
+    @Internal
+    @Description( "List how the locks of each resource type are waited for, when the lock manager adapts its waits to the recently observed ones: " +
+                  "the expected wait, the waits that ended while spinning, the park latency that saved, and the spin iterations of waits that " +
+                  "had to park anyway." )
+    @Procedure( name = "db.lockContention.waitStrategies", mode = READ )
+    public Stream<LockWaitStrategyResult> lockContentionWaitStrategies()
+    {
+        Locks locks = resolver.resolveDependency( Locks.class );
+        List<LockWaitStrategyResult> results = new ArrayList<>();
+        for ( ResourceTypes resourceType : ResourceTypes.values() )
+        {
+            WaitStrategy waitStrategy = locks.waitStrategy( resourceType );
+            if ( waitStrategy instanceof AdaptiveWaitStrategy )
+            {
+                results.add( new LockWaitStrategyResult( resourceType, (AdaptiveWaitStrategy) waitStrategy ) );
+            }
+        }
+        return results.stream();
+    }
+
     private static List<String> propertyNames( TokenNameLookup tokens, IndexDescriptor index )
     {
         int[] propertyIds = index.schema().getPropertyIds();
@@ -529,6 +597,11 @@ public class BuiltInProcedures
         return config.get( GraphDatabaseSettings.db_timezone ).getZoneId();
     }
 
+    private LockContentionProfiler lockContentionProfiler()
+    {
+        return resolver.resolveDependency( LockContentionProfiler.class );
+    }
+
     private IndexProcedures indexProcedures()
     {
         return new IndexProcedures( kernelTransaction, resolver.resolveDependency( IndexingService.class ) );
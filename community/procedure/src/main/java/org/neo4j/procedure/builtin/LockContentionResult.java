@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.procedure.builtin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.api.exceptions.InvalidArgumentsException;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler.ContendedResource;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+@SuppressWarnings( "WeakerAccess" )
+public class LockContentionResult
+{
+    public final String resourceType;
+    public final long resourceId;
+    public final long waits;
+    public final long totalWaitTimeMillis;
+    public final long maxWaitTimeMillis;
+    public final List<String> waitingTransactionIds;
+    public final List<String> holdingTransactionIds;
+
+    LockContentionResult( String database, ContendedResource resource ) throws InvalidArgumentsException
+    {
+        this.resourceType = resource.resourceType().name();
+        this.resourceId = resource.resourceId();
+        this.waits = resource.waits();
+        this.totalWaitTimeMillis = NANOSECONDS.toMillis( resource.totalWaitNanos() );
+        this.maxWaitTimeMillis = NANOSECONDS.toMillis( resource.maxWaitNanos() );
+        this.waitingTransactionIds = transactionIds( database, resource.waitingTransactionIds() );
+        this.holdingTransactionIds = transactionIds( database, resource.holderTransactionIds() );
+    }
+
+    static List<String> transactionIds( String database, long[] ids ) throws InvalidArgumentsException
+    {
+        List<String> transactionIds = new ArrayList<>( ids.length );
+        for ( long id : ids )
+        {
+            transactionIds.add( new TransactionId( database, id ).toString() );
+        }
+        return transactionIds;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.procedure.builtin;
+
+import java.time.ZoneId;
+import java.util.List;
+
+import org.neo4j.kernel.api.exceptions.InvalidArgumentsException;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler.LockWait;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.neo4j.procedure.builtin.LockContentionResult.transactionIds;
+import static org.neo4j.procedure.builtin.ProceduresTimeFormatHelper.formatTime;
+
+@SuppressWarnings( "WeakerAccess" )
+public class LockWaitResult
+{
+    public final String lockType;
+    public final String resourceType;
+    public final long resourceId;
+    public final String waitingTransactionId;
+    public final List<String> holdingTransactionIds;
+    public final long waitTimeMillis;
+    public final String endTime;
+
+    LockWaitResult( String database, LockWait wait, ZoneId zoneId ) throws InvalidArgumentsException
+    {
+        this.lockType = wait.lockType().name();
+        this.resourceType = wait.resourceType().name();
+        this.resourceId = wait.resourceId();
+        this.waitingTransactionId = new TransactionId( database, wait.waitingTransactionId() ).toString();
+        this.holdingTransactionIds = transactionIds( database, wait.holderTransactionIds() );
+        this.waitTimeMillis = NANOSECONDS.toMillis( wait.waitNanos() );
+        this.endTime = formatTime( wait.endMillis(), zoneId );
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.procedure.builtin;
+
+import org.neo4j.kernel.impl.locking.forseti.AdaptiveWaitStrategy;
+import org.neo4j.lock.ResourceType;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+@SuppressWarnings( "WeakerAccess" )
+public class LockWaitStrategyResult
+{
+    public final String resourceType;
+    public final long expectedWaitMicros;
+    public final long spinningWaits;
+    public final long savedLatencyMicros;
+    public final long wastedSpinIterations;
+
+    LockWaitStrategyResult( ResourceType resourceType, AdaptiveWaitStrategy waitStrategy )
+    {
+        this.resourceType = resourceType.name();
+        this.expectedWaitMicros = NANOSECONDS.toMicros( waitStrategy.expectedWaitNanos() );
+        this.spinningWaits = waitStrategy.spinningWaits();
+        this.savedLatencyMicros = NANOSECONDS.toMicros( waitStrategy.savedLatencyNanos() );
+        this.wastedSpinIterations = waitStrategy.wastedSpinIterations();
+    }
+}
@@ -70,15 +70,21 @@ import org.neo4j.internal.schema.constraints.NodeKeyConstraintDescriptor;
 import org.neo4j.internal.schema.constraints.UniquenessConstraintDescriptor;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.exceptions.InvalidArgumentsException;
 import org.neo4j.kernel.api.procedure.Context;
 import org.neo4j.kernel.api.procedure.GlobalProcedures;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.forseti.ForsetiLockManager;
+import org.neo4j.kernel.impl.locking.forseti.LockingInternalSettings;
 import org.neo4j.kernel.impl.util.DefaultValueMapper;
 import org.neo4j.kernel.impl.util.ValueUtils;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.lock.ResourceTypes;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.impl.GlobalProceduresRegistry;
+import org.neo4j.time.Clocks;
 import org.neo4j.token.api.NamedToken;
 import org.neo4j.values.AnyValue;
 import org.neo4j.values.storable.TextValue;
@@ -435,6 +441,42 @@ class BuiltInProceduresTest
         );
     }
 
+    @Test
+    void shouldListAdaptiveLockWaitStrategies() throws Throwable
+    {
+        // Given
+        Config config = Config.defaults( LockingInternalSettings.adaptive_lock_wait_strategy, true );
+        ForsetiLockManager locks = new ForsetiLockManager( config, Clocks.nanoClock(), ResourceTypes.values() );
+        locks.waitStrategy( ResourceTypes.NODE ).waitEnded( 1, 100 );
+        when( resolver.resolveDependency( Locks.class ) ).thenReturn( locks );
+
+        // When
+        List<Object[]> results = call( "db.lockContention.waitStrategies" );
+
+        // Then
+        assertThat( results ).hasSize( ResourceTypes.values().length );
+        assertThat( results ).contains( record( "NODE", 0L, 1L, 50L, 0L ) );
+        locks.close();
+    }
+
+    @Test
+    void shouldNotListStaticLockWaitStrategies() throws Throwable
+    {
+        ForsetiLockManager locks = new ForsetiLockManager( Config.defaults(), Clocks.nanoClock(), ResourceTypes.values() );
+        when( resolver.resolveDependency( Locks.class ) ).thenReturn( locks );
+
+        assertThat( call( "db.lockContention.waitStrategies" ) ).isEmpty();
+        locks.close();
+    }
+
+    @Test
+    void shouldNotListLockContentionResourcesWithNegativeLimit()
+    {
+        assertThatThrownBy( () -> call( "db.lockContention.resources", -1L ) )
+                .isInstanceOf( ProcedureException.class )
+                .hasRootCauseInstanceOf( InvalidArgumentsException.class );
+    }
+
     @Test
     void shouldNotListSystemGraphComponentsIfNotSystemDb()
     {
@@ -340,6 +340,12 @@ public class StubKernelTransaction implements KernelTransaction
         throw new UnsupportedOperationException( "not implemented" );
     }
 
+    @Override
+    public void setRelaxedDurability( boolean relaxedDurability )
+    {
+        throw new UnsupportedOperationException( "not implemented" );
+    }
+
     @Override
     public void assertOpen()
     {
@@ -40,7 +40,6 @@ import static org.neo4j.lock.LockType.EXCLUSIVE;
 import static org.neo4j.lock.ResourceTypes.NODE;
 import static org.neo4j.lock.ResourceTypes.NODE_RELATIONSHIP_GROUP_DELETE;
 import static org.neo4j.lock.ResourceTypes.RELATIONSHIP;
-import static org.neo4j.lock.ResourceTypes.RELATIONSHIP_GROUP;
 
 /**
  * Merely a helper during development to ensure that commands generated are sufficiently locked, now that we're experimenting with
@@ -155,7 +154,8 @@ public interface CommandLockVerification
             long node = command.after.getOwningNode();
             if ( !txState.nodeIsAddedInThisTx( node ) )
             {
-                assertLocked( node, RELATIONSHIP_GROUP, EXCLUSIVE, command.after );
+                boolean onlyThisGroupChanged = command.before.inUse() && command.after.inUse() && command.before.getNext() == command.after.getNext();
+                LockVerificationMonitor.assertRelationshipGroupLocked( locks, node, command.after, onlyThisGroupChanged );
             }
 
             boolean deleted = !command.after.inUse();
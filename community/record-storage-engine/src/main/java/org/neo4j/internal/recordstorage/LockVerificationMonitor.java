@@ -46,12 +46,14 @@ import org.neo4j.lock.ResourceLocker;
 import org.neo4j.lock.ResourceType;
 import org.neo4j.storageengine.api.txstate.ReadableTransactionState;
 
+import static org.neo4j.internal.recordstorage.RelationshipLockHelper.relationshipTypeGroupResourceId;
 import static org.neo4j.lock.LockType.EXCLUSIVE;
 import static org.neo4j.lock.LockType.SHARED;
 import static org.neo4j.lock.ResourceTypes.NODE;
 import static org.neo4j.lock.ResourceTypes.NODE_RELATIONSHIP_GROUP_DELETE;
 import static org.neo4j.lock.ResourceTypes.RELATIONSHIP;
 import static org.neo4j.lock.ResourceTypes.RELATIONSHIP_GROUP;
+import static org.neo4j.lock.ResourceTypes.RELATIONSHIP_TYPE_GROUP;
 import static org.neo4j.lock.ResourceTypes.SCHEMA_NAME;
 import static org.neo4j.util.Preconditions.checkState;
 
@@ -165,7 +167,9 @@ public class LockVerificationMonitor implements LoadMonitor
         long node = before.getOwningNode();
         if ( !txState.nodeIsAddedInThisTx( node ) )
         {
-            assertLocked( node, RELATIONSHIP_GROUP, before );
+            //We can't tell how an existing group is going to change from here, the command verification is stricter about that.
+            //A group that doesn't exist yet is going to be created though, which changes the group chain
+            assertRelationshipGroupLocked( locks, node, before, before.inUse() );
         }
     }
 
@@ -211,6 +215,19 @@ public class LockVerificationMonitor implements LoadMonitor
         }
     }
 
+    /**
+     * @param onlyThisGroupChanged whether or not the change is limited to this group, i.e. no group is created or deleted and the group chain is
+     * left as is, in which case an exclusive lock on the group of this relationship type is sufficient.
+     */
+    static void assertRelationshipGroupLocked( ResourceLocker locks, long node, RelationshipGroupRecord record, boolean onlyThisGroupChanged )
+    {
+        if ( onlyThisGroupChanged && hasLock( locks, relationshipTypeGroupResourceId( node, record.getType() ), RELATIONSHIP_TYPE_GROUP, EXCLUSIVE ) )
+        {
+            return;
+        }
+        assertLocked( locks, node, RELATIONSHIP_GROUP, EXCLUSIVE, record );
+    }
+
     static void assertLocked( ResourceLocker locks, long id, ResourceType resource, LockType type, AbstractBaseRecord record )
     {
         checkState( hasLock( locks, id, resource, type ), "%s [%s,%s] modified without %s lock, record:%s.", locks, resource, id, type, record );
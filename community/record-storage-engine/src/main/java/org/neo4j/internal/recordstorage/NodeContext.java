@@ -19,7 +19,9 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import org.eclipse.collections.api.list.primitive.MutableIntList;
 import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
 
 import org.neo4j.collection.trackable.HeapTrackingCollections;
 import org.neo4j.internal.recordstorage.RecordAccess.RecordProxy;
@@ -27,8 +29,11 @@ import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.ResourceTypes;
 import org.neo4j.memory.MemoryTracker;
 
+import static org.apache.commons.lang3.ArrayUtils.EMPTY_INT_ARRAY;
 import static org.neo4j.internal.recordstorage.RelationshipGroupGetter.RelationshipGroupMonitor.EMPTY;
 import static org.neo4j.kernel.impl.store.record.Record.NULL_REFERENCE;
 import static org.neo4j.kernel.impl.store.record.Record.isNull;
@@ -110,6 +115,26 @@ class NodeContext
         return hasExclusiveGroupLock;
     }
 
+    /**
+     * @return the relationship types, in ascending order, which this node currently has {@link ResourceTypes#RELATIONSHIP_TYPE_GROUP} locks for.
+     */
+    int[] typeGroupLocks()
+    {
+        if ( denseContexts == null )
+        {
+            return EMPTY_INT_ARRAY;
+        }
+        MutableIntList types = IntLists.mutable.empty();
+        denseContexts.forEachKeyValue( ( type, context ) ->
+        {
+            if ( context.typeGroupLock != null )
+            {
+                types.add( type );
+            }
+        } );
+        return types.sortThis().toArray();
+    }
+
     RecordProxy<NodeRecord,Void> node()
     {
         return node;
@@ -182,6 +207,11 @@ class NodeContext
         private final RecordProxy<RelationshipRecord,Void>[] insertionPoints = new RecordProxy[NUM_INSERTION_POINTS];
         private long groupId = NULL_REFERENCE.longValue();
         private RecordProxy<RelationshipGroupRecord,Integer> group;
+        /**
+         * The {@link ResourceTypes#RELATIONSHIP_TYPE_GROUP} lock currently held for the group of this type, or {@code null} if none is held.
+         */
+        private LockType typeGroupLock;
+        private boolean needsExclusiveTypeGroupLock;
 
         DenseContext( MemoryTracker memoryTracker )
         {
@@ -216,6 +246,26 @@ class NodeContext
             return group;
         }
 
+        LockType typeGroupLock()
+        {
+            return typeGroupLock;
+        }
+
+        void setTypeGroupLock( LockType typeGroupLock )
+        {
+            this.typeGroupLock = typeGroupLock;
+        }
+
+        boolean needsExclusiveTypeGroupLock()
+        {
+            return needsExclusiveTypeGroupLock;
+        }
+
+        void markNeedsExclusiveTypeGroupLock()
+        {
+            needsExclusiveTypeGroupLock = true;
+        }
+
         RecordProxy<RelationshipRecord,Void> insertionPoint( int directionIndex )
         {
             return insertionPoints[directionIndex];
@@ -23,6 +23,7 @@ import java.util.function.BooleanSupplier;
 
 import org.neo4j.common.TokenNameLookup;
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.PropertyStore;
@@ -139,7 +140,7 @@ class RecordStorageCommandCreationContext extends CommandCreationLocking impleme
         RecordChangeSet recordChangeSet = new RecordChangeSet( loaders, memoryTracker, monitor );
         RelationshipModifier relationshipModifier =
                 new RelationshipModifier( relationshipGroupGetter, propertyDeleter, denseNodeThreshold, relaxedLockingForDenseNodes.getAsBoolean(),
-                        cursorContext, memoryTracker );
+                        config.get( GraphDatabaseInternalSettings.relationship_type_group_locking ), cursorContext, memoryTracker );
         return new TransactionRecordState( neoStores, integrityValidator, recordChangeSet, lastTransactionIdWhenStarted, locks, lockTracer,
                 relationshipModifier, propertyCreator, propertyDeleter, cursorContext, memoryTracker, commandSerialization );
     }
@@ -28,11 +28,13 @@ import java.util.function.BooleanSupplier;
 
 import org.neo4j.collection.trackable.HeapTrackingCollections;
 import org.neo4j.collection.trackable.HeapTrackingLongObjectHashMap;
+import org.neo4j.hashing.HashFunction;
 import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.lock.LockTracer;
 import org.neo4j.lock.ResourceLocker;
+import org.neo4j.lock.ResourceTypes;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.txstate.RelationshipModifications;
 import org.neo4j.util.VisibleForTesting;
@@ -53,10 +55,22 @@ import static org.neo4j.memory.HeapEstimator.sizeOfLongArray;
  */
 final class RelationshipLockHelper
 {
+    private static final HashFunction TYPE_GROUP_HASH = HashFunction.incrementalXXH64();
+    private static final long TYPE_GROUP_HASH_INIT = TYPE_GROUP_HASH.initialise( 0x0123456789abcdefL );
+
     private RelationshipLockHelper()
     {
     }
 
+    /**
+     * Produces the resource id of the {@link ResourceTypes#RELATIONSHIP_TYPE_GROUP} lock for the relationship group of {@code type} on {@code nodeId}.
+     * Collisions only mean that two groups share a lock, which affects concurrency but not correctness.
+     */
+    static long relationshipTypeGroupResourceId( long nodeId, int type )
+    {
+        return TYPE_GROUP_HASH.finalise( TYPE_GROUP_HASH.update( TYPE_GROUP_HASH.update( TYPE_GROUP_HASH_INIT, nodeId ), type ) );
+    }
+
     /**
      * Lock all the {@code idsToLock} exclusively, including neighbours, in order.
      *
@@ -33,6 +33,7 @@ import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
 import org.neo4j.lock.ResourceLocker;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.txstate.RelationshipModifications;
@@ -45,13 +46,17 @@ import static org.neo4j.internal.recordstorage.RelationshipCreator.NodeDataLooku
 import static org.neo4j.internal.recordstorage.RelationshipCreator.relCount;
 import static org.neo4j.internal.recordstorage.RelationshipLockHelper.findAndLockInsertionPoint;
 import static org.neo4j.internal.recordstorage.RelationshipLockHelper.lockRelationshipsInOrder;
+import static org.neo4j.internal.recordstorage.RelationshipLockHelper.relationshipTypeGroupResourceId;
 import static org.neo4j.kernel.impl.store.record.Record.NULL_REFERENCE;
 import static org.neo4j.kernel.impl.store.record.Record.isNull;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.ALWAYS;
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
 import static org.neo4j.lock.ResourceTypes.NODE;
 import static org.neo4j.lock.ResourceTypes.NODE_RELATIONSHIP_GROUP_DELETE;
 import static org.neo4j.lock.ResourceTypes.RELATIONSHIP;
 import static org.neo4j.lock.ResourceTypes.RELATIONSHIP_GROUP;
+import static org.neo4j.lock.ResourceTypes.RELATIONSHIP_TYPE_GROUP;
 
 /**
  * Manages locking and creation/delete of relationships. Will call on {@link RelationshipCreator} and {@link RelationshipDeleter} for actual
@@ -67,12 +72,25 @@ public class RelationshipModifier
     private final MemoryTracker memoryTracker;
     private final RelationshipCreator creator;
     private final RelationshipDeleter deleter;
+    private final boolean relationshipTypeGroupLocking;
 
     public RelationshipModifier( RelationshipGroupGetter relGroupGetter, PropertyDeleter propertyChainDeleter, int denseNodeThreshold,
             boolean relaxedLockingForDenseNodes, CursorContext cursorContext, MemoryTracker memoryTracker )
+    {
+        this( relGroupGetter, propertyChainDeleter, denseNodeThreshold, relaxedLockingForDenseNodes, false, cursorContext, memoryTracker );
+    }
+
+    /**
+     * @param relationshipTypeGroupLocking whether or not changes to existing relationship groups of dense nodes should be guarded by
+     * {@link org.neo4j.lock.ResourceTypes#RELATIONSHIP_TYPE_GROUP} locks on the affected groups only, instead of an exclusive
+     * {@link org.neo4j.lock.ResourceTypes#RELATIONSHIP_GROUP} lock on all groups of the node.
+     */
+    public RelationshipModifier( RelationshipGroupGetter relGroupGetter, PropertyDeleter propertyChainDeleter, int denseNodeThreshold,
+            boolean relaxedLockingForDenseNodes, boolean relationshipTypeGroupLocking, CursorContext cursorContext, MemoryTracker memoryTracker )
     {
         this.relGroupGetter = relGroupGetter;
         this.denseNodeThreshold = denseNodeThreshold;
+        this.relationshipTypeGroupLocking = relationshipTypeGroupLocking;
         this.cursorContext = cursorContext;
         this.memoryTracker = memoryTracker;
         long externalDegreesThreshold = relaxedLockingForDenseNodes ? DEFAULT_EXTERNAL_DEGREES_THRESHOLD_SWITCH : Long.MAX_VALUE;
@@ -148,6 +166,11 @@ public class RelationshipModifier
                 // Creations
                 NodeContext nodeContext = NodeContext.createNodeContext( nodeProxy, memoryTracker );
                 contexts.put( nodeId, nodeContext );
+                if ( relationshipTypeGroupLocking )
+                {
+                    // Also stabilize the groups of the types we're about to change. Other types are left for other transactions to change concurrently
+                    acquireSharedTypeGroupLocks( byNode, nodeContext, locks, lockTracer );
+                }
                 if ( byNode.hasCreations() )
                 {
                     //We have some creations on a dense node. If the group exists we can use that, otherwise we create it
@@ -162,6 +185,7 @@ public class RelationshipModifier
                             if ( !nodeContext.hasExclusiveGroupLock() )
                             {
                                 //And we did not already have the lock, so we need to upgrade to exclusive create it
+                                releaseTypeGroupLocks( nodeId, nodeContext, locks );
                                 locks.releaseShared( RELATIONSHIP_GROUP, nodeId );
                                 //Note the small window here where we dont hold any group lock, things might change so we can not trust previous group reads
                                 locks.acquireExclusive( lockTracer, NODE, nodeId );
@@ -204,11 +228,7 @@ public class RelationshipModifier
                                     || byType.hasLoop() && (!group.hasExternalDegreesLoop() || isNull( group.getFirstLoop() ) ) )
                             {
                                 //Then we need the exclusive lock to change it
-                                locks.releaseShared( RELATIONSHIP_GROUP, nodeId );
-                                //Note the small window here where we dont hold any group lock, things might change so we can not trust previous group reads
-                                locks.acquireExclusive( lockTracer, RELATIONSHIP_GROUP, nodeId );
-                                nodeContext.markExclusiveGroupLock();
-                                return true; //And we can abort the iteration as the group lock is protecting all relationship group records of the node
+                                return lockGroupForChange( nodeId, byType.type(), nodeContext, locks, lockTracer );
                             }
                             return false;
                         } );
@@ -231,11 +251,7 @@ public class RelationshipModifier
                                     || byType.hasLoop() && !group.hasExternalDegreesLoop() )
                             {
                                 //We have deletions but without external degrees, we might need to flip that so we lock it
-                                locks.releaseShared( RELATIONSHIP_GROUP, nodeId );
-                                //Note the small window here where we dont hold any group lock, things might change so we can not trust previous group reads
-                                locks.acquireExclusive( lockTracer, RELATIONSHIP_GROUP, nodeId );
-                                nodeContext.markExclusiveGroupLock();
-                                return true;
+                                return lockGroupForChange( nodeId, byType.type(), nodeContext, locks, lockTracer );
                             }
                             else
                             {
@@ -246,11 +262,7 @@ public class RelationshipModifier
                                 if ( hasAnyFirst )
                                 {
                                     // But we're deleting the first in the chain so the group needs to be updated
-                                    locks.releaseShared( RELATIONSHIP_GROUP, nodeId );
-                                    //Note the small window here where we dont hold any group lock, things might change so we can not trust previous group reads
-                                    locks.acquireExclusive( lockTracer, RELATIONSHIP_GROUP, nodeId );
-                                    nodeContext.markExclusiveGroupLock();
-                                    return true;
+                                    return lockGroupForChange( nodeId, byType.type(), nodeContext, locks, lockTracer );
                                 }
                             }
                             return false;
@@ -258,6 +270,11 @@ public class RelationshipModifier
                     }
                 }
 
+                if ( relationshipTypeGroupLocking && !nodeContext.hasExclusiveGroupLock() )
+                {
+                    upgradeTypeGroupLocks( nodeId, nodeContext, locks, lockTracer );
+                }
+
                 // Look for an opportunity to delete empty groups that we noticed while looking for groups above
                 if ( nodeContext.hasExclusiveGroupLock() && nodeContext.hasAnyEmptyGroup() )
                 {
@@ -284,6 +301,135 @@ public class RelationshipModifier
         } );
     }
 
+    /**
+     * Called when the relationship group of {@code type} is going to be changed. Without relationship type group locking this upgrades to an exclusive
+     * lock on all the groups of the node, otherwise the group is only marked for an exclusive lock, which is taken in {@link #upgradeTypeGroupLocks}
+     * when all the groups that are going to be changed are known.
+     *
+     * @return {@code true} if the node now has the exclusive group lock, i.e. there's no need to look at any other group.
+     */
+    private boolean lockGroupForChange( long nodeId, int type, NodeContext nodeContext, ResourceLocker locks, LockTracer lockTracer )
+    {
+        if ( relationshipTypeGroupLocking )
+        {
+            nodeContext.denseContext( type ).markNeedsExclusiveTypeGroupLock();
+            return false;
+        }
+        locks.releaseShared( RELATIONSHIP_GROUP, nodeId );
+        //Note the small window here where we dont hold any group lock, things might change so we can not trust previous group reads
+        locks.acquireExclusive( lockTracer, RELATIONSHIP_GROUP, nodeId );
+        nodeContext.markExclusiveGroupLock();
+        return true; //And we can abort the iteration as the group lock is protecting all relationship group records of the node
+    }
+
+    private void acquireSharedTypeGroupLocks( RelationshipModifications.NodeRelationshipIds byNode, NodeContext nodeContext, ResourceLocker locks,
+            LockTracer lockTracer )
+    {
+        byNode.forEachCreationSplit( byType -> nodeContext.denseContext( byType.type() ).setTypeGroupLock( SHARED ) );
+        byNode.forEachDeletionSplit( byType -> nodeContext.denseContext( byType.type() ).setTypeGroupLock( SHARED ) );
+        //Creations and deletions are sorted by type individually, but not together, so take the locks in type order here
+        for ( int type : nodeContext.typeGroupLocks() )
+        {
+            locks.acquireShared( lockTracer, RELATIONSHIP_TYPE_GROUP, relationshipTypeGroupResourceId( byNode.nodeId(), type ) );
+        }
+    }
+
+    /**
+     * Upgrades the relationship type group locks of the groups that are going to be changed to exclusive. To keep the locks in type order,
+     * all type group locks from the lowest upgraded type and up are released and then acquired again in order.
+     */
+    private void upgradeTypeGroupLocks( long nodeId, NodeContext nodeContext, ResourceLocker locks, LockTracer lockTracer )
+    {
+        int[] types = nodeContext.typeGroupLocks();
+        int firstUpgrade = 0;
+        while ( firstUpgrade < types.length && !nodeContext.denseContext( types[firstUpgrade] ).needsExclusiveTypeGroupLock() )
+        {
+            firstUpgrade++;
+        }
+        if ( firstUpgrade == types.length )
+        {
+            //None of the groups are going to change, the shared locks will do
+            return;
+        }
+
+        for ( int i = firstUpgrade; i < types.length; i++ )
+        {
+            locks.releaseShared( RELATIONSHIP_TYPE_GROUP, relationshipTypeGroupResourceId( nodeId, types[i] ) );
+        }
+        //Note the small window here where we dont hold these type group locks, things might change so we can not trust previous group reads.
+        //The groups themselves will remain since we still have the shared group lock, which prevents groups from being created or deleted.
+        for ( int i = firstUpgrade; i < types.length; i++ )
+        {
+            NodeContext.DenseContext context = nodeContext.denseContext( types[i] );
+            LockType lockType = context.needsExclusiveTypeGroupLock() ? EXCLUSIVE : SHARED;
+            long resourceId = relationshipTypeGroupResourceId( nodeId, types[i] );
+            if ( lockType == EXCLUSIVE )
+            {
+                locks.acquireExclusive( lockTracer, RELATIONSHIP_TYPE_GROUP, resourceId );
+            }
+            else
+            {
+                locks.acquireShared( lockTracer, RELATIONSHIP_TYPE_GROUP, resourceId );
+            }
+            context.setTypeGroupLock( lockType );
+        }
+        nodeContext.clearDenseContext();
+    }
+
+    /**
+     * Releases all relationship type group locks of the node, used when upgrading to an exclusive lock on all its groups.
+     */
+    private void releaseTypeGroupLocks( long nodeId, NodeContext nodeContext, ResourceLocker locks )
+    {
+        if ( !relationshipTypeGroupLocking )
+        {
+            return;
+        }
+        for ( int type : nodeContext.typeGroupLocks() )
+        {
+            NodeContext.DenseContext context = nodeContext.denseContext( type );
+            long resourceId = relationshipTypeGroupResourceId( nodeId, type );
+            if ( context.typeGroupLock() == EXCLUSIVE )
+            {
+                locks.releaseExclusive( RELATIONSHIP_TYPE_GROUP, resourceId );
+            }
+            else
+            {
+                locks.releaseShared( RELATIONSHIP_TYPE_GROUP, resourceId );
+            }
+            context.setTypeGroupLock( null );
+        }
+    }
+
+    /**
+     * Releases the shared relationship type group locks of the node, which are no longer needed when the relationship locks have been taken.
+     *
+     * @return {@code true} if there are exclusive relationship type group locks, i.e. groups that are going to be changed. The shared group lock
+     * must then be kept until commit so that no other transaction can create or delete groups next to the changed groups, changing them too.
+     */
+    private boolean releaseSharedTypeGroupLocks( long nodeId, NodeContext nodeContext, ResourceLocker locks )
+    {
+        if ( !relationshipTypeGroupLocking )
+        {
+            return false;
+        }
+        boolean hasExclusive = false;
+        for ( int type : nodeContext.typeGroupLocks() )
+        {
+            NodeContext.DenseContext context = nodeContext.denseContext( type );
+            if ( context.typeGroupLock() == EXCLUSIVE )
+            {
+                hasExclusive = true;
+            }
+            else
+            {
+                locks.releaseShared( RELATIONSHIP_TYPE_GROUP, relationshipTypeGroupResourceId( nodeId, type ) );
+                context.setTypeGroupLock( null );
+            }
+        }
+        return hasExclusive;
+    }
+
     /**
      * Traverses a relationship group chain and while doing that it will notice empty groups and mark that in the context.
      * This information can later be used to attempt to delete empty groups at a place where they will be locked.
@@ -390,7 +536,7 @@ public class RelationshipModifier
                     } );
                 }
 
-                if ( !nodeContext.hasExclusiveGroupLock() )
+                if ( !nodeContext.hasExclusiveGroupLock() && !releaseSharedTypeGroupLocks( nodeId, nodeContext, locks ) )
                 {
                     // we no longer need the read lock, as all we either locked the first in chains, or have exclusive lock
                     locks.releaseShared( RELATIONSHIP_GROUP, byNode.nodeId() );
@@ -426,7 +572,7 @@ public class RelationshipModifier
                 }
                 while ( !isNull( nextRel ) );
 
-                locks.acquireExclusive( lockTracer, RELATIONSHIP, ids.toSortedArray() );
+                locks.acquireExclusiveBatch( lockTracer, RELATIONSHIP, ids.toArray() );
                 return true;
             }
         }
@@ -84,15 +84,18 @@ import static org.neo4j.internal.recordstorage.FlatRelationshipModifications.sin
 import static org.neo4j.internal.recordstorage.FlatRelationshipModifications.singleDelete;
 import static org.neo4j.internal.recordstorage.RecordAccess.LoadMonitor.NULL_MONITOR;
 import static org.neo4j.internal.recordstorage.RelationshipChainVisitor.relationshipCollector;
+import static org.neo4j.internal.recordstorage.RelationshipLockHelper.relationshipTypeGroupResourceId;
 import static org.neo4j.kernel.impl.store.record.Record.NO_LABELS_FIELD;
 import static org.neo4j.kernel.impl.store.record.Record.isNull;
 import static org.neo4j.lock.LockTracer.NONE;
 import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
 import static org.neo4j.lock.ResourceLocker.IGNORE;
 import static org.neo4j.lock.ResourceTypes.NODE;
 import static org.neo4j.lock.ResourceTypes.RELATIONSHIP;
 import static org.neo4j.lock.ResourceTypes.RELATIONSHIP_DELETE;
 import static org.neo4j.lock.ResourceTypes.RELATIONSHIP_GROUP;
+import static org.neo4j.lock.ResourceTypes.RELATIONSHIP_TYPE_GROUP;
 import static org.neo4j.storageengine.api.RelationshipDirection.INCOMING;
 import static org.neo4j.storageengine.api.RelationshipDirection.LOOP;
 import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
@@ -122,12 +125,7 @@ class RelationshipModifierTest
     @BeforeEach
     void setUp()
     {
-        RelationshipGroupGetter relationshipGroupGetter = new RelationshipGroupGetter( idSequence(), CursorContext.NULL );
-        PropertyDeleter propertyDeleter =
-                new PropertyDeleter( new PropertyTraverser( CursorContext.NULL ), null, null, NullLogProvider.nullLogProvider(), Config.defaults(),
-                        CursorContext.NULL, EmptyMemoryTracker.INSTANCE );
-        modifier = new RelationshipModifier( relationshipGroupGetter, propertyDeleter, DENSE_THRESHOLD - 1/*because the trigger happens on > */,
-                true, CursorContext.NULL, EmptyMemoryTracker.INSTANCE );
+        modifier = newModifier( false );
         monitors = new Monitors( null, ( t, m ) ->
         {
             Exceptions.throwIfUnchecked( t );
@@ -334,10 +332,79 @@ class RelationshipModifierTest
         locks.assertHasLock( RELATIONSHIP_GROUP, EXCLUSIVE, node );
     }
 
+    @Test
+    void denseEmptyChainCreateWithTypeGroupLocking()
+    {
+        // given
+        modifier = newModifier( true );
+        long node = createEmptyNode();
+        createRelationships( generateRelationshipData( DENSE_THRESHOLD, node, type( 1 ), this::createEmptyNode, OUT ) );
+
+        // when
+        modify( singleCreate( relationship( nextRelationshipId(), 1, createEmptyNode(), node ) ) );
+
+        // then
+        locks.assertNoLock( NODE, EXCLUSIVE, node );
+        locks.assertNoLock( RELATIONSHIP_GROUP, EXCLUSIVE, node );
+        locks.assertHasLock( RELATIONSHIP_GROUP, SHARED, node );
+        locks.assertHasLock( RELATIONSHIP_TYPE_GROUP, EXCLUSIVE, relationshipTypeGroupResourceId( node, 1 ) );
+    }
+
+    @Test
+    void denseMultipleTypesOnlyLockChangedTypeGroupsWithTypeGroupLocking()
+    {
+        // given
+        modifier = newModifier( true );
+        long node = createEmptyNode();
+        List<RelationshipData> type0Relationships = generateRelationshipData( DENSE_THRESHOLD * 2, node, type( 0 ), this::createEmptyNode, OUT );
+        createRelationships( type0Relationships );
+        createRelationships( generateRelationshipData( DENSE_THRESHOLD * 2, node, type( 1 ), this::createEmptyNode, OUT ) );
+
+        // when
+        modify( modifications(
+                relationships( relationship( nextRelationshipId(), 1, node, createEmptyNode() ) ),
+                relationships( findRelationship( type0Relationships, node, true ) ) ) );
+
+        // then
+        locks.assertNoLock( NODE, EXCLUSIVE, node );
+        locks.assertNoLock( RELATIONSHIP_GROUP, EXCLUSIVE, node );
+        locks.assertHasLock( RELATIONSHIP_TYPE_GROUP, EXCLUSIVE, relationshipTypeGroupResourceId( node, 0 ) );
+        assertThat( locks.hasLock( RELATIONSHIP_TYPE_GROUP, relationshipTypeGroupResourceId( node, 1 ) ) ).isFalse();
+    }
+
+    @Test
+    void denseNoChainCreateWithTypeGroupLocking()
+    {
+        // given
+        modifier = newModifier( true );
+        long node = createEmptyNode();
+        createRelationships( generateRelationshipData( DENSE_THRESHOLD, node, type( 1 ), this::createEmptyNode, OUT ) );
+
+        // when
+        modify( singleCreate( relationship( nextRelationshipId(), 2, node, createEmptyNode() ) ) );
+
+        // then
+        locks.assertHasLock( NODE, EXCLUSIVE, node );
+        locks.assertHasLock( RELATIONSHIP_GROUP, EXCLUSIVE, node );
+        assertThat( locks.hasLock( RELATIONSHIP_TYPE_GROUP, relationshipTypeGroupResourceId( node, 2 ) ) ).isFalse();
+    }
+
     // ... other known cases ...
 
     @RepeatedTest( 20 )
     void shouldCreateAndDelete()
+    {
+        createAndDeleteWhileTheWorldChanges();
+    }
+
+    @RepeatedTest( 20 )
+    void shouldCreateAndDeleteWithTypeGroupLocking()
+    {
+        modifier = newModifier( true );
+        createAndDeleteWhileTheWorldChanges();
+    }
+
+    private void createAndDeleteWhileTheWorldChanges()
     {
         // given and initial state
         long node = createEmptyNode();
@@ -394,6 +461,16 @@ class RelationshipModifierTest
         assertThat( store.loadNode( node ).isDense() ).isTrue();
     }
 
+    private RelationshipModifier newModifier( boolean relationshipTypeGroupLocking )
+    {
+        RelationshipGroupGetter relationshipGroupGetter = new RelationshipGroupGetter( idSequence(), CursorContext.NULL );
+        PropertyDeleter propertyDeleter =
+                new PropertyDeleter( new PropertyTraverser( CursorContext.NULL ), null, null, NullLogProvider.nullLogProvider(), Config.defaults(),
+                        CursorContext.NULL, EmptyMemoryTracker.INSTANCE );
+        return new RelationshipModifier( relationshipGroupGetter, propertyDeleter, DENSE_THRESHOLD - 1/*because the trigger happens on > */,
+                true, relationshipTypeGroupLocking, CursorContext.NULL, EmptyMemoryTracker.INSTANCE );
+    }
+
     private static Set<RelationshipData> readRelationshipsFromStore( long node, MapRecordStore store )
     {
         Set<RelationshipData> relationships = new HashSet<>();
@@ -630,7 +707,7 @@ class RelationshipModifierTest
 
     private class ResourceTypeLockOrderVerifier implements TrackingResourceLocker.LockAcquisitionMonitor
     {
-        private final ResourceType[] expectedLockOrderByType = {NODE, RELATIONSHIP_GROUP, RELATIONSHIP};
+        private final ResourceType[] expectedLockOrderByType = {NODE, RELATIONSHIP_GROUP, RELATIONSHIP_TYPE_GROUP, RELATIONSHIP};
         private final MutableLongObjectMap<MutableInt> lockIndexPerNode = LongObjectMaps.mutable.empty();
         private boolean anyRelationshipLockAcquired;
 
@@ -650,7 +727,7 @@ class RelationshipModifierTest
             {
                 if ( resourceType != RELATIONSHIP )
                 {
-                    // NODE/RELATIONSHIP_GROUP locks all need to be acquired before any RELATIONSHIP locks
+                    // NODE/RELATIONSHIP_GROUP/RELATIONSHIP_TYPE_GROUP locks all need to be acquired before any RELATIONSHIP locks
                     assertThat( anyRelationshipLockAcquired ).isFalse();
                 }
             }
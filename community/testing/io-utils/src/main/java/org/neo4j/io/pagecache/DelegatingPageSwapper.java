@@ -108,6 +108,24 @@ public class DelegatingPageSwapper implements PageSwapper
         delegate.allocate( newFileSize );
     }
 
+    @Override
+    public boolean canBatch()
+    {
+        return delegate.canBatch();
+    }
+
+    @Override
+    public long readBatch( long[] filePageIds, long[] bufferAddresses, int length ) throws IOException
+    {
+        return delegate.readBatch( filePageIds, bufferAddresses, length );
+    }
+
+    @Override
+    public long writeBatch( long[] startFilePageIds, int[] runEnds, long[] bufferAddresses, int[] bufferLengths, int runs ) throws IOException
+    {
+        return delegate.writeBatch( startFilePageIds, runEnds, bufferAddresses, bufferLengths, runs );
+    }
+
     @Override
     public int swapperId()
     {
@@ -29,7 +29,7 @@ public class NativeMemoryAllocationRefusedError extends Error
     private final long attemptedAllocationSizeBytes;
     private final long alreadyAllocatedBytes;
 
-    NativeMemoryAllocationRefusedError( long size, long alreadyAllocatedBytes )
+    public NativeMemoryAllocationRefusedError( long size, long alreadyAllocatedBytes )
     {
         this.attemptedAllocationSizeBytes = size;
         this.alreadyAllocatedBytes = alreadyAllocatedBytes;
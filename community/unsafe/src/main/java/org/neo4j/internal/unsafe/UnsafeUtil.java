@@ -368,6 +368,24 @@ public final class UnsafeUtil
         memoryTracker.releaseNative( bytes );
     }
 
+    /**
+     * Record a block of memory that was not allocated with {@link #allocateMemory}, but for instance mapped directly from the operating system,
+     * such that accesses to it pass the native access checks. The memory must be forgotten with {@link #forgetExternalMemory(long)} before it is
+     * released.
+     */
+    public static void registerExternalMemory( long pointer, long bytes )
+    {
+        addAllocatedPointer( pointer, bytes );
+    }
+
+    /**
+     * Forget a block of memory that was recorded with {@link #registerExternalMemory(long, long)}.
+     */
+    public static void forgetExternalMemory( long pointer )
+    {
+        checkFree( pointer );
+    }
+
     private static void addAllocatedPointer( long pointer, long sizeInBytes )
     {
         if ( CHECK_NATIVE_ACCESS )
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compression of {@link LogEntryTypeCodes#COMMAND} entries into {@link LogEntryTypeCodes#COMPRESSED_COMMANDS} frames. A frame looks like:
+ * <pre>
+ *     [VERSION][TYPE][UNCOMPRESSED_LENGTH][COMPRESSED_LENGTH][COMPRESSED_DATA]
+ *     UNCOMPRESSED_LENGTH: 4B length of the command entries when decompressed
+ *     COMPRESSED_LENGTH: 4B length of the zstd compressed data that follows
+ * </pre>
+ * where the decompressed data is a sequence of complete COMMAND entries, exactly as they would have been written to the log without compression.
+ * Frames are part of the checksummed bytes of their transaction just like the entries they replace.
+ */
+public final class CommandCompression
+{
+    /**
+     * Size of the length fields that follow the version and type of a frame.
+     */
+    public static final int FRAME_HEADER_SIZE = Integer.BYTES * 2;
+
+    private CommandCompression()
+    {
+        throw new AssertionError( "No instances" );
+    }
+
+    /**
+     * Compresses the first {@code length} bytes of the given command entries.
+     *
+     * @param commandEntries serialized command entries.
+     * @param length number of bytes of {@code commandEntries} to compress.
+     * @param level zstd compression level.
+     * @return the compressed bytes, or {@code null} if compressing would not make the entries any smaller, in which case they should be written as is.
+     */
+    public static byte[] compress( byte[] commandEntries, int length, int level )
+    {
+        byte[] compressed = new byte[(int) Zstd.compressBound( length )];
+        long compressedLength = Zstd.compressByteArray( compressed, 0, compressed.length, commandEntries, 0, length, level );
+        if ( Zstd.isError( compressedLength ) || compressedLength + FRAME_HEADER_SIZE + 2 >= length )
+        {
+            return null;
+        }
+        return Arrays.copyOf( compressed, (int) compressedLength );
+    }
+
+    static byte[] decompress( byte[] compressed, int uncompressedLength ) throws IOException
+    {
+        byte[] commandEntries = new byte[uncompressedLength];
+        long decompressedLength = Zstd.decompressByteArray( commandEntries, 0, uncompressedLength, compressed, 0, compressed.length );
+        if ( Zstd.isError( decompressedLength ) )
+        {
+            throw new IOException( "Failed to decompress command entries: " + Zstd.getErrorName( decompressedLength ) );
+        }
+        if ( decompressedLength != uncompressedLength )
+        {
+            throw new IOException( "Expected " + uncompressedLength + " bytes of decompressed command entries, but got " + decompressedLength );
+        }
+        return commandEntries;
+    }
+}
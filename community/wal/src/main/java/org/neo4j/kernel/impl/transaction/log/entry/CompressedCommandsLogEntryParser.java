@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.fs.ReadableChecksumChannel;
+import org.neo4j.kernel.KernelVersion;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+
+/**
+ * Parses a {@link LogEntryTypeCodes#COMPRESSED_COMMANDS} frame, see {@link CommandCompression}, by decompressing it and then
+ * parsing the contained command entries with the regular command parser of the same parser set.
+ */
+class CompressedCommandsLogEntryParser extends LogEntryParser
+{
+    private final LogEntryParser commandParser;
+
+    CompressedCommandsLogEntryParser( LogEntryParser commandParser )
+    {
+        super( LogEntryTypeCodes.COMPRESSED_COMMANDS );
+        this.commandParser = commandParser;
+    }
+
+    @Override
+    LogEntry parse( KernelVersion version, ReadableChecksumChannel channel, LogPositionMarker marker, CommandReaderFactory commandReaderFactory )
+            throws IOException
+    {
+        int uncompressedLength = channel.getInt();
+        int compressedLength = channel.getInt();
+        if ( uncompressedLength < 0 || compressedLength < 0 )
+        {
+            throw new IOException( "Invalid compressed commands frame lengths, uncompressed:" + uncompressedLength + " compressed:" + compressedLength );
+        }
+        byte[] compressed = new byte[compressedLength];
+        channel.get( compressed, compressedLength );
+
+        DecompressedChannel commandEntries = new DecompressedChannel( CommandCompression.decompress( compressed, uncompressedLength ) );
+        List<LogEntryCommand> commands = new ArrayList<>();
+        try
+        {
+            while ( commandEntries.hasRemaining() )
+            {
+                byte entryVersion = commandEntries.get();
+                byte entryType = commandEntries.get();
+                if ( entryVersion != version.version() || entryType != LogEntryTypeCodes.COMMAND )
+                {
+                    throw new IOException( "Unexpected entry with version " + entryVersion + " and type " + entryType + " in compressed commands frame" );
+                }
+                LogEntryCommand command = (LogEntryCommand) commandParser.parse( version, commandEntries, marker, commandReaderFactory );
+                if ( command == null )
+                {
+                    throw new IOException( "Incomplete command in compressed commands frame" );
+                }
+                commands.add( command );
+            }
+        }
+        catch ( BufferUnderflowException e )
+        {
+            // Not to be confused with reaching the end of the log, the frame itself is broken
+            throw new IOException( "Compressed commands frame ended in the middle of a command", e );
+        }
+        return new LogEntryCompressedCommands( version, commands );
+    }
+
+    /**
+     * Channel over the decompressed command entries of a frame. Checksums are verified over the compressed bytes of the frame,
+     * as part of the transaction that they belong to, so there is nothing to verify here.
+     */
+    private static class DecompressedChannel implements ReadableChecksumChannel
+    {
+        private final ByteBuffer buffer;
+
+        DecompressedChannel( byte[] bytes )
+        {
+            this.buffer = ByteBuffer.wrap( bytes );
+        }
+
+        boolean hasRemaining()
+        {
+            return buffer.hasRemaining();
+        }
+
+        @Override
+        public byte get()
+        {
+            return buffer.get();
+        }
+
+        @Override
+        public short getShort()
+        {
+            return buffer.getShort();
+        }
+
+        @Override
+        public int getInt()
+        {
+            return buffer.getInt();
+        }
+
+        @Override
+        public long getLong()
+        {
+            return buffer.getLong();
+        }
+
+        @Override
+        public float getFloat()
+        {
+            return buffer.getFloat();
+        }
+
+        @Override
+        public double getDouble()
+        {
+            return buffer.getDouble();
+        }
+
+        @Override
+        public void get( byte[] bytes, int length )
+        {
+            buffer.get( bytes, 0, length );
+        }
+
+        @Override
+        public void beginChecksum()
+        {
+        }
+
+        @Override
+        public int endChecksumAndValidate()
+        {
+            throw new UnsupportedOperationException( "Compressed commands frames are checksummed as part of their transaction" );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
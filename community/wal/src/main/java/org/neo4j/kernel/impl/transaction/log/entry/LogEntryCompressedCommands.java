@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.util.List;
+
+import org.neo4j.kernel.KernelVersion;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMPRESSED_COMMANDS;
+
+/**
+ * The command entries of a {@link LogEntryTypeCodes#COMPRESSED_COMMANDS} frame. These are never handed out by {@link VersionAwareLogEntryReader},
+ * which returns the contained {@link LogEntryCommand commands} one by one instead, as if they had been written uncompressed.
+ */
+class LogEntryCompressedCommands extends AbstractLogEntry
+{
+    private final List<LogEntryCommand> commands;
+
+    LogEntryCompressedCommands( KernelVersion version, List<LogEntryCommand> commands )
+    {
+        super( version, COMPRESSED_COMMANDS );
+        this.commands = commands;
+    }
+
+    List<LogEntryCommand> getCommands()
+    {
+        return commands;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompressedCommands[" + commands.size() + " commands]";
+    }
+}
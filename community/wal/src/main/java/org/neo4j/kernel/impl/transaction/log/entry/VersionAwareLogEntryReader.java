@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.log.entry;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 
 import org.neo4j.io.fs.PositionableChannel;
 import org.neo4j.io.fs.ReadPastEndException;
@@ -36,6 +37,7 @@ import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 
 /**
  * Reads {@link LogEntry log entries} off of a channel. Supported versions can be read intermixed.
+ * Commands written in compressed frames are handed out one by one, just like commands written uncompressed.
  */
 public class VersionAwareLogEntryReader implements LogEntryReader
 {
@@ -43,6 +45,10 @@ public class VersionAwareLogEntryReader implements LogEntryReader
     private final CommandReaderFactory commandReaderFactory;
     private final LogPositionMarker positionMarker;
     private final boolean verifyChecksumChain;
+    private final ArrayDeque<LogEntryCommand> pendingCommands = new ArrayDeque<>();
+    private final LogPositionMarker pendingCommandsEnd = new LogPositionMarker();
+    private final LogPositionMarker channelPosition = new LogPositionMarker();
+    private ReadableClosablePositionAwareChecksumChannel pendingCommandsChannel;
     private LogEntryParserSet parserSet;
     private int lastTxChecksum = BASE_TX_CHECKSUM;
 
@@ -61,6 +67,15 @@ public class VersionAwareLogEntryReader implements LogEntryReader
     @Override
     public LogEntry readLogEntry( ReadableClosablePositionAwareChecksumChannel channel ) throws IOException
     {
+        if ( !pendingCommands.isEmpty() )
+        {
+            if ( continuesAfterCompressedCommands( channel ) )
+            {
+                return pendingCommands.poll();
+            }
+            // The channel has been moved since the compressed commands were read, so they are no longer next in line
+            pendingCommands.clear();
+        }
         try
         {
             while ( true )
@@ -128,6 +143,18 @@ public class VersionAwareLogEntryReader implements LogEntryReader
                     throw new IOException( e );
                 }
 
+                if ( entry instanceof LogEntryCompressedCommands )
+                {
+                    pendingCommands.addAll( ((LogEntryCompressedCommands) entry).getCommands() );
+                    if ( pendingCommands.isEmpty() )
+                    {
+                        continue;
+                    }
+                    pendingCommandsChannel = channel;
+                    channel.getCurrentPosition( pendingCommandsEnd );
+                    return pendingCommands.poll();
+                }
+
                 verifyChecksumChain( entry );
                 return entry;
             }
@@ -138,6 +165,17 @@ public class VersionAwareLogEntryReader implements LogEntryReader
         }
     }
 
+    private boolean continuesAfterCompressedCommands( ReadableClosablePositionAwareChecksumChannel channel ) throws IOException
+    {
+        if ( channel != pendingCommandsChannel )
+        {
+            return false;
+        }
+        channel.getCurrentPosition( channelPosition );
+        return channelPosition.getLogVersion() == pendingCommandsEnd.getLogVersion() &&
+               channelPosition.getByteOffset() == pendingCommandsEnd.getByteOffset();
+    }
+
     private void verifyChecksumChain( LogEntry e )
     {
         if ( VERIFY_CHECKSUM_CHAIN && verifyChecksumChain )
@@ -39,6 +39,7 @@ public class TransactionLogFilesHelper
     static final DirectoryStream.Filter<Path> DEFAULT_FILENAME_FILTER = new LogicalLogFilenameFilter( quote( DEFAULT_NAME ), quote( CHECKPOINT_FILE_PREFIX ) );
     public static final Predicate<String> DEFAULT_FILENAME_PREDICATE = file -> file.startsWith( DEFAULT_NAME ) || file.startsWith( CHECKPOINT_FILE_PREFIX );
 
+    private static final String RECYCLED_PREFIX = "recycled.";
     private static final String VERSION_SUFFIX = ".";
     private static final String REGEX_VERSION_SUFFIX = "\\.";
     private static final Path[] EMPTY_FILES_ARRAY = {};
@@ -46,6 +47,7 @@ public class TransactionLogFilesHelper
     private final Path logBaseName;
     private final FileSystemAbstraction fileSystem;
     private final DirectoryStream.Filter<Path> filenameFilter;
+    private final DirectoryStream.Filter<Path> recycledFilenameFilter;
 
     public TransactionLogFilesHelper( FileSystemAbstraction fileSystem, Path directory )
     {
@@ -57,6 +59,7 @@ public class TransactionLogFilesHelper
         this.fileSystem = fileSystem;
         this.logBaseName = directory.resolve( name );
         this.filenameFilter = new LogicalLogFilenameFilter( quote( name ) );
+        this.recycledFilenameFilter = new LogicalLogFilenameFilter( quote( RECYCLED_PREFIX + name ) );
     }
 
     public Path getLogFileForVersion( long version )
@@ -64,6 +67,22 @@ public class TransactionLogFilesHelper
         return Path.of( logBaseName.toAbsolutePath() + VERSION_SUFFIX + version );
     }
 
+    /**
+     * Log files kept for reuse are named so that they are never mistaken for log files, see {@link #getMatchedFiles()}.
+     *
+     * @param sequence a number telling the recycled log files apart.
+     * @return the file to keep a recycled log file in.
+     */
+    public Path getRecycledLogFile( long sequence )
+    {
+        return logBaseName.resolveSibling( RECYCLED_PREFIX + logBaseName.getFileName() + VERSION_SUFFIX + sequence );
+    }
+
+    public Path[] getRecycledLogFiles() throws IOException
+    {
+        return fileSystem.listFiles( logBaseName.getParent(), recycledFilenameFilter );
+    }
+
     public static long getLogVersion( Path historyLogFile )
     {
         String historyLogFilename = historyLogFile.getFileName().toString();